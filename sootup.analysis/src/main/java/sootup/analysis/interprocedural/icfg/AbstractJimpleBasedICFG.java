@@ -28,7 +28,9 @@ import heros.DontSynchronize;
 import heros.SynchronizedBy;
 import heros.solver.IDESolver;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.basic.Value;
 import sootup.core.jimple.common.stmt.Stmt;
@@ -40,10 +42,23 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   protected final boolean enableExceptions;
 
+  /**
+   * if true, the owner of a statement is registered when the StmtGraph of its body is created
+   * instead of upfront for all reachable bodies, see {@link #resolveOwner(Stmt)}
+   */
+  protected final boolean lazyStmtToOwner;
+
   protected View view;
 
-  @DontSynchronize("written by single thread; read afterwards")
-  private final Map<Stmt, Body> stmtToOwner = createStmtToOwnerMap();
+  @DontSynchronize("written by single thread; read afterwards, unless lazyStmtToOwner is set")
+  private final Map<Stmt, Body> stmtToOwner;
+
+  /**
+   * the bodies whose statements are registered in stmtToOwner if lazyStmtToOwner is set. Like the
+   * bodies in stmtToOwner, they stay reachable, so a {@link sootup.core.cache.BodyCache} returns
+   * them again instead of resolving bodies with other statements.
+   */
+  private final Set<Body> ownedBodies = ConcurrentHashMap.newKeySet();
 
   @SynchronizedBy("by use of synchronized LoadingCache class")
   protected LoadingCache<Body, StmtGraph<?>> bodyToStmtGraph =
@@ -51,7 +66,33 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
           new CacheLoader<Body, StmtGraph<?>>() {
             @Override
             public StmtGraph<?> load(@Nonnull Body body) {
-              return makeGraph(body);
+              StmtGraph<?> stmtGraph = makeGraph(body);
+              if (lazyStmtToOwner) {
+                registerStmtOwner(body, stmtGraph);
+              }
+              return stmtGraph;
+            }
+          });
+
+  /** the tails of each StmtGraph, so that isExitStmt does not search them on every query */
+  @SynchronizedBy("by use of synchronized LoadingCache class")
+  protected LoadingCache<Body, Set<Stmt>> bodyToTails =
+      IDESolver.DEFAULT_CACHE_BUILDER.build(
+          new CacheLoader<Body, Set<Stmt>>() {
+            @Override
+            public Set<Stmt> load(@Nonnull Body body) {
+              return toUnmodifiableSet(getOrCreateStmtGraph(body).getTails());
+            }
+          });
+
+  /** the entrypoints of each StmtGraph, so that isStartPoint does not collect them every time */
+  @SynchronizedBy("by use of synchronized LoadingCache class")
+  protected LoadingCache<Body, Set<Stmt>> bodyToEntrypoints =
+      IDESolver.DEFAULT_CACHE_BUILDER.build(
+          new CacheLoader<Body, Set<Stmt>>() {
+            @Override
+            public Set<Stmt> load(@Nonnull Body body) {
+              return toUnmodifiableSet(getOrCreateStmtGraph(body).getEntrypoints());
             }
           });
 
@@ -84,12 +125,71 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
   }
 
   protected AbstractJimpleBasedICFG(boolean enableExceptions) {
+    this(enableExceptions, false);
+  }
+
+  protected AbstractJimpleBasedICFG(boolean enableExceptions, boolean lazyStmtToOwner) {
     this.enableExceptions = enableExceptions;
+    this.lazyStmtToOwner = lazyStmtToOwner;
+    // statements are registered concurrently by the solver threads in the lazy mode
+    this.stmtToOwner = lazyStmtToOwner ? new ConcurrentHashMap<>() : createStmtToOwnerMap();
   }
 
   public Body getBodyOf(Stmt stmt) {
-    assert stmtToOwner.containsKey(stmt) : "Statement " + stmt + " not in Stmt-to-owner mapping";
-    return stmtToOwner.get(stmt);
+    Body body = stmtToOwner.get(stmt);
+    if (body == null && lazyStmtToOwner) {
+      body = resolveOwner(stmt);
+      if (body == null) {
+        throw new IllegalStateException(
+            "Statement "
+                + stmt
+                + " is not contained in a body known to the ICFG; register its method via"
+                + " initializeStmtToOwner(SootMethod)");
+      }
+    }
+    assert body != null : "Statement " + stmt + " not in Stmt-to-owner mapping";
+    return body;
+  }
+
+  /**
+   * Searches the owner of a statement whose body has not been registered yet. Only called if the
+   * owners are registered lazily. Implementations should register the bodies they search, as e.g.
+   * {@link #isReachable(Stmt)} asks for statements of bodies that are never handed out. The
+   * default implementation knows no further bodies.
+   *
+   * @return the body that contains the statement or null if there is none.
+   */
+  @Nullable
+  protected Body resolveOwner(@Nonnull Stmt stmt) {
+    return null;
+  }
+
+  /** Registers all reachable statements, which is needed by queries on the whole program. */
+  protected void resolveAllOwners() {}
+
+  /**
+   * Registers the given body as owner of all statements of its StmtGraph, unless that is done
+   * already.
+   */
+  protected void registerStmtOwner(@Nonnull Body body) {
+    registerStmtOwner(body, getOrCreateStmtGraph(body));
+  }
+
+  private void registerStmtOwner(@Nonnull Body body, @Nonnull StmtGraph<?> stmtGraph) {
+    if (ownedBodies.contains(body)) {
+      return;
+    }
+    // threads that register the same body concurrently agree on the owner; the body is marked as
+    // registered only after all its statements are visible
+    for (Stmt node : stmtGraph.getNodes()) {
+      stmtToOwner.putIfAbsent(node, body);
+    }
+    ownedBodies.add(body);
+  }
+
+  @Nonnull
+  private static Set<Stmt> toUnmodifiableSet(@Nonnull Collection<Stmt> stmts) {
+    return Collections.unmodifiableSet(new LinkedHashSet<>(stmts));
   }
 
   @Override
@@ -122,8 +222,12 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
   }
 
   protected Set<Stmt> getCallsFromWithinMethod(SootMethod method) {
+    final Body body = method.getBody();
+    if (lazyStmtToOwner) {
+      registerStmtOwner(body);
+    }
     Set<Stmt> res = null;
-    for (Stmt u : method.getBody().getStmts()) {
+    for (Stmt u : body.getStmts()) {
       if (isCallStmt(u)) {
         if (res == null) {
           res = new LinkedHashSet<>();
@@ -137,15 +241,13 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
   @Override
   public boolean isExitStmt(Stmt stmt) {
     Body body = getBodyOf(stmt);
-    StmtGraph<?> unitGraph = getOrCreateStmtGraph(body);
-    return unitGraph.getTails().contains(stmt);
+    return bodyToTails.getUnchecked(body).contains(stmt);
   }
 
   @Override
   public boolean isStartPoint(Stmt stmt) {
     Body body = getBodyOf(stmt);
-    StmtGraph<?> unitGraph = getOrCreateStmtGraph(body);
-    return unitGraph.getEntrypoints().contains(stmt);
+    return bodyToEntrypoints.getUnchecked(body).contains(stmt);
   }
 
   @Override
@@ -172,9 +274,7 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
   @Override
   public Collection<Stmt> getStartPointsOf(SootMethod m) {
     if (m.hasBody()) {
-      Body body = m.getBody();
-      StmtGraph<?> unitGraph = getOrCreateStmtGraph(body);
-      return unitGraph.getEntrypoints();
+      return bodyToEntrypoints.getUnchecked(m.getBody());
     }
     return Collections.emptySet();
   }
@@ -190,6 +290,9 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public Set<Stmt> allNonCallStartNodes() {
+    if (lazyStmtToOwner) {
+      resolveAllOwners();
+    }
     Set<Stmt> res = new LinkedHashSet<>(stmtToOwner.keySet());
     res.removeIf(u -> isStartPoint(u) || isCallStmt(u));
     return res;
@@ -197,6 +300,9 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public Set<Stmt> allNonCallEndNodes() {
+    if (lazyStmtToOwner) {
+      resolveAllOwners();
+    }
     Set<Stmt> res = new LinkedHashSet<>(stmtToOwner.keySet());
     res.removeIf(u -> isExitStmt(u) || isCallStmt(u));
     return res;
@@ -213,7 +319,9 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
   }
 
   public void initializeStmtToOwner(SootMethod m) {
-    if (m.hasBody()) {
+    if (m.hasBody() && lazyStmtToOwner) {
+      registerStmtOwner(m.getBody());
+    } else if (m.hasBody()) {
       Body b = m.getBody();
       for (Stmt node : b.getStmtGraph().getNodes()) {
         stmtToOwner.put(node, b);
@@ -235,9 +343,7 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
   @Override
   public Collection<Stmt> getEndPointsOf(SootMethod m) {
     if (m.hasBody()) {
-      Body body = m.getBody();
-      StmtGraph<?> unitGraph = getOrCreateStmtGraph(body);
-      return unitGraph.getTails();
+      return bodyToTails.getUnchecked(m.getBody());
     }
     return Collections.emptySet();
   }
@@ -259,6 +365,6 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public boolean isReachable(Stmt u) {
-    return stmtToOwner.containsKey(u);
+    return stmtToOwner.containsKey(u) || (lazyStmtToOwner && resolveOwner(u) != null);
   }
 }
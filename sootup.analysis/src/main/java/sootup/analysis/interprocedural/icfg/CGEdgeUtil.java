@@ -26,8 +26,9 @@ import java.util.HashSet;
 import java.util.Set;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import javax.annotation.Nonnull;
 import sootup.callgraph.CallGraph;
-import sootup.core.jimple.common.expr.*;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
@@ -35,20 +36,9 @@ import sootup.core.views.View;
 
 public class CGEdgeUtil {
 
-  public static CallGraphEdgeType findCallGraphEdgeType(AbstractInvokeExpr invokeExpr) {
-    if (invokeExpr instanceof JVirtualInvokeExpr) {
-      return CallGraphEdgeType.VIRTUAL;
-    } else if (invokeExpr instanceof JSpecialInvokeExpr) {
-      return CallGraphEdgeType.SPECIAL;
-    } else if (invokeExpr instanceof JInterfaceInvokeExpr) {
-      return CallGraphEdgeType.INTERFACE;
-    } else if (invokeExpr instanceof JStaticInvokeExpr) {
-      return CallGraphEdgeType.STATIC;
-    } else if (invokeExpr instanceof JDynamicInvokeExpr) {
-      return CallGraphEdgeType.DYNAMIC;
-    } else {
-      throw new RuntimeException("No such invokeExpr:" + invokeExpr);
-    }
+  public static sootup.callgraph.CallGraphEdgeType findCallGraphEdgeType(
+      AbstractInvokeExpr invokeExpr) {
+    return sootup.callgraph.CallGraphEdgeType.of(invokeExpr);
   }
 
   public static Set<Pair<MethodSignature, CalleeMethodSignature>> getCallEdges(
@@ -73,140 +63,103 @@ public class CGEdgeUtil {
     return callEdges;
   }
 
-  // TODO: replace this after SPARK is merged
+  /**
+   * The former edge types of the call graph, which have moved to the call graph module.
+   *
+   * @deprecated use {@link sootup.callgraph.CallGraphEdgeType}, which has the same constants.
+   */
+  @Deprecated
   public enum CallGraphEdgeType {
-    INVALID("INVALID"),
-    /** Due to explicit invokestatic instruction. */
-    STATIC("STATIC"),
-    /** Due to explicit invokevirtual instruction. */
-    VIRTUAL("VIRTUAL"),
-    /** Due to explicit invokeinterface instruction. */
-    INTERFACE("INTERFACE"),
-    /** Due to explicit invokespecial instruction. */
-    SPECIAL("SPECIAL"),
-    /** Due to explicit invokedynamic instruction. */
-    DYNAMIC("DYNAMIC"),
-    /** Implicit call to static initializer. */
-    CLINIT("CLINIT"),
-    /** Fake edges from our generic callback model. */
-    GENERIC_FAKE("GENERIC_FAKE"),
-    /** Implicit call to Thread.run() due to Thread.start() call. */
-    THREAD("THREAD"),
-    /** Implicit call to java.lang.Runnable.run() due to Executor.execute() call. */
-    EXECUTOR("EXECUTOR"),
-    /** Implicit call to AsyncTask.doInBackground() due to AsyncTask.execute() call. */
-    ASYNCTASK("ASYNCTASK"),
-    /** Implicit call to java.lang.ref.Finalizer.register from new bytecode. */
-    FINALIZE("FINALIZE"),
-    /**
-     * Implicit call to Handler.handleMessage(android.os.Message) due to
-     * Handler.sendxxxxMessagexxxx() call.
-     */
-    HANDLER("HANDLER"),
-    /** Implicit call to finalize() from java.lang.ref.Finalizer.invokeFinalizeMethod(). */
-    INVOKE_FINALIZE("INVOKE_FINALIZE"),
-    /** Implicit call to run() through AccessController.doPrivileged(). */
-    PRIVILEGED("PRIVILEGED"),
-    /** Implicit call to constructor from java.lang.Class.newInstance(). */
-    NEWINSTANCE("NEWINSTANCE"),
-    /** Due to call to Method.invoke(..). */
-    REFL_INVOKE("REFL_INVOKE"),
-    /** Due to call to Constructor.newInstance(..). */
-    REFL_CONSTR_NEWINSTANCE("REFL_CONSTR_NEWINSTANCE"),
-    /** Due to call to Class.newInstance(..) when reflection log is enabled. */
-    REFL_CLASS_NEWINSTANCE("REFL_CLASS_NEWINSTANCE");
-
-    private String name;
-
-    CallGraphEdgeType(String name) {
-      this.name = name;
-    }
-
-    String getName() {
-      return name;
+    INVALID,
+    STATIC,
+    VIRTUAL,
+    INTERFACE,
+    SPECIAL,
+    DYNAMIC,
+    CLINIT,
+    GENERIC_FAKE,
+    THREAD,
+    EXECUTOR,
+    ASYNCTASK,
+    FINALIZE,
+    HANDLER,
+    INVOKE_FINALIZE,
+    PRIVILEGED,
+    NEWINSTANCE,
+    REFL_INVOKE,
+    REFL_CONSTR_NEWINSTANCE,
+    REFL_CLASS_NEWINSTANCE;
+
+    /** Returns the constant with the same name of the given edge type. */
+    @Nonnull
+    public static CallGraphEdgeType of(@Nonnull sootup.callgraph.CallGraphEdgeType edgeType) {
+      return valueOf(edgeType.name());
+    }
+
+    /** Returns the edge type of the call graph module with the same name. */
+    @Nonnull
+    public sootup.callgraph.CallGraphEdgeType toCallGraphEdgeType() {
+      return sootup.callgraph.CallGraphEdgeType.valueOf(name());
     }
 
     public boolean passesParameters() {
-      return isExplicit()
-          || this == THREAD
-          || this == EXECUTOR
-          || this == ASYNCTASK
-          || this == FINALIZE
-          || this == PRIVILEGED
-          || this == NEWINSTANCE
-          || this == INVOKE_FINALIZE
-          || this == REFL_INVOKE
-          || this == REFL_CONSTR_NEWINSTANCE
-          || this == REFL_CLASS_NEWINSTANCE;
+      return toCallGraphEdgeType().passesParameters();
     }
 
     public boolean isFake() {
-      return this == THREAD
-          || this == EXECUTOR
-          || this == ASYNCTASK
-          || this == PRIVILEGED
-          || this == HANDLER
-          || this == GENERIC_FAKE;
+      return toCallGraphEdgeType().isFake();
     }
 
-    /** Returns true if the call is due to an explicit invoke statement. */
     public boolean isExplicit() {
-      return isInstance() || isStatic();
+      return toCallGraphEdgeType().isExplicit();
     }
 
-    /** Returns true if the call is due to an explicit instance invoke statement. */
     public boolean isInstance() {
-      return this == VIRTUAL || this == INTERFACE || this == SPECIAL;
+      return toCallGraphEdgeType().isInstance();
     }
 
-    /** Returns true if the call is due to an explicit virtual invoke statement. */
     public boolean isVirtual() {
-      return this == VIRTUAL;
+      return toCallGraphEdgeType().isVirtual();
     }
 
     public boolean isSpecial() {
-      return this == SPECIAL;
+      return toCallGraphEdgeType().isSpecial();
     }
 
-    /** Returns true if the call is to static initializer. */
     public boolean isClinit() {
-      return this == CLINIT;
+      return toCallGraphEdgeType().isClinit();
     }
 
-    /** Returns true if the call is due to an explicit static invoke statement. */
     public boolean isStatic() {
-      return this == STATIC;
+      return toCallGraphEdgeType().isStatic();
     }
 
-    /** Returns true if the call is due to an explicit dynamic invoke statement. */
     public boolean isDynamic() {
-      return this == DYNAMIC;
+      return toCallGraphEdgeType().isDynamic();
     }
 
     public boolean isThread() {
-      return this == THREAD;
+      return toCallGraphEdgeType().isThread();
     }
 
     public boolean isExecutor() {
-      return this == EXECUTOR;
+      return toCallGraphEdgeType().isExecutor();
     }
 
     public boolean isAsyncTask() {
-      return this == ASYNCTASK;
+      return toCallGraphEdgeType().isAsyncTask();
     }
 
     public boolean isPrivileged() {
-      return this == PRIVILEGED;
+      return toCallGraphEdgeType().isPrivileged();
     }
 
     public boolean isReflection() {
-      return this == REFL_CLASS_NEWINSTANCE
-          || this == REFL_CONSTR_NEWINSTANCE
-          || this == REFL_INVOKE;
+      return toCallGraphEdgeType().isReflection();
     }
 
     public boolean isReflInvoke() {
-      return this == REFL_INVOKE;
+      return toCallGraphEdgeType().isReflInvoke();
     }
   }
 }
@@ -22,13 +22,14 @@ package sootup.analysis.interprocedural.icfg;
  * #L%
  */
 
+import sootup.callgraph.CallGraphEdgeType;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.signatures.MethodSignature;
 
 /** Method Signature with its calling CallGraphEdgeType and sourceStmt that invokes the call */
 public class CalleeMethodSignature {
 
-  private CGEdgeUtil.CallGraphEdgeType edgeType;
+  private CallGraphEdgeType edgeType;
   private MethodSignature methodSignature;
 
   /**
@@ -38,7 +39,7 @@ public class CalleeMethodSignature {
   private Stmt sourceStmt;
 
   public CalleeMethodSignature(
-      MethodSignature methodSignature, CGEdgeUtil.CallGraphEdgeType edgeType, Stmt sourceStmt) {
+      MethodSignature methodSignature, CallGraphEdgeType edgeType, Stmt sourceStmt) {
     this.methodSignature = methodSignature;
     this.edgeType = edgeType;
     this.sourceStmt = sourceStmt;
@@ -48,7 +49,7 @@ public class CalleeMethodSignature {
     return methodSignature;
   }
 
-  public CGEdgeUtil.CallGraphEdgeType getEdgeType() {
+  public CallGraphEdgeType getEdgeType() {
     return edgeType;
   }
 
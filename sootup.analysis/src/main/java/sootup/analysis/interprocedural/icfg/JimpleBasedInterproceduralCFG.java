@@ -24,7 +24,6 @@ package sootup.analysis.interprocedural.icfg;
 
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import heros.DontSynchronize;
 import heros.InterproceduralCFG;
 import heros.SynchronizedBy;
 import heros.ThreadSafe;
@@ -36,11 +35,14 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sootup.callgraph.CallEdge;
 import sootup.callgraph.CallGraph;
 import sootup.callgraph.CallGraphAlgorithm;
+import sootup.callgraph.CallGraphEdgeType;
 import sootup.callgraph.ClassHierarchyAnalysisAlgorithm;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.views.View;
@@ -62,8 +64,13 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
 
   protected boolean includeReflectiveCalls;
 
-  @DontSynchronize("readonly")
-  protected final CallGraph cg;
+  /** null until {@link #getCallGraph()} computed it, if the ICFG is created without call graph */
+  @SynchronizedBy("double-checked locking in getCallGraph()")
+  @Nullable
+  protected volatile CallGraph cg;
+
+  /** set once the bodies of all methods of the call graph are registered in the lazy mode */
+  private volatile boolean allOwnersResolved = false;
 
   protected CacheLoader<Stmt, Collection<SootMethod>> loaderUnitToCallees =
       new CacheLoader<Stmt, Collection<SootMethod>>() {
@@ -98,36 +105,25 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
         public Collection<Stmt> load(SootMethod method) {
           ArrayList<Stmt> res = new ArrayList<>();
           // only retain callers that are explicit call sites or
-          // Thread.start()
-          Set<MethodSignature> callsToMethod = cg.callsTo(method.getSignature());
-          for (MethodSignature methodSignature : callsToMethod) {
-            Stmt stmt = filterEdgeAndGetCallerStmt(methodSignature);
-            if (stmt != null) {
+          // Thread.start(); CLINIT edges are implicit and carry no call site
+          for (CallEdge callEdge : getCallGraph().callEdgesTo(method.getSignature())) {
+            Stmt stmt = callEdge.getStmt();
+            CallGraphEdgeType edgeType = callEdge.getEdgeType();
+            if (stmt != null
+                && (edgeType.isExplicit()
+                    || edgeType.isFake()
+                    || (includeReflectiveCalls && edgeType.isReflection()))) {
               res.add(stmt);
+              if (lazyStmtToOwner) {
+                view.getMethod(callEdge.getSourceMethod())
+                    .filter(SootMethod::hasBody)
+                    .ifPresent(caller -> registerStmtOwner(caller.getBody()));
+              }
             }
           }
           res.trimToSize();
           return res;
         }
-
-        @Nullable
-        private Stmt filterEdgeAndGetCallerStmt(@Nonnull MethodSignature methodSignature) {
-          Set<Pair<MethodSignature, CalleeMethodSignature>> callEdges =
-              CGEdgeUtil.getCallEdges(view, cg);
-          for (Pair<MethodSignature, CalleeMethodSignature> callEdge : callEdges) {
-            CalleeMethodSignature callee = callEdge.getValue();
-            if (callee.getMethodSignature().equals(methodSignature)) {
-              CGEdgeUtil.CallGraphEdgeType edgeType = callee.getEdgeType();
-              if (edgeType.isExplicit()
-                  || edgeType.isFake()
-                  || edgeType.isClinit()
-                  || (includeReflectiveCalls && edgeType.isReflection())) {
-                return callee.getSourceStmt();
-              }
-            }
-          }
-          return null;
-        }
       };
 
   @SynchronizedBy("by use of synchronized LoadingCache class")
@@ -147,6 +143,49 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
     initializeStmtToOwner();
   }
 
+  /**
+   * Creates an ICFG that registers the owner of each statement lazily when the ICFG hands out its
+   * body e.g. via {@link #getStartPointsOf(SootMethod)}, {@link #getCallersOf(SootMethod)} or
+   * {@link #getCallsFromWithin(SootMethod)}, instead of walking all reachable bodies upfront. Thus,
+   * only the bodies which are visited by the analysis are indexed, and they stay referenced by the
+   * ICFG so that their statements keep their identity.
+   *
+   * <p>The owner of a statement that was not handed out by the ICFG is searched in the main method,
+   * which usually provides the seeds of an analysis, and then in the bodies of the methods of the
+   * call graph, which are registered on the way.
+   *
+   * @param callGraph the call graph of the program, or null to compute a CHA call graph from the
+   *     main method when it is needed first.
+   */
+  public JimpleBasedInterproceduralCFG(
+      View view,
+      MethodSignature mainMethodSignature,
+      @Nullable CallGraph callGraph,
+      boolean enableExceptions,
+      boolean includeReflectiveCalls) {
+    super(enableExceptions, true);
+    this.includeReflectiveCalls = includeReflectiveCalls;
+    this.view = view;
+    this.mainMethodSignature = mainMethodSignature;
+    this.cg = callGraph;
+  }
+
+  /** Returns the call graph of the ICFG, which is computed on the first call if it is not set. */
+  @Nonnull
+  public CallGraph getCallGraph() {
+    CallGraph callGraph = cg;
+    if (callGraph == null) {
+      synchronized (this) {
+        callGraph = cg;
+        if (callGraph == null) {
+          callGraph = initCallGraph();
+          cg = callGraph;
+        }
+      }
+    }
+    return callGraph;
+  }
+
   public String buildICFGGraph(CallGraph callGraph) {
     Map<MethodSignature, StmtGraph<?>> signatureToStmtGraph = new LinkedHashMap<>();
     computeAllCalls(mainMethodSignature, signatureToStmtGraph, callGraph);
@@ -193,12 +232,58 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
   }
 
   protected void initializeStmtToOwner() {
-    for (MethodSignature methodSignature : cg.getMethodSignatures()) {
+    for (MethodSignature methodSignature : getCallGraph().getMethodSignatures()) {
       final Optional<? extends SootMethod> methodOpt = view.getMethod(methodSignature);
       methodOpt.ifPresent(this::initializeStmtToOwner);
     }
   }
 
+  @Nullable
+  @Override
+  protected Body resolveOwner(@Nonnull Stmt stmt) {
+    if (allOwnersResolved) {
+      return null;
+    }
+    // the seeds of an analysis are usually taken from the body of the main method directly
+    Body body = findOwnerIn(mainMethodSignature, stmt);
+    if (body != null) {
+      return body;
+    }
+    for (MethodSignature methodSignature : getCallGraph().getMethodSignatures()) {
+      body = findOwnerIn(methodSignature, stmt);
+      if (body != null) {
+        return body;
+      }
+    }
+    allOwnersResolved = true;
+    return null;
+  }
+
+  /** Registers the body of the given method and returns it if it contains the statement. */
+  @Nullable
+  private Body findOwnerIn(@Nonnull MethodSignature methodSignature, @Nonnull Stmt stmt) {
+    final SootMethod method = view.getMethod(methodSignature).orElse(null);
+    if (method == null || !method.hasBody()) {
+      return null;
+    }
+    final Body body = method.getBody();
+    registerStmtOwner(body);
+    return getOrCreateStmtGraph(body).containsNode(stmt) ? body : null;
+  }
+
+  @Override
+  protected void resolveAllOwners() {
+    if (allOwnersResolved) {
+      return;
+    }
+    for (MethodSignature methodSignature : getCallGraph().getMethodSignatures()) {
+      view.getMethod(methodSignature)
+          .filter(SootMethod::hasBody)
+          .ifPresent(method -> registerStmtOwner(method.getBody()));
+    }
+    allOwnersResolved = true;
+  }
+
   @Override
   public Collection<SootMethod> getCalleesOfCallAt(@Nonnull Stmt u) {
     return stmtToCallees.getUnchecked(u);
@@ -0,0 +1,651 @@
+package sootup.analysis.interprocedural.ide;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2024 Kadiray Karakaya and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import heros.EdgeFunction;
+import heros.EdgeFunctions;
+import heros.FlowFunction;
+import heros.FlowFunctions;
+import heros.IDETabulationProblem;
+import heros.InterproceduralCFG;
+import heros.MeetLattice;
+import heros.edgefunc.EdgeIdentity;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+/**
+ * An IDE solver that propagates the path edges of the tabulation algorithm concurrently on a
+ * work-stealing {@link ForkJoinPool}. Every path edge is processed in its own task, and each task
+ * forks a task for every path edge whose jump function changes.
+ *
+ * <p>The jump functions are indexed by the target statement and fact of their path edge, the end
+ * summaries and incoming calls by the start point and fact of their method. The entries of these
+ * tables are guarded by a fixed number of locks which are chosen by the hash of their key, so that
+ * tasks working on different statements or methods rarely wait for each other.
+ *
+ * <p>If no executor is set via {@link #setExecutor(ForkJoinPool)}, a pool with {@link
+ * IDETabulationProblem#numThreads()} threads is created for each call of {@link #solve()}.
+ *
+ * @param <D> the type of the data-flow facts
+ * @param <V> the type of the values of the facts
+ * @param <I> the type of the interprocedural control-flow graph
+ */
+public class ParallelIDESolver<D, V, I extends InterproceduralCFG<Stmt, SootMethod>> {
+
+  /** the number of locks that guard the tables; a power of two */
+  private static final int LOCK_STRIPES = 256;
+
+  /** the number of statements whose values are computed by a single task */
+  private static final int VALUE_COMPUTATION_BATCH_SIZE = 256;
+
+  @Nonnull protected final IDETabulationProblem<Stmt, D, SootMethod, V, I> problem;
+  @Nonnull protected final I icfg;
+  @Nonnull protected final FlowFunctions<Stmt, D, SootMethod> flowFunctions;
+  @Nonnull protected final EdgeFunctions<Stmt, D, SootMethod, V> edgeFunctions;
+  @Nonnull protected final MeetLattice<V> valueLattice;
+  @Nonnull protected final EdgeFunction<V> allTop;
+  @Nonnull protected final D zeroValue;
+  @Nonnull protected final Map<Stmt, Set<D>> initialSeeds;
+
+  private final boolean followReturnsPastSeeds;
+  private final boolean autoAddZero;
+  private final boolean computeValues;
+
+  /** runs the tasks of the solver if set, otherwise a pool is created for each solve */
+  @Nullable private ForkJoinPool executor;
+
+  @Nonnull private final Object[] locks = new Object[LOCK_STRIPES];
+
+  /** the jump functions of the path edges (d1, n, d2) as n -&gt; d2 -&gt; d1 -&gt; function */
+  @Nonnull
+  private final Map<Stmt, Map<D, Map<D, EdgeFunction<V>>>> jumpFunctions =
+      new ConcurrentHashMap<>();
+
+  /** the end summaries and incoming calls of the start points sP and facts d1 of methods */
+  @Nonnull private final Map<Stmt, Map<D, Summaries>> summaries = new ConcurrentHashMap<>();
+
+  /** the return sites that are reached by returning past the initial seeds */
+  @Nonnull private final Set<Stmt> unbalancedReturnSites = ConcurrentHashMap.newKeySet();
+
+  /** the values of the facts at each statement, computed by phase II */
+  @Nonnull private final Map<Stmt, Map<D, V>> values = new ConcurrentHashMap<>();
+
+  public ParallelIDESolver(@Nonnull IDETabulationProblem<Stmt, D, SootMethod, V, I> problem) {
+    this.problem = problem;
+    this.icfg = problem.interproceduralCFG();
+    this.flowFunctions = problem.flowFunctions();
+    this.edgeFunctions = problem.edgeFunctions();
+    this.valueLattice = problem.meetLattice();
+    this.allTop = problem.allTopFunction();
+    this.zeroValue = problem.zeroValue();
+    this.initialSeeds = problem.initialSeeds();
+    this.followReturnsPastSeeds = problem.followReturnsPastSeeds();
+    this.autoAddZero = problem.autoAddZero();
+    this.computeValues = problem.computeValues();
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  /**
+   * Sets the pool that runs the tasks of the solver, e.g. to share it with other analyses. The
+   * pool is not shut down by the solver.
+   */
+  public void setExecutor(@Nullable ForkJoinPool executor) {
+    this.executor = executor;
+  }
+
+  @Nullable
+  public ForkJoinPool getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Runs the solver: phase I computes the jump functions of all path edges from the initial seeds,
+   * and phase II computes the values of the facts, unless the problem disables it.
+   */
+  public void solve() {
+    ForkJoinPool pool = executor;
+    boolean ownPool = pool == null;
+    if (ownPool) {
+      pool = new ForkJoinPool(Math.max(1, problem.numThreads()));
+    }
+    try {
+      pool.invoke(new PropagationRoot());
+      if (computeValues) {
+        pool.invoke(new ValuePropagationRoot());
+        pool.invoke(new ValueComputationRoot());
+      }
+    } finally {
+      if (ownPool) {
+        pool.shutdown();
+      }
+    }
+  }
+
+  /** Returns the values of all facts that hold at the given statement. */
+  @Nonnull
+  public Map<D, V> resultsAt(@Nonnull Stmt stmt) {
+    Map<D, V> valuesAtStmt = values.get(stmt);
+    return valuesAtStmt == null
+        ? Collections.emptyMap()
+        : Collections.unmodifiableMap(valuesAtStmt);
+  }
+
+  /** Returns the value of the given fact at the given statement, or the top element if none. */
+  @Nonnull
+  public V resultAt(@Nonnull Stmt stmt, @Nonnull D fact) {
+    return valueAt(stmt, fact);
+  }
+
+  /** Returns the facts which reach the given statement, i.e. which have a jump function to it. */
+  @Nonnull
+  public Set<D> reachingFactsAt(@Nonnull Stmt stmt) {
+    Map<D, Map<D, EdgeFunction<V>>> jumpFunctionsAtStmt = jumpFunctions.get(stmt);
+    return jumpFunctionsAtStmt == null
+        ? Collections.emptySet()
+        : Collections.unmodifiableSet(jumpFunctionsAtStmt.keySet());
+  }
+
+  @Nonnull
+  private Object lockFor(@Nonnull Stmt stmt, @Nullable D fact) {
+    int hash = System.identityHashCode(stmt) * 31 + Objects.hashCode(fact);
+    hash ^= hash >>> 16;
+    return locks[hash & (LOCK_STRIPES - 1)];
+  }
+
+  @Nonnull
+  private Set<D> computeTargets(@Nonnull FlowFunction<D> flowFunction, @Nonnull D source) {
+    Set<D> targets = flowFunction.computeTargets(source);
+    if (autoAddZero && source.equals(zeroValue) && !targets.contains(zeroValue)) {
+      targets = new LinkedHashSet<>(targets);
+      targets.add(zeroValue);
+    }
+    return targets;
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // phase I: jump functions
+  // ---------------------------------------------------------------------------------------------
+
+  /** Returns the jump function of the path edge (d1, n, d2), or allTop if there is none. */
+  @Nonnull
+  private EdgeFunction<V> jumpFunction(@Nonnull D d1, @Nonnull Stmt n, @Nonnull D d2) {
+    Map<D, Map<D, EdgeFunction<V>>> jumpFunctionsAtStmt = jumpFunctions.get(n);
+    if (jumpFunctionsAtStmt == null) {
+      return allTop;
+    }
+    Map<D, EdgeFunction<V>> sources = jumpFunctionsAtStmt.get(d2);
+    if (sources == null) {
+      return allTop;
+    }
+    synchronized (lockFor(n, d2)) {
+      EdgeFunction<V> function = sources.get(d1);
+      return function == null ? allTop : function;
+    }
+  }
+
+  /** Returns a copy of the jump functions of all path edges (d1, n, d2) with the given target. */
+  @Nonnull
+  private Map<D, EdgeFunction<V>> jumpFunctionsTo(@Nonnull Stmt n, @Nonnull D d2) {
+    Map<D, Map<D, EdgeFunction<V>>> jumpFunctionsAtStmt = jumpFunctions.get(n);
+    if (jumpFunctionsAtStmt == null) {
+      return Collections.emptyMap();
+    }
+    Map<D, EdgeFunction<V>> sources = jumpFunctionsAtStmt.get(d2);
+    if (sources == null) {
+      return Collections.emptyMap();
+    }
+    synchronized (lockFor(n, d2)) {
+      return new HashMap<>(sources);
+    }
+  }
+
+  /**
+   * Joins the given function into the jump function of the path edge (d1, n, d2).
+   *
+   * @return true if the jump function changed, i.e. the path edge has to be processed (again).
+   */
+  private boolean addJumpFunction(
+      @Nonnull D d1, @Nonnull Stmt n, @Nonnull D d2, @Nonnull EdgeFunction<V> function) {
+    Map<D, EdgeFunction<V>> sources =
+        jumpFunctions
+            .computeIfAbsent(n, stmt -> new ConcurrentHashMap<>())
+            .computeIfAbsent(d2, fact -> new HashMap<>());
+    synchronized (lockFor(n, d2)) {
+      EdgeFunction<V> existing = sources.get(d1);
+      if (existing == null) {
+        existing = allTop;
+      }
+      EdgeFunction<V> joined = existing.joinWith(function);
+      if (joined.equalTo(existing)) {
+        return false;
+      }
+      sources.put(d1, joined);
+      return true;
+    }
+  }
+
+  /** Joins the function into the jump function of (d1, n, d2) and processes it if it changed. */
+  private void propagate(
+      @Nonnull CountedCompleter<?> root,
+      @Nonnull D d1,
+      @Nonnull Stmt n,
+      @Nonnull D d2,
+      @Nonnull EdgeFunction<V> function) {
+    if (addJumpFunction(d1, n, d2, function)) {
+      root.addToPendingCount(1);
+      new PathEdgeTask(root, d1, n, d2).fork();
+    }
+  }
+
+  @Nonnull
+  private Summaries summariesOf(@Nonnull Stmt startPoint, @Nonnull D d1) {
+    return summaries
+        .computeIfAbsent(startPoint, stmt -> new ConcurrentHashMap<>())
+        .computeIfAbsent(d1, fact -> new Summaries());
+  }
+
+  private void processPathEdge(
+      @Nonnull CountedCompleter<?> root, @Nonnull D d1, @Nonnull Stmt n, @Nonnull D d2) {
+    if (icfg.isCallStmt(n)) {
+      processCall(root, d1, n, d2);
+    } else {
+      if (icfg.isExitStmt(n)) {
+        processExit(root, d1, n, d2);
+      }
+      if (!icfg.getSuccsOf(n).isEmpty()) {
+        processNormalFlow(root, d1, n, d2);
+      }
+    }
+  }
+
+  private void processCall(
+      @Nonnull CountedCompleter<?> root, @Nonnull D d1, @Nonnull Stmt n, @Nonnull D d2) {
+    EdgeFunction<V> f = jumpFunction(d1, n, d2);
+    Collection<Stmt> returnSites = icfg.getReturnSitesOfCallAt(n);
+
+    for (SootMethod callee : icfg.getCalleesOfCallAt(n)) {
+      Set<D> calleeFacts = computeTargets(flowFunctions.getCallFlowFunction(n, callee), d2);
+      for (Stmt startPoint : icfg.getStartPointsOf(callee)) {
+        for (D d3 : calleeFacts) {
+          propagate(root, d3, startPoint, d3, EdgeIdentity.v());
+
+          // register the call and apply the summaries computed so far; summaries that are added
+          // later apply the call in processExit
+          Summaries calleeSummaries = summariesOf(startPoint, d3);
+          Map<Stmt, Map<D, EdgeFunction<V>>> endSummaries;
+          synchronized (lockFor(startPoint, d3)) {
+            calleeSummaries.incoming.computeIfAbsent(n, stmt -> new HashSet<>()).add(d2);
+            endSummaries = calleeSummaries.copyEndSummaries();
+          }
+
+          for (Map.Entry<Stmt, Map<D, EdgeFunction<V>>> exit : endSummaries.entrySet()) {
+            Stmt exitStmt = exit.getKey();
+            for (Map.Entry<D, EdgeFunction<V>> summary : exit.getValue().entrySet()) {
+              D d4 = summary.getKey();
+              for (Stmt returnSite : returnSites) {
+                FlowFunction<D> returnFlowFunction =
+                    flowFunctions.getReturnFlowFunction(n, callee, exitStmt, returnSite);
+                for (D d5 : computeTargets(returnFlowFunction, d4)) {
+                  EdgeFunction<V> f4 = edgeFunctions.getCallEdgeFunction(n, d2, callee, d3);
+                  EdgeFunction<V> f5 =
+                      edgeFunctions.getReturnEdgeFunction(
+                          n, callee, exitStmt, d4, returnSite, d5);
+                  EdgeFunction<V> fPrime = f4.composeWith(summary.getValue()).composeWith(f5);
+                  propagate(root, d1, returnSite, d5, f.composeWith(fPrime));
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+
+    for (Stmt returnSite : returnSites) {
+      FlowFunction<D> callToReturnFlowFunction =
+          flowFunctions.getCallToReturnFlowFunction(n, returnSite);
+      for (D d3 : computeTargets(callToReturnFlowFunction, d2)) {
+        EdgeFunction<V> edgeFunction =
+            edgeFunctions.getCallToReturnEdgeFunction(n, d2, returnSite, d3);
+        propagate(root, d1, returnSite, d3, f.composeWith(edgeFunction));
+      }
+    }
+  }
+
+  private void processExit(
+      @Nonnull CountedCompleter<?> root, @Nonnull D d1, @Nonnull Stmt n, @Nonnull D d2) {
+    SootMethod method = icfg.getMethodOf(n);
+    EdgeFunction<V> jumpFunction = jumpFunction(d1, n, d2);
+
+    for (Stmt startPoint : icfg.getStartPointsOf(method)) {
+      // add the summary and apply it to the calls registered so far; calls that are registered
+      // later apply the summary in processCall
+      Summaries methodSummaries = summariesOf(startPoint, d1);
+      Map<Stmt, Set<D>> incoming;
+      EdgeFunction<V> f;
+      synchronized (lockFor(startPoint, d1)) {
+        // another task of this path edge may have stored a summary from a newer jump function
+        // already, hence join instead of overwriting it with the one read above
+        Map<D, EdgeFunction<V>> exitSummaries =
+            methodSummaries.endSummaries.computeIfAbsent(n, stmt -> new HashMap<>());
+        EdgeFunction<V> existing = exitSummaries.get(d2);
+        f = existing == null ? jumpFunction : existing.joinWith(jumpFunction);
+        exitSummaries.put(d2, f);
+        incoming = methodSummaries.copyIncoming();
+      }
+
+      for (Map.Entry<Stmt, Set<D>> call : incoming.entrySet()) {
+        Stmt c = call.getKey();
+        for (Stmt returnSite : icfg.getReturnSitesOfCallAt(c)) {
+          FlowFunction<D> returnFlowFunction =
+              flowFunctions.getReturnFlowFunction(c, method, n, returnSite);
+          Set<D> targets = computeTargets(returnFlowFunction, d2);
+          for (D d4 : call.getValue()) {
+            for (D d5 : targets) {
+              EdgeFunction<V> f4 = edgeFunctions.getCallEdgeFunction(c, d4, method, d1);
+              EdgeFunction<V> f5 =
+                  edgeFunctions.getReturnEdgeFunction(c, method, n, d2, returnSite, d5);
+              EdgeFunction<V> fPrime = f4.composeWith(f).composeWith(f5);
+              for (Map.Entry<D, EdgeFunction<V>> caller : jumpFunctionsTo(c, d4).entrySet()) {
+                if (!caller.getValue().equalTo(allTop)) {
+                  propagate(
+                      root, caller.getKey(), returnSite, d5, caller.getValue().composeWith(fPrime));
+                }
+              }
+            }
+          }
+        }
+      }
+
+      // return past the seeds, i.e. to callers which are not reached from the seeds
+      if (followReturnsPastSeeds && incoming.isEmpty() && d1.equals(zeroValue)) {
+        for (Stmt c : icfg.getCallersOf(method)) {
+          for (Stmt returnSite : icfg.getReturnSitesOfCallAt(c)) {
+            FlowFunction<D> returnFlowFunction =
+                flowFunctions.getReturnFlowFunction(c, method, n, returnSite);
+            for (D d5 : computeTargets(returnFlowFunction, d2)) {
+              EdgeFunction<V> f5 =
+                  edgeFunctions.getReturnEdgeFunction(c, method, n, d2, returnSite, d5);
+              unbalancedReturnSites.add(returnSite);
+              propagate(root, zeroValue, returnSite, d5, f.composeWith(f5));
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private void processNormalFlow(
+      @Nonnull CountedCompleter<?> root, @Nonnull D d1, @Nonnull Stmt n, @Nonnull D d2) {
+    EdgeFunction<V> f = jumpFunction(d1, n, d2);
+    for (Stmt m : icfg.getSuccsOf(n)) {
+      FlowFunction<D> flowFunction = flowFunctions.getNormalFlowFunction(n, m);
+      for (D d3 : computeTargets(flowFunction, d2)) {
+        EdgeFunction<V> fPrime = f.composeWith(edgeFunctions.getNormalEdgeFunction(n, d2, m, d3));
+        propagate(root, d1, m, d3, fPrime);
+      }
+    }
+  }
+
+  /** The end summaries and incoming calls of a start point and fact of a method. */
+  private final class Summaries {
+    /** exit statement -&gt; fact at the exit -&gt; summary function */
+    @Nonnull final Map<Stmt, Map<D, EdgeFunction<V>>> endSummaries = new HashMap<>();
+
+    /** call site -&gt; facts at the call site */
+    @Nonnull final Map<Stmt, Set<D>> incoming = new HashMap<>();
+
+    @Nonnull
+    Map<Stmt, Map<D, EdgeFunction<V>>> copyEndSummaries() {
+      Map<Stmt, Map<D, EdgeFunction<V>>> copy = new HashMap<>();
+      endSummaries.forEach((exit, functions) -> copy.put(exit, new HashMap<>(functions)));
+      return copy;
+    }
+
+    @Nonnull
+    Map<Stmt, Set<D>> copyIncoming() {
+      Map<Stmt, Set<D>> copy = new HashMap<>();
+      incoming.forEach((callSite, facts) -> copy.put(callSite, new HashSet<>(facts)));
+      return copy;
+    }
+  }
+
+  /**
+   * The root task of phase I. It propagates the initial seeds and completes when all path edges
+   * are processed; all path edge tasks report to it directly.
+   */
+  private final class PropagationRoot extends CountedCompleter<Void> {
+    @Override
+    public void compute() {
+      for (Map.Entry<Stmt, Set<D>> seed : initialSeeds.entrySet()) {
+        Stmt startPoint = seed.getKey();
+        for (D fact : seed.getValue()) {
+          propagate(this, zeroValue, startPoint, fact, EdgeIdentity.v());
+        }
+        addJumpFunction(zeroValue, startPoint, zeroValue, EdgeIdentity.v());
+      }
+      tryComplete();
+    }
+  }
+
+  private final class PathEdgeTask extends CountedCompleter<Void> {
+    @Nonnull private final CountedCompleter<?> root;
+    @Nonnull private final D d1;
+    @Nonnull private final Stmt n;
+    @Nonnull private final D d2;
+
+    PathEdgeTask(@Nonnull CountedCompleter<?> root, @Nonnull D d1, @Nonnull Stmt n, @Nonnull D d2) {
+      super(root);
+      this.root = root;
+      this.d1 = d1;
+      this.n = n;
+      this.d2 = d2;
+    }
+
+    @Override
+    public void compute() {
+      processPathEdge(root, d1, n, d2);
+      tryComplete();
+    }
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // phase II: values
+  // ---------------------------------------------------------------------------------------------
+
+  @Nonnull
+  private V valueAt(@Nonnull Stmt stmt, @Nonnull D fact) {
+    Map<D, V> valuesAtStmt = values.get(stmt);
+    V value = valuesAtStmt == null ? null : valuesAtStmt.get(fact);
+    return value == null ? valueLattice.topElement() : value;
+  }
+
+  /**
+   * Meets the given value into the value of the fact at the statement.
+   *
+   * @return true if the value changed.
+   */
+  private boolean meetValue(@Nonnull Stmt stmt, @Nonnull D fact, @Nonnull V value) {
+    Map<D, V> valuesAtStmt = values.computeIfAbsent(stmt, s -> new ConcurrentHashMap<>());
+    boolean[] changed = {false};
+    valuesAtStmt.compute(
+        fact,
+        (d, existing) -> {
+          V current = existing == null ? valueLattice.topElement() : existing;
+          V met = valueLattice.meet(current, value);
+          changed[0] = !met.equals(current);
+          return met;
+        });
+    return changed[0];
+  }
+
+  private void propagateValue(
+      @Nonnull CountedCompleter<?> root, @Nonnull Stmt stmt, @Nonnull D fact, @Nonnull V value) {
+    if (meetValue(stmt, fact, value)) {
+      root.addToPendingCount(1);
+      new ValuePropagationTask(root, stmt, fact).fork();
+    }
+  }
+
+  private void propagateValueAtStart(
+      @Nonnull CountedCompleter<?> root, @Nonnull Stmt startPoint, @Nonnull D fact) {
+    V value = valueAt(startPoint, fact);
+    for (Stmt callSite : icfg.getCallsFromWithin(icfg.getMethodOf(startPoint))) {
+      Map<D, Map<D, EdgeFunction<V>>> jumpFunctionsAtCall = jumpFunctions.get(callSite);
+      if (jumpFunctionsAtCall == null) {
+        continue;
+      }
+      for (Map.Entry<D, Map<D, EdgeFunction<V>>> target : jumpFunctionsAtCall.entrySet()) {
+        EdgeFunction<V> function = target.getValue().get(fact);
+        if (function != null) {
+          propagateValue(root, callSite, target.getKey(), function.computeTarget(value));
+        }
+      }
+    }
+  }
+
+  private void propagateValueAtCall(
+      @Nonnull CountedCompleter<?> root, @Nonnull Stmt callSite, @Nonnull D fact) {
+    V value = valueAt(callSite, fact);
+    for (SootMethod callee : icfg.getCalleesOfCallAt(callSite)) {
+      FlowFunction<D> callFlowFunction = flowFunctions.getCallFlowFunction(callSite, callee);
+      for (D dPrime : computeTargets(callFlowFunction, fact)) {
+        EdgeFunction<V> edgeFunction =
+            edgeFunctions.getCallEdgeFunction(callSite, fact, callee, dPrime);
+        for (Stmt startPoint : icfg.getStartPointsOf(callee)) {
+          propagateValue(root, startPoint, dPrime, edgeFunction.computeTarget(value));
+        }
+      }
+    }
+  }
+
+  /** The root task of phase II(i), which propagates the values along calls from the seeds. */
+  private final class ValuePropagationRoot extends CountedCompleter<Void> {
+    @Override
+    public void compute() {
+      Map<Stmt, Set<D>> allSeeds = new HashMap<>();
+      initialSeeds.forEach((stmt, facts) -> allSeeds.put(stmt, new HashSet<>(facts)));
+      for (Stmt returnSite : unbalancedReturnSites) {
+        allSeeds.computeIfAbsent(returnSite, stmt -> new HashSet<>()).add(zeroValue);
+      }
+      for (Map.Entry<Stmt, Set<D>> seed : allSeeds.entrySet()) {
+        for (D fact : seed.getValue()) {
+          meetValue(seed.getKey(), fact, valueLattice.bottomElement());
+          addToPendingCount(1);
+          new ValuePropagationTask(this, seed.getKey(), fact).fork();
+        }
+      }
+      tryComplete();
+    }
+  }
+
+  private final class ValuePropagationTask extends CountedCompleter<Void> {
+    @Nonnull private final CountedCompleter<?> root;
+    @Nonnull private final Stmt stmt;
+    @Nonnull private final D fact;
+
+    ValuePropagationTask(@Nonnull CountedCompleter<?> root, @Nonnull Stmt stmt, @Nonnull D fact) {
+      super(root);
+      this.root = root;
+      this.stmt = stmt;
+      this.fact = fact;
+    }
+
+    @Override
+    public void compute() {
+      if (icfg.isStartPoint(stmt)
+          || initialSeeds.containsKey(stmt)
+          || unbalancedReturnSites.contains(stmt)) {
+        propagateValueAtStart(root, stmt, fact);
+      }
+      if (icfg.isCallStmt(stmt)) {
+        propagateValueAtCall(root, stmt, fact);
+      }
+      tryComplete();
+    }
+  }
+
+  /**
+   * The root task of phase II(ii), which computes the values at all reached statements that are
+   * neither calls nor start points from the values at the start points of their methods.
+   */
+  private final class ValueComputationRoot extends CountedCompleter<Void> {
+    @Override
+    public void compute() {
+      List<Stmt> batch = new ArrayList<>(VALUE_COMPUTATION_BATCH_SIZE);
+      for (Stmt stmt : jumpFunctions.keySet()) {
+        if (icfg.isCallStmt(stmt) || icfg.isStartPoint(stmt)) {
+          continue;
+        }
+        batch.add(stmt);
+        if (batch.size() == VALUE_COMPUTATION_BATCH_SIZE) {
+          addToPendingCount(1);
+          new ValueComputationTask(this, batch).fork();
+          batch = new ArrayList<>(VALUE_COMPUTATION_BATCH_SIZE);
+        }
+      }
+      if (!batch.isEmpty()) {
+        addToPendingCount(1);
+        new ValueComputationTask(this, batch).fork();
+      }
+      tryComplete();
+    }
+  }
+
+  private final class ValueComputationTask extends CountedCompleter<Void> {
+    @Nonnull private final List<Stmt> stmts;
+
+    ValueComputationTask(@Nonnull CountedCompleter<?> root, @Nonnull List<Stmt> stmts) {
+      super(root);
+      this.stmts = stmts;
+    }
+
+    @Override
+    public void compute() {
+      for (Stmt n : stmts) {
+        Collection<Stmt> startPoints = icfg.getStartPointsOf(icfg.getMethodOf(n));
+        for (Map.Entry<D, Map<D, EdgeFunction<V>>> target : jumpFunctions.get(n).entrySet()) {
+          D d = target.getKey();
+          for (Map.Entry<D, EdgeFunction<V>> source : target.getValue().entrySet()) {
+            EdgeFunction<V> function = source.getValue();
+            if (function.equalTo(allTop)) {
+              continue;
+            }
+            for (Stmt startPoint : startPoints) {
+              V startValue = valueAt(startPoint, source.getKey());
+              meetValue(n, d, function.computeTarget(startValue));
+            }
+          }
+        }
+      }
+      tryComplete();
+    }
+  }
+}
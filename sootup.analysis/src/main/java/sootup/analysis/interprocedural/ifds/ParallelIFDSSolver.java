@@ -0,0 +1,186 @@
+package sootup.analysis.interprocedural.ifds;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2024 Kadiray Karakaya and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import heros.EdgeFunction;
+import heros.EdgeFunctions;
+import heros.FlowFunctions;
+import heros.IDETabulationProblem;
+import heros.IFDSTabulationProblem;
+import heros.InterproceduralCFG;
+import heros.MeetLattice;
+import heros.edgefunc.AllTop;
+import heros.edgefunc.EdgeIdentity;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import sootup.analysis.interprocedural.ide.ParallelIDESolver;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+/**
+ * An IFDS solver that processes the path edges concurrently, see {@link ParallelIDESolver}. The
+ * IFDS problem is solved as an IDE problem whose edge functions are all the identity, so the
+ * results are the facts that reach a statement and no values have to be computed.
+ *
+ * @param <D> the type of the data-flow facts
+ * @param <I> the type of the interprocedural control-flow graph
+ */
+public class ParallelIFDSSolver<D, I extends InterproceduralCFG<Stmt, SootMethod>>
+    extends ParallelIDESolver<D, ParallelIFDSSolver.BinaryDomain, I> {
+
+  /** The values of the facts: a fact either holds (BOTTOM) or not (TOP). */
+  protected enum BinaryDomain {
+    TOP,
+    BOTTOM
+  }
+
+  public ParallelIFDSSolver(@Nonnull IFDSTabulationProblem<Stmt, D, SootMethod, I> problem) {
+    super(new IFDSAsIDETabulationProblem<>(problem));
+  }
+
+  /** Returns the facts that hold at the given statement. */
+  @Nonnull
+  public Set<D> ifdsResultsAt(@Nonnull Stmt stmt) {
+    return reachingFactsAt(stmt);
+  }
+
+  /** Wraps an IFDS problem into an IDE problem with identity edge functions. */
+  private static class IFDSAsIDETabulationProblem<D, I extends InterproceduralCFG<Stmt, SootMethod>>
+      implements IDETabulationProblem<Stmt, D, SootMethod, BinaryDomain, I> {
+
+    @Nonnull private final IFDSTabulationProblem<Stmt, D, SootMethod, I> problem;
+    @Nonnull private final EdgeFunction<BinaryDomain> allTop = new AllTop<>(BinaryDomain.TOP);
+
+    IFDSAsIDETabulationProblem(@Nonnull IFDSTabulationProblem<Stmt, D, SootMethod, I> problem) {
+      this.problem = problem;
+    }
+
+    @Override
+    public EdgeFunctions<Stmt, D, SootMethod, BinaryDomain> edgeFunctions() {
+      return new EdgeFunctions<Stmt, D, SootMethod, BinaryDomain>() {
+        @Override
+        public EdgeFunction<BinaryDomain> getNormalEdgeFunction(
+            Stmt curr, D currNode, Stmt succ, D succNode) {
+          return EdgeIdentity.v();
+        }
+
+        @Override
+        public EdgeFunction<BinaryDomain> getCallEdgeFunction(
+            Stmt callStmt, D srcNode, SootMethod destinationMethod, D destNode) {
+          return EdgeIdentity.v();
+        }
+
+        @Override
+        public EdgeFunction<BinaryDomain> getReturnEdgeFunction(
+            Stmt callSite,
+            SootMethod calleeMethod,
+            Stmt exitStmt,
+            D exitNode,
+            Stmt returnSite,
+            D retNode) {
+          return EdgeIdentity.v();
+        }
+
+        @Override
+        public EdgeFunction<BinaryDomain> getCallToReturnEdgeFunction(
+            Stmt callStmt, D callNode, Stmt returnSite, D returnSideNode) {
+          return EdgeIdentity.v();
+        }
+      };
+    }
+
+    @Override
+    public MeetLattice<BinaryDomain> meetLattice() {
+      return new MeetLattice<BinaryDomain>() {
+        @Override
+        public BinaryDomain topElement() {
+          return BinaryDomain.TOP;
+        }
+
+        @Override
+        public BinaryDomain bottomElement() {
+          return BinaryDomain.BOTTOM;
+        }
+
+        @Override
+        public BinaryDomain meet(BinaryDomain left, BinaryDomain right) {
+          return left == BinaryDomain.TOP && right == BinaryDomain.TOP
+              ? BinaryDomain.TOP
+              : BinaryDomain.BOTTOM;
+        }
+      };
+    }
+
+    @Override
+    public EdgeFunction<BinaryDomain> allTopFunction() {
+      return allTop;
+    }
+
+    @Override
+    public FlowFunctions<Stmt, D, SootMethod> flowFunctions() {
+      return problem.flowFunctions();
+    }
+
+    @Override
+    public I interproceduralCFG() {
+      return problem.interproceduralCFG();
+    }
+
+    @Override
+    public Map<Stmt, Set<D>> initialSeeds() {
+      return problem.initialSeeds();
+    }
+
+    @Override
+    public D zeroValue() {
+      return problem.zeroValue();
+    }
+
+    @Override
+    public boolean followReturnsPastSeeds() {
+      return problem.followReturnsPastSeeds();
+    }
+
+    @Override
+    public boolean autoAddZero() {
+      return problem.autoAddZero();
+    }
+
+    @Override
+    public int numThreads() {
+      return problem.numThreads();
+    }
+
+    @Override
+    public boolean computeValues() {
+      // the facts that reach a statement are known from the jump functions already
+      return false;
+    }
+
+    @Override
+    public boolean recordEdges() {
+      return problem.recordEdges();
+    }
+  }
+}
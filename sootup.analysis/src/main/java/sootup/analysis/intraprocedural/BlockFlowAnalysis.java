@@ -0,0 +1,264 @@
+package sootup.analysis.intraprocedural;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import javax.annotation.Nonnull;
+import sootup.core.graph.BasicBlock;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.common.stmt.Stmt;
+
+/**
+ * A flow analysis that iterates over the basic blocks of a {@link StmtGraph} instead of its
+ * statements. The fixed point is computed on the flow into and out of each block, so merges and
+ * copies of the flow happen once per block. The flow before and after the statements of a block is
+ * computed from the flow into the block when it is first requested.
+ *
+ * <p>Like {@link FlowAnalysis}, only the unexceptional flow is followed and the trap handlers are
+ * treated as entries of a forward analysis.
+ *
+ * @param <A> abstraction type for the Facts
+ */
+public abstract class BlockFlowAnalysis<A> extends AbstractFlowAnalysis<A> {
+
+  /** Maps graph nodes to OUT sets, filled block by block on request. */
+  @Nonnull protected final Map<Stmt, A> stmtToAfterFlow;
+
+  /** The reachable blocks in reverse postorder of the direction of the analysis. */
+  @Nonnull private List<BasicBlock<?>> blocks = Collections.emptyList();
+
+  @Nonnull private final Map<BasicBlock<?>, Integer> blockIds = new HashMap<>();
+
+  /** The flow into each block in the direction of the analysis. */
+  @Nonnull private final List<A> blockInFlows = new ArrayList<>();
+
+  /** The flow out of each block in the direction of the analysis. */
+  @Nonnull private final List<A> blockOutFlows = new ArrayList<>();
+
+  /** Constructs a flow analysis on the given <code>StmtGraph</code>. */
+  public BlockFlowAnalysis(@Nonnull StmtGraph<? extends BasicBlock<?>> graph) {
+    super(graph);
+    this.stmtToAfterFlow = new IdentityHashMap<>(graph.getNodes().size() * 2 + 1);
+  }
+
+  /**
+   * Given the <code>in</code> flow of the statement <code>d</code>, computes its <code>out</code>
+   * flow. As in {@link FlowAnalysis#flowThrough(Object, Stmt, Object)}, <code>in</code> is the
+   * flow after the statement in a backward analysis and <code>out</code> is the flow before it.
+   */
+  protected abstract void flowThrough(@Nonnull A in, @Nonnull Stmt d, @Nonnull A out);
+
+  /**
+   * Given the <code>in</code> flow of the block, computes its <code>out</code> flow in the
+   * direction of the analysis. By default, the statements of the block are passed one after the
+   * other. Analyses whose transfer functions can be composed, e.g. gen/kill analyses, can override
+   * this method to apply a summary of the whole block instead.
+   */
+  protected void flowThroughBlock(@Nonnull A in, @Nonnull BasicBlock<?> block, @Nonnull A out) {
+    final List<Stmt> stmts = block.getStmts();
+    final int size = stmts.size();
+    if (size == 0) {
+      copy(in, out);
+      return;
+    }
+    final boolean isForward = isForward();
+    // alternate between two intermediate flows, so that in and out of a statement never alias
+    final A even = size > 1 ? newInitialFlow() : null;
+    final A odd = size > 2 ? newInitialFlow() : null;
+    A current = in;
+    for (int i = 0; i < size; i++) {
+      final Stmt stmt = stmts.get(isForward ? i : size - 1 - i);
+      final A target = i == size - 1 ? out : (i % 2 == 0 ? even : odd);
+      flowThrough(current, stmt, target);
+      current = target;
+    }
+  }
+
+  @Override
+  protected void execute() {
+    blocks = orderBlocks();
+    blockIds.clear();
+    blockInFlows.clear();
+    blockOutFlows.clear();
+    stmtToBeforeFlow.clear();
+    stmtToAfterFlow.clear();
+    for (int i = 0; i < blocks.size(); i++) {
+      blockIds.put(blocks.get(i), i);
+      blockInFlows.add(newInitialFlow());
+      blockOutFlows.add(newInitialFlow());
+    }
+    final boolean isForward = isForward();
+    final Set<BasicBlock<?>> entries = getEntryBlocks();
+
+    final int blockCount = blocks.size();
+    final BitSet pending = new BitSet(blockCount);
+    pending.set(0, blockCount);
+    final A out = newInitialFlow();
+    for (int b = pending.nextSetBit(0); b >= 0; b = pending.nextSetBit(0)) {
+      pending.clear(b);
+      final BasicBlock<?> block = blocks.get(b);
+      final A in = blockInFlows.get(b);
+
+      // merge the flows out of the preceding blocks, the entries merge the initial flow as well
+      boolean isFirst = true;
+      if (entries.contains(block)) {
+        isFirst = false;
+        copy(newInitialFlow(), in);
+      }
+      final Stmt head = isForward ? block.getHead() : block.getTail();
+      for (BasicBlock<?> pred : next(block, !isForward)) {
+        Integer predId = blockIds.get(pred);
+        if (predId == null) {
+          // not reachable in the direction of the analysis
+          continue;
+        }
+        if (isFirst) {
+          isFirst = false;
+          copy(blockOutFlows.get(predId), in);
+        } else {
+          mergeInto(head, in, blockOutFlows.get(predId));
+        }
+      }
+
+      flowThroughBlock(in, block, out);
+      final A oldOut = blockOutFlows.get(b);
+      if (!out.equals(oldOut)) {
+        copy(out, oldOut);
+        for (BasicBlock<?> succ : next(block, isForward)) {
+          Integer succId = blockIds.get(succ);
+          if (succId != null) {
+            pending.set(succId);
+          }
+        }
+      }
+    }
+  }
+
+  /** Returns the blocks whose statements are the entries in the direction of the analysis. */
+  @Nonnull
+  private Set<BasicBlock<?>> getEntryBlocks() {
+    final FlowAnalysis.AnalysisDirection direction =
+        isForward()
+            ? FlowAnalysis.AnalysisDirection.FORWARD
+            : FlowAnalysis.AnalysisDirection.BACKWARD;
+    final List<Stmt> entryStmts = direction.getEntries(graph);
+    final Set<BasicBlock<?>> entries = new HashSet<>();
+    for (Stmt stmt : entryStmts) {
+      entries.add(graph.getBlockOf(stmt));
+    }
+    if (entries.isEmpty() && !isForward()) {
+      // a method without a return, e.g. an infinite loop, can be left from any block
+      entries.addAll(graph.getBlocks());
+    }
+    return entries;
+  }
+
+  /** Orders the blocks that are reachable from the entries in reverse postorder. */
+  @Nonnull
+  private List<BasicBlock<?>> orderBlocks() {
+    final boolean isForward = isForward();
+    final List<BasicBlock<?>> postorder = new ArrayList<>();
+    final Set<BasicBlock<?>> visited = new HashSet<>();
+    final Deque<BasicBlock<?>> stack = new ArrayDeque<>();
+    final Deque<Iterator<? extends BasicBlock<?>>> iterators = new ArrayDeque<>();
+    for (BasicBlock<?> entry : getEntryBlocks()) {
+      if (!visited.add(entry)) {
+        continue;
+      }
+      stack.push(entry);
+      iterators.push(next(entry, isForward).iterator());
+      while (!stack.isEmpty()) {
+        final Iterator<? extends BasicBlock<?>> iterator = iterators.peek();
+        if (iterator.hasNext()) {
+          final BasicBlock<?> succ = iterator.next();
+          if (visited.add(succ)) {
+            stack.push(succ);
+            iterators.push(next(succ, isForward).iterator());
+          }
+        } else {
+          postorder.add(stack.pop());
+          iterators.pop();
+        }
+      }
+    }
+    Collections.reverse(postorder);
+    return postorder;
+  }
+
+  /** Returns the successors of the block in the given direction. */
+  @Nonnull
+  private static List<? extends BasicBlock<?>> next(
+      @Nonnull BasicBlock<?> block, boolean isForward) {
+    return isForward ? block.getSuccessors() : block.getPredecessors();
+  }
+
+  /** Accessor function returning value of IN set for s. */
+  @Nonnull
+  @Override
+  public A getFlowBefore(@Nonnull Stmt s) {
+    A a = stmtToBeforeFlow.get(s);
+    if (a == null && materialize(s)) {
+      a = stmtToBeforeFlow.get(s);
+    }
+    return a == null ? newInitialFlow() : a;
+  }
+
+  /** Accessor function returning value of OUT set for s. */
+  @Nonnull
+  public A getFlowAfter(@Nonnull Stmt s) {
+    A a = stmtToAfterFlow.get(s);
+    if (a == null && materialize(s)) {
+      a = stmtToAfterFlow.get(s);
+    }
+    return a == null ? newInitialFlow() : a;
+  }
+
+  /**
+   * Computes the flow before and after each statement of the block of <code>s</code> from the flow
+   * into the block. Returns false if the block was not reached by the analysis.
+   */
+  private boolean materialize(@Nonnull Stmt s) {
+    if (!graph.containsNode(s)) {
+      return false;
+    }
+    final BasicBlock<?> block = graph.getBlockOf(s);
+    final Integer blockId = blockIds.get(block);
+    if (blockId == null) {
+      return false;
+    }
+    final boolean isForward = isForward();
+    final Map<Stmt, A> inFlows = isForward ? stmtToBeforeFlow : stmtToAfterFlow;
+    final Map<Stmt, A> outFlows = isForward ? stmtToAfterFlow : stmtToBeforeFlow;
+    final List<Stmt> stmts = block.getStmts();
+    A current = blockInFlows.get(blockId);
+    for (int i = 0; i < stmts.size(); i++) {
+      final Stmt stmt = stmts.get(isForward ? i : stmts.size() - 1 - i);
+      final A out = newInitialFlow();
+      flowThrough(current, stmt, out);
+      inFlows.put(stmt, current);
+      outFlows.put(stmt, out);
+      current = out;
+    }
+    return true;
+  }
+}
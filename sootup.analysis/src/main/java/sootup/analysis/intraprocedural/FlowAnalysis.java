@@ -25,6 +25,7 @@ package sootup.analysis.intraprocedural;
 import java.util.*;
 import javax.annotation.Nonnull;
 import sootup.core.graph.BasicBlock;
+import sootup.core.graph.DenseNumbering;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.common.stmt.JGotoStmt;
 import sootup.core.jimple.common.stmt.Stmt;
@@ -99,7 +100,10 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
 
       Deque<Entry<F>> s = new ArrayDeque<>(n);
       List<Entry<F>> universe = new ArrayList<>(n);
-      Map<Stmt, Entry<F>> visited = new HashMap<>(((n + 1) * 4) / 3);
+      // the entries by the dense id of their stmt
+      final DenseNumbering<Stmt> numbering = g.getStmtNumbering();
+      @SuppressWarnings("unchecked")
+      Entry<F>[] visited = new Entry[numbering.size()];
 
       // out of universe node
       Entry<F> superEntry = new Entry<F>(null, null);
@@ -158,7 +162,7 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
         }
       }
 
-      visitEntry(visited, superEntry, entries);
+      visitEntry(visited, numbering, superEntry, entries);
       superEntry.inFlow = entryFlow;
       superEntry.outFlow = entryFlow;
 
@@ -179,7 +183,7 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
             w.number = s.size();
             s.add(w);
 
-            visitEntry(visited, w, direction.getOut(g, w.data));
+            visitEntry(visited, numbering, w, direction.getOut(g, w.data));
 
             // save old
             si[index] = i;
@@ -209,7 +213,7 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
 
     @Nonnull
     private static <D, F> Entry<F>[] visitEntry(
-        Map<Stmt, Entry<F>> visited, Entry<F> v, List<Stmt> out) {
+        Entry<F>[] visited, DenseNumbering<Stmt> numbering, Entry<F> v, List<Stmt> out) {
       final int n = out.size();
       @SuppressWarnings("unchecked")
       Entry<F>[] a = new Entry[n];
@@ -217,7 +221,7 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
       assert (out instanceof RandomAccess);
 
       for (int i = 0; i < n; i++) {
-        a[i] = getEntryOf(visited, out.get(i), v);
+        a[i] = getEntryOf(visited, numbering, out.get(i), v);
       }
 
       return v.out = a;
@@ -225,16 +229,16 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
 
     @Nonnull
     private static <F> Entry<F> getEntryOf(
-        @Nonnull Map<Stmt, Entry<F>> visited, @Nonnull Stmt stmt, @Nonnull Entry<F> v) {
+        @Nonnull Entry<F>[] visited,
+        @Nonnull DenseNumbering<Stmt> numbering,
+        @Nonnull Stmt stmt,
+        @Nonnull Entry<F> v) {
       // either we reach a new node or a merge node, the latter one is rare
-      // so put and restore should be better that a lookup
-
-      // add and restore if required
-      Entry<F> newEntry = new Entry<>(stmt, v);
-      Entry<F> oldEntry = visited.putIfAbsent(stmt, newEntry);
-
-      // no restore required
+      final int id = numbering.getId(stmt);
+      Entry<F> oldEntry = visited[id];
       if (oldEntry == null) {
+        Entry<F> newEntry = new Entry<>(stmt, v);
+        visited[id] = newEntry;
         return newEntry;
       }
 
@@ -0,0 +1,40 @@
+package sootup.analysis.intraprocedural;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import sootup.core.graph.BasicBlock;
+import sootup.core.graph.StmtGraph;
+
+/** A forward flow analysis that iterates over basic blocks, see {@link BlockFlowAnalysis}. */
+public abstract class ForwardBlockFlowAnalysis<A> extends BlockFlowAnalysis<A> {
+
+  /** Construct the analysis from StmtGraph. */
+  public <B extends BasicBlock<B>> ForwardBlockFlowAnalysis(StmtGraph<B> graph) {
+    super(graph);
+  }
+
+  @Override
+  protected boolean isForward() {
+    return true;
+  }
+}
@@ -0,0 +1,263 @@
+package sootup.analysis.interprocedural.ide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import heros.DefaultSeeds;
+import heros.EdgeFunction;
+import heros.EdgeFunctions;
+import heros.FlowFunction;
+import heros.FlowFunctions;
+import heros.InterproceduralCFG;
+import heros.MeetLattice;
+import heros.edgefunc.EdgeIdentity;
+import heros.flowfunc.Identity;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.analysis.interprocedural.icfg.JimpleBasedInterproceduralCFG;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.model.SourceType;
+import sootup.java.bytecode.inputlocation.DefaultRTJarAnalysisInputLocation;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.views.JavaView;
+
+/**
+ * Compares the {@link ParallelIDESolver} with the sequential heros solver on a problem with a
+ * non-trivial lattice: the value of the zero fact at a statement is the length of the shortest
+ * valid path from the entry to the statement. Calls are only passed via the end summaries of the
+ * callees, so stale summaries show up as too long paths.
+ */
+@Tag("Java8")
+public class ParallelIDESolverTest {
+
+  private static final Integer NO_PATH = Integer.MAX_VALUE;
+
+  /** adds a fixed distance; the distance {@link #NO_PATH} is the allTop function */
+  private static final class Distance implements EdgeFunction<Integer> {
+    private final int distance;
+
+    Distance(int distance) {
+      this.distance = distance;
+    }
+
+    private static int add(int a, int b) {
+      return a == NO_PATH || b == NO_PATH ? NO_PATH : a + b;
+    }
+
+    private static int distanceOf(EdgeFunction<Integer> function) {
+      return function instanceof EdgeIdentity ? 0 : ((Distance) function).distance;
+    }
+
+    @Override
+    public Integer computeTarget(Integer source) {
+      return add(source, distance);
+    }
+
+    @Override
+    public EdgeFunction<Integer> composeWith(EdgeFunction<Integer> secondFunction) {
+      return new Distance(add(distance, distanceOf(secondFunction)));
+    }
+
+    @Override
+    public EdgeFunction<Integer> joinWith(EdgeFunction<Integer> otherFunction) {
+      return new Distance(Math.min(distance, distanceOf(otherFunction)));
+    }
+
+    @Override
+    public boolean equalTo(EdgeFunction<Integer> other) {
+      return (other instanceof Distance || other instanceof EdgeIdentity)
+          && distanceOf(other) == distance;
+    }
+
+    @Override
+    public String toString() {
+      return "+" + distance;
+    }
+  }
+
+  private static final class ShortestPathProblem
+      extends DefaultJimpleIDETabulationProblem<
+          Object, Integer, InterproceduralCFG<Stmt, SootMethod>> {
+
+    private final SootMethod entryMethod;
+    private final int numThreads;
+
+    ShortestPathProblem(
+        InterproceduralCFG<Stmt, SootMethod> icfg, SootMethod entryMethod, int numThreads) {
+      super(icfg);
+      this.entryMethod = entryMethod;
+      this.numThreads = numThreads;
+    }
+
+    @Override
+    public Map<Stmt, Set<Object>> initialSeeds() {
+      return DefaultSeeds.make(
+          Collections.singleton(entryMethod.getBody().getStmtGraph().getStartingStmt()),
+          zeroValue());
+    }
+
+    @Override
+    protected Object createZeroValue() {
+      return "<<zero>>";
+    }
+
+    @Override
+    protected FlowFunctions<Stmt, Object, SootMethod> createFlowFunctionsFactory() {
+      return new FlowFunctions<Stmt, Object, SootMethod>() {
+        @Override
+        public FlowFunction<Object> getNormalFlowFunction(Stmt curr, Stmt succ) {
+          return Identity.v();
+        }
+
+        @Override
+        public FlowFunction<Object> getCallFlowFunction(Stmt callStmt, SootMethod destination) {
+          return Identity.v();
+        }
+
+        @Override
+        public FlowFunction<Object> getReturnFlowFunction(
+            Stmt callSite, SootMethod callee, Stmt exitStmt, Stmt returnSite) {
+          return Identity.v();
+        }
+
+        @Override
+        public FlowFunction<Object> getCallToReturnFlowFunction(Stmt callSite, Stmt returnSite) {
+          return Identity.v();
+        }
+      };
+    }
+
+    @Override
+    protected EdgeFunctions<Stmt, Object, SootMethod, Integer> createEdgeFunctionsFactory() {
+      return new EdgeFunctions<Stmt, Object, SootMethod, Integer>() {
+        @Override
+        public EdgeFunction<Integer> getNormalEdgeFunction(
+            Stmt curr, Object currNode, Stmt succ, Object succNode) {
+          return new Distance(1);
+        }
+
+        @Override
+        public EdgeFunction<Integer> getCallEdgeFunction(
+            Stmt callStmt, Object srcNode, SootMethod destinationMethod, Object destNode) {
+          return new Distance(1);
+        }
+
+        @Override
+        public EdgeFunction<Integer> getReturnEdgeFunction(
+            Stmt callSite,
+            SootMethod calleeMethod,
+            Stmt exitStmt,
+            Object exitNode,
+            Stmt returnSite,
+            Object retNode) {
+          return new Distance(1);
+        }
+
+        @Override
+        public EdgeFunction<Integer> getCallToReturnEdgeFunction(
+            Stmt callStmt, Object callNode, Stmt returnSite, Object returnSideNode) {
+          // calls are only passed through the end summaries of the callees
+          return new Distance(NO_PATH);
+        }
+      };
+    }
+
+    @Override
+    protected MeetLattice<Integer> createMeetLattice() {
+      return new MeetLattice<Integer>() {
+        @Override
+        public Integer topElement() {
+          return NO_PATH;
+        }
+
+        @Override
+        public Integer bottomElement() {
+          return 0;
+        }
+
+        @Override
+        public Integer meet(Integer left, Integer right) {
+          return Math.min(left, right);
+        }
+      };
+    }
+
+    @Override
+    protected EdgeFunction<Integer> createAllTopFunction() {
+      return new Distance(NO_PATH);
+    }
+
+    @Override
+    public int numThreads() {
+      return numThreads;
+    }
+  }
+
+  @Test
+  public void testSameResultsAsSequentialSolver() {
+    List<AnalysisInputLocation> inputLocations = new ArrayList<>();
+    inputLocations.add(new DefaultRTJarAnalysisInputLocation());
+    inputLocations.add(
+        new JavaClassPathAnalysisInputLocation(
+            "src/test/resources/ide/binary", SourceType.Application, Collections.emptyList()));
+    JavaView view = new JavaView(inputLocations);
+    SootClass clazz =
+        view.getClass(JavaIdentifierFactory.getInstance().getClassType("DistanceExample")).get();
+    SootMethod entryMethod =
+        clazz.getMethods().stream()
+            .filter(method -> method.getName().equals("entryPoint"))
+            .findFirst()
+            .get();
+
+    JimpleBasedInterproceduralCFG icfg =
+        new JimpleBasedInterproceduralCFG(view, entryMethod.getSignature(), false, false);
+    ShortestPathProblem problem = new ShortestPathProblem(icfg, entryMethod, 1);
+    JimpleIDESolver<Object, Integer, InterproceduralCFG<Stmt, SootMethod>> sequentialSolver =
+        new JimpleIDESolver<>(problem);
+    sequentialSolver.solve();
+
+    List<Stmt> stmts = new ArrayList<>();
+    for (SootMethod method : clazz.getMethods()) {
+      if (method.hasBody()) {
+        stmts.addAll(method.getBody().getStmts());
+      }
+    }
+    List<Integer> expected = new ArrayList<>();
+    for (Stmt stmt : stmts) {
+      Integer distance = sequentialSolver.resultAt(stmt, problem.zeroValue());
+      expected.add(distance == null ? NO_PATH : distance);
+    }
+    List<Stmt> entryStmts = entryMethod.getBody().getStmts();
+    Stmt lastStmt = entryStmts.get(entryStmts.size() - 1);
+    assertNotEquals(NO_PATH, sequentialSolver.resultAt(lastStmt, problem.zeroValue()));
+
+    // repeat on a pool with many threads to provoke races between tasks of the same path edge
+    ForkJoinPool executor = new ForkJoinPool(8);
+    try {
+      for (int run = 0; run < 20; run++) {
+        ParallelIDESolver<Object, Integer, InterproceduralCFG<Stmt, SootMethod>> solver =
+            new ParallelIDESolver<>(new ShortestPathProblem(icfg, entryMethod, 8));
+        solver.setExecutor(executor);
+        solver.solve();
+
+        List<Integer> actual = new ArrayList<>();
+        for (Stmt stmt : stmts) {
+          actual.add(solver.resultAt(stmt, problem.zeroValue()));
+        }
+        assertEquals(expected, actual, "run " + run);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -13,10 +13,10 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import sootup.analysis.interprocedural.icfg.CGEdgeUtil;
-import sootup.analysis.interprocedural.icfg.CGEdgeUtil.CallGraphEdgeType;
 import sootup.analysis.interprocedural.icfg.CalleeMethodSignature;
 import sootup.callgraph.AbstractCallGraphAlgorithm;
 import sootup.callgraph.CallGraph;
+import sootup.callgraph.CallGraphEdgeType;
 import sootup.callgraph.RapidTypeAnalysisAlgorithm;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.jimple.basic.Immediate;
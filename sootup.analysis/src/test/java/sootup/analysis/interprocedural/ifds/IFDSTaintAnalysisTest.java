@@ -29,6 +29,7 @@ import heros.InterproceduralCFG;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import sootup.core.jimple.basic.Local;
@@ -46,9 +47,16 @@ public class IFDSTaintAnalysisTest extends IFDSTaintTestSetUp {
 
   Set<String> getResultsAtLastStatement(
       JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> analysis) {
+    return getNames(analysis.ifdsResultsAt(getLastStatement()));
+  }
+
+  Stmt getLastStatement() {
     SootMethod m = getEntryPointMethod();
     List<Stmt> stmts = m.getBody().getStmts();
-    Set<?> rawSet = analysis.ifdsResultsAt(stmts.get(stmts.size() - 1));
+    return stmts.get(stmts.size() - 1);
+  }
+
+  Set<String> getNames(Set<?> rawSet) {
     Set<String> names = new HashSet<>();
     for (Object fact : rawSet) {
       if (fact instanceof Local) {
@@ -112,4 +120,36 @@ public class IFDSTaintAnalysisTest extends IFDSTaintTestSetUp {
     assertTrue(result.contains("l1"));
     assertFalse(result.contains("l2"));
   }
+
+  @Test
+  public void FunctionTaintWithLazyICFG() {
+    JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> analysis =
+        executeStaticAnalysis("FunctionTaintPropagated", true);
+    Set<String> result = getResultsAtLastStatement(analysis);
+    assertTrue(result.contains("l1"), result + " is missing an element.");
+    assertTrue(result.contains("l2"), result + " is missing an element.");
+  }
+
+  @Test
+  public void FunctionTaintWithParallelSolver() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      ParallelIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> analysis =
+          executeParallelStaticAnalysis("FunctionTaintPropagated", pool);
+      Set<String> result = getNames(analysis.ifdsResultsAt(getLastStatement()));
+      assertTrue(result.contains("l1"), result + " is missing an element.");
+      assertTrue(result.contains("l2"), result + " is missing an element.");
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void FunctionTaintSanitizedWithParallelSolver() {
+    ParallelIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> analysis =
+        executeParallelStaticAnalysis("FunctionTaintSanitized", null);
+    Set<String> result = getNames(analysis.ifdsResultsAt(getLastStatement()));
+    assertTrue(result.contains("l1"));
+    assertFalse(result.contains("l2"));
+  }
 }
@@ -28,6 +28,7 @@ import heros.InterproceduralCFG;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.jupiter.api.Tag;
 import sootup.analysis.interprocedural.icfg.JimpleBasedInterproceduralCFG;
 import sootup.core.inputlocation.AnalysisInputLocation;
@@ -53,18 +54,38 @@ public class IFDSTaintTestSetUp {
 
   protected JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> executeStaticAnalysis(
       String targetTestClassName) {
+    return executeStaticAnalysis(targetTestClassName, false);
+  }
+
+  protected JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> executeStaticAnalysis(
+      String targetTestClassName, boolean lazyICFG) {
     setupSoot(targetTestClassName);
-    runAnalysis();
+    runAnalysis(lazyICFG);
     if (solved == null) {
       throw new NullPointerException("Something went wrong solving the IFDS problem!");
     }
     return solved;
   }
 
-  private void runAnalysis() {
+  protected ParallelIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>>
+      executeParallelStaticAnalysis(String targetTestClassName, ForkJoinPool executor) {
+    setupSoot(targetTestClassName);
+    JimpleBasedInterproceduralCFG icfg =
+        new JimpleBasedInterproceduralCFG(view, entryMethodSignature, null, false, false);
+    IFDSTaintAnalysisProblem problem = new IFDSTaintAnalysisProblem(icfg, entryMethod);
+    ParallelIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> solver =
+        new ParallelIFDSSolver(problem);
+    solver.setExecutor(executor);
+    solver.solve();
+    return solver;
+  }
+
+  private void runAnalysis(boolean lazyICFG) {
 
     JimpleBasedInterproceduralCFG icfg =
-        new JimpleBasedInterproceduralCFG(view, entryMethodSignature, false, false);
+        lazyICFG
+            ? new JimpleBasedInterproceduralCFG(view, entryMethodSignature, null, false, false)
+            : new JimpleBasedInterproceduralCFG(view, entryMethodSignature, false, false);
     IFDSTaintAnalysisProblem problem = new IFDSTaintAnalysisProblem(icfg, entryMethod);
     JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> solver =
         new JimpleIFDSSolver(problem);
@@ -0,0 +1,223 @@
+package sootup.analysis.intraprocedural;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.graph.MutableStmtGraph;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.stmt.BranchingStmt;
+import sootup.core.jimple.common.stmt.FallsThroughStmt;
+import sootup.core.jimple.common.stmt.JIfStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.types.PrimitiveType;
+import sootup.java.core.interceptors.LocalLivenessAnalyser;
+import sootup.java.core.language.JavaJimple;
+
+@Tag("Java8")
+public class BlockFlowAnalysisTest {
+
+  StmtPositionInfo noStmtPositionInfo = StmtPositionInfo.getNoStmtPositionInfo();
+
+  Local a = JavaJimple.newLocal("a", PrimitiveType.getInt());
+  Local b = JavaJimple.newLocal("b", PrimitiveType.getInt());
+  Local c = JavaJimple.newLocal("c", PrimitiveType.getInt());
+
+  FallsThroughStmt aeq0 =
+      JavaJimple.newAssignStmt(a, IntConstant.getInstance(0), noStmtPositionInfo);
+  FallsThroughStmt beqaplus1 =
+      JavaJimple.newAssignStmt(
+          b, JavaJimple.newAddExpr(a, IntConstant.getInstance(1)), noStmtPositionInfo);
+  FallsThroughStmt ceqcplusb =
+      JavaJimple.newAssignStmt(c, JavaJimple.newAddExpr(c, b), noStmtPositionInfo);
+  FallsThroughStmt aeqbplus2 =
+      JavaJimple.newAssignStmt(
+          a, JavaJimple.newAddExpr(b, IntConstant.getInstance(2)), noStmtPositionInfo);
+  BranchingStmt ifalt9 =
+      JavaJimple.newIfStmt(JavaJimple.newGtExpr(IntConstant.getInstance(9), a), noStmtPositionInfo);
+  Stmt ret = JavaJimple.newReturnStmt(c, noStmtPositionInfo);
+
+  /**
+   * a = 0;
+   *
+   * <p>label1: b = a + 1;
+   *
+   * <p>c = c + b;
+   *
+   * <p>a = b + 2;
+   *
+   * <p>if 9 > a goto label1;
+   *
+   * <p>return c;
+   */
+  private MutableStmtGraph createStmtGraph() {
+    MutableStmtGraph graph = new MutableBlockStmtGraph();
+    graph.putEdge(aeq0, beqaplus1);
+    graph.putEdge(beqaplus1, ceqcplusb);
+    graph.putEdge(ceqcplusb, aeqbplus2);
+    graph.putEdge(aeqbplus2, ifalt9);
+    graph.putEdge(ifalt9, JIfStmt.FALSE_BRANCH_IDX, ret);
+    graph.putEdge(ifalt9, JIfStmt.TRUE_BRANCH_IDX, beqaplus1);
+    graph.setStartingStmt(aeq0);
+    return graph;
+  }
+
+  private List<Stmt> getStmts() {
+    return Arrays.asList(aeq0, beqaplus1, ceqcplusb, aeqbplus2, ifalt9, ret);
+  }
+
+  @Test
+  public void sameAsStmtBasedForwardAnalysis() {
+    MutableStmtGraph graph = createStmtGraph();
+    DefinedLocals stmtBased = new DefinedLocals(graph);
+    BlockDefinedLocals blockBased = new BlockDefinedLocals(graph);
+
+    // the flows of the statements are only computed on request
+    assertTrue(blockBased.stmtToBeforeFlow.isEmpty());
+    assertTrue(blockBased.stmtToAfterFlow.isEmpty());
+
+    for (Stmt stmt : getStmts()) {
+      assertEquals(stmtBased.getFlowBefore(stmt), blockBased.getFlowBefore(stmt));
+      assertEquals(stmtBased.getFlowAfter(stmt), blockBased.getFlowAfter(stmt));
+    }
+    assertEquals(Collections.emptySet(), blockBased.getFlowBefore(aeq0));
+    assertEquals(new HashSet<>(Arrays.asList(a, b, c)), blockBased.getFlowBefore(beqaplus1));
+    assertEquals(new HashSet<>(Arrays.asList(a, b, c)), blockBased.getFlowAfter(ret));
+  }
+
+  @Test
+  public void sameAsLivenessAnalysis() {
+    MutableStmtGraph graph = createStmtGraph();
+    LocalLivenessAnalyser liveness = new LocalLivenessAnalyser(graph);
+    BlockLiveLocals blockBased = new BlockLiveLocals(graph);
+
+    for (Stmt stmt : getStmts()) {
+      assertEquals(liveness.getLiveLocalsBeforeStmt(stmt), blockBased.getFlowBefore(stmt));
+      assertEquals(liveness.getLiveLocalsAfterStmt(stmt), blockBased.getFlowAfter(stmt));
+    }
+    assertEquals(Collections.singleton(c), blockBased.getFlowBefore(aeq0));
+    assertEquals(new HashSet<>(Arrays.asList(a, c)), blockBased.getFlowBefore(beqaplus1));
+  }
+
+  private static void addDef(@Nonnull Set<Local> in, @Nonnull Stmt stmt, @Nonnull Set<Local> out) {
+    out.clear();
+    out.addAll(in);
+    stmt.getDef().filter(def -> def instanceof Local).ifPresent(def -> out.add((Local) def));
+  }
+
+  private static void merge(
+      @Nonnull Set<Local> in1, @Nonnull Set<Local> in2, @Nonnull Set<Local> out) {
+    out.clear();
+    out.addAll(in1);
+    out.addAll(in2);
+  }
+
+  private static void copy(@Nonnull Set<Local> source, @Nonnull Set<Local> dest) {
+    dest.clear();
+    dest.addAll(source);
+  }
+
+  /** the locals that may have been defined before a statement */
+  private static class DefinedLocals extends ForwardFlowAnalysis<Set<Local>> {
+
+    DefinedLocals(MutableStmtGraph graph) {
+      super(graph);
+      execute();
+    }
+
+    @Override
+    protected void flowThrough(@Nonnull Set<Local> in, Stmt d, @Nonnull Set<Local> out) {
+      addDef(in, d, out);
+    }
+
+    @Nonnull
+    @Override
+    protected Set<Local> newInitialFlow() {
+      return new HashSet<>();
+    }
+
+    @Override
+    protected void merge(
+        @Nonnull Set<Local> in1, @Nonnull Set<Local> in2, @Nonnull Set<Local> out) {
+      BlockFlowAnalysisTest.merge(in1, in2, out);
+    }
+
+    @Override
+    protected void copy(@Nonnull Set<Local> source, @Nonnull Set<Local> dest) {
+      BlockFlowAnalysisTest.copy(source, dest);
+    }
+  }
+
+  /** the same as {@link DefinedLocals}, but on basic blocks */
+  private static class BlockDefinedLocals extends ForwardBlockFlowAnalysis<Set<Local>> {
+
+    BlockDefinedLocals(MutableStmtGraph graph) {
+      super(graph);
+      execute();
+    }
+
+    @Override
+    protected void flowThrough(@Nonnull Set<Local> in, @Nonnull Stmt d, @Nonnull Set<Local> out) {
+      addDef(in, d, out);
+    }
+
+    @Nonnull
+    @Override
+    protected Set<Local> newInitialFlow() {
+      return new HashSet<>();
+    }
+
+    @Override
+    protected void merge(
+        @Nonnull Set<Local> in1, @Nonnull Set<Local> in2, @Nonnull Set<Local> out) {
+      BlockFlowAnalysisTest.merge(in1, in2, out);
+    }
+
+    @Override
+    protected void copy(@Nonnull Set<Local> source, @Nonnull Set<Local> dest) {
+      BlockFlowAnalysisTest.copy(source, dest);
+    }
+  }
+
+  /** the locals that are live before a statement */
+  private static class BlockLiveLocals extends BackwardBlockFlowAnalysis<Set<Local>> {
+
+    BlockLiveLocals(MutableStmtGraph graph) {
+      super(graph);
+      execute();
+    }
+
+    @Override
+    protected void flowThrough(@Nonnull Set<Local> in, @Nonnull Stmt d, @Nonnull Set<Local> out) {
+      copy(in, out);
+      d.getDef().ifPresent(out::remove);
+      d.getUses().filter(use -> use instanceof Local).forEach(use -> out.add((Local) use));
+    }
+
+    @Nonnull
+    @Override
+    protected Set<Local> newInitialFlow() {
+      return new HashSet<>();
+    }
+
+    @Override
+    protected void merge(
+        @Nonnull Set<Local> in1, @Nonnull Set<Local> in2, @Nonnull Set<Local> out) {
+      BlockFlowAnalysisTest.merge(in1, in2, out);
+    }
+
+    @Override
+    protected void copy(@Nonnull Set<Local> source, @Nonnull Set<Local> dest) {
+      BlockFlowAnalysisTest.copy(source, dest);
+    }
+  }
+}
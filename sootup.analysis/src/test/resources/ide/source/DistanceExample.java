@@ -0,0 +1,37 @@
+public class DistanceExample {
+
+    static int callee(int x) {
+        int r = 0;
+        if (x > 0) {
+            r = x * 2;
+            r = r + 1;
+            r = r * 3;
+            r = r - 4;
+        } else if (x < -5) {
+            r = -x;
+        }
+        for (int i = 0; i < x; i++) {
+            r += i;
+        }
+        return r;
+    }
+
+    static int middle(int a) {
+        int s = callee(a);
+        if (a > 3) {
+            s += callee(a - 1);
+        }
+        return s + callee(s);
+    }
+
+    public void entryPoint() {
+        int t = 0;
+        for (int i = 0; i < 10; i++) {
+            t += middle(i);
+            if (t > 100) {
+                t = callee(t);
+            }
+        }
+        t = middle(t) + callee(t);
+    }
+}
@@ -23,26 +23,26 @@ package sootup.callgraph;
  */
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import sootup.core.IdentifierFactory;
+import javax.annotation.Nullable;
 import sootup.core.jimple.basic.Value;
 import sootup.core.jimple.common.expr.AbstractInvokeExpr;
 import sootup.core.jimple.common.expr.JStaticInvokeExpr;
 import sootup.core.jimple.common.ref.JStaticFieldRef;
 import sootup.core.jimple.common.stmt.JAssignStmt;
 import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
 import sootup.core.model.Method;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootClassMember;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.signatures.MethodSubSignature;
-import sootup.core.typehierarchy.HierarchyComparator;
-import sootup.core.typehierarchy.TypeHierarchy;
 import sootup.core.types.ClassType;
 import sootup.core.views.View;
 import sootup.java.core.JavaIdentifierFactory;
@@ -55,12 +55,46 @@ import sootup.java.core.types.JavaClassType;
  */
 public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
 
-  private static final Logger logger = LoggerFactory.getLogger(AbstractCallGraphAlgorithm.class);
-
   @Nonnull protected final View view;
+  @Nonnull protected final DispatchTable dispatchTable;
+
+  /** processes the work list concurrently if set */
+  @Nullable private ForkJoinPool executor;
 
   protected AbstractCallGraphAlgorithm(@Nonnull View view) {
+    this(view, DispatchTable.of(view));
+  }
+
+  /**
+   * @param dispatchTable resolves the virtual calls; it can be shared with other call graph
+   *     algorithms on the same view to reuse the already resolved dispatch targets.
+   */
+  protected AbstractCallGraphAlgorithm(@Nonnull View view, @Nonnull DispatchTable dispatchTable) {
+    if (dispatchTable.getView() != view) {
+      throw new IllegalArgumentException("The DispatchTable has to be created for the same view.");
+    }
     this.view = view;
+    this.dispatchTable = dispatchTable;
+  }
+
+  @Nonnull
+  public DispatchTable getDispatchTable() {
+    return dispatchTable;
+  }
+
+  /**
+   * Sets the pool in which the methods of the work list are processed concurrently, e.g. {@link
+   * ForkJoinPool#commonPool()}. Most of the time of the call graph construction is spent building
+   * the bodies of newly reached methods, which is done in parallel then. The default is
+   * <code>null</code>, i.e. the work list is processed sequentially in the calling thread.
+   */
+  public void setExecutor(@Nullable ForkJoinPool executor) {
+    this.executor = executor;
+  }
+
+  @Nullable
+  public ForkJoinPool getExecutor() {
+    return executor;
   }
 
   /**
@@ -77,7 +111,7 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
     MutableCallGraph cg = initializeCallGraph();
 
     Deque<MethodSignature> workList = new ArrayDeque<>(entryPoints);
-    Set<MethodSignature> processed = new HashSet<>();
+    Set<MethodSignature> processed = ConcurrentHashMap.newKeySet();
 
     // implicit edge from entry point to static initializer
     addImplicitEdgesOfEntryPoints(entryPoints, cg, workList);
@@ -123,7 +157,7 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
             cg.addMethod(staticInitSig);
           }
           if (!cg.containsCall(methodSignature, staticInitSig)) {
-            cg.addCall(methodSignature, staticInitSig);
+            cg.addCall(methodSignature, staticInitSig, null, CallGraphEdgeType.CLINIT);
             workList.push(staticInitSig);
           }
         });
@@ -135,6 +169,9 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
    *  workList</code> and processed as well. <code>cg</code> is updated accordingly. The method
    * postProcessingMethod is called after a method is processed in the <code>workList</code>.
    *
+   * <p>If an executor is set, the methods are processed concurrently in it, see {@link
+   * #setExecutor(ForkJoinPool)}.
+   *
    * @param view it contains the classes.
    * @param workList it contains all method that have to be processed in the call graph generation.
    *     This list is filled in the execution with found call targets in the call graph algorithm.
@@ -146,57 +183,154 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
       Deque<MethodSignature> workList,
       Set<MethodSignature> processed,
       MutableCallGraph cg) {
+    if (executor != null) {
+      executor.invoke(new WorkListTask(view, workList, processed, cg));
+      return;
+    }
     while (!workList.isEmpty()) {
-      MethodSignature currentMethodSignature = workList.pop();
-      // skip if already processed
-      if (processed.contains(currentMethodSignature)) {
-        continue;
-      }
+      processOnce(view, workList.pop(), workList, processed, cg);
+    }
+  }
 
-      // skip if library class
-      SootClass currentClass =
-          view.getClass(currentMethodSignature.getDeclClassType()).orElse(null);
-      if (currentClass == null || currentClass.isLibraryClass()) {
-        continue;
-      }
+  /**
+   * Processes the given method unless it is processed already. The method is claimed by adding it
+   * to <code>processed</code>, so that only one thread processes it. A skipped method is removed
+   * again, i.e. <code>processed</code> only contains the processed methods in both, the sequential
+   * and the concurrent processing of the work list.
+   */
+  private void processOnce(
+      View view,
+      MethodSignature method,
+      Deque<MethodSignature> workList,
+      Set<MethodSignature> processed,
+      MutableCallGraph cg) {
+    if (processed.add(method) && !processMethod(view, method, workList, cg)) {
+      processed.remove(method);
+    }
+  }
 
-      // perform pre-processing if needed
-      preProcessingMethod(view, currentMethodSignature, workList, cg);
+  /**
+   * Adds the call edges of a single method to the call graph and pushes the found call targets to
+   * the <code>workList</code>. All modifications of <code>cg</code> are synchronized on it, so
+   * methods can be processed concurrently.
+   *
+   * @return false if the method was skipped, i.e. it is not part of the view or a library method.
+   */
+  private boolean processMethod(
+      View view,
+      MethodSignature currentMethodSignature,
+      Deque<MethodSignature> workList,
+      MutableCallGraph cg) {
+    // skip if library class
+    SootClass currentClass = view.getClass(currentMethodSignature.getDeclClassType()).orElse(null);
+    if (currentClass == null || currentClass.isLibraryClass()) {
+      return false;
+    }
+
+    // perform pre-processing if needed
+    preProcessingMethod(view, currentMethodSignature, workList, cg);
 
-      // process the method
+    // process the method
+    synchronized (cg) {
       if (!cg.containsMethod(currentMethodSignature)) {
         cg.addMethod(currentMethodSignature);
       }
+    }
 
-      // transform the method signature to the actual SootMethod
-      SootMethod currentMethod =
-          currentClass.getMethod(currentMethodSignature.getSubSignature()).orElse(null);
+    // transform the method signature to the actual SootMethod
+    SootMethod currentMethod =
+        dispatchTable
+            .getDeclaredMethod(currentClass.getType(), currentMethodSignature.getSubSignature())
+            .orElse(null);
 
-      // get all call targets of invocations in the method body
-      Stream<MethodSignature> invocationTargets = resolveAllCallsFromSourceMethod(currentMethod);
+    // build the method body before the call graph is locked. The call graph retains the body, as
+    // the call sites are its statements, see BodyCache
+    Body body =
+        currentMethod != null && currentMethod.hasBody() ? currentMethod.getBody() : null;
 
-      // get all call targets of implicit edges in the method body
-      Stream<MethodSignature> implicitTargets =
-          resolveAllImplicitCallsFromSourceMethod(view, currentMethod);
+    // get all calls of invocations in the method body
+    List<CallEdge> calls = resolveAllCallsFromSourceMethod(currentMethod, body);
 
-      // save calls in the call graphs
-      Stream.concat(invocationTargets, implicitTargets)
-          .forEach(
-              t -> {
-                if (!cg.containsMethod(t)) {
-                  cg.addMethod(t);
-                }
-                if (!cg.containsCall(currentMethodSignature, t)) {
-                  cg.addCall(currentMethodSignature, t);
-                  workList.push(t);
-                }
-              });
+    // get all call targets of implicit edges in the method body
+    resolveAllImplicitCallsFromSourceMethod(view, currentMethod)
+        .forEach(
+            target ->
+                calls.add(
+                    new CallEdge(
+                        currentMethodSignature, target, null, CallGraphEdgeType.CLINIT)));
+
+    // save calls in the call graphs
+    synchronized (cg) {
+      if (body != null) {
+        cg.retainBody(body);
+      }
+      for (CallEdge call : calls) {
+        MethodSignature t = call.getTargetMethod();
+        if (!cg.containsMethod(t)) {
+          cg.addMethod(t);
+        }
+        boolean newCall = !cg.containsCall(currentMethodSignature, t);
+        cg.addCall(currentMethodSignature, t, call.getStmt(), call.getEdgeType());
+        if (newCall) {
+          workList.push(t);
+        }
+      }
+    }
 
-      // set method as processed
-      processed.add(currentMethodSignature);
+    // perform post-processing if needed
+    postProcessingMethod(view, currentMethodSignature, workList, cg);
+    return true;
+  }
 
-      // perform post-processing if needed
-      postProcessingMethod(view, currentMethodSignature, workList, cg);
+  /**
+   * Processes the work list in a {@link ForkJoinPool}. Each method is processed in its own task,
+   * which forks a new task for every method it discovers. Every method is processed at most once,
+   * see {@link #processOnce}.
+   */
+  private final class WorkListTask extends CountedCompleter<Void> {
+    @Nonnull private final View view;
+    @Nonnull private final Set<MethodSignature> processed;
+    @Nonnull private final MutableCallGraph cg;
+    @Nullable private final MethodSignature method;
+    @Nullable private final Deque<MethodSignature> entries;
+
+    /** the root task that processes the given work list */
+    WorkListTask(
+        @Nonnull View view,
+        @Nonnull Deque<MethodSignature> entries,
+        @Nonnull Set<MethodSignature> processed,
+        @Nonnull MutableCallGraph cg) {
+      super(null);
+      this.view = view;
+      this.processed = processed;
+      this.cg = cg;
+      this.method = null;
+      this.entries = entries;
+    }
+
+    private WorkListTask(@Nonnull WorkListTask parent, @Nonnull MethodSignature method) {
+      super(parent);
+      this.view = parent.view;
+      this.processed = parent.processed;
+      this.cg = parent.cg;
+      this.method = method;
+      this.entries = null;
+    }
+
+    @Override
+    public void compute() {
+      Deque<MethodSignature> workList = entries;
+      if (method != null) {
+        workList = new ArrayDeque<>();
+        processOnce(view, method, workList, processed, cg);
+      }
+      for (MethodSignature target : workList) {
+        if (!processed.contains(target)) {
+          addToPendingCount(1);
+          new WorkListTask(this, target).fork();
+        }
+      }
+      tryComplete();
     }
   }
 
@@ -207,17 +341,28 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
    *
    * @param sourceMethod this signature is used to access the statements contained method body of
    *     the specified method
-   * @return a stream containing all resolved callable method signatures by the given source method
+   * @param body the body of the source method, or null if it has none
+   * @return a list containing a call edge for each resolved target of each invoke statement of the
+   *     given source method
    */
   @Nonnull
-  Stream<MethodSignature> resolveAllCallsFromSourceMethod(SootMethod sourceMethod) {
-    if (sourceMethod == null || !sourceMethod.hasBody()) {
-      return Stream.empty();
+  List<CallEdge> resolveAllCallsFromSourceMethod(SootMethod sourceMethod, @Nullable Body body) {
+    List<CallEdge> calls = new ArrayList<>();
+    if (sourceMethod == null || body == null) {
+      return calls;
     }
 
-    return sourceMethod.getBody().getStmts().stream()
-        .filter(Stmt::containsInvokeExpr)
-        .flatMap(s -> resolveCall(sourceMethod, s.getInvokeExpr()));
+    MethodSignature sourceMethodSignature = sourceMethod.getSignature();
+    for (Stmt stmt : body.getStmts()) {
+      if (!stmt.containsInvokeExpr()) {
+        continue;
+      }
+      CallGraphEdgeType edgeType = CallGraphEdgeType.of(stmt.getInvokeExpr());
+      resolveCall(sourceMethod, stmt)
+          .forEach(
+              target -> calls.add(new CallEdge(sourceMethodSignature, target, stmt, edgeType)));
+    }
+    return calls;
   }
 
   /**
@@ -302,6 +447,9 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
   /**
    * This method enables optional pre-processing of a method in the call graph algorithm
    *
+   * <p>If an executor is set, it is called concurrently for different methods. Modifications of
+   * <code>cg</code> have to be synchronized on it.
+   *
    * @param view view
    * @param sourceMethod the processed method
    * @param workList the current work list that might be extended
@@ -316,6 +464,9 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
   /**
    * This method enables optional post-processing of a method in the call graph algorithm
    *
+   * <p>If an executor is set, it is called concurrently for different methods. Modifications of
+   * <code>cg</code> have to be synchronized on it.
+   *
    * @param view it contains classes and the type hierarchy.
    * @param sourceMethod the processed method
    * @param workList the current work list that might be extended
@@ -331,6 +482,8 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
   @Override
   public CallGraph addClass(@Nonnull CallGraph oldCallGraph, @Nonnull JavaClassType classType) {
     SootClass clazz = view.getClassOrThrow(classType);
+    // the new class changes the dispatch targets of its supertypes
+    dispatchTable.clear();
     Set<MethodSignature> newMethodSignatures =
         clazz.getMethods().stream()
             .map(Method::getSignature)
@@ -347,7 +500,8 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
 
     // Step 1: Add edges from the new methods to other methods
     Deque<MethodSignature> workList = new ArrayDeque<>(newMethodSignatures);
-    Set<MethodSignature> processed = new HashSet<>(oldCallGraph.getMethodSignatures());
+    Set<MethodSignature> processed = ConcurrentHashMap.newKeySet();
+    processed.addAll(oldCallGraph.getMethodSignatures());
     processWorkList(view, workList, processed, updated);
 
     // Step 2: Add edges from old methods to methods overridden in the new class
@@ -377,8 +531,8 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
                   clazz.getMethod(overriddenMethodSig.getSubSignature()).get().getSignature();
 
               if (updated.containsMethod(overriddenMethodSig)) {
-                for (MethodSignature callingMethodSig : updated.callsTo(overriddenMethodSig)) {
-                  updated.addCall(callingMethodSig, overridingMethodSig);
+                for (CallEdge call : updated.callEdgesTo(overriddenMethodSig)) {
+                  updated.addCall(call.withTargetMethod(overridingMethodSig));
                 }
               }
             });
@@ -448,22 +602,32 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
   protected abstract Stream<MethodSignature> resolveCall(
       SootMethod method, AbstractInvokeExpr invokeExpr);
 
+  /**
+   * This method resolves the possible targets of the invoke expression of a given statement. By
+   * default, it resolves the invoke expression via {@link #resolveCall(SootMethod,
+   * AbstractInvokeExpr)}; algorithms that need the call site itself can override it.
+   *
+   * @param method the method object that contains the given statement in the body.
+   * @param stmt the statement that contains the call which is resolved.
+   * @return a stream of all reachable method signatures defined by the applied call graph
+   *     algorithm.
+   */
+  @Nonnull
+  protected Stream<MethodSignature> resolveCall(SootMethod method, Stmt stmt) {
+    return resolveCall(method, stmt.getInvokeExpr());
+  }
+
   /**
    * Searches for the signature of the method that is the concrete implementation of <code>m</code>.
    * This is done by checking each superclass and the class itself for whether it contains the
-   * concrete implementation.
+   * concrete implementation. The result is memoized in the shared {@link DispatchTable#of(View)
+   * DispatchTable} of the view.
+   *
+   * @see DispatchTable#resolveConcreteDispatch(MethodSignature)
    */
   @Nonnull
   public static Optional<MethodSignature> resolveConcreteDispatch(View view, MethodSignature m) {
-    Optional<? extends SootMethod> methodOp = findConcreteMethod(view, m);
-    if (methodOp.isPresent()) {
-      SootMethod method = methodOp.get();
-      if (method.isAbstract()) {
-        return Optional.empty();
-      }
-      return Optional.of(method.getSignature());
-    }
-    return Optional.empty();
+    return DispatchTable.of(view).resolveConcreteDispatch(m);
   }
 
   /**
@@ -471,66 +635,12 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
    *
    * @param view it contains all classes
    * @param sig the signature of the searched method
-   * @return the found method object, or null if the method was not found.
+   * @return the found method object, or an empty Optional if the method was not found.
+   * @see DispatchTable#of(View)
+   * @see DispatchTable#findConcreteMethod(MethodSignature)
    */
   public static Optional<SootMethod> findConcreteMethod(
       @Nonnull View view, @Nonnull MethodSignature sig) {
-    IdentifierFactory identifierFactory = view.getIdentifierFactory();
-    SootClass startclass = view.getClass(sig.getDeclClassType()).orElse(null);
-    if (startclass == null) {
-      logger.warn(
-          "Could not find \""
-              + sig.getDeclClassType()
-              + "\" of method"
-              + sig
-              + " to resolve the concrete method");
-      return Optional.empty();
-    }
-    Optional<SootMethod> startMethod =
-        startclass.getMethod(sig.getSubSignature()).map(method -> (SootMethod) method);
-    if (startMethod.isPresent()) {
-      return startMethod;
-    }
-    TypeHierarchy typeHierarchy = view.getTypeHierarchy();
-
-    List<ClassType> superClasses = typeHierarchy.superClassesOf(sig.getDeclClassType());
-    for (ClassType superClassType : superClasses) {
-      Optional<SootMethod> method =
-          view.getMethod(
-                  identifierFactory.getMethodSignature(superClassType, sig.getSubSignature()))
-              .map(sm -> (SootMethod) sm);
-      if (method.isPresent()) {
-        return method;
-      }
-    }
-    Set<ClassType> interfaces = typeHierarchy.implementedInterfacesOf(sig.getDeclClassType());
-    // interface1 is a sub-interface of interface2
-    // interface1 is a super-interface of interface2
-    // due to multiple inheritance in interfaces
-    final HierarchyComparator hierarchyComparator = new HierarchyComparator(view);
-    Optional<SootMethod> defaultMethod =
-        interfaces.stream()
-            .map(
-                classType ->
-                    view.getMethod(
-                        identifierFactory.getMethodSignature(classType, sig.getSubSignature())))
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .min(
-                (m1, m2) ->
-                    hierarchyComparator.compare(
-                        m1.getDeclaringClassType(), m2.getDeclaringClassType()))
-            .map(method -> (SootMethod) method);
-    ;
-    if (defaultMethod.isPresent()) {
-      return defaultMethod;
-    }
-    logger.warn(
-        "Could not find \""
-            + sig.getSubSignature()
-            + "\" in "
-            + sig.getDeclClassType().getClassName()
-            + " and in its superclasses and interfaces");
-    return Optional.empty();
+    return DispatchTable.of(view).findConcreteMethod(sig);
   }
 }
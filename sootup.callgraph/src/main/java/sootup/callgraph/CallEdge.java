@@ -0,0 +1,129 @@
+package sootup.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+
+/**
+ * A call in a {@link CallGraph} together with its call site, i.e. the statement in the source
+ * method that causes the call, and the {@link CallGraphEdgeType} of the call. A call that was added
+ * without call site has no statement and the type {@link CallGraphEdgeType#INVALID}, see {@link
+ * #hasCallSite()}.
+ */
+public final class CallEdge {
+
+  @Nonnull private final MethodSignature sourceMethod;
+  @Nonnull private final MethodSignature targetMethod;
+  @Nullable private final Stmt stmt;
+  @Nonnull private final CallGraphEdgeType edgeType;
+
+  public CallEdge(
+      @Nonnull MethodSignature sourceMethod,
+      @Nonnull MethodSignature targetMethod,
+      @Nullable Stmt stmt,
+      @Nonnull CallGraphEdgeType edgeType) {
+    this.sourceMethod = sourceMethod;
+    this.targetMethod = targetMethod;
+    this.stmt = stmt;
+    this.edgeType = edgeType;
+  }
+
+  /** Creates a call without call site. */
+  public CallEdge(@Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
+    this(sourceMethod, targetMethod, null, CallGraphEdgeType.INVALID);
+  }
+
+  @Nonnull
+  public MethodSignature getSourceMethod() {
+    return sourceMethod;
+  }
+
+  @Nonnull
+  public MethodSignature getTargetMethod() {
+    return targetMethod;
+  }
+
+  /**
+   * The statement at which the call occurs; null for calls that do not occur at a specific
+   * statement, e.g. calls that were added without a call site or the implicit {@link
+   * CallGraphEdgeType#CLINIT} calls of the call graph algorithms.
+   */
+  @Nullable
+  public Stmt getStmt() {
+    return stmt;
+  }
+
+  @Nonnull
+  public CallGraphEdgeType getEdgeType() {
+    return edgeType;
+  }
+
+  /**
+   * Returns whether the call has a call site, i.e. it was not added by {@link
+   * MutableCallGraph#addCall(MethodSignature, MethodSignature)}. Implicit calls like the {@link
+   * CallGraphEdgeType#CLINIT} calls have a call site without statement.
+   */
+  public boolean hasCallSite() {
+    return stmt != null || edgeType != CallGraphEdgeType.INVALID;
+  }
+
+  /** Returns the call from the same call site to the given target method. */
+  @Nonnull
+  public CallEdge withTargetMethod(@Nonnull MethodSignature targetMethod) {
+    return new CallEdge(sourceMethod, targetMethod, stmt, edgeType);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CallEdge)) {
+      return false;
+    }
+    CallEdge callEdge = (CallEdge) o;
+    return sourceMethod.equals(callEdge.sourceMethod)
+        && targetMethod.equals(callEdge.targetMethod)
+        && stmt == callEdge.stmt
+        && edgeType == callEdge.edgeType;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(sourceMethod, targetMethod, System.identityHashCode(stmt), edgeType);
+  }
+
+  @Override
+  public String toString() {
+    return sourceMethod
+        + " -"
+        + edgeType
+        + "-> "
+        + targetMethod
+        + (stmt == null ? "" : " at " + stmt);
+  }
+}
@@ -22,8 +22,12 @@ package sootup.callgraph;
  * #L%
  */
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Set;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import sootup.core.model.Body;
 import sootup.core.signatures.MethodSignature;
 
 /** The interface of all implemented call graph data structures */
@@ -59,6 +63,36 @@ public interface CallGraph {
   @Nonnull
   Set<MethodSignature> callsTo(@Nonnull MethodSignature targetMethod);
 
+  /**
+   * This method returns the calls of a given method signature together with their call sites.
+   * There is an edge per call site, i.e. a target method can be contained several times. A call
+   * without call site has no statement and the type {@link CallGraphEdgeType#INVALID}.
+   *
+   * @param sourceMethod the method signature of the requested node in the call graph
+   * @return the outgoing edges of the given node in the call graph
+   */
+  @Nonnull
+  default Collection<CallEdge> callEdgesFrom(@Nonnull MethodSignature sourceMethod) {
+    return callsFrom(sourceMethod).stream()
+        .map(target -> new CallEdge(sourceMethod, target))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * This method returns the calls to a given method signature together with their call sites.
+   * There is an edge per call site, i.e. a source method can be contained several times. A call
+   * without call site has no statement and the type {@link CallGraphEdgeType#INVALID}.
+   *
+   * @param targetMethod the method signature of the requested node in the call graph
+   * @return the incoming edges of the given node in the call graph
+   */
+  @Nonnull
+  default Collection<CallEdge> callEdgesTo(@Nonnull MethodSignature targetMethod) {
+    return callsTo(targetMethod).stream()
+        .map(source -> new CallEdge(source, targetMethod))
+        .collect(Collectors.toList());
+  }
+
   /**
    * This method checks if a given method signature is a node in the call graph.
    *
@@ -86,6 +120,16 @@ public interface CallGraph {
    */
   int callCount();
 
+  /**
+   * Returns the bodies whose statements are the call sites of this call graph. The call graph keeps
+   * them reachable, so that a {@link sootup.core.cache.BodyCache} returns these bodies instead of
+   * resolving them again with other statements while the call graph is in use.
+   */
+  @Nonnull
+  default Collection<Body> getRetainedBodies() {
+    return Collections.emptySet();
+  }
+
   /** This method converts the call graph object into dot format and write it to a string file. */
   String exportAsDot();
 
@@ -31,10 +31,8 @@ import sootup.core.jimple.common.expr.JDynamicInvokeExpr;
 import sootup.core.jimple.common.expr.JInterfaceInvokeExpr;
 import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
 import sootup.core.model.MethodModifier;
-import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
-import sootup.core.types.ClassType;
 import sootup.core.views.View;
 
 /**
@@ -53,6 +51,16 @@ public class ClassHierarchyAnalysisAlgorithm extends AbstractCallGraphAlgorithm
     super(view);
   }
 
+  /**
+   * The constructor of the CHA algorithm.
+   *
+   * @param view it contains the data of the classes and methods
+   * @param dispatchTable resolves the virtual calls, e.g. shared with another call graph algorithm
+   */
+  public ClassHierarchyAnalysisAlgorithm(@Nonnull View view, @Nonnull DispatchTable dispatchTable) {
+    super(view, dispatchTable);
+  }
+
   @Nonnull
   @Override
   public CallGraph initialize() {
@@ -83,26 +91,25 @@ public class ClassHierarchyAnalysisAlgorithm extends AbstractCallGraphAlgorithm
       return Stream.empty();
     }
 
-    SootMethod targetMethod = findConcreteMethod(view, targetMethodSignature).orElse(null);
+    SootMethod targetMethod = dispatchTable.findConcreteMethod(targetMethodSignature).orElse(null);
 
     if (targetMethod == null
         || MethodModifier.isStatic(targetMethod.getModifiers())
         || (invokeExpr instanceof JSpecialInvokeExpr)) {
       return Stream.of(targetMethodSignature);
     } else {
-      ArrayList<ClassType> noImplementedMethod = new ArrayList<>();
-      List<MethodSignature> targets =
-          resolveAllCallTargets(targetMethodSignature, noImplementedMethod);
+      DispatchTable.SubtypeTargets subtypeTargets =
+          dispatchTable.resolveSubtypeTargets(targetMethodSignature);
+      List<MethodSignature> targets = new ArrayList<>(subtypeTargets.getImplementations());
       if (!targetMethod.isAbstract()) {
         targets.add(targetMethod.getSignature());
       }
       if (invokeExpr instanceof JInterfaceInvokeExpr) {
         IdentifierFactory factory = view.getIdentifierFactory();
-        noImplementedMethod.stream()
+        subtypeTargets.getClassesWithoutImplementation().stream()
             .map(
                 classType ->
-                    resolveConcreteDispatch(
-                        view,
+                    dispatchTable.resolveConcreteDispatch(
                         factory.getMethodSignature(
                             classType, targetMethodSignature.getSubSignature())))
             .filter(Optional::isPresent)
@@ -113,47 +120,6 @@ public class ClassHierarchyAnalysisAlgorithm extends AbstractCallGraphAlgorithm
     }
   }
 
-  private List<MethodSignature> resolveAllCallTargets(
-      MethodSignature targetMethodSignature, ArrayList<ClassType> noImplementedMethod) {
-    ArrayList<MethodSignature> targets = new ArrayList<>();
-    view.getTypeHierarchy()
-        .subtypesOf(targetMethodSignature.getDeclClassType())
-        .forEach(
-            classType -> {
-              SootClass clazz = view.getClass(classType).orElse(null);
-              if (clazz == null) {
-                return;
-              }
-              // check if method is implemented
-              SootMethod method =
-                  clazz.getMethod(targetMethodSignature.getSubSignature()).orElse(null);
-              if (method != null && !method.isAbstract()) {
-                targets.add(method.getSignature());
-              }
-              // save classes with no implementation of the searched method
-              if (method == null && !clazz.isInterface()) {
-                noImplementedMethod.add(classType);
-              }
-              // collect all default methods
-              clazz
-                  .getInterfaces()
-                  .forEach(
-                      interfaceType -> {
-                        SootMethod defaultMethod =
-                            view.getMethod(
-                                    view.getIdentifierFactory()
-                                        .getMethodSignature(
-                                            interfaceType, targetMethodSignature.getSubSignature()))
-                                .orElse(null);
-                        // contains an implemented default method
-                        if (defaultMethod != null && !defaultMethod.isAbstract()) {
-                          targets.add(defaultMethod.getSignature());
-                        }
-                      });
-            });
-    return targets;
-  }
-
   @Override
   protected void postProcessingMethod(
       View view,
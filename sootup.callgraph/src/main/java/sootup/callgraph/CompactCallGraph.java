@@ -0,0 +1,897 @@
+package sootup.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Preconditions;
+import java.util.*;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.SootClassMemberSignature;
+
+/**
+ * An immutable call graph that numbers its methods densely and stores the calls in compressed
+ * sparse row (CSR) arrays, i.e. the targets of all calls sorted by their source in a single int
+ * array plus an offset per method, and the same for the sources of the calls. In contrast to
+ * {@link GraphBasedCallGraph} there is no object per call, and {@link #callsFrom(MethodSignature)}
+ * and {@link #callsTo(MethodSignature)} return views on these arrays instead of copies.
+ *
+ * <p>A CompactCallGraph is created by a {@link Builder}, which is a {@link MutableCallGraph} and
+ * can be used by the call graph algorithms by overriding {@link
+ * AbstractCallGraphAlgorithm#initializeCallGraph()}, or from any other call graph via {@link
+ * #of(CallGraph)}.
+ */
+public class CompactCallGraph implements CallGraph {
+
+  /** the method of each id */
+  @Nonnull private final MethodSignature[] methods;
+
+  @Nonnull private final Map<MethodSignature, Integer> methodIds;
+
+  /** the calls of method i have the targets outTargets[outOffsets[i]] to [outOffsets[i+1]-1] */
+  @Nonnull private final int[] outOffsets;
+
+  @Nonnull private final int[] outTargets;
+
+  /** the calls to method i have the sources inSources[inOffsets[i]] to [inOffsets[i+1]-1] */
+  @Nonnull private final int[] inOffsets;
+
+  @Nonnull private final int[] inSources;
+
+  /** the index of each call of inSources in outTargets, i.e. the index of its call sites */
+  @Nonnull private final int[] inCalls;
+
+  /**
+   * the call k has the call sites siteStmts[siteOffsets[k]] to [siteOffsets[k+1]-1]; the type of
+   * each call site is stored as the ordinal of its {@link CallGraphEdgeType}
+   */
+  @Nonnull private final int[] siteOffsets;
+
+  @Nonnull private final Stmt[] siteStmts;
+
+  @Nonnull private final byte[] siteEdgeTypes;
+
+  /** the bodies that contain the call sites, see {@link #getRetainedBodies()} */
+  @Nonnull private final Body[] retainedBodies;
+
+  private CompactCallGraph(
+      @Nonnull MethodSignature[] methods,
+      @Nonnull Map<MethodSignature, Integer> methodIds,
+      @Nonnull int[] outOffsets,
+      @Nonnull int[] outTargets,
+      @Nonnull int[] inOffsets,
+      @Nonnull int[] inSources,
+      @Nonnull int[] inCalls,
+      @Nonnull int[] siteOffsets,
+      @Nonnull Stmt[] siteStmts,
+      @Nonnull byte[] siteEdgeTypes,
+      @Nonnull Body[] retainedBodies) {
+    this.methods = methods;
+    this.methodIds = methodIds;
+    this.outOffsets = outOffsets;
+    this.outTargets = outTargets;
+    this.inOffsets = inOffsets;
+    this.inSources = inSources;
+    this.inCalls = inCalls;
+    this.siteOffsets = siteOffsets;
+    this.siteStmts = siteStmts;
+    this.siteEdgeTypes = siteEdgeTypes;
+    this.retainedBodies = retainedBodies;
+  }
+
+  /** Creates a CompactCallGraph with the methods and calls of the given call graph. */
+  @Nonnull
+  public static CompactCallGraph of(@Nonnull CallGraph callGraph) {
+    if (callGraph instanceof CompactCallGraph) {
+      return (CompactCallGraph) callGraph;
+    }
+    if (callGraph instanceof Builder) {
+      return ((Builder) callGraph).build();
+    }
+    Builder builder = new Builder();
+    Set<MethodSignature> methods = callGraph.getMethodSignatures();
+    methods.forEach(builder::addMethod);
+    for (MethodSignature method : methods) {
+      callGraph.callEdgesFrom(method).forEach(builder::addCall);
+    }
+    callGraph.getRetainedBodies().forEach(builder::retainBody);
+    return builder.build();
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> getMethodSignatures() {
+    return Collections.unmodifiableSet(methodIds.keySet());
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> callsFrom(@Nonnull MethodSignature sourceMethod) {
+    int id = idOf(sourceMethod);
+    return new RowSet(outTargets, outOffsets[id], outOffsets[id + 1]);
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> callsTo(@Nonnull MethodSignature targetMethod) {
+    int id = idOf(targetMethod);
+    return new RowSet(inSources, inOffsets[id], inOffsets[id + 1]);
+  }
+
+  @Nonnull
+  @Override
+  public Collection<CallEdge> callEdgesFrom(@Nonnull MethodSignature sourceMethod) {
+    int id = idOf(sourceMethod);
+    List<CallEdge> callEdges = new ArrayList<>();
+    for (int call = outOffsets[id]; call < outOffsets[id + 1]; call++) {
+      addCallEdges(callEdges, sourceMethod, methods[outTargets[call]], call);
+    }
+    return callEdges;
+  }
+
+  @Nonnull
+  @Override
+  public Collection<CallEdge> callEdgesTo(@Nonnull MethodSignature targetMethod) {
+    int id = idOf(targetMethod);
+    List<CallEdge> callEdges = new ArrayList<>();
+    for (int i = inOffsets[id]; i < inOffsets[id + 1]; i++) {
+      addCallEdges(callEdges, methods[inSources[i]], targetMethod, inCalls[i]);
+    }
+    return callEdges;
+  }
+
+  private void addCallEdges(
+      @Nonnull List<CallEdge> callEdges,
+      @Nonnull MethodSignature source,
+      @Nonnull MethodSignature target,
+      int call) {
+    if (siteOffsets[call] == siteOffsets[call + 1]) {
+      callEdges.add(new CallEdge(source, target));
+    }
+    for (int site = siteOffsets[call]; site < siteOffsets[call + 1]; site++) {
+      callEdges.add(
+          new CallEdge(
+              source, target, siteStmts[site], CallGraphEdgeType.ofOrdinal(siteEdgeTypes[site])));
+    }
+  }
+
+  @Override
+  public boolean containsMethod(@Nonnull MethodSignature method) {
+    return methodIds.containsKey(method);
+  }
+
+  @Override
+  public boolean containsCall(
+      @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
+    Integer source = methodIds.get(sourceMethod);
+    Integer target = methodIds.get(targetMethod);
+    if (source == null || target == null) {
+      return false;
+    }
+    return Arrays.binarySearch(outTargets, outOffsets[source], outOffsets[source + 1], target)
+        >= 0;
+  }
+
+  @Override
+  public int callCount() {
+    return outTargets.length;
+  }
+
+  /** Returns the number of methods, i.e. the ids of the methods range from 0 to methodCount-1. */
+  public int methodCount() {
+    return methods.length;
+  }
+
+  /**
+   * Returns the dense id of the given method.
+   *
+   * @throws NullPointerException if the method is not part of the call graph.
+   */
+  public int idOf(@Nonnull MethodSignature method) {
+    Integer id = methodIds.get(method);
+    Preconditions.checkNotNull(id, "Node for " + method + " has not been added yet");
+    return id;
+  }
+
+  @Nonnull
+  public MethodSignature methodOf(int id) {
+    return methods[id];
+  }
+
+  /** Iterates over the ids of the methods called by the method with the given id, in order. */
+  @Nonnull
+  public PrimitiveIterator.OfInt callIdsFrom(int sourceId) {
+    return new RowIterator(outTargets, outOffsets[sourceId], outOffsets[sourceId + 1]);
+  }
+
+  /** Iterates over the ids of the methods calling the method with the given id, in order. */
+  @Nonnull
+  public PrimitiveIterator.OfInt callIdsTo(int targetId) {
+    return new RowIterator(inSources, inOffsets[targetId], inOffsets[targetId + 1]);
+  }
+
+  @Override
+  public String exportAsDot() {
+    StringBuilder dotFormatBuilder = new StringBuilder();
+    // The calls are sorted like in GraphBasedCallGraph: by the source method first and then by the
+    // target method. Both by className, then the method name and then the parameters.
+    Comparator<MethodSignature> sourceComparator =
+        Comparator.comparing((MethodSignature m) -> m.getDeclClassType().getFullyQualifiedName())
+            .thenComparing(MethodSignature::getName)
+            .thenComparing(m -> m.getParameterTypes().toString());
+    Comparator<MethodSignature> targetComparator =
+        Comparator.comparing((MethodSignature m) -> m.getDeclClassType().getClassName())
+            .thenComparing(MethodSignature::getName)
+            .thenComparing(m -> m.getParameterTypes().toString());
+    Arrays.stream(methods)
+        .sorted(sourceComparator)
+        .forEach(
+            source ->
+                callsFrom(source).stream()
+                    .sorted(targetComparator)
+                    .forEach(
+                        target ->
+                            dotFormatBuilder
+                                .append("\t")
+                                .append("\"" + source + "\"")
+                                .append(" -> ")
+                                .append("\"" + target + "\"")
+                                .append(";\n")));
+
+    return "strict digraph ObjectGraph {\n" + dotFormatBuilder + "}";
+  }
+
+  @Nonnull
+  @Override
+  public Collection<Body> getRetainedBodies() {
+    return Collections.unmodifiableList(Arrays.asList(retainedBodies));
+  }
+
+  @Nonnull
+  @Override
+  public MutableCallGraph copy() {
+    return new Builder(this);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder stringBuilder = new StringBuilder("CompactCallGraph(" + callCount() + ")");
+    if (methods.length == 0) {
+      stringBuilder.append(" is empty");
+    } else {
+      Comparator<MethodSignature> comparator =
+          Comparator.comparing((MethodSignature o) -> o.getDeclClassType().toString())
+              .thenComparing(SootClassMemberSignature::getName)
+              .thenComparing(o -> o.getParameterTypes().toString());
+      stringBuilder.append(":\n");
+      Arrays.stream(methods)
+          .sorted(comparator)
+          .forEach(
+              method -> {
+                stringBuilder.append(method).append(":\n");
+                callsFrom(method).stream()
+                    .sorted(comparator)
+                    .forEach(m -> stringBuilder.append("\tto ").append(m).append("\n"));
+                callsTo(method).stream()
+                    .sorted(comparator)
+                    .forEach(m -> stringBuilder.append("\tfrom ").append(m).append("\n"));
+                stringBuilder.append("\n");
+              });
+    }
+    return stringBuilder.toString();
+  }
+
+  /** A read-only view on a sorted row of method ids. */
+  private final class RowSet extends AbstractSet<MethodSignature> {
+    @Nonnull private final int[] ids;
+    private final int from;
+    private final int to;
+
+    private RowSet(@Nonnull int[] ids, int from, int to) {
+      this.ids = ids;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      Integer id = methodIds.get(o);
+      return id != null && Arrays.binarySearch(ids, from, to, id) >= 0;
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<MethodSignature> iterator() {
+      PrimitiveIterator.OfInt iterator = new RowIterator(ids, from, to);
+      return new Iterator<MethodSignature>() {
+        @Override
+        public boolean hasNext() {
+          return iterator.hasNext();
+        }
+
+        @Override
+        public MethodSignature next() {
+          return methods[iterator.nextInt()];
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+
+  private static final class RowIterator implements PrimitiveIterator.OfInt {
+    @Nonnull private final int[] ids;
+    private final int to;
+    private int next;
+
+    private RowIterator(@Nonnull int[] ids, int from, int to) {
+      this.ids = ids;
+      this.next = from;
+      this.to = to;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < to;
+    }
+
+    @Override
+    public int nextInt() {
+      if (next >= to) {
+        throw new NoSuchElementException();
+      }
+      return ids[next++];
+    }
+  }
+
+  /**
+   * The mutable phase of a {@link CompactCallGraph}. The call sites of each method are collected in
+   * int arrays of their targets plus their statements and types, which are packed into the CSR
+   * arrays by {@link #build()}.
+   */
+  public static class Builder implements MutableCallGraph {
+
+    private static final int[] NO_IDS = new int[0];
+    private static final Stmt[] NO_STMTS = new Stmt[0];
+    private static final byte[] NO_EDGE_TYPES = new byte[0];
+
+    /** the type of a call that was added without call site */
+    private static final byte NO_CALL_SITE = -1;
+
+    /** marks a free slot of the open addressing tables, it is no valid {@link #pair(int, int)} */
+    private static final long FREE = -1L;
+
+    @Nonnull private final List<MethodSignature> methods;
+    @Nonnull private final Map<MethodSignature, Integer> methodIds;
+
+    /** the call sites of each method; a target is contained once per call site */
+    @Nonnull private int[][] siteTargets;
+
+    @Nonnull private Stmt[][] siteStmts;
+    @Nonnull private byte[][] siteEdgeTypes;
+    @Nonnull private int[] siteCount;
+
+    /** the distinct sources of the calls to each method */
+    @Nonnull private int[][] in;
+
+    @Nonnull private int[] inSize;
+    private int callCount;
+
+    /** the distinct (source, target) pairs of the calls, see {@link #pair(int, int)} */
+    @Nonnull private final LongHashSet calls;
+
+    /**
+     * an open addressing hash table of the call sites to find duplicates in constant time: each
+     * used slot holds the {@link #pair(int, int)} of the source and the index of the call site in
+     * the row of the source, the other slots are {@link #FREE}
+     */
+    @Nonnull private long[] siteTable;
+
+    private int siteTableSize;
+
+    @Nonnull private final Set<Body> retainedBodies;
+
+    public Builder() {
+      this(16);
+    }
+
+    private Builder(int capacity) {
+      methods = new ArrayList<>(capacity);
+      methodIds = new HashMap<>();
+      siteTargets = new int[capacity][];
+      siteStmts = new Stmt[capacity][];
+      siteEdgeTypes = new byte[capacity][];
+      siteCount = new int[capacity];
+      in = new int[capacity][];
+      inSize = new int[capacity];
+      calls = new LongHashSet(capacity);
+      siteTable = newTable(capacity);
+      retainedBodies = new HashSet<>();
+    }
+
+    private Builder(@Nonnull CompactCallGraph callGraph) {
+      this(Math.max(16, callGraph.methods.length));
+      for (MethodSignature method : callGraph.methods) {
+        addMethod(method);
+      }
+      for (int source = 0; source < callGraph.methods.length; source++) {
+        for (int call = callGraph.outOffsets[source];
+            call < callGraph.outOffsets[source + 1];
+            call++) {
+          int target = callGraph.outTargets[call];
+          if (callGraph.siteOffsets[call] == callGraph.siteOffsets[call + 1]) {
+            addCall(source, target, null, NO_CALL_SITE);
+          }
+          for (int site = callGraph.siteOffsets[call];
+              site < callGraph.siteOffsets[call + 1];
+              site++) {
+            addCall(
+                source, target, callGraph.siteStmts[site], callGraph.siteEdgeTypes[site]);
+          }
+        }
+      }
+      retainedBodies.addAll(Arrays.asList(callGraph.retainedBodies));
+    }
+
+    private Builder(@Nonnull Builder builder) {
+      methods = new ArrayList<>(builder.methods);
+      methodIds = new HashMap<>(builder.methodIds);
+      int capacity = builder.siteTargets.length;
+      siteTargets = new int[capacity][];
+      siteStmts = new Stmt[capacity][];
+      siteEdgeTypes = new byte[capacity][];
+      in = new int[capacity][];
+      for (int id = 0; id < methods.size(); id++) {
+        siteTargets[id] = Arrays.copyOf(builder.siteTargets[id], builder.siteCount[id]);
+        siteStmts[id] = Arrays.copyOf(builder.siteStmts[id], builder.siteCount[id]);
+        siteEdgeTypes[id] = Arrays.copyOf(builder.siteEdgeTypes[id], builder.siteCount[id]);
+        in[id] = Arrays.copyOf(builder.in[id], builder.inSize[id]);
+      }
+      siteCount = builder.siteCount.clone();
+      inSize = builder.inSize.clone();
+      callCount = builder.callCount;
+      calls = new LongHashSet(builder.calls);
+      siteTable = builder.siteTable.clone();
+      siteTableSize = builder.siteTableSize;
+      retainedBodies = new HashSet<>(builder.retainedBodies);
+    }
+
+    @Override
+    public void addMethod(@Nonnull MethodSignature calledMethod) {
+      if (methodIds.containsKey(calledMethod)) {
+        return;
+      }
+      int id = methods.size();
+      if (id == siteTargets.length) {
+        int capacity = id * 2;
+        siteTargets = Arrays.copyOf(siteTargets, capacity);
+        siteStmts = Arrays.copyOf(siteStmts, capacity);
+        siteEdgeTypes = Arrays.copyOf(siteEdgeTypes, capacity);
+        siteCount = Arrays.copyOf(siteCount, capacity);
+        in = Arrays.copyOf(in, capacity);
+        inSize = Arrays.copyOf(inSize, capacity);
+      }
+      methods.add(calledMethod);
+      methodIds.put(calledMethod, id);
+      siteTargets[id] = NO_IDS;
+      siteStmts[id] = NO_STMTS;
+      siteEdgeTypes[id] = NO_EDGE_TYPES;
+      in[id] = NO_IDS;
+    }
+
+    @Override
+    public void addCall(
+        @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
+      addCall(idOf(sourceMethod), idOf(targetMethod), null, NO_CALL_SITE);
+    }
+
+    @Override
+    public void addCall(
+        @Nonnull MethodSignature sourceMethod,
+        @Nonnull MethodSignature targetMethod,
+        @Nullable Stmt stmt,
+        @Nonnull CallGraphEdgeType edgeType) {
+      addCall(idOf(sourceMethod), idOf(targetMethod), stmt, (byte) edgeType.ordinal());
+    }
+
+    private void addCall(int source, int target, @Nullable Stmt stmt, byte edgeType) {
+      Stmt[] stmts = siteStmts[source];
+      byte[] edgeTypes = siteEdgeTypes[source];
+      boolean newCall = calls.add(pair(source, target));
+      if (!newCall) {
+        if (edgeType == NO_CALL_SITE
+            || siteTable[findSite(source, target, stmt, edgeType)] != FREE) {
+          return;
+        }
+        int unknownSlot = findSite(source, target, null, NO_CALL_SITE);
+        if (siteTable[unknownSlot] != FREE) {
+          // the call is known now to happen at the given call site
+          int unknownSite = (int) siteTable[unknownSlot];
+          removeSite(unknownSlot);
+          stmts[unknownSite] = stmt;
+          edgeTypes[unknownSite] = edgeType;
+          insertSite(findSite(source, target, stmt, edgeType), source, unknownSite);
+          return;
+        }
+      }
+      int[] targets = siteTargets[source];
+      int count = siteCount[source];
+      if (count == targets.length) {
+        int capacity = Math.max(4, count * 2);
+        siteTargets[source] = targets = Arrays.copyOf(targets, capacity);
+        siteStmts[source] = stmts = Arrays.copyOf(stmts, capacity);
+        siteEdgeTypes[source] = edgeTypes = Arrays.copyOf(edgeTypes, capacity);
+      }
+      targets[count] = target;
+      stmts[count] = stmt;
+      edgeTypes[count] = edgeType;
+      siteCount[source]++;
+      insertSite(findSite(source, target, stmt, edgeType), source, count);
+      if (newCall) {
+        if (inSize[target] == in[target].length) {
+          in[target] = Arrays.copyOf(in[target], Math.max(4, inSize[target] * 2));
+        }
+        in[target][inSize[target]++] = source;
+        callCount++;
+      }
+    }
+
+    private static long pair(int source, int target) {
+      return ((long) source << 32) | target;
+    }
+
+    private static int mix(long key) {
+      long h = key * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32));
+    }
+
+    /** Returns a table of free slots with a power of two length for the given number of entries. */
+    @Nonnull
+    private static long[] newTable(int capacity) {
+      long[] table = new long[Integer.highestOneBit(Math.max(4, capacity) * 4 - 1)];
+      Arrays.fill(table, FREE);
+      return table;
+    }
+
+    private static int siteHash(int source, int target, @Nullable Stmt stmt, byte edgeType) {
+      return mix((pair(source, target) * 31 + System.identityHashCode(stmt)) * 31 + edgeType);
+    }
+
+    /** Returns the hash of the call site that is referenced by the given slot entry. */
+    private int siteHash(long entry) {
+      int source = (int) (entry >>> 32);
+      int site = (int) entry;
+      return siteHash(
+          source,
+          siteTargets[source][site],
+          siteStmts[source][site],
+          siteEdgeTypes[source][site]);
+    }
+
+    /**
+     * Returns the slot of the siteTable that holds the given call site, or the free slot where it
+     * is inserted. The statement of the call site is compared by identity.
+     */
+    private int findSite(int source, int target, @Nullable Stmt stmt, byte edgeType) {
+      int mask = siteTable.length - 1;
+      int slot = siteHash(source, target, stmt, edgeType) & mask;
+      for (long entry = siteTable[slot]; entry != FREE; entry = siteTable[slot]) {
+        int site = (int) entry;
+        if ((int) (entry >>> 32) == source
+            && siteTargets[source][site] == target
+            && siteStmts[source][site] == stmt
+            && siteEdgeTypes[source][site] == edgeType) {
+          return slot;
+        }
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    /** Stores the call site into the free slot that was returned by {@link #findSite}. */
+    private void insertSite(int slot, int source, int site) {
+      siteTable[slot] = pair(source, site);
+      if (++siteTableSize * 2 > siteTable.length) {
+        long[] oldTable = siteTable;
+        siteTable = newTable(oldTable.length);
+        int mask = siteTable.length - 1;
+        for (long entry : oldTable) {
+          if (entry != FREE) {
+            int newSlot = siteHash(entry) & mask;
+            while (siteTable[newSlot] != FREE) {
+              newSlot = (newSlot + 1) & mask;
+            }
+            siteTable[newSlot] = entry;
+          }
+        }
+      }
+    }
+
+    /**
+     * Frees the given slot of the siteTable while its call site is still unchanged, and moves the
+     * entries of the probe sequence behind it so that they stay reachable.
+     */
+    private void removeSite(int slot) {
+      int mask = siteTable.length - 1;
+      int hole = slot;
+      for (int next = (hole + 1) & mask; siteTable[next] != FREE; next = (next + 1) & mask) {
+        int home = siteHash(siteTable[next]) & mask;
+        // the entry may fill the hole if the hole lies on its way from its home slot to next
+        if (((next - home) & mask) >= ((next - hole) & mask)) {
+          siteTable[hole] = siteTable[next];
+          hole = next;
+        }
+      }
+      siteTable[hole] = FREE;
+      siteTableSize--;
+    }
+
+    private int idOf(@Nonnull MethodSignature method) {
+      Integer id = methodIds.get(method);
+      Preconditions.checkNotNull(id, "Node for " + method + " has not been added yet");
+      return id;
+    }
+
+    /** Packs the collected methods and calls into an immutable {@link CompactCallGraph}. */
+    @Nonnull
+    public CompactCallGraph build() {
+      int methodCount = methods.size();
+      int totalSiteCount = 0;
+      for (int id = 0; id < methodCount; id++) {
+        totalSiteCount += siteCount[id];
+      }
+
+      int[] outOffsets = new int[methodCount + 1];
+      int[] outTargets = new int[callCount];
+      int[] siteOffsets = new int[callCount + 1];
+      Stmt[] packedStmts = new Stmt[totalSiteCount];
+      byte[] packedEdgeTypes = new byte[totalSiteCount];
+      int[] inCount = new int[methodCount];
+      int call = 0;
+      int site = 0;
+      for (int source = 0; source < methodCount; source++) {
+        // order the call sites of the method by their target, keeping their order otherwise
+        int count = siteCount[source];
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+          order[i] = ((long) siteTargets[source][i] << 32) | i;
+        }
+        Arrays.sort(order);
+        outOffsets[source] = call;
+        for (int i = 0; i < count; i++) {
+          int target = (int) (order[i] >>> 32);
+          int index = (int) order[i];
+          if (i == 0 || target != (int) (order[i - 1] >>> 32)) {
+            outTargets[call] = target;
+            siteOffsets[call] = site;
+            inCount[target]++;
+            call++;
+          }
+          if (siteEdgeTypes[source][index] != NO_CALL_SITE) {
+            packedStmts[site] = siteStmts[source][index];
+            packedEdgeTypes[site] = siteEdgeTypes[source][index];
+            site++;
+          }
+        }
+      }
+      outOffsets[methodCount] = call;
+      siteOffsets[call] = site;
+
+      // the sources are visited in ascending order, so the rows of the sources are sorted, too
+      int[] inOffsets = new int[methodCount + 1];
+      for (int id = 0; id < methodCount; id++) {
+        inOffsets[id + 1] = inOffsets[id] + inCount[id];
+      }
+      int[] inSources = new int[callCount];
+      int[] inCalls = new int[callCount];
+      int[] inFill = Arrays.copyOf(inOffsets, methodCount);
+      for (int source = 0; source < methodCount; source++) {
+        for (int i = outOffsets[source]; i < outOffsets[source + 1]; i++) {
+          int position = inFill[outTargets[i]]++;
+          inSources[position] = source;
+          inCalls[position] = i;
+        }
+      }
+
+      return new CompactCallGraph(
+          methods.toArray(new MethodSignature[0]),
+          new HashMap<>(methodIds),
+          outOffsets,
+          outTargets,
+          inOffsets,
+          inSources,
+          inCalls,
+          siteOffsets,
+          Arrays.copyOf(packedStmts, site),
+          Arrays.copyOf(packedEdgeTypes, site),
+          retainedBodies.toArray(new Body[0]));
+    }
+
+    @Nonnull
+    @Override
+    public Set<MethodSignature> getMethodSignatures() {
+      return Collections.unmodifiableSet(methodIds.keySet());
+    }
+
+    @Nonnull
+    @Override
+    public Set<MethodSignature> callsFrom(@Nonnull MethodSignature sourceMethod) {
+      int id = idOf(sourceMethod);
+      return toSet(siteTargets[id], siteCount[id]);
+    }
+
+    @Nonnull
+    @Override
+    public Set<MethodSignature> callsTo(@Nonnull MethodSignature targetMethod) {
+      int id = idOf(targetMethod);
+      return toSet(in[id], inSize[id]);
+    }
+
+    @Nonnull
+    @Override
+    public Collection<CallEdge> callEdgesFrom(@Nonnull MethodSignature sourceMethod) {
+      int id = idOf(sourceMethod);
+      List<CallEdge> callEdges = new ArrayList<>(siteCount[id]);
+      for (int i = 0; i < siteCount[id]; i++) {
+        callEdges.add(toCallEdge(id, i));
+      }
+      return callEdges;
+    }
+
+    @Nonnull
+    @Override
+    public Collection<CallEdge> callEdgesTo(@Nonnull MethodSignature targetMethod) {
+      int id = idOf(targetMethod);
+      List<CallEdge> callEdges = new ArrayList<>();
+      for (int i = 0; i < inSize[id]; i++) {
+        int source = in[id][i];
+        for (int site = 0; site < siteCount[source]; site++) {
+          if (siteTargets[source][site] == id) {
+            callEdges.add(toCallEdge(source, site));
+          }
+        }
+      }
+      return callEdges;
+    }
+
+    @Nonnull
+    private CallEdge toCallEdge(int source, int site) {
+      byte edgeType = siteEdgeTypes[source][site];
+      if (edgeType == NO_CALL_SITE) {
+        return new CallEdge(methods.get(source), methods.get(siteTargets[source][site]));
+      }
+      return new CallEdge(
+          methods.get(source),
+          methods.get(siteTargets[source][site]),
+          siteStmts[source][site],
+          CallGraphEdgeType.ofOrdinal(edgeType));
+    }
+
+    @Nonnull
+    private Set<MethodSignature> toSet(@Nonnull int[] row, int size) {
+      Set<MethodSignature> set = new HashSet<>(size * 2);
+      for (int i = 0; i < size; i++) {
+        set.add(methods.get(row[i]));
+      }
+      return set;
+    }
+
+    @Override
+    public boolean containsMethod(@Nonnull MethodSignature method) {
+      return methodIds.containsKey(method);
+    }
+
+    @Override
+    public boolean containsCall(
+        @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
+      Integer source = methodIds.get(sourceMethod);
+      Integer target = methodIds.get(targetMethod);
+      return source != null && target != null && calls.contains(pair(source, target));
+    }
+
+    @Override
+    public int callCount() {
+      return callCount;
+    }
+
+    @Override
+    public void retainBody(@Nonnull Body body) {
+      retainedBodies.add(body);
+    }
+
+    @Nonnull
+    @Override
+    public Collection<Body> getRetainedBodies() {
+      return Collections.unmodifiableSet(retainedBodies);
+    }
+
+    @Override
+    public String exportAsDot() {
+      return build().exportAsDot();
+    }
+
+    @Nonnull
+    @Override
+    public MutableCallGraph copy() {
+      return new Builder(this);
+    }
+
+    @Override
+    public String toString() {
+      return build().toString();
+    }
+
+    /** An open addressing hash set of longs other than {@link #FREE}, without boxing. */
+    private static final class LongHashSet {
+      @Nonnull private long[] slots;
+      private int size;
+
+      LongHashSet(int capacity) {
+        slots = newTable(capacity);
+      }
+
+      LongHashSet(@Nonnull LongHashSet set) {
+        slots = set.slots.clone();
+        size = set.size;
+      }
+
+      boolean contains(long key) {
+        return slots[find(slots, key)] == key;
+      }
+
+      /** Adds the key and returns whether it was not contained before. */
+      boolean add(long key) {
+        int slot = find(slots, key);
+        if (slots[slot] == key) {
+          return false;
+        }
+        slots[slot] = key;
+        if (++size * 2 > slots.length) {
+          long[] oldSlots = slots;
+          slots = newTable(oldSlots.length);
+          for (long oldKey : oldSlots) {
+            if (oldKey != FREE) {
+              slots[find(slots, oldKey)] = oldKey;
+            }
+          }
+        }
+        return true;
+      }
+
+      /** Returns the slot that holds the key or the free slot where it is inserted. */
+      private static int find(@Nonnull long[] slots, long key) {
+        int mask = slots.length - 1;
+        int slot = mix(key) & mask;
+        while (slots[slot] != FREE && slots[slot] != key) {
+          slot = (slot + 1) & mask;
+        }
+        return slot;
+      }
+    }
+  }
+}
@@ -0,0 +1,336 @@
+package sootup.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.lang.ref.SoftReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sootup.core.ViewChangeListener;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.MethodSubSignature;
+import sootup.core.typehierarchy.HierarchyComparator;
+import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.core.types.ClassType;
+import sootup.core.views.MutableView;
+import sootup.core.views.View;
+
+/**
+ * Resolves virtual dispatch in a {@link View} and memoizes the results, so that the same receiver
+ * type and {@link MethodSubSignature} is resolved once instead of at every call site. It holds
+ *
+ * <ul>
+ *   <li>a method table per class, i.e. its declared methods by their subsignature,
+ *   <li>the concrete method a (type, subsignature) pair dispatches to, see {@link
+ *       #findConcreteMethod(MethodSignature)},
+ *   <li>the implementations of a method in the subtypes of its declaring type, see {@link
+ *       #resolveSubtypeTargets(MethodSignature)}.
+ * </ul>
+ *
+ * <p>A DispatchTable can be shared by several call graph algorithms on the same view and is safe
+ * for concurrent use. {@link #of(View)} returns the table that is shared by all users of a view.
+ * The memoized results reflect the view at the time of the lookup; call {@link #clear()} after
+ * classes were added to the view. The shared table of a {@link MutableView} is cleared
+ * automatically whenever the view changes.
+ */
+public class DispatchTable {
+
+  private static final Logger logger = LoggerFactory.getLogger(DispatchTable.class);
+
+  /**
+   * the shared table of each view. The views are weakly and the tables softly referenced, as a
+   * table references its view; an unused table and its view are released when memory is needed.
+   */
+  private static final Map<View, SoftReference<DispatchTable>> sharedTables = new WeakHashMap<>();
+
+  @Nonnull private final View view;
+
+  /** the declared methods of each class; an empty map if the class is not part of the view */
+  @Nonnull
+  private final Map<ClassType, Map<MethodSubSignature, SootMethod>> methodTables =
+      new ConcurrentHashMap<>();
+
+  @Nonnull
+  private final Map<MethodSignature, Optional<SootMethod>> concreteMethods =
+      new ConcurrentHashMap<>();
+
+  @Nonnull
+  private final Map<MethodSignature, SubtypeTargets> subtypeTargets = new ConcurrentHashMap<>();
+
+  public DispatchTable(@Nonnull View view) {
+    this.view = view;
+  }
+
+  /**
+   * Returns the DispatchTable that is shared by all users of the given view, so that the dispatch
+   * targets are resolved once per view.
+   */
+  @Nonnull
+  public static DispatchTable of(@Nonnull View view) {
+    synchronized (sharedTables) {
+      final SoftReference<DispatchTable> reference = sharedTables.get(view);
+      DispatchTable dispatchTable = reference == null ? null : reference.get();
+      if (dispatchTable == null) {
+        dispatchTable = new DispatchTable(view);
+        if (view instanceof MutableView) {
+          ((MutableView) view).addChangeListener(new ClearOnChange(dispatchTable));
+        }
+        sharedTables.put(view, new SoftReference<>(dispatchTable));
+      }
+      return dispatchTable;
+    }
+  }
+
+  @Nonnull
+  public View getView() {
+    return view;
+  }
+
+  /** Returns the method with the given subsignature that is declared in the given class. */
+  @Nonnull
+  public Optional<SootMethod> getDeclaredMethod(
+      @Nonnull ClassType classType, @Nonnull MethodSubSignature subSignature) {
+    return Optional.ofNullable(getMethodTable(classType).get(subSignature));
+  }
+
+  @Nonnull
+  private Map<MethodSubSignature, SootMethod> getMethodTable(@Nonnull ClassType classType) {
+    Map<MethodSubSignature, SootMethod> methodTable = methodTables.get(classType);
+    if (methodTable == null) {
+      // resolve outside of the map, as resolving the class can take a while
+      methodTable = createMethodTable(classType);
+      final Map<MethodSubSignature, SootMethod> present =
+          methodTables.putIfAbsent(classType, methodTable);
+      if (present != null) {
+        methodTable = present;
+      }
+    }
+    return methodTable;
+  }
+
+  @Nonnull
+  private Map<MethodSubSignature, SootMethod> createMethodTable(@Nonnull ClassType classType) {
+    final Optional<? extends SootClass> sootClass = view.getClass(classType);
+    if (!sootClass.isPresent()) {
+      return Collections.emptyMap();
+    }
+    final Map<MethodSubSignature, SootMethod> methodTable = new HashMap<>();
+    for (SootMethod method : sootClass.get().getMethods()) {
+      methodTable.put(method.getSignature().getSubSignature(), method);
+    }
+    return methodTable;
+  }
+
+  /**
+   * Searches the method object that <code>sig</code> dispatches to. This is done by checking the
+   * class itself, its superclasses and at last the default methods of its interfaces, of which the
+   * most specific one is chosen.
+   *
+   * @return the found method, which can be abstract, or an empty Optional if the method was not
+   *     found.
+   */
+  @Nonnull
+  public Optional<SootMethod> findConcreteMethod(@Nonnull MethodSignature sig) {
+    Optional<SootMethod> concreteMethod = concreteMethods.get(sig);
+    if (concreteMethod == null) {
+      concreteMethod = searchConcreteMethod(sig);
+      concreteMethods.putIfAbsent(sig, concreteMethod);
+    }
+    return concreteMethod;
+  }
+
+  /**
+   * Searches the signature of the method that is the concrete implementation of <code>sig</code>.
+   *
+   * @return the signature of the non-abstract method that <code>sig</code> dispatches to or an
+   *     empty Optional if there is none.
+   */
+  @Nonnull
+  public Optional<MethodSignature> resolveConcreteDispatch(@Nonnull MethodSignature sig) {
+    return findConcreteMethod(sig)
+        .filter(method -> !method.isAbstract())
+        .map(SootMethod::getSignature);
+  }
+
+  @Nonnull
+  private Optional<SootMethod> searchConcreteMethod(@Nonnull MethodSignature sig) {
+    final ClassType startClass = sig.getDeclClassType();
+    if (!view.getClass(startClass).isPresent()) {
+      logger.warn(
+          "Could not find \""
+              + startClass
+              + "\" of method"
+              + sig
+              + " to resolve the concrete method");
+      return Optional.empty();
+    }
+    final MethodSubSignature subSignature = sig.getSubSignature();
+    final Optional<SootMethod> startMethod = getDeclaredMethod(startClass, subSignature);
+    if (startMethod.isPresent()) {
+      return startMethod;
+    }
+
+    final TypeHierarchy typeHierarchy = view.getTypeHierarchy();
+    for (ClassType superClassType : typeHierarchy.superClassesOf(startClass)) {
+      final Optional<SootMethod> method = getDeclaredMethod(superClassType, subSignature);
+      if (method.isPresent()) {
+        return method;
+      }
+    }
+
+    // interface1 is a sub-interface of interface2
+    // interface1 is a super-interface of interface2
+    // due to multiple inheritance in interfaces
+    final HierarchyComparator hierarchyComparator = new HierarchyComparator(view);
+    final Optional<SootMethod> defaultMethod =
+        typeHierarchy.implementedInterfacesOf(startClass).stream()
+            .map(interfaceType -> getDeclaredMethod(interfaceType, subSignature))
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .min(
+                (m1, m2) ->
+                    hierarchyComparator.compare(
+                        m1.getDeclaringClassType(), m2.getDeclaringClassType()));
+    if (defaultMethod.isPresent()) {
+      return defaultMethod;
+    }
+    logger.warn(
+        "Could not find \""
+            + subSignature
+            + "\" in "
+            + startClass.getClassName()
+            + " and in its superclasses and interfaces");
+    return Optional.empty();
+  }
+
+  /**
+   * Collects the implementations of <code>sig</code> in all subtypes of its declaring type,
+   * including the default methods of the interfaces the subtypes implement directly.
+   */
+  @Nonnull
+  public SubtypeTargets resolveSubtypeTargets(@Nonnull MethodSignature sig) {
+    SubtypeTargets targets = subtypeTargets.get(sig);
+    if (targets == null) {
+      targets = collectSubtypeTargets(sig);
+      subtypeTargets.putIfAbsent(sig, targets);
+    }
+    return targets;
+  }
+
+  @Nonnull
+  private SubtypeTargets collectSubtypeTargets(@Nonnull MethodSignature sig) {
+    final MethodSubSignature subSignature = sig.getSubSignature();
+    final List<MethodSignature> implementations = new ArrayList<>();
+    final List<ClassType> classesWithoutImplementation = new ArrayList<>();
+    for (ClassType classType : view.getTypeHierarchy().subtypesOf(sig.getDeclClassType())) {
+      final SootClass clazz = view.getClass(classType).orElse(null);
+      if (clazz == null) {
+        continue;
+      }
+      // check if method is implemented
+      final SootMethod method = getDeclaredMethod(classType, subSignature).orElse(null);
+      if (method != null && !method.isAbstract()) {
+        implementations.add(method.getSignature());
+      }
+      // save classes with no implementation of the searched method
+      if (method == null && !clazz.isInterface()) {
+        classesWithoutImplementation.add(classType);
+      }
+      // collect all default methods
+      for (ClassType interfaceType : clazz.getInterfaces()) {
+        final SootMethod defaultMethod =
+            getDeclaredMethod(interfaceType, subSignature).orElse(null);
+        if (defaultMethod != null && !defaultMethod.isAbstract()) {
+          implementations.add(defaultMethod.getSignature());
+        }
+      }
+    }
+    return new SubtypeTargets(implementations, classesWithoutImplementation);
+  }
+
+  /** Drops all memoized results, e.g. after classes were added to the view. */
+  public void clear() {
+    methodTables.clear();
+    concreteMethods.clear();
+    subtypeTargets.clear();
+  }
+
+  /** Clears the shared table of a {@link MutableView} whenever the view changes. */
+  private static class ClearOnChange implements ViewChangeListener {
+    @Nonnull private final DispatchTable dispatchTable;
+
+    ClearOnChange(@Nonnull DispatchTable dispatchTable) {
+      this.dispatchTable = dispatchTable;
+    }
+
+    @Override
+    public void classAdded(SootClass sc) {
+      dispatchTable.clear();
+    }
+
+    @Override
+    public void classRemoved(SootClass sc) {
+      dispatchTable.clear();
+    }
+
+    @Override
+    public void methodAdded(SootMethod m) {
+      dispatchTable.clear();
+    }
+
+    @Override
+    public void methodRemoved(SootMethod m) {
+      dispatchTable.clear();
+    }
+  }
+
+  /** The implementations of a method in the subtypes of its declaring type. */
+  public static class SubtypeTargets {
+    @Nonnull private final List<MethodSignature> implementations;
+    @Nonnull private final List<ClassType> classesWithoutImplementation;
+
+    SubtypeTargets(
+        @Nonnull List<MethodSignature> implementations,
+        @Nonnull List<ClassType> classesWithoutImplementation) {
+      this.implementations = Collections.unmodifiableList(implementations);
+      this.classesWithoutImplementation =
+          Collections.unmodifiableList(classesWithoutImplementation);
+    }
+
+    /** The non-abstract methods declared in the subtypes and their direct interfaces. */
+    @Nonnull
+    public List<MethodSignature> getImplementations() {
+      return implementations;
+    }
+
+    /** The subclasses that do not declare the method themselves, i.e. which inherit it. */
+    @Nonnull
+    public List<ClassType> getClassesWithoutImplementation() {
+      return classesWithoutImplementation;
+    }
+  }
+}
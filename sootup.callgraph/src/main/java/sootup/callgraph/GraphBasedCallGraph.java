@@ -23,13 +23,13 @@ package sootup.callgraph;
  */
 
 import com.google.common.base.Preconditions;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.jgrapht.graph.DefaultDirectedGraph;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.signatures.SootClassMemberSignature;
 
@@ -53,11 +53,72 @@ public class GraphBasedCallGraph implements MutableCallGraph {
     }
   }
 
-  /** This internal class is used to describe the edge in the graph. */
-  protected static class Edge {}
+  /**
+   * This internal class is used to describe the edge in the graph. It holds the call sites of the
+   * call in the order they were added, i.e. their statements and the ordinals of their {@link
+   * CallGraphEdgeType}, and indexes the types per statement to find duplicated call sites by a
+   * lookup. Edges are copied together with the call graph.
+   */
+  protected static class Edge {
+    private static final Stmt[] NO_STMTS = new Stmt[0];
+    private static final byte[] NO_EDGE_TYPES = new byte[0];
+
+    @Nonnull private Stmt[] stmts;
+    @Nonnull private byte[] edgeTypes;
+    private int callSiteCount;
+
+    /** the bit set of the ordinals of the edge types of each statement of the call sites */
+    @Nonnull private final Map<Stmt, Integer> edgeTypesOfStmt;
+
+    protected Edge() {
+      stmts = NO_STMTS;
+      edgeTypes = NO_EDGE_TYPES;
+      edgeTypesOfStmt = new IdentityHashMap<>(2);
+    }
+
+    protected Edge(@Nonnull Edge edge) {
+      stmts = Arrays.copyOf(edge.stmts, edge.callSiteCount);
+      edgeTypes = Arrays.copyOf(edge.edgeTypes, edge.callSiteCount);
+      callSiteCount = edge.callSiteCount;
+      edgeTypesOfStmt = new IdentityHashMap<>(edge.edgeTypesOfStmt);
+    }
+
+    /** Adds the given call site unless the edge has it already. */
+    protected void addCallSite(@Nullable Stmt stmt, @Nonnull CallGraphEdgeType edgeType) {
+      int types = edgeTypesOfStmt.getOrDefault(stmt, 0);
+      int type = 1 << edgeType.ordinal();
+      if ((types & type) != 0) {
+        return;
+      }
+      edgeTypesOfStmt.put(stmt, types | type);
+      if (callSiteCount == stmts.length) {
+        int capacity = Math.max(2, callSiteCount * 2);
+        stmts = Arrays.copyOf(stmts, capacity);
+        edgeTypes = Arrays.copyOf(edgeTypes, capacity);
+      }
+      stmts[callSiteCount] = stmt;
+      edgeTypes[callSiteCount] = (byte) edgeType.ordinal();
+      callSiteCount++;
+    }
+
+    protected int callSiteCount() {
+      return callSiteCount;
+    }
+
+    @Nullable
+    protected Stmt getStmt(int callSite) {
+      return stmts[callSite];
+    }
+
+    @Nonnull
+    protected CallGraphEdgeType getEdgeType(int callSite) {
+      return CallGraphEdgeType.ofOrdinal(edgeTypes[callSite]);
+    }
+  }
 
   @Nonnull private final DefaultDirectedGraph<Vertex, Edge> graph;
   @Nonnull private final Map<MethodSignature, Vertex> signatureToVertex;
+  @Nonnull private final Set<Body> retainedBodies = new HashSet<>();
 
   /** The constructor of the graph based call graph. it initializes the call graph object. */
   public GraphBasedCallGraph() {
@@ -94,6 +155,22 @@ public class GraphBasedCallGraph implements MutableCallGraph {
     graph.addEdge(vertexOf(sourceMethod), vertexOf(targetMethod), edge);
   }
 
+  @Override
+  public void addCall(
+      @Nonnull MethodSignature sourceMethod,
+      @Nonnull MethodSignature targetMethod,
+      @Nullable Stmt stmt,
+      @Nonnull CallGraphEdgeType edgeType) {
+    Vertex source = vertexOf(sourceMethod);
+    Vertex target = vertexOf(targetMethod);
+    Edge edge = graph.getEdge(source, target);
+    if (edge == null) {
+      edge = new Edge();
+      graph.addEdge(source, target, edge);
+    }
+    edge.addCallSite(stmt, edgeType);
+  }
+
   @Nonnull
   @Override
   public Set<MethodSignature> getMethodSignatures() {
@@ -118,6 +195,37 @@ public class GraphBasedCallGraph implements MutableCallGraph {
         .collect(Collectors.toSet());
   }
 
+  @Nonnull
+  @Override
+  public Collection<CallEdge> callEdgesFrom(@Nonnull MethodSignature sourceMethod) {
+    List<CallEdge> callEdges = new ArrayList<>();
+    for (Edge edge : graph.outgoingEdgesOf(vertexOf(sourceMethod))) {
+      addCallEdges(callEdges, edge);
+    }
+    return callEdges;
+  }
+
+  @Nonnull
+  @Override
+  public Collection<CallEdge> callEdgesTo(@Nonnull MethodSignature targetMethod) {
+    List<CallEdge> callEdges = new ArrayList<>();
+    for (Edge edge : graph.incomingEdgesOf(vertexOf(targetMethod))) {
+      addCallEdges(callEdges, edge);
+    }
+    return callEdges;
+  }
+
+  private void addCallEdges(@Nonnull List<CallEdge> callEdges, @Nonnull Edge edge) {
+    MethodSignature source = graph.getEdgeSource(edge).methodSignature;
+    MethodSignature target = graph.getEdgeTarget(edge).methodSignature;
+    if (edge.callSiteCount() == 0) {
+      callEdges.add(new CallEdge(source, target));
+    }
+    for (int i = 0; i < edge.callSiteCount(); i++) {
+      callEdges.add(new CallEdge(source, target, edge.getStmt(i), edge.getEdgeType(i)));
+    }
+  }
+
   @Override
   public boolean containsMethod(@Nonnull MethodSignature method) {
     return signatureToVertex.containsKey(method);
@@ -137,6 +245,17 @@ public class GraphBasedCallGraph implements MutableCallGraph {
     return graph.edgeSet().size();
   }
 
+  @Override
+  public void retainBody(@Nonnull Body body) {
+    retainedBodies.add(body);
+  }
+
+  @Nonnull
+  @Override
+  public Collection<Body> getRetainedBodies() {
+    return Collections.unmodifiableSet(retainedBodies);
+  }
+
   @Override
   public String exportAsDot() {
     StringBuilder dotFormatBuilder = new StringBuilder();
@@ -190,12 +309,18 @@ public class GraphBasedCallGraph implements MutableCallGraph {
     return "strict digraph ObjectGraph {\n" + dotFormatBuilder + "}";
   }
 
-  @SuppressWarnings("unchecked") // (graph.clone() preserves generic properties)
   @Nonnull
   @Override
   public MutableCallGraph copy() {
-    return new GraphBasedCallGraph(
-        (DefaultDirectedGraph<Vertex, Edge>) graph.clone(), new HashMap<>(signatureToVertex));
+    // the edges collect the call sites, so they are not shared with the copy
+    DefaultDirectedGraph<Vertex, Edge> graphCopy = new DefaultDirectedGraph<>(null, null, false);
+    graph.vertexSet().forEach(graphCopy::addVertex);
+    for (Edge edge : graph.edgeSet()) {
+      graphCopy.addEdge(graph.getEdgeSource(edge), graph.getEdgeTarget(edge), new Edge(edge));
+    }
+    GraphBasedCallGraph copy = new GraphBasedCallGraph(graphCopy, new HashMap<>(signatureToVertex));
+    copy.retainedBodies.addAll(retainedBodies);
+    return copy;
   }
 
   /**
@@ -23,6 +23,9 @@ package sootup.callgraph;
  */
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
 import sootup.core.signatures.MethodSignature;
 
 /**
@@ -45,4 +48,49 @@ public interface MutableCallGraph extends CallGraph {
    * @param targetMethod this paramter defines the target node of the edge in the call graph.
    */
   void addCall(@Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod);
+
+  /**
+   * This method enables to add calls with their call site. Several call sites can be added for the
+   * same source and target method, which are still a single call in {@link #callsFrom} and {@link
+   * #callCount()}.
+   *
+   * @param sourceMethod this parameter defines the source node of the edge in the call graph.
+   * @param targetMethod this parameter defines the target node of the edge in the call graph.
+   * @param stmt the statement in the source method that causes the call, or null if unknown.
+   * @param edgeType the type of the call.
+   */
+  default void addCall(
+      @Nonnull MethodSignature sourceMethod,
+      @Nonnull MethodSignature targetMethod,
+      @Nullable Stmt stmt,
+      @Nonnull CallGraphEdgeType edgeType) {
+    if (!containsCall(sourceMethod, targetMethod)) {
+      addCall(sourceMethod, targetMethod);
+    }
+  }
+
+  /**
+   * Retains the body that contains the call sites of added calls, see {@link #getRetainedBodies()}.
+   *
+   * @param body the body of a source method of this call graph.
+   */
+  default void retainBody(@Nonnull Body body) {}
+
+  /**
+   * Adds the given call with its call site, or without call site if it has none, see {@link
+   * CallEdge#hasCallSite()}. This copies the calls of another call graph.
+   *
+   * @param callEdge the call whose source and target method are already added to the call graph.
+   */
+  default void addCall(@Nonnull CallEdge callEdge) {
+    if (callEdge.hasCallSite()) {
+      addCall(
+          callEdge.getSourceMethod(),
+          callEdge.getTargetMethod(),
+          callEdge.getStmt(),
+          callEdge.getEdgeType());
+    } else {
+      addCall(callEdge.getSourceMethod(), callEdge.getTargetMethod());
+    }
+  }
 }
@@ -23,13 +23,16 @@ package sootup.callgraph;
  */
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import sootup.core.jimple.common.expr.AbstractInvokeExpr;
 import sootup.core.jimple.common.expr.JNewExpr;
 import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
 import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.MethodModifier;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
@@ -46,23 +49,18 @@ import sootup.core.views.View;
  */
 public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
 
-  /**
-   * This private class is used to save reachable calls. Because every method is only processed
-   * once, ignored calls are saved to include them at a later time if their class is instantiated at
-   * a later time.
+  /*
+   * A call to a class that is not instantiated yet is saved in ignoredCalls until the class is
+   * instantiated, together with its call site. Because every method is only processed once, the
+   * call is added at that later time. Saving a call and taking the calls of a class are atomic
+   * operations on the entry of the class, so no call gets lost if methods are processed
+   * concurrently. Both collections are concurrent, as the pre-processing of methods, which fills
+   * them, runs in the threads of the executor, and are only valid during a single construction.
    */
-  private static class Call {
-    @Nonnull final MethodSignature source;
-    @Nonnull final MethodSignature target;
-
-    private Call(@Nonnull MethodSignature source, @Nonnull MethodSignature target) {
-      this.source = source;
-      this.target = target;
-    }
-  }
+  @Nonnull private final Set<ClassType> instantiatedClasses = ConcurrentHashMap.newKeySet();
 
-  @Nonnull private Set<ClassType> instantiatedClasses = Collections.emptySet();
-  @Nonnull private Map<ClassType, List<Call>> ignoredCalls = Collections.emptyMap();
+  @Nonnull
+  private final Map<ClassType, List<CallEdge>> ignoredCalls = new ConcurrentHashMap<>();
 
   /**
    * The constructor of the RTA algorithm.
@@ -73,6 +71,16 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
     super(view);
   }
 
+  /**
+   * The constructor of the RTA algorithm.
+   *
+   * @param view it contains the data of the classes and methods
+   * @param dispatchTable resolves the virtual calls, e.g. shared with another call graph algorithm
+   */
+  public RapidTypeAnalysisAlgorithm(@Nonnull View view, @Nonnull DispatchTable dispatchTable) {
+    super(view, dispatchTable);
+  }
+
   @Nonnull
   @Override
   public CallGraph initialize() {
@@ -83,12 +91,14 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
   @Nonnull
   @Override
   public CallGraph initialize(@Nonnull List<MethodSignature> entryPoints) {
-    instantiatedClasses = new HashSet<>();
-    ignoredCalls = new HashMap<>();
-    CallGraph cg = constructCompleteCallGraph(view, entryPoints);
-    instantiatedClasses = Collections.emptySet();
-    ignoredCalls = Collections.emptyMap();
-    return cg;
+    instantiatedClasses.clear();
+    ignoredCalls.clear();
+    try {
+      return constructCompleteCallGraph(view, entryPoints);
+    } finally {
+      instantiatedClasses.clear();
+      ignoredCalls.clear();
+    }
   }
 
   /**
@@ -96,6 +106,7 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
    * important since the RTA algorithm resolves virtual calls only to instantiated classes
    *
    * @param method this object contains the method body which is inspected.
+   * @return the classes that are instantiated for the first time
    */
   protected List<ClassType> collectInstantiatedClassesInMethod(SootMethod method) {
     if (method == null || method.isAbstract() || method.isNative()) {
@@ -109,12 +120,10 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
             .filter(value -> value instanceof JNewExpr)
             .map(value -> ((JNewExpr) value).getType())
             .collect(Collectors.toSet());
-    List<ClassType> newInstantiatedClassTypes =
-        instantiated.stream()
-            .filter(classType -> !instantiatedClasses.contains(classType))
-            .collect(Collectors.toList());
-    instantiatedClasses.addAll(instantiated);
-    return newInstantiatedClassTypes;
+    // add() claims the class, so only one method reports it as new if processed concurrently
+    return instantiated.stream()
+        .filter(classType -> instantiatedClasses.add(classType))
+        .collect(Collectors.toList());
   }
 
   /**
@@ -132,25 +141,42 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
   @Nonnull
   protected Stream<MethodSignature> resolveCall(
       SootMethod sourceMethod, AbstractInvokeExpr invokeExpr) {
+    return resolveCall(sourceMethod, invokeExpr, null);
+  }
+
+  /**
+   * Resolves the call of the given statement like {@link #resolveCall(SootMethod,
+   * AbstractInvokeExpr)}, but keeps the statement as call site of calls that are ignored for now.
+   */
+  @Override
+  @Nonnull
+  protected Stream<MethodSignature> resolveCall(SootMethod sourceMethod, Stmt stmt) {
+    return resolveCall(sourceMethod, stmt.getInvokeExpr(), stmt);
+  }
+
+  @Nonnull
+  private Stream<MethodSignature> resolveCall(
+      SootMethod sourceMethod, AbstractInvokeExpr invokeExpr, @Nullable Stmt stmt) {
+    CallGraphEdgeType edgeType = CallGraphEdgeType.of(invokeExpr);
     MethodSignature resolveBaseMethodSignature = invokeExpr.getMethodSignature();
     Stream<MethodSignature> result = Stream.of(resolveBaseMethodSignature);
 
     SootMethod concreteBaseMethod =
-        findConcreteMethod(view, resolveBaseMethodSignature).orElse(null);
+        dispatchTable.findConcreteMethod(resolveBaseMethodSignature).orElse(null);
 
     if (concreteBaseMethod == null
         || MethodModifier.isStatic(concreteBaseMethod.getModifiers())
         || (invokeExpr instanceof JSpecialInvokeExpr)) {
       return result;
     } else {
-      // the class of the actual method call is instantiated
-      if (instantiatedClasses.contains(resolveBaseMethodSignature.getDeclClassType())) {
+      // the class of the actual method call is instantiated, otherwise the call is saved
+      CallEdge baseCall =
+          new CallEdge(sourceMethod.getSignature(), resolveBaseMethodSignature, stmt, edgeType);
+      if (!saveIgnoredCall(baseCall)) {
         return Stream.concat(
-            Stream.of(concreteBaseMethod.getSignature()),
-            resolveAllCallTargets(sourceMethod.getSignature(), resolveBaseMethodSignature));
+            Stream.of(concreteBaseMethod.getSignature()), resolveAllCallTargets(baseCall));
       } else {
-        saveIgnoredCall(sourceMethod.getSignature(), resolveBaseMethodSignature);
-        return resolveAllCallTargets(sourceMethod.getSignature(), resolveBaseMethodSignature);
+        return resolveAllCallTargets(baseCall);
       }
     }
   }
@@ -160,14 +186,13 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
    * considered as target. All possible class of non instantiated classes are saved to the
    * ignoredCall Hashmap, because the classes can be instantiated at a later time
    *
-   * @param source the method which contains call
-   * @param resolveBaseMethodSignature the base of the resolving. All subtypes of the declaring
-   *     class are analyzed as potential targets
+   * @param baseCall the call with the base of the resolving as target. All subtypes of the
+   *     declaring class are analyzed as potential targets
    * @return a stream of all method signatures of instantiated classes that can be resolved as
    *     target from the given base method signature.
    */
-  private Stream<MethodSignature> resolveAllCallTargets(
-      MethodSignature source, MethodSignature resolveBaseMethodSignature) {
+  private Stream<MethodSignature> resolveAllCallTargets(CallEdge baseCall) {
+    MethodSignature resolveBaseMethodSignature = baseCall.getTargetMethod();
     return view.getTypeHierarchy().subtypesOf(resolveBaseMethodSignature.getDeclClassType())
         .stream()
         .map(
@@ -175,11 +200,15 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
               MethodSignature method =
                   view.getIdentifierFactory()
                       .getMethodSignature(classType, resolveBaseMethodSignature.getSubSignature());
-              if (instantiatedClasses.contains(classType)) {
-                return resolveConcreteDispatch(view, method);
-              } else {
-                saveIgnoredCall(source, method);
+              if (saveIgnoredCall(
+                  new CallEdge(
+                      baseCall.getSourceMethod(),
+                      method,
+                      baseCall.getStmt(),
+                      baseCall.getEdgeType()))) {
                 return Optional.<MethodSignature>empty();
+              } else {
+                return dispatchTable.resolveConcreteDispatch(method);
               }
             })
         .filter(Optional::isPresent)
@@ -187,21 +216,35 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
   }
 
   /**
-   * This method saves an ignored call If this is the first ignored call of the class type in the
-   * target method, an entry for the class type is created in the ignoredCalls Hashmap
+   * This method saves an ignored call if the class type of the target method is not instantiated
+   * yet. If this is the first ignored call of the class type in the target method, an entry for the
+   * class type is created in the ignoredCalls map
    *
-   * @param source the source method of the call
-   * @param target the target method of the call
+   * @param call the call with its source method, target method and call site
+   * @return true if the call was saved, false if the class type is already instantiated
    */
-  private void saveIgnoredCall(MethodSignature source, MethodSignature target) {
-    ClassType notInstantiatedClass = target.getDeclClassType();
-    List<Call> calls = ignoredCalls.get(notInstantiatedClass);
-    Call ignoredCall = new Call(source, target);
-    if (calls == null) {
-      calls = new ArrayList<>();
-      ignoredCalls.put(notInstantiatedClass, calls);
+  private boolean saveIgnoredCall(CallEdge call) {
+    ClassType notInstantiatedClass = call.getTargetMethod().getDeclClassType();
+    if (instantiatedClasses.contains(notInstantiatedClass)) {
+      return false;
     }
-    calls.add(ignoredCall);
+    boolean[] saved = {false};
+    // the class is marked as instantiated before its ignored calls are taken in
+    // preProcessingMethod. So the call is either seen as instantiated here or is taken there.
+    ignoredCalls.compute(
+        notInstantiatedClass,
+        (classType, calls) -> {
+          if (instantiatedClasses.contains(classType)) {
+            return calls;
+          }
+          if (calls == null) {
+            calls = new ArrayList<>();
+          }
+          calls.add(call);
+          saved[0] = true;
+          return calls;
+        });
+    return saved[0];
   }
 
   /**
@@ -223,8 +266,8 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
       @Nonnull Deque<MethodSignature> workList,
       @Nonnull MutableCallGraph cg) {
     SootMethod method =
-        view.getClass(sourceMethod.getDeclClassType())
-            .flatMap(c -> c.getMethod(sourceMethod.getSubSignature()))
+        dispatchTable
+            .getDeclaredMethod(sourceMethod.getDeclClassType(), sourceMethod.getSubSignature())
             .orElse(null);
     if (method == null) {
       return;
@@ -233,27 +276,36 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
     List<ClassType> newInstantiatedClasses = collectInstantiatedClassesInMethod(method);
     newInstantiatedClasses.forEach(
         instantiatedClassType -> {
-          List<Call> newEdges = ignoredCalls.get(instantiatedClassType);
+          // can be removed because the instantiated class will be considered in future resolves
+          List<CallEdge> newEdges = ignoredCalls.remove(instantiatedClassType);
           if (newEdges != null) {
             newEdges.forEach(
                 call -> {
                   MethodSignature concreteTarget =
-                      resolveConcreteDispatch(view, call.target).orElse(null);
+                      dispatchTable.resolveConcreteDispatch(call.getTargetMethod()).orElse(null);
                   if (concreteTarget == null) {
                     return;
                   }
-                  if (cg.containsMethod(concreteTarget)) {
-                    // method is already analyzed or is in the work list, simply add the call
-                    cg.addCall(call.source, concreteTarget);
-                  } else {
-                    // new target method found that has to be analyzed
-                    cg.addMethod(concreteTarget);
-                    cg.addCall(call.source, concreteTarget);
-                    workList.push(concreteTarget);
+                  synchronized (cg) {
+                    if (cg.containsMethod(concreteTarget)) {
+                      // method is already analyzed or is in the work list, simply add the call
+                      cg.addCall(
+                          call.getSourceMethod(),
+                          concreteTarget,
+                          call.getStmt(),
+                          call.getEdgeType());
+                    } else {
+                      // new target method found that has to be analyzed
+                      cg.addMethod(concreteTarget);
+                      cg.addCall(
+                          call.getSourceMethod(),
+                          concreteTarget,
+                          call.getStmt(),
+                          call.getEdgeType());
+                      workList.push(concreteTarget);
+                    }
                   }
                 });
-            // can be removed because the instantiated class will be considered in future resolves
-            ignoredCalls.remove(instantiatedClassType);
           }
         });
   }
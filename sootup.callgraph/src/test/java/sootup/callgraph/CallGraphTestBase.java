@@ -5,8 +5,10 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.jupiter.api.Test;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
 import sootup.core.model.SourceType;
@@ -113,6 +115,51 @@ public abstract class CallGraphTestBase<T extends AbstractCallGraphAlgorithm> {
     assertEquals(3, newCallGraph.callsTo(methodSignature).size());
   }
 
+  @Test
+  public void testParallelWorkList() {
+    CallGraph cg = loadCallGraph("Misc", "example1.Example");
+
+    T parallelAlgorithm = createAlgorithm((JavaView) algorithm.view);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      parallelAlgorithm.setExecutor(pool);
+      CallGraph parallelCg =
+          parallelAlgorithm.initialize(Collections.singletonList(mainMethodSignature));
+
+      assertEquals(cg.getMethodSignatures(), parallelCg.getMethodSignatures());
+      assertEquals(cg.callCount(), parallelCg.callCount());
+      for (MethodSignature method : cg.getMethodSignatures()) {
+        assertEquals(cg.callsFrom(method), parallelCg.callsFrom(method), method.toString());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testCallSites() {
+    CallGraph cg = loadCallGraph("Misc", "example1.Example");
+
+    int callSiteCount = 0;
+    for (MethodSignature method : cg.getMethodSignatures()) {
+      for (CallEdge callEdge : cg.callEdgesFrom(method)) {
+        assertEquals(method, callEdge.getSourceMethod());
+        assertTrue(cg.containsCall(method, callEdge.getTargetMethod()));
+        assertTrue(cg.callEdgesTo(callEdge.getTargetMethod()).contains(callEdge));
+        Stmt stmt = callEdge.getStmt();
+        if (stmt == null) {
+          continue;
+        }
+        // the call site is an invoke statement in the body of the calling method
+        SootMethod sourceMethod = algorithm.view.getMethod(method).get();
+        assertTrue(sourceMethod.getBody().getStmts().contains(stmt));
+        assertEquals(CallGraphEdgeType.of(stmt.getInvokeExpr()), callEdge.getEdgeType());
+        callSiteCount++;
+      }
+    }
+    assertTrue(callSiteCount >= cg.callsFrom(mainMethodSignature).size());
+  }
+
   @Test
   public void testRecursiveCall() {
     CallGraph cg = loadCallGraph("Misc", "recur.Class");
@@ -0,0 +1,228 @@
+package sootup.callgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.stmt.JNopStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.core.JavaIdentifierFactory;
+
+@Tag("Java8")
+public class CompactCallGraphTest {
+
+  private final JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+  private MethodSignature main;
+  private MethodSignature a;
+  private MethodSignature b;
+  private MethodSignature c;
+
+  private MethodSignature method(String className, String name) {
+    return identifierFactory.getMethodSignature(
+        identifierFactory.getClassType(className), name, "void", Collections.emptyList());
+  }
+
+  @BeforeEach
+  public void setUp() {
+    main = method("example.Main", "main");
+    a = method("example.A", "a");
+    b = method("example.B", "b");
+    c = method("example.C", "c");
+  }
+
+  private void addCalls(MutableCallGraph cg) {
+    for (MethodSignature method : Arrays.asList(main, a, b, c)) {
+      cg.addMethod(method);
+    }
+    cg.addCall(main, c);
+    cg.addCall(main, a);
+    cg.addCall(main, b);
+    cg.addCall(a, b);
+    cg.addCall(b, a);
+    cg.addCall(b, b);
+    // duplicated calls are ignored
+    cg.addCall(main, a);
+  }
+
+  @Test
+  public void sameAsGraphBasedCallGraph() {
+    GraphBasedCallGraph graphBased = new GraphBasedCallGraph();
+    addCalls(graphBased);
+    CompactCallGraph.Builder builder = new CompactCallGraph.Builder();
+    addCalls(builder);
+    CompactCallGraph compact = builder.build();
+
+    for (CallGraph cg : Arrays.asList(builder, compact, CompactCallGraph.of(graphBased))) {
+      assertEquals(graphBased.getMethodSignatures(), cg.getMethodSignatures());
+      assertEquals(graphBased.callCount(), cg.callCount());
+      assertEquals(graphBased.exportAsDot(), cg.exportAsDot());
+      for (MethodSignature source : graphBased.getMethodSignatures()) {
+        assertEquals(graphBased.callsFrom(source), cg.callsFrom(source));
+        assertEquals(graphBased.callsTo(source), cg.callsTo(source));
+        for (MethodSignature target : graphBased.getMethodSignatures()) {
+          assertEquals(graphBased.containsCall(source, target), cg.containsCall(source, target));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void denseIds() {
+    CompactCallGraph.Builder builder = new CompactCallGraph.Builder();
+    addCalls(builder);
+    CompactCallGraph cg = builder.build();
+
+    assertEquals(4, cg.methodCount());
+    int mainId = cg.idOf(main);
+    assertEquals(main, cg.methodOf(mainId));
+
+    List<Integer> targets = new ArrayList<>();
+    cg.callIdsFrom(mainId).forEachRemaining((int id) -> targets.add(id));
+    assertEquals(Arrays.asList(cg.idOf(a), cg.idOf(b), cg.idOf(c)), targets);
+    assertFalse(cg.callIdsTo(mainId).hasNext());
+
+    assertThrows(NullPointerException.class, () -> cg.idOf(method("example.D", "d")));
+    assertFalse(cg.containsCall(main, method("example.D", "d")));
+  }
+
+  @Test
+  public void frozenGraphIsImmutable() {
+    CompactCallGraph.Builder builder = new CompactCallGraph.Builder();
+    addCalls(builder);
+    CompactCallGraph cg = builder.build();
+
+    assertThrows(UnsupportedOperationException.class, () -> cg.callsFrom(main).add(main));
+    assertThrows(UnsupportedOperationException.class, () -> cg.getMethodSignatures().clear());
+
+    // the builder and copies can still be modified without changing the frozen graph
+    builder.addCall(c, main);
+    MutableCallGraph copy = cg.copy();
+    copy.addCall(a, c);
+    assertTrue(builder.containsCall(c, main));
+    assertTrue(copy.containsCall(a, c));
+    assertFalse(cg.containsCall(c, main));
+    assertFalse(cg.containsCall(a, c));
+    assertEquals(6, cg.callCount());
+    assertEquals(7, copy.callCount());
+  }
+
+  @Test
+  public void callEdges() {
+    Stmt first = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+    Stmt second = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+    CompactCallGraph.Builder builder = new CompactCallGraph.Builder();
+    addCalls(builder);
+    builder.addCall(main, a, first, CallGraphEdgeType.VIRTUAL);
+    builder.addCall(main, a, second, CallGraphEdgeType.VIRTUAL);
+    builder.addCall(main, a, second, CallGraphEdgeType.VIRTUAL);
+    builder.addCall(b, a, second, CallGraphEdgeType.STATIC);
+    GraphBasedCallGraph graphBased = new GraphBasedCallGraph();
+    addCalls(graphBased);
+    graphBased.addCall(main, a, first, CallGraphEdgeType.VIRTUAL);
+    graphBased.addCall(main, a, second, CallGraphEdgeType.VIRTUAL);
+    graphBased.addCall(b, a, second, CallGraphEdgeType.STATIC);
+
+    for (CallGraph cg :
+        Arrays.asList(builder, builder.build(), builder.build().copy(), graphBased)) {
+      // call sites do not change the calls themselves
+      assertEquals(6, cg.callCount());
+      assertEquals(3, cg.callsFrom(main).size());
+      assertEquals(
+          new HashSet<>(
+              Arrays.asList(
+                  new CallEdge(main, a, first, CallGraphEdgeType.VIRTUAL),
+                  new CallEdge(main, a, second, CallGraphEdgeType.VIRTUAL),
+                  new CallEdge(main, b, null, CallGraphEdgeType.INVALID),
+                  new CallEdge(main, c, null, CallGraphEdgeType.INVALID))),
+          new HashSet<>(cg.callEdgesFrom(main)),
+          cg.toString());
+      assertEquals(4, cg.callEdgesFrom(main).size());
+      assertEquals(
+          new HashSet<>(
+              Arrays.asList(
+                  new CallEdge(main, a, first, CallGraphEdgeType.VIRTUAL),
+                  new CallEdge(main, a, second, CallGraphEdgeType.VIRTUAL),
+                  new CallEdge(b, a, second, CallGraphEdgeType.STATIC))),
+          new HashSet<>(cg.callEdgesTo(a)));
+    }
+  }
+
+  @Test
+  public void copiesDoNotShareCallSites() {
+    Stmt stmt = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+    for (MutableCallGraph cg :
+        Arrays.asList(new GraphBasedCallGraph(), new CompactCallGraph.Builder())) {
+      addCalls(cg);
+      MutableCallGraph copy = cg.copy();
+      copy.addCall(main, a, stmt, CallGraphEdgeType.VIRTUAL);
+      assertTrue(
+          copy.callEdgesFrom(main)
+              .contains(new CallEdge(main, a, stmt, CallGraphEdgeType.VIRTUAL)));
+      assertTrue(cg.callEdgesFrom(main).contains(new CallEdge(main, a)));
+
+      // the calls of a copy made by addCall(CallEdge) have the same call sites
+      MutableCallGraph callEdgeCopy = new GraphBasedCallGraph();
+      copy.getMethodSignatures().forEach(callEdgeCopy::addMethod);
+      for (MethodSignature method : copy.getMethodSignatures()) {
+        copy.callEdgesFrom(method).forEach(callEdgeCopy::addCall);
+        assertEquals(
+            new HashSet<>(copy.callEdgesFrom(method)),
+            new HashSet<>(callEdgeCopy.callEdgesFrom(method)));
+      }
+    }
+  }
+
+  @Test
+  public void manyMethods() {
+    CompactCallGraph.Builder builder = new CompactCallGraph.Builder();
+    List<MethodSignature> methods = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      MethodSignature method = method("example.Class" + i, "m");
+      methods.add(method);
+      builder.addMethod(method);
+    }
+    for (int i = 1; i < methods.size(); i++) {
+      builder.addCall(methods.get(0), methods.get(i));
+      builder.addCall(methods.get(i), methods.get(i - 1));
+    }
+    CompactCallGraph cg = builder.build();
+    assertEquals(2 * (methods.size() - 1), cg.callCount());
+    assertEquals(methods.size() - 1, cg.callsFrom(methods.get(0)).size());
+    assertEquals(2, cg.callsTo(methods.get(1)).size());
+    assertTrue(cg.callsTo(methods.get(1)).contains(methods.get(2)));
+  }
+
+  @Test
+  public void manyCallSites() {
+    CompactCallGraph.Builder builder = new CompactCallGraph.Builder();
+    builder.addMethod(main);
+    List<MethodSignature> methods = new ArrayList<>();
+    List<Stmt> stmts = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      MethodSignature method = method("example.Class" + i, "m");
+      methods.add(method);
+      builder.addMethod(method);
+      builder.addCall(main, method);
+      stmts.add(new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo()));
+    }
+    // the calls without call site get their call site, then each call gets a second one
+    for (int round = 0; round < 2; round++) {
+      for (int i = 0; i < methods.size(); i++) {
+        Stmt stmt = stmts.get((i + round) % stmts.size());
+        builder.addCall(main, methods.get(i), stmt, CallGraphEdgeType.VIRTUAL);
+        builder.addCall(main, methods.get(i), stmt, CallGraphEdgeType.VIRTUAL);
+      }
+    }
+    for (CallGraph cg : Arrays.asList(builder, builder.build(), builder.copy())) {
+      assertEquals(methods.size(), cg.callCount());
+      Collection<CallEdge> callEdges = cg.callEdgesFrom(main);
+      assertEquals(2 * methods.size(), callEdges.size());
+      assertEquals(2 * methods.size(), new HashSet<>(callEdges).size());
+      assertTrue(callEdges.stream().allMatch(callEdge -> callEdge.getStmt() != null));
+    }
+  }
+}
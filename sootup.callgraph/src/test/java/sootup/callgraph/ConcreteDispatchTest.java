@@ -11,6 +11,7 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import sootup.core.IdentifierFactory;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.types.ClassType;
 import sootup.java.bytecode.inputlocation.DefaultRTJarAnalysisInputLocation;
@@ -177,4 +178,48 @@ public class ConcreteDispatchTest {
     assertNotNull(candidateSubInterface2);
     assertEquals(candidateSubInterface, candidateSubInterface2);
   }
+
+  @Test
+  public void dispatchTable() {
+    IdentifierFactory identifierFactory = view.getIdentifierFactory();
+    MethodSignature methodA =
+        identifierFactory.getMethodSignature(
+            getClassType("A"), "method2", "void", Collections.emptyList());
+
+    DispatchTable dispatchTable = new DispatchTable(view);
+    Optional<SootMethod> concreteMethod = dispatchTable.findConcreteMethod(methodA);
+    assertTrue(concreteMethod.isPresent());
+    assertSame(concreteMethod, dispatchTable.findConcreteMethod(methodA));
+    assertEquals(
+        AbstractCallGraphAlgorithm.resolveConcreteDispatch(view, methodA),
+        dispatchTable.resolveConcreteDispatch(methodA));
+
+    DispatchTable.SubtypeTargets targets = dispatchTable.resolveSubtypeTargets(methodA);
+    assertSame(targets, dispatchTable.resolveSubtypeTargets(methodA));
+
+    // the table is shared between algorithms on the same view
+    ClassHierarchyAnalysisAlgorithm cha = new ClassHierarchyAnalysisAlgorithm(view, dispatchTable);
+    RapidTypeAnalysisAlgorithm rta = new RapidTypeAnalysisAlgorithm(view, dispatchTable);
+    assertSame(cha.getDispatchTable(), rta.getDispatchTable());
+    JavaView otherView =
+        new JavaView(
+            new JavaClassPathAnalysisInputLocation(
+                "src/test/resources/callgraph/ConcreteDispatch/binary"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ClassHierarchyAnalysisAlgorithm(otherView, dispatchTable));
+
+    dispatchTable.clear();
+    assertEquals(concreteMethod, dispatchTable.findConcreteMethod(methodA));
+
+    // the static helpers and the default constructors use the shared table of the view
+    DispatchTable sharedTable = DispatchTable.of(view);
+    assertSame(sharedTable, DispatchTable.of(view));
+    assertNotSame(sharedTable, DispatchTable.of(otherView));
+    assertSame(sharedTable, new ClassHierarchyAnalysisAlgorithm(view).getDispatchTable());
+    assertSame(sharedTable, new RapidTypeAnalysisAlgorithm(view).getDispatchTable());
+    assertSame(
+        AbstractCallGraphAlgorithm.findConcreteMethod(view, methodA),
+        sharedTable.findConcreteMethod(methodA));
+  }
 }
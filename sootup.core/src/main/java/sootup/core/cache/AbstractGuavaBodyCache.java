@@ -0,0 +1,94 @@
+package sootup.core.cache;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
+
+/**
+ * Base class for {@link BodyCache}s that are backed by a Guava {@link Cache}. The backing cache has
+ * to use weak keys, i.e. identity comparison of the methods, so that entries of unreachable methods
+ * are dropped as well.
+ *
+ * <p>A body that was dropped from the backing cache is only resolved again once it is unreachable,
+ * i.e. as long as e.g. a call graph retains it, the same body is returned and cached again.
+ */
+abstract class AbstractGuavaBodyCache implements BodyCache {
+
+  @Nonnull private final Cache<SootMethod, Body> cache;
+
+  /** the resolved bodies that are still reachable, including the ones dropped from the cache */
+  @Nonnull
+  private final Cache<SootMethod, Body> reachableBodies =
+      CacheBuilder.newBuilder().weakKeys().weakValues().build();
+
+  AbstractGuavaBodyCache(@Nonnull Cache<SootMethod, Body> cache) {
+    this.cache = cache;
+  }
+
+  @Nonnull
+  @Override
+  public Body getBody(@Nonnull SootMethod method, @Nonnull Supplier<Body> resolver) {
+    try {
+      return cache.get(method, () -> getReachableBody(method, resolver));
+    } catch (UncheckedExecutionException | ExecutionError e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    } catch (ExecutionException e) {
+      // the resolver can not throw checked exceptions
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /** Returns the body that is still reachable or resolves a new one, if it was collected. */
+  @Nonnull
+  private Body getReachableBody(@Nonnull SootMethod method, @Nonnull Supplier<Body> resolver) {
+    Body body = reachableBodies.getIfPresent(method);
+    if (body == null) {
+      // the backing cache resolves the body of a method only once at a time
+      body = resolver.get();
+      reachableBodies.put(method, body);
+    }
+    return body;
+  }
+
+  @Override
+  public void invalidate(@Nonnull SootMethod method) {
+    cache.invalidate(method);
+    reachableBodies.invalidate(method);
+  }
+
+  @Override
+  public long size() {
+    return cache.size();
+  }
+}
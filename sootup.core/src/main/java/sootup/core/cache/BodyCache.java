@@ -0,0 +1,62 @@
+package sootup.core.cache;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
+
+/**
+ * Interface for different caching strategies of resolved method bodies. In contrast to the default
+ * behaviour of {@link SootMethod#getBody()}, which keeps a resolved body for as long as its method
+ * is reachable, a body cache may drop bodies (e.g. under memory pressure). A dropped body is
+ * resolved again from the {@link sootup.core.frontend.BodySource} of its method on the next access.
+ *
+ * <p>A body that is resolved again equals the dropped one in its contents, but consists of new
+ * {@link sootup.core.jimple.common.stmt.Stmt} objects. Therefore a body is only dropped for good
+ * once it is unreachable: as long as a body is referenced elsewhere, e.g. by a call graph whose
+ * call sites are Stmts of it or by an interprocedural CFG, {@link #getBody} returns that same body.
+ * Whoever keys data on the identity of the Stmts of a body pins the body by keeping a reference to
+ * it.
+ *
+ * <p>Implementations have to be thread-safe.
+ */
+public interface BodyCache {
+
+  /**
+   * Returns the cached body of the given method. If no body is cached, the resolver is used to
+   * create it and the result is cached.
+   */
+  @Nonnull
+  Body getBody(@Nonnull SootMethod method, @Nonnull Supplier<Body> resolver);
+
+  /**
+   * Drops the cached body of the given method, if there is one. The next access resolves the body
+   * again, even if the dropped body is still referenced elsewhere.
+   */
+  void invalidate(@Nonnull SootMethod method);
+
+  /** Returns the (approximate) number of bodies that are currently cached. */
+  long size();
+}
@@ -0,0 +1,62 @@
+package sootup.core.cache;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+
+/**
+ * Estimates the weight i.e. the retained memory of a cached {@link SootClass} in abstract units.
+ * Used by weight-bounded caches like the {@link SegmentedLRUCache}.
+ */
+@FunctionalInterface
+public interface ClassWeigher {
+
+  /**
+   * Weight assumed for a concrete method whose {@link sootup.core.frontend.BodySource} gives no
+   * estimate.
+   */
+  int DEFAULT_BODY_WEIGHT = 32;
+
+  /** Returns the weight of the given class, has to be at least 1. */
+  int weigh(@Nonnull SootClass sootClass);
+
+  /**
+   * Default weigher: counts the class itself, its fields and its methods plus the estimated amount
+   * of statements and locals of every concrete method body.
+   */
+  static ClassWeigher estimatedRetainedWeight() {
+    return sootClass -> {
+      int weight = 1 + sootClass.getFields().size();
+      for (SootMethod method : sootClass.getMethods()) {
+        weight++;
+        if (method.isConcrete()) {
+          int bodySize = method.getBodySource().estimateBodySize();
+          weight += bodySize < 0 ? DEFAULT_BODY_WEIGHT : bodySize;
+        }
+      }
+      return weight;
+    };
+  }
+}
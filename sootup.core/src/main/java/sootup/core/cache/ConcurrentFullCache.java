@@ -0,0 +1,125 @@
+package sootup.core.cache;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+
+/**
+ * Thread-safe cache that stores any class that has been resolved. Each {@link ClassType} owns a
+ * compute-once slot: the first thread requesting a type resolves it, concurrent requests for the
+ * same type wait for that result and requests for different types proceed in parallel. Lookups of
+ * already resolved classes never block.
+ */
+public class ConcurrentFullCache implements ClassCache {
+
+  protected final ConcurrentHashMap<ClassType, CompletableFuture<SootClass>> cache =
+      new ConcurrentHashMap<>();
+
+  @Override
+  @Nullable
+  public SootClass getClass(ClassType classType) {
+    CompletableFuture<SootClass> slot = cache.get(classType);
+    if (slot == null || !slot.isDone() || slot.isCompletedExceptionally()) {
+      return null;
+    }
+    return slot.join();
+  }
+
+  /**
+   * Returns the cached class for the given type or resolves it via the given resolver. The resolver
+   * is invoked at most once per type, concurrent callers asking for the same type wait for its
+   * result. If the resolver returns null or throws, the slot is released again so that a later
+   * request can retry.
+   *
+   * <p>The resolver must not request the very same type from this cache again.
+   */
+  @Nullable
+  public SootClass computeIfAbsent(
+      @Nonnull ClassType classType,
+      @Nonnull Function<? super ClassType, ? extends SootClass> resolver) {
+    CompletableFuture<SootClass> slot = cache.get(classType);
+    if (slot == null) {
+      CompletableFuture<SootClass> newSlot = new CompletableFuture<>();
+      slot = cache.putIfAbsent(classType, newSlot);
+      if (slot == null) {
+        // this thread won the slot and is responsible for resolving the type
+        SootClass sootClass;
+        try {
+          sootClass = resolver.apply(classType);
+        } catch (Throwable e) {
+          cache.remove(classType, newSlot);
+          newSlot.completeExceptionally(e);
+          throw e;
+        }
+        if (sootClass == null) {
+          cache.remove(classType, newSlot);
+        }
+        newSlot.complete(sootClass);
+        return sootClass;
+      }
+    }
+
+    try {
+      return slot.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  @Nonnull
+  @Override
+  public Collection<SootClass> getClasses() {
+    return cache.values().stream()
+        .filter(slot -> slot.isDone() && !slot.isCompletedExceptionally())
+        .map(CompletableFuture::join)
+        .filter(sootClass -> sootClass != null)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public void putClass(ClassType classType, SootClass sootClass) {
+    cache.putIfAbsent(classType, CompletableFuture.completedFuture(sootClass));
+  }
+
+  @Override
+  public boolean hasClass(ClassType classType) {
+    return getClass(classType) != null;
+  }
+
+  @Override
+  public int size() {
+    return getClasses().size();
+  }
+}
@@ -30,6 +30,9 @@ import sootup.core.types.ClassType;
 /**
  * Cache that implements a least recently used strategy. If the amount of stored classes exceeds a
  * specified amount, the lest recently used class will be overwritten.
+ *
+ * <p>Note: updating the access order is linear in the amount of cached classes. For large caches
+ * prefer the {@link SegmentedLRUCache}.
  */
 public class LRUCache implements ClassCache {
   private final int cacheSize;
@@ -58,7 +61,7 @@ public class LRUCache implements ClassCache {
   }
 
   @Override
-  public void putClass(ClassType classType, SootClass sootClass) {
+  public synchronized void putClass(ClassType classType, SootClass sootClass) {
     if (accessOrder.size() >= cacheSize) {
       ClassType leastAccessed = accessOrder.removeLast();
       cache.remove(leastAccessed);
@@ -69,12 +72,12 @@ public class LRUCache implements ClassCache {
   }
 
   @Override
-  public boolean hasClass(ClassType classType) {
+  public synchronized boolean hasClass(ClassType classType) {
     return cache.containsKey(classType);
   }
 
   @Override
-  public int size() {
+  public synchronized int size() {
     return cache.size();
   }
 }
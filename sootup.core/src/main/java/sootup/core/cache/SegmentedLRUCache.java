@@ -0,0 +1,237 @@
+package sootup.core.cache;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nonnull;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+
+/**
+ * Thread-safe cache that implements a segmented least recently used strategy which is bounded by
+ * the accumulated weight of the stored classes (see {@link ClassWeigher}) instead of their amount.
+ *
+ * <p>New classes are inserted into a probationary segment. A class that is accessed again is
+ * promoted into a protected segment, which holds at most {@link #PROTECTED_RATIO} of the maximum
+ * weight. If the cache exceeds its maximum weight, the least recently used classes of the
+ * probationary segment are evicted first. Thus classes that are only touched once (e.g. during a
+ * scan) can not displace frequently used ones.
+ *
+ * <p>All bookkeeping operations are O(1). Lookups never block: if the eviction bookkeeping is
+ * currently held by another thread, the access is not recorded.
+ */
+public class SegmentedLRUCache implements ClassCache {
+
+  /** Share of the maximum weight that is reserved for the protected segment. */
+  public static final double PROTECTED_RATIO = 0.8;
+
+  private final long maximumWeight;
+  private final long maximumProtectedWeight;
+  @Nonnull private final ClassWeigher weigher;
+
+  private final Map<ClassType, Node> cache = new ConcurrentHashMap<>();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  // guarded by evictionLock
+  private final Segment probation = new Segment();
+  private final Segment protectedSegment = new Segment();
+
+  public SegmentedLRUCache(long maximumWeight, @Nonnull ClassWeigher weigher) {
+    this.maximumWeight = maximumWeight;
+    this.maximumProtectedWeight = (long) (maximumWeight * PROTECTED_RATIO);
+    this.weigher = weigher;
+  }
+
+  @Override
+  public SootClass getClass(ClassType classType) {
+    Node node = cache.get(classType);
+    if (node == null) {
+      return null;
+    }
+    if (evictionLock.tryLock()) {
+      try {
+        onAccess(node);
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+    return node.sootClass;
+  }
+
+  @Nonnull
+  @Override
+  public Collection<SootClass> getClasses() {
+    Collection<SootClass> classes = new ArrayList<>(cache.size());
+    for (Node node : cache.values()) {
+      classes.add(node.sootClass);
+    }
+    return classes;
+  }
+
+  @Override
+  public void putClass(ClassType classType, SootClass sootClass) {
+    if (cache.containsKey(classType)) {
+      return;
+    }
+    // weigh outside of the lock as it may resolve the methods of the class
+    Node node = new Node(classType, sootClass, Math.max(1, weigher.weigh(sootClass)));
+
+    evictionLock.lock();
+    try {
+      if (cache.putIfAbsent(classType, node) != null) {
+        return;
+      }
+      probation.addFirst(node);
+      evict(node);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean hasClass(ClassType classType) {
+    return cache.containsKey(classType);
+  }
+
+  @Override
+  public int size() {
+    return cache.size();
+  }
+
+  /** Returns the accumulated weight of all stored classes. */
+  public long getWeight() {
+    evictionLock.lock();
+    try {
+      return probation.weight + protectedSegment.weight;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  public long getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  private void onAccess(@Nonnull Node node) {
+    if (node.segment == null) {
+      // already evicted
+      return;
+    }
+    if (node.segment == protectedSegment) {
+      protectedSegment.moveToFront(node);
+      return;
+    }
+
+    probation.remove(node);
+    protectedSegment.addFirst(node);
+    while (protectedSegment.weight > maximumProtectedWeight && protectedSegment.tail != node) {
+      Node demoted = protectedSegment.tail;
+      protectedSegment.remove(demoted);
+      probation.addFirst(demoted);
+    }
+  }
+
+  /**
+   * Evicts least recently used classes until the weight bound holds; never evicts the keep node.
+   */
+  private void evict(@Nonnull Node keep) {
+    while (probation.weight + protectedSegment.weight > maximumWeight) {
+      Node victim = probation.tail;
+      if (victim == keep) {
+        victim = victim.prev;
+      }
+      if (victim == null) {
+        victim = protectedSegment.tail;
+      }
+      if (victim == null) {
+        return;
+      }
+      victim.segment.remove(victim);
+      cache.remove(victim.classType, victim);
+    }
+  }
+
+  private static final class Node {
+    @Nonnull final ClassType classType;
+    @Nonnull final SootClass sootClass;
+    final int weight;
+
+    Segment segment;
+    Node prev;
+    Node next;
+
+    Node(@Nonnull ClassType classType, @Nonnull SootClass sootClass, int weight) {
+      this.classType = classType;
+      this.sootClass = sootClass;
+      this.weight = weight;
+    }
+  }
+
+  /** Intrusive doubly linked list of nodes ordered from most to least recently used. */
+  private static final class Segment {
+    Node head;
+    Node tail;
+    long weight;
+
+    void addFirst(@Nonnull Node node) {
+      node.segment = this;
+      node.prev = null;
+      node.next = head;
+      if (head != null) {
+        head.prev = node;
+      } else {
+        tail = node;
+      }
+      head = node;
+      weight += node.weight;
+    }
+
+    void remove(@Nonnull Node node) {
+      if (node.prev != null) {
+        node.prev.next = node.next;
+      } else {
+        head = node.next;
+      }
+      if (node.next != null) {
+        node.next.prev = node.prev;
+      } else {
+        tail = node.prev;
+      }
+      node.prev = null;
+      node.next = null;
+      node.segment = null;
+      weight -= node.weight;
+    }
+
+    void moveToFront(@Nonnull Node node) {
+      if (head != node) {
+        remove(node);
+        addFirst(node);
+      }
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package sootup.core.cache;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.cache.CacheBuilder;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
+
+/**
+ * {@link BodyCache} that is bounded by the accumulated amount of statements of the cached bodies.
+ * If the bound is exceeded, bodies that were not used recently are dropped.
+ */
+public class SizeBoundedBodyCache extends AbstractGuavaBodyCache {
+
+  public SizeBoundedBodyCache(long maximumStmtCount) {
+    super(
+        CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumWeight(maximumStmtCount)
+            .weigher((SootMethod method, Body body) -> body.getStmtGraph().getNodes().size())
+            .build());
+  }
+}
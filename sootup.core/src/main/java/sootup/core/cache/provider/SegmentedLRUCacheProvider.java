@@ -0,0 +1,67 @@
+package sootup.core.cache.provider;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+import sootup.core.cache.ClassCache;
+import sootup.core.cache.ClassWeigher;
+import sootup.core.cache.SegmentedLRUCache;
+
+/** Provides a new {@link SegmentedLRUCache} object. */
+public class SegmentedLRUCacheProvider implements ClassCacheProvider {
+  private final long maximumWeight;
+  @Nonnull private final ClassWeigher weigher;
+
+  /**
+   * Create a new SegmentedLRUCacheProvider that returns a {@link SegmentedLRUCache} with a default
+   * maximum weight of 1,000,000 as estimated by {@link ClassWeigher#estimatedRetainedWeight()}.
+   */
+  public SegmentedLRUCacheProvider() {
+    this(1_000_000);
+  }
+
+  /**
+   * Create a new SegmentedLRUCacheProvider that returns a {@link SegmentedLRUCache} with the
+   * specified maximum weight as estimated by {@link ClassWeigher#estimatedRetainedWeight()}.
+   */
+  public SegmentedLRUCacheProvider(long maximumWeight) {
+    this(maximumWeight, ClassWeigher.estimatedRetainedWeight());
+  }
+
+  /**
+   * Create a new SegmentedLRUCacheProvider that returns a {@link SegmentedLRUCache} with the
+   * specified maximum weight and weigher.
+   */
+  public SegmentedLRUCacheProvider(long maximumWeight, @Nonnull ClassWeigher weigher) {
+    if (maximumWeight < 1) {
+      throw new IllegalArgumentException("Maximum weight has to be at least 1");
+    }
+    this.maximumWeight = maximumWeight;
+    this.weigher = weigher;
+  }
+
+  @Override
+  public ClassCache createCache() {
+    return new SegmentedLRUCache(maximumWeight, weigher);
+  }
+}
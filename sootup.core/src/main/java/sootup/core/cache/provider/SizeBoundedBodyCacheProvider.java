@@ -0,0 +1,55 @@
+package sootup.core.cache.provider;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import sootup.core.cache.BodyCache;
+import sootup.core.cache.SizeBoundedBodyCache;
+
+/** Provides a new {@link SizeBoundedBodyCache} object. */
+public class SizeBoundedBodyCacheProvider implements BodyCacheProvider {
+  private final long maximumStmtCount;
+
+  /**
+   * Create a new SizeBoundedBodyCacheProvider that returns a {@link SizeBoundedBodyCache} with a
+   * default bound of 1,000,000 statements.
+   */
+  public SizeBoundedBodyCacheProvider() {
+    this(1_000_000);
+  }
+
+  /**
+   * Create a new SizeBoundedBodyCacheProvider that returns a {@link SizeBoundedBodyCache} with the
+   * specified bound of statements.
+   */
+  public SizeBoundedBodyCacheProvider(long maximumStmtCount) {
+    if (maximumStmtCount < 1) {
+      throw new IllegalArgumentException("Maximum statement count has to be at least 1");
+    }
+    this.maximumStmtCount = maximumStmtCount;
+  }
+
+  @Override
+  public BodyCache createCache() {
+    return new SizeBoundedBodyCache(maximumStmtCount);
+  }
+}
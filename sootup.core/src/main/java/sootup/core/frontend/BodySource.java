@@ -48,4 +48,14 @@ public interface BodySource {
 
   @Nonnull
   MethodSignature getSignature();
+
+  /**
+   * Returns a cheap estimate of the amount of statements and locals the resolved body will consist
+   * of, without resolving it. Used e.g. to weigh cached classes.
+   *
+   * @return the estimate or -1 if no estimate is available
+   */
+  default int estimateBodySize() {
+    return -1;
+  }
 }
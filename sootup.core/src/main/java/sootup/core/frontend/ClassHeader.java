@@ -0,0 +1,102 @@
+package sootup.core.frontend;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.model.ClassModifier;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+
+/**
+ * The header of a class, i.e. its type, its direct supertypes and whether it is an interface. This
+ * is all the {@link sootup.core.typehierarchy.TypeHierarchy} needs to know about a class, and an
+ * input location can usually provide it much cheaper than a {@link SootClassSource} - e.g. by
+ * reading just the constant pool of a class file instead of all of its methods.
+ */
+public final class ClassHeader {
+
+  @Nonnull private final ClassType type;
+  @Nullable private final ClassType superclass;
+  @Nonnull private final Set<ClassType> interfaces;
+  private final boolean isInterface;
+
+  public ClassHeader(
+      @Nonnull ClassType type,
+      @Nullable ClassType superclass,
+      @Nonnull Set<? extends ClassType> interfaces,
+      boolean isInterface) {
+    this.type = type;
+    this.superclass = superclass;
+    this.interfaces = Collections.unmodifiableSet(new HashSet<>(interfaces));
+    this.isInterface = isInterface;
+  }
+
+  @Nonnull
+  public static ClassHeader of(@Nonnull SootClass sootClass) {
+    return new ClassHeader(
+        sootClass.getType(),
+        sootClass.getSuperclass().orElse(null),
+        sootClass.getInterfaces(),
+        sootClass.isInterface());
+  }
+
+  @Nonnull
+  public static ClassHeader of(@Nonnull SootClassSource classSource) {
+    return new ClassHeader(
+        classSource.getClassType(),
+        classSource.resolveSuperclass().orElse(null),
+        classSource.resolveInterfaces(),
+        ClassModifier.isInterface(classSource.resolveModifiers()));
+  }
+
+  @Nonnull
+  public ClassType getType() {
+    return type;
+  }
+
+  /** Returns the direct superclass or an empty Optional, e.g. for java.lang.Object. */
+  @Nonnull
+  public Optional<ClassType> getSuperclass() {
+    return Optional.ofNullable(superclass);
+  }
+
+  /** Returns the directly implemented respectively extended interfaces. */
+  @Nonnull
+  public Set<ClassType> getInterfaces() {
+    return interfaces;
+  }
+
+  public boolean isInterface() {
+    return isInterface;
+  }
+
+  @Override
+  public String toString() {
+    return type.toString();
+  }
+}
@@ -83,6 +83,14 @@ public class OverridingBodySource implements BodySource {
     return methodSignature != null ? methodSignature : delegate.getSignature();
   }
 
+  @Override
+  public int estimateBodySize() {
+    if (body != null) {
+      return body.getStmtGraph().getNodes().size() + body.getLocalCount();
+    }
+    return delegate != null ? delegate.estimateBodySize() : -1;
+  }
+
   @Nonnull
   public OverridingBodySource withBody(@Nonnull Body body) {
     return new OverridingBodySource(delegate, body);
@@ -0,0 +1,356 @@
+package sootup.core.graph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import javax.annotation.Nonnull;
+import sootup.core.jimple.common.stmt.Stmt;
+
+/**
+ * A framework for gen/kill data-flow analyses whose facts are subsets of a finite universe, e.g.
+ * the live locals or the reaching definitions of a body. The elements of the universe are numbered
+ * densely by the subclass and a set of them is stored as a bit vector of <code>long</code> words.
+ * The sets are merged by union.
+ *
+ * <p>The statements and blocks are identified by the dense numbering of the graph, see {@link
+ * StmtGraph#getStmtNumbering()}, so the statements of a block have consecutive ids. The gen and
+ * kill sets of the statements are computed once and composed into a gen and kill set per block.
+ * The fixed point is computed on the blocks, which are processed in reverse postorder for forward
+ * and in postorder for backward analyses; afterwards, the sets before and after each statement are
+ * computed in a single pass over each block.
+ *
+ * <p>Exceptional flow is taken into account conservatively: a handler receives the facts before
+ * any statement of a block that it protects (forward), and the facts at a handler hold after every
+ * statement of the blocks it protects, including the last one (backward).
+ *
+ * <p>A subclass numbers its universe, implements {@link #computeGenKill(Stmt, long[], long[])}
+ * and calls {@link #solve(int)} at the end of its constructor.
+ */
+public abstract class BitVectorFlowAnalysis {
+
+  @Nonnull protected final StmtGraph<?> graph;
+  private final boolean forward;
+
+  /** the statements by their id */
+  @Nonnull private final Stmt[] stmts;
+
+  @Nonnull private final DenseNumbering<Stmt> stmtNumbering;
+
+  /** the blocks in reverse postorder */
+  @Nonnull private final List<BasicBlock<?>> blocks;
+
+  /** the statements of block b have the ids blockStarts[b] to blockStarts[b+1]-1 */
+  @Nonnull private final int[] blockStarts;
+
+  @Nonnull private final int[][] successors;
+  @Nonnull private final int[][] exceptionalSuccessors;
+  @Nonnull private final int[][] predecessors;
+  @Nonnull private final int[][] exceptionalPredecessors;
+
+  /** the number of words of a set */
+  private int words;
+
+  /** the sets before and after each statement, i.e. the words of statement i start at i*words */
+  @Nonnull private long[] before = new long[0];
+
+  @Nonnull private long[] after = new long[0];
+
+  protected BitVectorFlowAnalysis(@Nonnull StmtGraph<?> graph, boolean forward) {
+    this.graph = graph;
+    this.forward = forward;
+    final DenseNumbering<BasicBlock<?>> blockNumbering = graph.getBlockNumbering();
+    this.blocks = blockNumbering.getElements();
+    this.stmtNumbering = graph.getStmtNumbering();
+    this.stmts = stmtNumbering.getElements().toArray(new Stmt[0]);
+
+    int blockCount = blocks.size();
+    blockStarts = new int[blockCount + 1];
+    for (int b = 0; b < blockCount; b++) {
+      blockStarts[b + 1] = blockStarts[b] + blocks.get(b).getStmtCount();
+    }
+
+    successors = new int[blockCount][];
+    exceptionalSuccessors = new int[blockCount][];
+    List<List<Integer>> preds = new ArrayList<>(blockCount);
+    List<List<Integer>> exceptionalPreds = new ArrayList<>(blockCount);
+    for (int b = 0; b < blockCount; b++) {
+      preds.add(new ArrayList<>());
+      exceptionalPreds.add(new ArrayList<>());
+    }
+    for (int b = 0; b < blockCount; b++) {
+      BasicBlock<?> block = blocks.get(b);
+      successors[b] = toIds(block.getSuccessors(), blockNumbering);
+      exceptionalSuccessors[b] = toIds(block.getExceptionalSuccessors().values(), blockNumbering);
+      for (int succ : successors[b]) {
+        preds.get(succ).add(b);
+      }
+      for (int succ : exceptionalSuccessors[b]) {
+        exceptionalPreds.get(succ).add(b);
+      }
+    }
+    predecessors = new int[blockCount][];
+    exceptionalPredecessors = new int[blockCount][];
+    for (int b = 0; b < blockCount; b++) {
+      predecessors[b] = preds.get(b).stream().mapToInt(Integer::intValue).toArray();
+      exceptionalPredecessors[b] =
+          exceptionalPreds.get(b).stream().mapToInt(Integer::intValue).toArray();
+    }
+  }
+
+  @Nonnull
+  private static int[] toIds(
+      @Nonnull Collection<? extends BasicBlock<?>> blocks,
+      @Nonnull DenseNumbering<BasicBlock<?>> blockNumbering) {
+    return blocks.stream().mapToInt(blockNumbering::getId).distinct().toArray();
+  }
+
+  /**
+   * Computes the gen and kill set of a statement, which are passed cleared. It is called once per
+   * statement by {@link #solve(int)}.
+   */
+  protected abstract void computeGenKill(
+      @Nonnull Stmt stmt, @Nonnull long[] gen, @Nonnull long[] kill);
+
+  /** Computes the fixed point for a universe of the given size. */
+  protected final void solve(int universeSize) {
+    words = (universeSize + 63) >>> 6;
+    int stmtCount = stmts.length;
+    int blockCount = blocks.size();
+
+    long[] gens = new long[stmtCount * words];
+    long[] kills = new long[stmtCount * words];
+    long[] gen = new long[words];
+    long[] kill = new long[words];
+    for (int i = 0; i < stmtCount; i++) {
+      Arrays.fill(gen, 0L);
+      Arrays.fill(kill, 0L);
+      computeGenKill(stmts[i], gen, kill);
+      System.arraycopy(gen, 0, gens, i * words, words);
+      System.arraycopy(kill, 0, kills, i * words, words);
+    }
+
+    // compose the transfer functions of the statements of each block in the flow direction, and
+    // collect the additional flow along exceptional edges
+    long[] blockGens = new long[blockCount * words];
+    long[] blockKills = new long[blockCount * words];
+    long[] exceptionalFlows = new long[blockCount * words];
+    for (int b = 0; b < blockCount; b++) {
+      int offset = b * words;
+      int first = blockStarts[b];
+      int last = blockStarts[b + 1] - 1;
+      for (int k = 0; k <= last - first; k++) {
+        int i = forward ? first + k : last - k;
+        for (int w = 0; w < words; w++) {
+          long stmtGen = gens[i * words + w];
+          long stmtKill = kills[i * words + w];
+          blockGens[offset + w] = stmtGen | (blockGens[offset + w] & ~stmtKill);
+          blockKills[offset + w] |= stmtKill;
+          if (forward && i != last) {
+            // a handler can be reached after any but the last statement of the block
+            exceptionalFlows[offset + w] |= stmtGen;
+          }
+        }
+      }
+      if (!forward && last >= first) {
+        // the facts of the handlers hold after every statement of the block, so they reach the
+        // start of the block unless the first statement kills them; the facts added after a later
+        // statement are either killed by it or contained in these
+        for (int w = 0; w < words; w++) {
+          exceptionalFlows[offset + w] = ~kills[first * words + w];
+        }
+      }
+    }
+
+    // the input and output of each block in the flow direction
+    long[] inputs = new long[blockCount * words];
+    long[] outputs = new long[blockCount * words];
+    long[] input = new long[words];
+    long[] exceptionalInput = new long[words];
+    BitSet pending = new BitSet(blockCount);
+    pending.set(0, blockCount);
+    while (!pending.isEmpty()) {
+      int b = forward ? pending.nextSetBit(0) : pending.previousSetBit(blockCount - 1);
+      pending.clear(b);
+      int offset = b * words;
+
+      Arrays.fill(input, 0L);
+      Arrays.fill(exceptionalInput, 0L);
+      if (forward) {
+        for (int pred : predecessors[b]) {
+          or(input, outputs, pred * words);
+        }
+        for (int pred : exceptionalPredecessors[b]) {
+          or(input, inputs, pred * words);
+          or(input, exceptionalFlows, pred * words);
+        }
+      } else {
+        for (int succ : successors[b]) {
+          or(input, outputs, succ * words);
+        }
+        for (int succ : exceptionalSuccessors[b]) {
+          or(exceptionalInput, outputs, succ * words);
+        }
+      }
+
+      boolean changed = false;
+      for (int w = 0; w < words; w++) {
+        long out;
+        if (forward) {
+          out = blockGens[offset + w] | (input[w] & ~blockKills[offset + w]);
+        } else {
+          // the facts of the handlers are added after every statement, see the materialization
+          out =
+              blockGens[offset + w]
+                  | ((input[w] | exceptionalInput[w]) & ~blockKills[offset + w])
+                  | (exceptionalInput[w] & exceptionalFlows[offset + w]);
+        }
+        // the input of a forward analysis is passed on to the handlers of the block
+        changed |= out != outputs[offset + w] || (forward && input[w] != inputs[offset + w]);
+        inputs[offset + w] = input[w];
+        outputs[offset + w] = out;
+      }
+      if (changed) {
+        if (forward) {
+          markAll(pending, successors[b]);
+          markAll(pending, exceptionalSuccessors[b]);
+        } else {
+          markAll(pending, predecessors[b]);
+          markAll(pending, exceptionalPredecessors[b]);
+        }
+      }
+    }
+
+    // compute the sets before and after each statement from the input of its block
+    before = new long[stmtCount * words];
+    after = new long[stmtCount * words];
+    long[] current = new long[words];
+    for (int b = 0; b < blockCount; b++) {
+      int offset = b * words;
+      System.arraycopy(inputs, offset, current, 0, words);
+      if (forward) {
+        for (int i = blockStarts[b]; i < blockStarts[b + 1]; i++) {
+          System.arraycopy(current, 0, before, i * words, words);
+          for (int w = 0; w < words; w++) {
+            current[w] = gens[i * words + w] | (current[w] & ~kills[i * words + w]);
+          }
+          System.arraycopy(current, 0, after, i * words, words);
+        }
+      } else {
+        Arrays.fill(exceptionalInput, 0L);
+        for (int succ : exceptionalSuccessors[b]) {
+          or(exceptionalInput, outputs, succ * words);
+        }
+        for (int i = blockStarts[b + 1] - 1; i >= blockStarts[b]; i--) {
+          // every statement of the block can throw to its handlers
+          or(current, exceptionalInput, 0);
+          System.arraycopy(current, 0, after, i * words, words);
+          for (int w = 0; w < words; w++) {
+            current[w] = gens[i * words + w] | (current[w] & ~kills[i * words + w]);
+          }
+          System.arraycopy(current, 0, before, i * words, words);
+        }
+      }
+    }
+  }
+
+  private void or(@Nonnull long[] target, @Nonnull long[] source, int offset) {
+    for (int w = 0; w < words; w++) {
+      target[w] |= source[offset + w];
+    }
+  }
+
+  private static void markAll(@Nonnull BitSet pending, @Nonnull int[] blockIds) {
+    for (int b : blockIds) {
+      pending.set(b);
+    }
+  }
+
+  /** Returns whether the statement is part of the analyzed graph. */
+  public boolean containsStmt(@Nonnull Stmt stmt) {
+    return stmtNumbering.contains(stmt);
+  }
+
+  /** Returns the dense id of the statement, see {@link StmtGraph#getStmtNumbering()}. */
+  protected final int getStmtId(@Nonnull Stmt stmt) {
+    final int id = stmtNumbering.getId(stmt);
+    if (id < 0) {
+      throw new IllegalArgumentException("Stmt: " + stmt + " is not in StmtGraph!");
+    }
+    return id;
+  }
+
+  /** Returns the statements of the graph by their dense id. */
+  @Nonnull
+  protected final List<Stmt> getStmts() {
+    return Collections.unmodifiableList(Arrays.asList(stmts));
+  }
+
+  /** Returns whether the element of the universe holds before the execution of the statement. */
+  protected final boolean isSetBefore(@Nonnull Stmt stmt, int element) {
+    return isSet(before, getStmtId(stmt) * words, element);
+  }
+
+  /** Returns whether the element of the universe holds after the execution of the statement. */
+  protected final boolean isSetAfter(@Nonnull Stmt stmt, int element) {
+    return isSet(after, getStmtId(stmt) * words, element);
+  }
+
+  /** Returns the elements that hold before the execution of the statement in ascending order. */
+  @Nonnull
+  protected final int[] getElementsBefore(@Nonnull Stmt stmt) {
+    return elements(before, getStmtId(stmt) * words);
+  }
+
+  /** Returns the elements that hold after the execution of the statement in ascending order. */
+  @Nonnull
+  protected final int[] getElementsAfter(@Nonnull Stmt stmt) {
+    return elements(after, getStmtId(stmt) * words);
+  }
+
+  private static boolean isSet(@Nonnull long[] sets, int offset, int element) {
+    return (sets[offset + (element >>> 6)] & (1L << element)) != 0;
+  }
+
+  @Nonnull
+  private int[] elements(@Nonnull long[] sets, int offset) {
+    int count = 0;
+    for (int w = 0; w < words; w++) {
+      count += Long.bitCount(sets[offset + w]);
+    }
+    int[] elements = new int[count];
+    int i = 0;
+    for (int w = 0; w < words; w++) {
+      long word = sets[offset + w];
+      while (word != 0) {
+        elements[i++] = (w << 6) + Long.numberOfTrailingZeros(word);
+        word &= word - 1;
+      }
+    }
+    return elements;
+  }
+
+  /** Adds the element to the given set. */
+  protected static void set(@Nonnull long[] set, int element) {
+    set[element >>> 6] |= 1L << element;
+  }
+}
@@ -0,0 +1,98 @@
+package sootup.core.graph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2021 Zun Wang
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import javax.annotation.Nonnull;
+
+/**
+ * Assigns the ids <code>0</code> to <code>size() - 1</code> to a fixed collection of elements, so
+ * that analyses can keep their state per element in arrays and bitsets instead of hash maps. The
+ * ids are looked up once per element; the statements and blocks of a StmtGraph are numbered by
+ * {@link StmtGraph#getStmtNumbering()} and {@link StmtGraph#getBlockNumbering()}.
+ *
+ * @param <T> the type of the numbered elements
+ */
+public class DenseNumbering<T> {
+
+  @Nonnull private final List<T> elements;
+  @Nonnull private final Map<T, Integer> ids;
+
+  private DenseNumbering(@Nonnull List<T> elements, @Nonnull Map<T, Integer> ids) {
+    this.elements = elements;
+    this.ids = ids;
+    for (T element : elements) {
+      if (ids.putIfAbsent(element, ids.size()) != null) {
+        throw new IllegalArgumentException("The element " + element + " is numbered twice.");
+      }
+    }
+  }
+
+  /** Numbers the elements in their iteration order, elements are compared by equals(). */
+  @Nonnull
+  public static <T> DenseNumbering<T> of(@Nonnull Collection<? extends T> elements) {
+    return new DenseNumbering<>(new ArrayList<>(elements), new HashMap<>(elements.size() * 2));
+  }
+
+  /** Numbers the elements in their iteration order, elements are compared by identity. */
+  @Nonnull
+  public static <T> DenseNumbering<T> ofIdentities(@Nonnull Collection<? extends T> elements) {
+    return new DenseNumbering<>(new ArrayList<>(elements), new IdentityHashMap<>(elements.size()));
+  }
+
+  /** Returns the number of numbered elements. */
+  public int size() {
+    return elements.size();
+  }
+
+  /** Returns the id of the element or -1 if the element is not numbered. */
+  public int getId(@Nonnull T element) {
+    final Integer id = ids.get(element);
+    return id == null ? -1 : id;
+  }
+
+  /** Returns the element with the given id. */
+  @Nonnull
+  public T get(int id) {
+    return elements.get(id);
+  }
+
+  public boolean contains(@Nonnull T element) {
+    return ids.containsKey(element);
+  }
+
+  /** Returns the elements ordered by their id. */
+  @Nonnull
+  public List<T> getElements() {
+    return Collections.unmodifiableList(elements);
+  }
+
+  /** Gives the id of <code>oldElement</code> to <code>newElement</code>. */
+  void replace(@Nonnull T oldElement, @Nonnull T newElement) {
+    final Integer id = ids.remove(oldElement);
+    if (id != null) {
+      elements.set(id, newElement);
+      ids.put(newElement, id);
+    }
+  }
+}
@@ -23,8 +23,6 @@ package sootup.core.graph;
  */
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
 
 /**
@@ -39,83 +37,154 @@ public class DominanceFinder {
   private Map<BasicBlock<?>, Integer> blockToIdx = new HashMap<>();
   private int[] doms;
   private ArrayList<Integer>[] domFrontiers;
+  private final boolean isPostDominance;
 
   public DominanceFinder(StmtGraph<?> blockGraph) {
+    this(blockGraph, false);
+  }
+
+  /**
+   * @param isPostDominance if true, the post-dominators are computed on the reversed graph. Every
+   *     block without successors is a root then, so the dominance tree can be a forest.
+   */
+  public DominanceFinder(StmtGraph<?> blockGraph, boolean isPostDominance) {
+    this.isPostDominance = isPostDominance;
 
     // we're locked into providing a List<BasicBlock<?>>, not a List<? extends BasicBlock<?>>, so
     // we'll use the block iterator directly (which provides this type) rather than
     // #getBlocksSorted.
-    blocks =
-        StreamSupport.stream(
-                Spliterators.spliteratorUnknownSize(
-                    blockGraph.getBlockIterator(), Spliterator.ORDERED),
-                false)
-            .collect(Collectors.toList());
-
-    final BasicBlock<?> startingStmtBlock = blockGraph.getStartingStmtBlock();
-    // assign each block a integer id. The starting block must have id 0; rely on
-    // getBlocksSorted to have put the starting block first.
-    for (int i = 0; i < blocks.size(); i++) {
-      BasicBlock<?> block = blocks.get(i);
-      blockToIdx.put(block, i);
-    }
-
-    // initialize doms
-    doms = new int[blocks.size()];
-    doms[0] = 0;
-    for (int i = 1; i < doms.length; i++) {
-      doms[i] = -1;
+    final List<BasicBlock<?>> allBlocks = new ArrayList<>();
+    blockGraph.getBlockIterator().forEachRemaining(allBlocks::add);
+
+    final List<BasicBlock<?>> roots = new ArrayList<>();
+    if (isPostDominance) {
+      for (BasicBlock<?> block : allBlocks) {
+        if (block.getSuccessors().isEmpty()) {
+          roots.add(block);
+        }
+      }
+    } else if (blockGraph.getStartingStmt() != null) {
+      roots.add(blockGraph.getStartingStmtBlock());
+    }
+
+    // assign each block an integer id in reverse postorder, so the roots come first and a block
+    // has a greater id than its immediate dominator. Unreachable blocks are appended at the end.
+    blocks = reversePostorder(roots);
+    final int reachableCount = blocks.size();
+    for (int i = 0; i < reachableCount; i++) {
+      blockToIdx.put(blocks.get(i), i);
+    }
+    for (BasicBlock<?> block : allBlocks) {
+      if (!blockToIdx.containsKey(block)) {
+        blockToIdx.put(block, blocks.size());
+        blocks.add(block);
+      }
     }
 
-    // calculate immediate dominator for each block
+    // calculate immediate dominator for each block. Internally the ids are shifted by one: 0 is
+    // a virtual root which dominates all roots, -1 marks an undefined dominator.
+    final int[] iDoms = new int[blocks.size() + 1];
+    Arrays.fill(iDoms, -1);
+    iDoms[0] = 0;
+    for (BasicBlock<?> root : roots) {
+      iDoms[blockToIdx.get(root) + 1] = 0;
+    }
     boolean isChanged = true;
     while (isChanged) {
       isChanged = false;
-      for (BasicBlock<?> block : blocks) {
-        if (block.equals(startingStmtBlock)) {
+      for (int blockIdx = 0; blockIdx < reachableCount; blockIdx++) {
+        if (iDoms[blockIdx + 1] == 0) {
           continue;
         }
-        int blockIdx = blockToIdx.get(block);
-        List<BasicBlock<?>> preds = new ArrayList<>(block.getPredecessors());
-        // ms: should not be necessary preds.addAll(block.getExceptionalPredecessors());
-        int newIdom = getFirstDefinedBlockPredIdx(preds);
-        if (!preds.isEmpty() && newIdom != -1) {
-          preds.remove(blocks.get(newIdom));
-          for (BasicBlock<?> pred : preds) {
-            int predIdx = blockToIdx.get(pred);
-            if (this.doms[predIdx] != -1) {
-              newIdom = isIntersecting(newIdom, predIdx);
-            }
-          }
-          if (doms[blockIdx] != newIdom) {
-            doms[blockIdx] = newIdom;
-            isChanged = true;
+        // ms: exceptional predecessors should not be necessary
+        int newIdom = -1;
+        for (BasicBlock<?> pred : getPredecessors(blocks.get(blockIdx))) {
+          int predIdx = blockToIdx.get(pred) + 1;
+          if (iDoms[predIdx] != -1) {
+            newIdom = newIdom == -1 ? predIdx : isIntersecting(iDoms, newIdom, predIdx);
           }
         }
+        if (newIdom != -1 && iDoms[blockIdx + 1] != newIdom) {
+          iDoms[blockIdx + 1] = newIdom;
+          isChanged = true;
+        }
       }
     }
 
+    // a root is its own immediate dominator
+    doms = new int[blocks.size()];
+    for (int i = 0; i < doms.length; i++) {
+      final int iDom = iDoms[i + 1];
+      doms[i] = iDom == 0 ? i : iDom - 1;
+    }
+
     // initialize domFrontiers
-    domFrontiers = new ArrayList[blockGraph.getBlocks().size()];
+    domFrontiers = new ArrayList[blocks.size()];
     for (int i = 0; i < domFrontiers.length; i++) {
       domFrontiers[i] = new ArrayList<>();
     }
 
     // calculate dominance frontiers for each block
-    for (BasicBlock<?> block : blocks) {
-      List<BasicBlock<?>> preds = new ArrayList<>(block.getPredecessors());
-      // ms: should not be necessary  preds.addAll(block.getExceptionalPredecessors());
+    for (int blockIdx = 0; blockIdx < reachableCount; blockIdx++) {
+      List<? extends BasicBlock<?>> preds = getPredecessors(blocks.get(blockIdx));
       if (preds.size() > 1) {
-        int blockId = blockToIdx.get(block);
         for (BasicBlock<?> pred : preds) {
-          int predId = blockToIdx.get(pred);
-          while (predId != doms[blockId]) {
-            domFrontiers[predId].add(blockId);
-            predId = doms[predId];
+          int runner = blockToIdx.get(pred) + 1;
+          if (iDoms[runner] == -1) {
+            // unreachable predecessor
+            continue;
+          }
+          while (runner > 0 && runner != iDoms[blockIdx + 1]) {
+            domFrontiers[runner - 1].add(blockIdx);
+            runner = iDoms[runner];
+          }
+        }
+      }
+    }
+  }
+
+  /** Returns the predecessors of the block in the direction of the dominance relation. */
+  @Nonnull
+  private List<? extends BasicBlock<?>> getPredecessors(@Nonnull BasicBlock<?> block) {
+    return isPostDominance ? block.getSuccessors() : block.getPredecessors();
+  }
+
+  /** Returns the successors of the block in the direction of the dominance relation. */
+  @Nonnull
+  private List<? extends BasicBlock<?>> getSuccessors(@Nonnull BasicBlock<?> block) {
+    return isPostDominance ? block.getPredecessors() : block.getSuccessors();
+  }
+
+  @Nonnull
+  private List<BasicBlock<?>> reversePostorder(@Nonnull List<BasicBlock<?>> roots) {
+    final List<BasicBlock<?>> postorder = new ArrayList<>();
+    final Set<BasicBlock<?>> visited = new HashSet<>();
+    final Deque<BasicBlock<?>> stack = new ArrayDeque<>();
+    final Deque<Iterator<? extends BasicBlock<?>>> iterators = new ArrayDeque<>();
+    // visit the roots in reverse, so that they appear in their original order
+    for (int i = roots.size() - 1; i >= 0; i--) {
+      final BasicBlock<?> root = roots.get(i);
+      if (!visited.add(root)) {
+        continue;
+      }
+      stack.push(root);
+      iterators.push(getSuccessors(root).iterator());
+      while (!stack.isEmpty()) {
+        final Iterator<? extends BasicBlock<?>> iterator = iterators.peek();
+        if (iterator.hasNext()) {
+          final BasicBlock<?> succ = iterator.next();
+          if (visited.add(succ)) {
+            stack.push(succ);
+            iterators.push(getSuccessors(succ).iterator());
           }
+        } else {
+          postorder.add(stack.pop());
+          iterators.pop();
         }
       }
     }
+    Collections.reverse(postorder);
+    return postorder;
   }
 
   public void replaceBlock(@Nonnull BasicBlock<?> newBlock, BasicBlock<?> oldBlock) {
@@ -167,22 +236,35 @@ public class DominanceFinder {
     return this.doms;
   }
 
-  private int getFirstDefinedBlockPredIdx(List<BasicBlock<?>> preds) {
-    for (BasicBlock<?> block : preds) {
-      int idx = blockToIdx.get(block);
-      if (doms[idx] != -1) {
-        return idx;
-      }
+  /** Returns whether the computed relation is the post-dominance. */
+  public boolean isPostDominance() {
+    return isPostDominance;
+  }
+
+  /**
+   * Returns whether <code>dominator</code> dominates <code>block</code>, i.e. every path from the
+   * starting block to <code>block</code> passes <code>dominator</code>. A block dominates itself.
+   */
+  public boolean isDominating(@Nonnull BasicBlock<?> dominator, @Nonnull BasicBlock<?> block) {
+    final Integer dominatorIdx = blockToIdx.get(dominator);
+    final Integer blockIdx = blockToIdx.get(block);
+    if (dominatorIdx == null || blockIdx == null) {
+      throw new RuntimeException("The given block: " + block + " is not in BlockGraph!");
+    }
+    int idx = blockIdx;
+    // the ids of the dominators decrease up to the root
+    while (idx > dominatorIdx && doms[idx] != -1 && doms[idx] != idx) {
+      idx = doms[idx];
     }
-    return -1;
+    return idx == dominatorIdx;
   }
 
-  private int isIntersecting(int a, int b) {
+  private static int isIntersecting(int[] iDoms, int a, int b) {
     while (a != b) {
       if (a > b) {
-        a = doms[a];
+        a = iDoms[a];
       } else {
-        b = doms[b];
+        b = iDoms[b];
       }
     }
     return a;
@@ -47,7 +47,8 @@ public class DominanceTree {
     }
 
     for (int i = 0; i < treeSize; i++) {
-      if (iDoms[i] != i) {
+      // roots have no parent and unreachable blocks are not part of the tree
+      if (iDoms[i] != i && iDoms[i] != -1) {
         parents[i] = iDoms[i];
         children[iDoms[i]].add(i);
       }
@@ -57,6 +57,12 @@ public class ForwardingStmtGraph<V extends BasicBlock<V>> extends StmtGraph<V> {
     return backingGraph.getBlockOf(stmt);
   }
 
+  @Nonnull
+  @Override
+  public StmtGraphAnalysisCache getAnalysisCache() {
+    return backingGraph.getAnalysisCache();
+  }
+
   @Nonnull
   @Override
   public Collection<Stmt> getNodes() {
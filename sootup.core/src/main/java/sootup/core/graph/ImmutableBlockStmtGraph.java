@@ -22,7 +22,6 @@ package sootup.core.graph;
  * #L%
  */
 
-import com.google.common.collect.Lists;
 import java.util.*;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -30,208 +29,600 @@ import sootup.core.jimple.basic.Trap;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.types.ClassType;
 
-// FIXME: implement!
+/**
+ * A compact StmtGraph which can not be modified anymore. The Stmts are stored in a single array in
+ * the order of {@link #getBlocksSorted()}, so a BasicBlock is just a range of that array. The flows
+ * between the blocks are stored in compressed sparse row format i.e. the successors of block b are
+ * the block indices {@code succTargets[succOffsets[b]]} to {@code succTargets[succOffsets[b+1]-1]}.
+ * The lists returned by {@link #successors(Stmt)} and {@link #predecessors(Stmt)} are views on
+ * these arrays, so no lists are copied when a finished Body is traversed.
+ *
+ * <p>Use a {@link MutableBlockStmtGraph} e.g. via {@link sootup.core.model.Body.BodyBuilder} to
+ * modify a StmtGraph.
+ */
 public class ImmutableBlockStmtGraph
     extends StmtGraph<ImmutableBlockStmtGraph.ImmutableBasicBlock> {
 
-  private final List<ImmutableBasicBlock> blocks;
-  private final Map<Stmt, ImmutableBasicBlock> stmtToBlock = new HashMap<>();
+  /** all Stmts, block by block */
+  @Nonnull private final Stmt[] stmts;
+  /** index of the head of each block in stmts, the last entry is the number of stmts */
+  @Nonnull private final int[] blockStarts;
+
+  @Nonnull private final ImmutableBasicBlock[] blocks;
+  @Nonnull private final List<ImmutableBasicBlock> blockList;
+
+  @Nonnull private final int[] succOffsets;
+  @Nonnull private final int[] succTargets;
+  @Nonnull private final int[] predOffsets;
+  @Nonnull private final int[] predTargets;
+
+  @Nonnull private final int[] exceptionalOffsets;
+  @Nonnull private final ClassType[] exceptionTypes;
+  @Nonnull private final int[] exceptionalTargets;
+
+  /** open addressing identity hash table: stmt index + 1 or 0 for an empty slot */
+  @Nonnull private final int[] stmtIndexTable;
+
+  private final int startingStmtIdx;
+
+  /** the traps are created on request */
+  @Nullable private List<Trap> traps;
+
+  /** copies the given StmtGraph into a new ImmutableBlockStmtGraph */
+  public ImmutableBlockStmtGraph(@Nonnull StmtGraph<?> graph) {
+    final List<? extends BasicBlock<?>> sourceBlocks = graph.getBlocksSorted();
+    final int blockCount = sourceBlocks.size();
+
+    int stmtCount = 0;
+    int succCount = 0;
+    int predCount = 0;
+    int exceptionalCount = 0;
+    for (BasicBlock<?> block : sourceBlocks) {
+      stmtCount += block.getStmtCount();
+      succCount += block.getSuccessors().size();
+      predCount += block.getPredecessors().size();
+      exceptionalCount += block.getExceptionalSuccessors().size();
+    }
+
+    stmts = new Stmt[stmtCount];
+    blockStarts = new int[blockCount + 1];
+    blocks = new ImmutableBasicBlock[blockCount];
+    int stmtIdx = 0;
+    for (int b = 0; b < blockCount; b++) {
+      blockStarts[b] = stmtIdx;
+      for (Stmt stmt : sourceBlocks.get(b).getStmts()) {
+        stmts[stmtIdx++] = stmt;
+      }
+      blocks[b] = new ImmutableBasicBlock(b);
+    }
+    blockStarts[blockCount] = stmtIdx;
+    blockList = Collections.unmodifiableList(Arrays.asList(blocks));
+
+    int tableSize = 2;
+    while (tableSize < stmtCount * 2) {
+      tableSize <<= 1;
+    }
+    stmtIndexTable = new int[tableSize];
+    for (int i = 0; i < stmtCount; i++) {
+      int slot = hash(stmts[i]) & (tableSize - 1);
+      while (stmtIndexTable[slot] != 0) {
+        if (stmts[stmtIndexTable[slot] - 1] == stmts[i]) {
+          throw new IllegalArgumentException("Stmt '" + stmts[i] + "' is in multiple blocks.");
+        }
+        slot = (slot + 1) & (tableSize - 1);
+      }
+      stmtIndexTable[slot] = i + 1;
+    }
+
+    // link the blocks via their heads/tails - the source blocks can be views that are created on
+    // demand, so their identity is not reliable
+    succOffsets = new int[blockCount + 1];
+    succTargets = new int[succCount];
+    predOffsets = new int[blockCount + 1];
+    predTargets = new int[predCount];
+    exceptionalOffsets = new int[blockCount + 1];
+    exceptionTypes = new ClassType[exceptionalCount];
+    exceptionalTargets = new int[exceptionalCount];
+    int succIdx = 0;
+    int predIdx = 0;
+    int exceptionalIdx = 0;
+    for (int b = 0; b < blockCount; b++) {
+      final BasicBlock<?> block = sourceBlocks.get(b);
+      succOffsets[b] = succIdx;
+      for (BasicBlock<?> succ : block.getSuccessors()) {
+        succTargets[succIdx++] = blockIndexOf(succ.getHead());
+      }
+      predOffsets[b] = predIdx;
+      for (BasicBlock<?> pred : block.getPredecessors()) {
+        predTargets[predIdx++] = blockIndexOf(pred.getTail());
+      }
+      exceptionalOffsets[b] = exceptionalIdx;
+      for (Map.Entry<? extends ClassType, ? extends BasicBlock<?>> entry :
+          block.getExceptionalSuccessors().entrySet()) {
+        exceptionTypes[exceptionalIdx] = entry.getKey();
+        exceptionalTargets[exceptionalIdx++] = blockIndexOf(entry.getValue().getHead());
+      }
+    }
+    succOffsets[blockCount] = succIdx;
+    predOffsets[blockCount] = predIdx;
+    exceptionalOffsets[blockCount] = exceptionalIdx;
+
+    final Stmt startingStmt = graph.getStartingStmt();
+    startingStmtIdx = startingStmt == null ? -1 : indexOf(startingStmt);
+  }
+
+  /**
+   * Returns an ImmutableBlockStmtGraph with the contents of the given StmtGraph, which is the given
+   * graph itself if it is already immutable.
+   */
+  @Nonnull
+  public static ImmutableBlockStmtGraph of(@Nonnull StmtGraph<?> graph) {
+    if (graph instanceof ImmutableBlockStmtGraph) {
+      return (ImmutableBlockStmtGraph) graph;
+    }
+    return new ImmutableBlockStmtGraph(graph);
+  }
 
-  public ImmutableBlockStmtGraph(@Nonnull MutableStmtGraph graph) {
+  private static int hash(@Nonnull Stmt stmt) {
+    final int h = System.identityHashCode(stmt);
+    return h ^ (h >>> 16);
+  }
 
-    final List<? extends BasicBlock<?>> mblocks = graph.getBlocksSorted();
-    blocks = Lists.newArrayListWithExpectedSize(mblocks.size());
-    for (BasicBlock<?> block : mblocks) {
-      /* TODO: link predecessors/successors as well..
-      // final ImmutableBasicBlock ib = new ImmutableBasicBlock();
-      block.getStmts().forEach(stmt -> stmtToBlock.put(stmt, ib));
+  /** returns the position of the given Stmt in the stmts array or -1 if it is not in this graph */
+  private int indexOf(@Nonnull Stmt stmt) {
+    final int mask = stmtIndexTable.length - 1;
+    int slot = hash(stmt) & mask;
+    int entry;
+    while ((entry = stmtIndexTable[slot]) != 0) {
+      if (stmts[entry - 1] == stmt) {
+        return entry - 1;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
 
-      blocks.add(ib);*/
+  private int indexOfContained(@Nonnull Stmt stmt) {
+    final int idx = indexOf(stmt);
+    if (idx < 0) {
+      throw new IllegalArgumentException(
+          "Stmt '" + stmt + "' is not contained in the BlockStmtGraph");
     }
+    return idx;
+  }
+
+  /** returns the index of the block which contains the Stmt at the given position */
+  private int blockIndexOfStmtIdx(int stmtIdx) {
+    final int pos = Arrays.binarySearch(blockStarts, 0, blocks.length, stmtIdx);
+    return pos >= 0 ? pos : -pos - 2;
+  }
+
+  private int blockIndexOf(@Nonnull Stmt stmt) {
+    return blockIndexOfStmtIdx(indexOfContained(stmt));
+  }
+
+  private int headOf(int blockIdx) {
+    return blockStarts[blockIdx];
+  }
+
+  private int tailOf(int blockIdx) {
+    return blockStarts[blockIdx + 1] - 1;
   }
 
   @Nullable
   @Override
   public Stmt getStartingStmt() {
-    return blocks.isEmpty() ? null : blocks.get(0).getHead();
+    return startingStmtIdx < 0 ? null : stmts[startingStmtIdx];
   }
 
+  @Nullable
   @Override
-  public BasicBlock<?> getStartingStmtBlock() {
-    throw new UnsupportedOperationException("Not implemented yet!");
+  public ImmutableBasicBlock getStartingStmtBlock() {
+    return startingStmtIdx < 0 ? null : blocks[blockIndexOfStmtIdx(startingStmtIdx)];
   }
 
   @Override
-  public BasicBlock<ImmutableBasicBlock> getBlockOf(@Nonnull Stmt stmt) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+  public ImmutableBasicBlock getBlockOf(@Nonnull Stmt stmt) {
+    final int idx = indexOf(stmt);
+    return idx < 0 ? null : blocks[blockIndexOfStmtIdx(idx)];
   }
 
   @Nonnull
   @Override
   public List<Stmt> getNodes() {
-    int size = 0;
-    for (ImmutableBasicBlock block : blocks) {
-      size += block.getStmtCount();
-    }
-    final ArrayList<Stmt> stmts = new ArrayList<>(size);
-    for (ImmutableBasicBlock block : blocks) {
-      stmts.addAll(block.getStmts());
-    }
-    return stmts;
+    return new StmtRange(0, stmts.length);
+  }
+
+  @Override
+  public List<Stmt> getStmts() {
+    return new ArrayList<>(Arrays.asList(stmts));
   }
 
   @Nonnull
   @Override
-  public Collection<ImmutableBasicBlock> getBlocks() {
-    return blocks;
+  public List<ImmutableBasicBlock> getBlocks() {
+    return blockList;
   }
 
   @Nonnull
   @Override
-  public List<? extends BasicBlock<?>> getBlocksSorted() {
-    return blocks;
+  public List<ImmutableBasicBlock> getBlocksSorted() {
+    return blockList;
+  }
+
+  @Override
+  public Iterator<BasicBlock<?>> getBlockIterator() {
+    return Collections.<BasicBlock<?>>unmodifiableList(blockList).iterator();
   }
 
   @Override
   public boolean containsNode(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    return indexOf(node) >= 0;
   }
 
   @Nonnull
   @Override
   public List<Stmt> predecessors(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int idx = indexOfContained(node);
+    final int blockIdx = blockIndexOfStmtIdx(idx);
+    if (idx != headOf(blockIdx)) {
+      return new StmtRange(idx - 1, idx);
+    }
+    return new BlockStmts(predTargets, predOffsets[blockIdx], predOffsets[blockIdx + 1], false);
   }
 
   @Nonnull
   @Override
   public List<Stmt> exceptionalPredecessors(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("not implemented");
+    final int idx = indexOfContained(node);
+    final int blockIdx = blockIndexOfStmtIdx(idx);
+    if (idx != headOf(blockIdx)) {
+      // a traphandler is a blocks head and only an exception handler stmt can have exceptional
+      // predecessors
+      return Collections.emptyList();
+    }
+
+    final List<Stmt> exceptionalPreds = new ArrayList<>();
+    for (int b = 0; b < blocks.length; b++) {
+      for (int i = exceptionalOffsets[b]; i < exceptionalOffsets[b + 1]; i++) {
+        if (exceptionalTargets[i] == blockIdx) {
+          exceptionalPreds.addAll(new StmtRange(headOf(b), tailOf(b) + 1));
+          break;
+        }
+      }
+    }
+    return exceptionalPreds;
   }
 
   @Nonnull
   @Override
   public List<Stmt> successors(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int idx = indexOfContained(node);
+    final int blockIdx = blockIndexOfStmtIdx(idx);
+    if (idx != tailOf(blockIdx)) {
+      return new StmtRange(idx + 1, idx + 2);
+    }
+    return new BlockStmts(succTargets, succOffsets[blockIdx], succOffsets[blockIdx + 1], true);
   }
 
   @Nonnull
   @Override
   public Map<ClassType, Stmt> exceptionalSuccessors(@Nonnull Stmt node) {
-    // FIXME! implement
-    throw new RuntimeException("not implemented");
+    final int blockIdx = blockIndexOf(node);
+    final int from = exceptionalOffsets[blockIdx];
+    final int to = exceptionalOffsets[blockIdx + 1];
+    if (from == to) {
+      return Collections.emptyMap();
+    }
+    final Map<ClassType, Stmt> exceptionalSuccs = new LinkedHashMap<>();
+    for (int i = from; i < to; i++) {
+      exceptionalSuccs.put(exceptionTypes[i], stmts[headOf(exceptionalTargets[i])]);
+    }
+    return Collections.unmodifiableMap(exceptionalSuccs);
   }
 
   @Override
   public int inDegree(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int idx = indexOfContained(node);
+    final int blockIdx = blockIndexOfStmtIdx(idx);
+    if (idx == headOf(blockIdx)) {
+      return predOffsets[blockIdx + 1] - predOffsets[blockIdx];
+    }
+    return 1;
   }
 
   @Override
   public int outDegree(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int idx = indexOfContained(node);
+    final int blockIdx = blockIndexOfStmtIdx(idx);
+    if (idx == tailOf(blockIdx)) {
+      return succOffsets[blockIdx + 1] - succOffsets[blockIdx];
+    }
+    return 1;
   }
 
   @Override
   public boolean hasEdgeConnecting(@Nonnull Stmt source, @Nonnull Stmt target) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int idx = indexOf(source);
+    if (idx < 0) {
+      throw new IllegalArgumentException(
+          "source Stmt is not contained in the BlockStmtGraph: " + source);
+    }
+    final int blockIdx = blockIndexOfStmtIdx(idx);
+    if (idx != tailOf(blockIdx)) {
+      return stmts[idx + 1] == target;
+    }
+    for (int i = succOffsets[blockIdx]; i < succOffsets[blockIdx + 1]; i++) {
+      if (stmts[headOf(succTargets[i])] == target) {
+        return true;
+      }
+    }
+    return false;
   }
 
+  /**
+   * Returns the traps of this graph. They are aggregated like in {@link
+   * BlockGraphIteratorAndTrapAggregator} from the blocks in the order of the stmts array.
+   */
   @Nonnull
   @Override
   public List<Trap> getTraps() {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    if (traps == null) {
+      traps = Collections.unmodifiableList(aggregateTraps());
+    }
+    return traps;
+  }
+
+  @Nonnull
+  private List<Trap> aggregateTraps() {
+    final List<Trap> collectedTraps = new ArrayList<>();
+    final Map<ClassType, Stmt> activeTraps = new HashMap<>();
+    int lastBlockIdx = -1;
+    for (int b = 0; b < blocks.length; b++) {
+      // former trap info is not in the current blocks info -> close the trap
+      if (lastBlockIdx >= 0) {
+        final int to = exceptionalOffsets[lastBlockIdx + 1];
+        for (int i = exceptionalOffsets[lastBlockIdx]; i < to; i++) {
+          if (exceptionalTargets[i] != exceptionalTargetOf(b, exceptionTypes[i])) {
+            closeTrap(collectedTraps, activeTraps, i, stmts[headOf(b)]);
+          }
+        }
+      }
+      // is there a new trap in the current block -> remember its begin
+      for (int i = exceptionalOffsets[b]; i < exceptionalOffsets[b + 1]; i++) {
+        if (lastBlockIdx < 0
+            || exceptionalTargets[i] != exceptionalTargetOf(lastBlockIdx, exceptionTypes[i])) {
+          activeTraps.put(exceptionTypes[i], stmts[headOf(b)]);
+        }
+      }
+      lastBlockIdx = b;
+    }
+
+    // a trap may close on the last block
+    if (lastBlockIdx >= 0) {
+      final int to = exceptionalOffsets[lastBlockIdx + 1];
+      for (int i = exceptionalOffsets[lastBlockIdx]; i < to; i++) {
+        closeTrap(collectedTraps, activeTraps, i, stmts[tailOf(lastBlockIdx)]);
+      }
+    }
+
+    if (!activeTraps.isEmpty()) {
+      throw new IllegalArgumentException(
+          "Invalid StmtGraph. A Trap is not created as a traps endStmt was not visited during the"
+              + " iteration of all Stmts.");
+    }
+
+    collectedTraps.sort(
+        Comparator.<Trap>comparingInt(t -> blockIndexOf(t.getBeginStmt()))
+            .thenComparingInt(t -> blockIndexOf(t.getEndStmt()))
+            .thenComparing(t -> t.getExceptionType().toString()));
+    return collectedTraps;
+  }
+
+  private void closeTrap(
+      @Nonnull List<Trap> collectedTraps,
+      @Nonnull Map<ClassType, Stmt> activeTraps,
+      int exceptionalIdx,
+      @Nonnull Stmt trapEnd) {
+    final ClassType type = exceptionTypes[exceptionalIdx];
+    final Stmt trapBeginStmt = activeTraps.remove(type);
+    if (trapBeginStmt == null) {
+      throw new IllegalStateException("Trap start for '" + type + "' is not in the Map!");
+    }
+    // trapend is exclusive!
+    collectedTraps.add(
+        new Trap(type, trapBeginStmt, trapEnd, stmts[headOf(exceptionalTargets[exceptionalIdx])]));
+  }
+
+  /** returns the handler block of the given block for the given exception type or -1 */
+  private int exceptionalTargetOf(int blockIdx, @Nonnull ClassType type) {
+    for (int i = exceptionalOffsets[blockIdx]; i < exceptionalOffsets[blockIdx + 1]; i++) {
+      if (exceptionTypes[i].equals(type)) {
+        return exceptionalTargets[i];
+      }
+    }
+    return -1;
   }
 
   @Nonnull
   @Override
   public Iterator<Stmt> iterator() {
-    return new Iterator<Stmt>() {
-      final Iterator<ImmutableBasicBlock> blockIt = blocks.iterator();
-      Iterator<Stmt> stmtIt = blockIt.next().getStmts().iterator();
+    return getNodes().iterator();
+  }
+
+  /** A view on the Stmts from (inclusive) to (exclusive) of the stmts array. */
+  private class StmtRange extends AbstractList<Stmt> implements RandomAccess {
+    private final int from;
+    private final int to;
+
+    private StmtRange(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
 
-      @Override
-      public boolean hasNext() {
-        // hint: there are no empty blocks!
-        return stmtIt.hasNext() || blockIt.hasNext();
+    @Override
+    public Stmt get(int index) {
+      if (index < 0 || index >= to - from) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
       }
+      return stmts[from + index];
+    }
 
-      @Override
-      public Stmt next() {
-        if (stmtIt.hasNext()) {
-          return stmtIt.next();
-        }
-        stmtIt = blockIt.next().getStmts().iterator();
-        return stmtIt.next();
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+      if (!(o instanceof Stmt)) {
+        return -1;
       }
-    };
+      final int idx = ImmutableBlockStmtGraph.this.indexOf((Stmt) o);
+      return idx >= from && idx < to ? idx - from : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+      return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return indexOf(o) >= 0;
+    }
+  }
+
+  /** A view on the heads or tails of the blocks referenced in targets[from] to targets[to-1]. */
+  private class BlockStmts extends AbstractList<Stmt> implements RandomAccess {
+    @Nonnull private final int[] targets;
+    private final int from;
+    private final int to;
+    private final boolean heads;
+
+    private BlockStmts(@Nonnull int[] targets, int from, int to, boolean heads) {
+      this.targets = targets;
+      this.from = from;
+      this.to = to;
+      this.heads = heads;
+    }
+
+    @Override
+    public Stmt get(int index) {
+      if (index < 0 || index >= to - from) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+      }
+      final int blockIdx = targets[from + index];
+      return stmts[heads ? headOf(blockIdx) : tailOf(blockIdx)];
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
   }
 
+  /** A view on the blocks referenced in targets[from] to targets[to-1]. */
+  private class BlockRange extends AbstractList<ImmutableBasicBlock> implements RandomAccess {
+    @Nonnull private final int[] targets;
+    private final int from;
+    private final int to;
+
+    private BlockRange(@Nonnull int[] targets, int from, int to) {
+      this.targets = targets;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public ImmutableBasicBlock get(int index) {
+      if (index < 0 || index >= to - from) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+      }
+      return blocks[targets[from + index]];
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+
+  /** A BasicBlock of an ImmutableBlockStmtGraph - it only knows its index in the graph. */
   public class ImmutableBasicBlock implements BasicBlock<ImmutableBasicBlock> {
-    private final MutableBasicBlock graph;
-    private final int startIdx;
-    private final int endIdx;
-    private final List<ImmutableBasicBlock> successors;
-    private final List<ImmutableBasicBlock> predecessors;
-
-    private ImmutableBasicBlock(
-        MutableBasicBlock graph,
-        int startIdx,
-        int endIdx,
-        List<ImmutableBasicBlock> successors,
-        List<ImmutableBasicBlock> predecessors) {
-      this.graph = graph;
-      this.startIdx = startIdx;
-      this.endIdx = endIdx;
-      this.successors = successors;
-      this.predecessors = predecessors;
+    private final int idx;
+
+    private ImmutableBasicBlock(int idx) {
+      this.idx = idx;
     }
 
     @Nonnull
     @Override
     public List<ImmutableBasicBlock> getPredecessors() {
-      return predecessors;
+      return new BlockRange(predTargets, predOffsets[idx], predOffsets[idx + 1]);
     }
 
     @Nonnull
     @Override
     public List<ImmutableBasicBlock> getSuccessors() {
-      return successors;
+      return new BlockRange(succTargets, succOffsets[idx], succOffsets[idx + 1]);
     }
 
     @Override
     @Nonnull
     public Map<ClassType, ImmutableBasicBlock> getExceptionalPredecessors() {
-      throw new UnsupportedOperationException("not implemented yet");
+      final Map<ClassType, ImmutableBasicBlock> exceptionalPreds = new HashMap<>();
+      for (int b = 0; b < blocks.length; b++) {
+        for (int i = exceptionalOffsets[b]; i < exceptionalOffsets[b + 1]; i++) {
+          if (exceptionalTargets[i] == idx) {
+            exceptionalPreds.put(exceptionTypes[i], blocks[b]);
+          }
+        }
+      }
+      return exceptionalPreds;
     }
 
     @Nonnull
     @Override
-    public Map<? extends ClassType, ImmutableBasicBlock> getExceptionalSuccessors() {
-      throw new UnsupportedOperationException("not implemented yet");
+    public Map<ClassType, ImmutableBasicBlock> getExceptionalSuccessors() {
+      final int from = exceptionalOffsets[idx];
+      final int to = exceptionalOffsets[idx + 1];
+      if (from == to) {
+        return Collections.emptyMap();
+      }
+      final Map<ClassType, ImmutableBasicBlock> exceptionalSuccs = new LinkedHashMap<>();
+      for (int i = from; i < to; i++) {
+        exceptionalSuccs.put(exceptionTypes[i], blocks[exceptionalTargets[i]]);
+      }
+      return Collections.unmodifiableMap(exceptionalSuccs);
     }
 
     @Nonnull
     @Override
     public List<Stmt> getStmts() {
-      throw new UnsupportedOperationException();
+      return new StmtRange(headOf(idx), tailOf(idx) + 1);
     }
 
     @Override
     public int getStmtCount() {
-      return endIdx - startIdx + 1;
+      return blockStarts[idx + 1] - blockStarts[idx];
     }
 
     @Nonnull
     @Override
     public Stmt getHead() {
-      throw new UnsupportedOperationException();
+      return stmts[headOf(idx)];
     }
 
     @Nonnull
     @Override
     public Stmt getTail() {
-      throw new UnsupportedOperationException();
+      return stmts[tailOf(idx)];
+    }
+
+    @Override
+    public String toString() {
+      return "Block " + getStmts();
     }
   }
 }
@@ -0,0 +1,206 @@
+package sootup.core.graph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2021 Zun Wang
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The natural loops of a StmtGraph and how they are nested. A natural loop is defined by a back
+ * edge, i.e. an edge whose target dominates its source: it consists of the target (the header) and
+ * all blocks that reach the source without passing the header. Loops with the same header are
+ * merged. Two loops are either disjoint or one is nested in the other.
+ */
+public class LoopNestingForest {
+
+  /** A natural loop and its position in the nesting forest. */
+  public static class Loop {
+    @Nonnull private final BasicBlock<?> header;
+    @Nonnull private final Set<BasicBlock<?>> blocks;
+    @Nonnull private final List<BasicBlock<?>> latches;
+    @Nullable private Loop parent;
+    @Nonnull private final List<Loop> children = new ArrayList<>();
+
+    private Loop(
+        @Nonnull BasicBlock<?> header,
+        @Nonnull Set<BasicBlock<?>> blocks,
+        @Nonnull List<BasicBlock<?>> latches) {
+      this.header = header;
+      this.blocks = blocks;
+      this.latches = latches;
+    }
+
+    /** Returns the block that dominates all blocks of the loop. */
+    @Nonnull
+    public BasicBlock<?> getHeader() {
+      return header;
+    }
+
+    /** Returns the blocks of the loop including the blocks of the nested loops. */
+    @Nonnull
+    public Set<BasicBlock<?>> getBlocks() {
+      return Collections.unmodifiableSet(blocks);
+    }
+
+    /** Returns the sources of the back edges to the header. */
+    @Nonnull
+    public List<BasicBlock<?>> getLatches() {
+      return Collections.unmodifiableList(latches);
+    }
+
+    /** Returns the blocks outside of the loop that are reached from a block of the loop. */
+    @Nonnull
+    public Set<BasicBlock<?>> getExits() {
+      Set<BasicBlock<?>> exits = new LinkedHashSet<>();
+      for (BasicBlock<?> block : blocks) {
+        for (BasicBlock<?> succ : block.getSuccessors()) {
+          if (!blocks.contains(succ)) {
+            exits.add(succ);
+          }
+        }
+      }
+      return exits;
+    }
+
+    public boolean contains(@Nonnull BasicBlock<?> block) {
+      return blocks.contains(block);
+    }
+
+    /** Returns the innermost loop that contains this loop or null for an outermost loop. */
+    @Nullable
+    public Loop getParent() {
+      return parent;
+    }
+
+    /** Returns the loops that are nested directly in this loop. */
+    @Nonnull
+    public List<Loop> getChildren() {
+      return Collections.unmodifiableList(children);
+    }
+
+    /** Returns the nesting depth of the loop, starting with 1 for an outermost loop. */
+    public int getDepth() {
+      int depth = 1;
+      for (Loop loop = parent; loop != null; loop = loop.parent) {
+        depth++;
+      }
+      return depth;
+    }
+
+    @Override
+    public String toString() {
+      return "Loop(" + header + ", " + blocks.size() + " blocks)";
+    }
+  }
+
+  /** all loops, the outer ones before the ones nested in them */
+  @Nonnull private final List<Loop> loops = new ArrayList<>();
+
+  @Nonnull private final Map<BasicBlock<?>, Loop> blockToInnermostLoop = new HashMap<>();
+
+  public LoopNestingForest(@Nonnull DominanceFinder dominanceFinder) {
+    if (dominanceFinder.isPostDominance()) {
+      throw new IllegalArgumentException("The loops are defined by the dominators of the graph.");
+    }
+
+    // find the back edges and collect the blocks of the loop of each header
+    final Map<BasicBlock<?>, Set<BasicBlock<?>>> headerToBlocks = new LinkedHashMap<>();
+    final Map<BasicBlock<?>, List<BasicBlock<?>>> headerToLatches = new HashMap<>();
+    final int[] doms = dominanceFinder.getImmediateDominators();
+    final List<BasicBlock<?>> blocks = dominanceFinder.getIdxToBlock();
+    for (int i = 0; i < blocks.size(); i++) {
+      if (doms[i] == -1) {
+        // not reachable
+        continue;
+      }
+      final BasicBlock<?> block = blocks.get(i);
+      for (BasicBlock<?> header : block.getSuccessors()) {
+        if (!dominanceFinder.isDominating(header, block)) {
+          continue;
+        }
+        headerToLatches.computeIfAbsent(header, h -> new ArrayList<>()).add(block);
+        final Set<BasicBlock<?>> loopBlocks =
+            headerToBlocks.computeIfAbsent(
+                header, h -> new LinkedHashSet<>(Collections.singleton(h)));
+        final Deque<BasicBlock<?>> workList = new ArrayDeque<>();
+        if (loopBlocks.add(block)) {
+          workList.add(block);
+        }
+        while (!workList.isEmpty()) {
+          for (BasicBlock<?> pred : workList.removeFirst().getPredecessors()) {
+            if (doms[dominanceFinder.getBlockToIdx().get(pred)] != -1 && loopBlocks.add(pred)) {
+              workList.add(pred);
+            }
+          }
+        }
+      }
+    }
+
+    // the loop of a header that is contained in a bigger loop is nested in it
+    headerToBlocks.forEach(
+        (header, loopBlocks) ->
+            loops.add(new Loop(header, loopBlocks, headerToLatches.get(header))));
+    loops.sort(Comparator.comparingInt((Loop loop) -> loop.blocks.size()).reversed());
+    for (Loop loop : loops) {
+      final Loop parent = blockToInnermostLoop.get(loop.header);
+      if (parent != null) {
+        loop.parent = parent;
+        parent.children.add(loop);
+      }
+      for (BasicBlock<?> block : loop.blocks) {
+        blockToInnermostLoop.put(block, loop);
+      }
+    }
+  }
+
+  /** Returns all loops, the outer ones before the ones nested in them. */
+  @Nonnull
+  public List<Loop> getLoops() {
+    return Collections.unmodifiableList(loops);
+  }
+
+  /** Returns the loops that are not nested in another loop. */
+  @Nonnull
+  public List<Loop> getOutermostLoops() {
+    List<Loop> outermostLoops = new ArrayList<>();
+    for (Loop loop : loops) {
+      if (loop.parent == null) {
+        outermostLoops.add(loop);
+      }
+    }
+    return outermostLoops;
+  }
+
+  /** Returns the innermost loop that contains the block or null if the block is in no loop. */
+  @Nullable
+  public Loop getLoopOf(@Nonnull BasicBlock<?> block) {
+    return blockToInnermostLoop.get(block);
+  }
+
+  /** Returns the number of loops that contain the block. */
+  public int getLoopDepth(@Nonnull BasicBlock<?> block) {
+    Loop loop = blockToInnermostLoop.get(block);
+    return loop == null ? 0 : loop.getDepth();
+  }
+}
@@ -39,6 +39,15 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
 
   @Nonnull private final List<Stmt> stmts;
 
+  /** blocks with at least this amount of Stmts maintain the position index for their Stmts */
+  private static final int POSITION_INDEX_THRESHOLD = 16;
+
+  /**
+   * the positions of the Stmts in this block - it is created on request for bigger blocks and
+   * dropped if positions are shifted.
+   */
+  @Nullable private Map<Stmt, Integer> stmtPositions;
+
   public MutableBasicBlock() {
     exceptionalSuccessorBlocks = new HashMap<>();
     stmts = new ArrayList<>();
@@ -63,19 +72,62 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
           "Can't add another Stmt to a Block after a BranchingStmt.");
     }
     stmts.add(newStmt);
+    if (stmtPositions != null) {
+      stmtPositions.putIfAbsent(newStmt, stmts.size() - 1);
+    }
   }
 
   public void removeStmt(@Nonnull Stmt stmt) {
-    final int idx = stmts.indexOf(stmt);
+    final int lastIdx = stmts.size() - 1;
+    if (lastIdx >= 0 && stmts.get(lastIdx) == stmt) {
+      // removing the tail does not shift the positions of the other stmts
+      stmts.remove(lastIdx);
+      if (stmtPositions != null) {
+        stmtPositions.remove(stmt, lastIdx);
+      }
+      return;
+    }
+    final int idx = indexOf(stmt);
     stmts.remove(idx);
+    stmtPositions = null;
   }
 
   public void replaceStmt(Stmt oldStmt, Stmt newStmt) {
-    final int idx = stmts.indexOf(oldStmt);
+    final int idx = indexOf(oldStmt);
     if (idx < 0) {
       throw new IllegalArgumentException("oldStmt does not exist in this Block!");
     }
     stmts.set(idx, newStmt);
+    if (stmtPositions != null) {
+      stmtPositions.remove(oldStmt, idx);
+      stmtPositions.putIfAbsent(newStmt, idx);
+    }
+  }
+
+  /** replaces all Stmts of this block - the flows of the block stay the same. */
+  void setStmts(@Nonnull List<Stmt> newStmts) {
+    stmts.clear();
+    stmts.addAll(newStmts);
+    stmtPositions = null;
+  }
+
+  /**
+   * Returns the position of the given Stmt in this block or -1 if it is not contained. Bigger
+   * blocks keep an index of the positions, so this is not a linear search for them.
+   */
+  public int indexOf(@Nonnull Stmt stmt) {
+    final int size = stmts.size();
+    if (size < POSITION_INDEX_THRESHOLD) {
+      return stmts.indexOf(stmt);
+    }
+    if (stmtPositions == null) {
+      stmtPositions = new HashMap<>(size * 4 / 3 + 1);
+      for (int i = 0; i < size; i++) {
+        stmtPositions.putIfAbsent(stmts.get(i), i);
+      }
+    }
+    final Integer idx = stmtPositions.get(stmt);
+    return idx == null ? -1 : idx;
   }
 
   protected void updateSuccessorContainer(@Nonnull Stmt newStmt) {
@@ -231,7 +283,7 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
    * blocks.
    */
   public MutableBasicBlock splitBlockUnlinked(@Nonnull Stmt newTail, @Nonnull Stmt newHead) {
-    int splitIdx = stmts.indexOf(newTail); // not cheap.
+    int splitIdx = indexOf(newTail);
     if (splitIdx < 0) {
       throw new IllegalArgumentException(
           "Can not split by that Stmt - it is not contained in this Block.");
@@ -260,6 +312,11 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
 
     // remove stmt references from current i.e. first block
     if (splitIdx < stmts.size()) {
+      if (stmtPositions != null) {
+        for (int i = splitIdx; i < stmts.size(); i++) {
+          stmtPositions.remove(stmts.get(i), i);
+        }
+      }
       stmts.subList(splitIdx, stmts.size()).clear();
     }
     return secondBlock;
@@ -276,7 +333,7 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
   @Nonnull
   public MutableBasicBlock splitBlockLinked(@Nonnull Stmt splitStmt, boolean shouldBeNewHead) {
 
-    int splitIdx = stmts.indexOf(splitStmt);
+    int splitIdx = indexOf(splitStmt);
     if (splitIdx < 0) {
       throw new IllegalArgumentException("splitting Stmt is not contained in this Block.");
     }
@@ -131,6 +131,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       @Nonnull List<Stmt> stmts,
       @Nonnull Map<BranchingStmt, List<Stmt>> branchingMap,
       @Nonnull List<Trap> traps) {
+    invalidateAnalysisCache();
 
     if (stmts.isEmpty()) {
       return;
@@ -400,6 +401,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
   @Override
   public void addExceptionalEdge(
       @Nonnull Stmt stmt, @Nonnull ClassType exceptionType, @Nonnull Stmt traphandlerStmt) {
+    invalidateAnalysisCache();
 
     MutableBasicBlock block = stmtToBlock.get(stmt);
     if (block == null) {
@@ -421,6 +423,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void removeExceptionalEdge(@Nonnull Stmt node, @Nonnull ClassType exceptionType) {
+    invalidateAnalysisCache();
     final MutableBasicBlock block = stmtToBlock.get(node);
     if (block == null) {
       throw new IllegalArgumentException("Stmt is not in the StmtGraph!");
@@ -431,6 +434,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void clearExceptionalEdges(@Nonnull Stmt node) {
+    invalidateAnalysisCache();
     final MutableBasicBlock block = stmtToBlock.get(node);
     if (block == null) {
       throw new IllegalArgumentException("Stmt is not in the StmtGraph!");
@@ -458,6 +462,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
    */
   @Override
   public void addBlock(@Nonnull List<Stmt> stmts, @Nonnull Map<ClassType, Stmt> trapMap) {
+    invalidateAnalysisCache();
     if (stmts.isEmpty()) {
       return;
     }
@@ -525,6 +530,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void removeBlock(BasicBlock<?> block) {
+    invalidateAnalysisCache();
     MutableBasicBlock blockOf = stmtToBlock.get(block.getHead());
     if (blockOf != block) {
       throw new IllegalArgumentException(
@@ -547,6 +553,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void addNode(@Nonnull Stmt stmt, @Nonnull Map<ClassType, Stmt> exceptions) {
+    invalidateAnalysisCache();
     MutableBasicBlock block = stmtToBlock.get(stmt);
     if (block == null) {
       // Stmt does not exist in the graph -> create
@@ -602,7 +609,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
     final MutableBasicBlock excludedFromOrigBlock;
     final List<Stmt> blockStmts = block.getStmts();
-    int stmtIdx = blockStmts.indexOf(splitStmt);
+    int stmtIdx = block.indexOf(splitStmt);
 
     if (stmtIdx < 0) {
       throw new IllegalArgumentException("splitStmt does not exist in this block!");
@@ -813,6 +820,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
    * @throws IllegalArgumentException if keepFlow is true but the stmt has multiple successors
    */
   public void removeNode(@Nonnull Stmt stmt, boolean keepFlow) {
+    invalidateAnalysisCache();
     MutableBasicBlock blockOfRemovedStmt = stmtToBlock.get(stmt);
     if (blockOfRemovedStmt == null) {
       throw new IllegalArgumentException("stmt '" + stmt + "' is not contained in this StmtGraph!");
@@ -890,7 +898,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       } else {
         // stmt2bRemoved is in the middle of a Block
         if (!keepFlow) {
-          int splitIdx = blockOfRemovedStmt.getStmts().indexOf(stmt);
+          int splitIdx = blockOfRemovedStmt.indexOf(stmt);
           MutableBasicBlock secondBlock = blockOfRemovedStmt.splitBlockUnlinked(splitIdx + 1);
           blocks.add(secondBlock);
           secondBlock.getStmts().forEach(s -> stmtToBlock.put(s, secondBlock));
@@ -920,11 +928,14 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
     }
 
     if (!oldStmt.branches() && !newStmt.branches()) {
-      // nothing branches -> just replace actual Stmt inside oldStmts block
+      // nothing branches -> just replace actual Stmt inside oldStmts block. The blocks and their
+      // flows stay the same, so the cached analyses are still valid.
       blockOfOldStmt.replaceStmt(oldStmt, newStmt);
       stmtToBlock.put(newStmt, blockOfOldStmt);
+      replaceStmtInAnalysisCache(oldStmt, newStmt);
 
     } else if (!oldStmt.branches() && newStmt.branches()) {
+      invalidateAnalysisCache();
       // split block
       MutableBasicBlock newBlock = splitAndExcludeStmtFromBlock(oldStmt, blockOfOldStmt);
       blockOfOldStmt.replaceStmt(oldStmt, newStmt);
@@ -933,6 +944,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       newBlock.getStmts().forEach(stmt -> stmtToBlock.put(stmt, newBlock));
 
     } else if (oldStmt.branches() && !newStmt.branches()) {
+      invalidateAnalysisCache();
       blockOfOldStmt.replaceStmt(oldStmt, newStmt);
       stmtToBlock.put(newStmt, blockOfOldStmt);
       if (oldStmt.getExpectedSuccessorCount() > newStmt.getExpectedSuccessorCount()) {
@@ -950,7 +962,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       tryMergeWithSuccessorBlock(blockOfOldStmt);
 
     } else /* ==> if(oldStmt.branches() && newStmt.branches()) */ {
-
+      // the flows are kept, so the cached analyses are still valid
       blockOfOldStmt.replaceStmt(oldStmt, newStmt);
       stmtToBlock.put(newStmt, blockOfOldStmt);
       if (oldStmt.getExpectedSuccessorCount() != newStmt.getExpectedSuccessorCount()) {
@@ -962,11 +974,143 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
                 + newStmt.getExpectedSuccessorCount()
                 + ") of successors.");
       }
+      replaceStmtInAnalysisCache(oldStmt, newStmt);
     }
 
     stmtToBlock.remove(oldStmt);
   }
 
+  /**
+   * Starts a batch of modifications. On commit, the removals and replacements which do not change
+   * the flows between the blocks are applied block by block, so each affected block is rebuilt once
+   * instead of being modified (and possibly split) for each single Stmt. The other modifications
+   * are applied one after another afterwards.
+   */
+  @Nonnull
+  @Override
+  public Batch startBatch() {
+    return new BlockBatch();
+  }
+
+  private class BlockBatch extends Batch {
+
+    private BlockBatch() {
+      super(MutableBlockStmtGraph.this);
+    }
+
+    @Override
+    protected void apply(
+        @Nonnull Map<Stmt, Stmt> replacements, @Nonnull Map<Stmt, Boolean> removals) {
+      if (replacements.isEmpty() && removals.isEmpty()) {
+        return;
+      }
+      invalidateAnalysisCache();
+
+      // sort out the modifications which can be applied per block
+      final Map<Stmt, Stmt> blockReplacements = new HashMap<>();
+      final Map<Stmt, Boolean> blockRemovals = new HashMap<>();
+      final Map<Stmt, Stmt> remainingReplacements = new LinkedHashMap<>();
+      final Map<Stmt, Boolean> remainingRemovals = new LinkedHashMap<>();
+      final Set<MutableBasicBlock> affectedBlocks = new LinkedHashSet<>();
+      final Map<MutableBasicBlock, Boolean> completelyRemovedBlocks = new HashMap<>();
+
+      replacements.forEach(
+          (oldStmt, newStmt) -> {
+            if (oldStmt.branches() == newStmt.branches()
+                && oldStmt.getExpectedSuccessorCount() == newStmt.getExpectedSuccessorCount()) {
+              blockReplacements.put(oldStmt, newStmt);
+              affectedBlocks.add(stmtToBlock.get(oldStmt));
+            } else {
+              remainingReplacements.put(oldStmt, newStmt);
+            }
+          });
+
+      removals.forEach(
+          (stmt, keepFlow) -> {
+            final MutableBasicBlock block = stmtToBlock.get(stmt);
+            final boolean isBlockwise;
+            if (keepFlow) {
+              isBlockwise = !stmt.branches();
+            } else {
+              // removing the flows is only simple if the whole block is removed
+              isBlockwise =
+                  completelyRemovedBlocks.computeIfAbsent(
+                      block,
+                      b ->
+                          b.getStmts().stream()
+                              .allMatch(s -> Boolean.FALSE.equals(removals.get(s))));
+            }
+            if (isBlockwise) {
+              blockRemovals.put(stmt, keepFlow);
+              affectedBlocks.add(block);
+            } else {
+              remainingRemovals.put(stmt, keepFlow);
+            }
+          });
+
+      MutableBasicBlock startingBlock = startingStmt == null ? null : stmtToBlock.get(startingStmt);
+      final MutableBasicBlock originalStartingBlock = startingBlock;
+
+      for (MutableBasicBlock block : affectedBlocks) {
+        final Boolean keepFlowOfHead = blockRemovals.get(block.getHead());
+        final List<Stmt> newStmts = new ArrayList<>(block.getStmtCount());
+        for (Stmt stmt : block.getStmts()) {
+          if (blockRemovals.containsKey(stmt)) {
+            stmtToBlock.remove(stmt);
+            continue;
+          }
+          final Stmt newStmt = blockReplacements.get(stmt);
+          if (newStmt == null) {
+            newStmts.add(stmt);
+          } else {
+            stmtToBlock.remove(stmt);
+            stmtToBlock.put(newStmt, block);
+            newStmts.add(newStmt);
+          }
+        }
+
+        if (!newStmts.isEmpty()) {
+          block.setStmts(newStmts);
+          continue;
+        }
+
+        // all Stmts of the block are removed
+        if (keepFlowOfHead) {
+          final List<MutableBasicBlock> successors = block.getSuccessors();
+          if (successors.size() == 1) {
+            final MutableBasicBlock successorBlock = successors.get(0);
+            for (MutableBasicBlock predecessor : block.getPredecessors()) {
+              predecessor.replaceSuccessorBlock(block, successorBlock);
+              if (!successorBlock.replacePredecessorBlock(block, predecessor)) {
+                // happens when block.predecessors().size() > 1
+                successorBlock.addPredecessorBlock(predecessor);
+              }
+            }
+            if (block == startingBlock) {
+              startingBlock = successorBlock;
+            }
+          } else if (block == startingBlock) {
+            startingBlock = null;
+          }
+        } else if (block == startingBlock) {
+          startingBlock = null;
+        }
+        block.clearPredecessorBlocks();
+        block.clearSuccessorBlocks();
+        block.clearExceptionalSuccessorBlocks();
+        blocks.remove(block);
+      }
+
+      if (originalStartingBlock != null
+          && (startingBlock != originalStartingBlock
+              || affectedBlocks.contains(originalStartingBlock))) {
+        startingStmt = startingBlock == null ? null : startingBlock.getHead();
+      }
+
+      super.apply(remainingReplacements, remainingRemovals);
+    }
+  }
+
   public void validateBlocks() {
     for (MutableBasicBlock block : blocks) {
       for (Stmt stmt : block.getStmts()) {
@@ -989,6 +1133,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       @Nonnull Stmt beforeStmt,
       @Nonnull List<FallsThroughStmt> stmts,
       @Nonnull Map<ClassType, Stmt> exceptionMap) {
+    invalidateAnalysisCache();
     if (stmts.isEmpty()) {
       return;
     }
@@ -1035,6 +1180,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
   /** Replaces all SuccessorEdge(s) of from to oldTo by mewTo */
   @Override
   public boolean replaceSucessorEdge(@Nonnull Stmt from, @Nonnull Stmt oldTo, @Nonnull Stmt newTo) {
+    invalidateAnalysisCache();
     final MutableBasicBlock mutableBasicBlock = stmtToBlock.get(from);
     if (mutableBasicBlock == null) {
       throw new IllegalArgumentException("stmt '" + from + "' does not exist in this StmtGraph!");
@@ -1071,6 +1217,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
   }
 
   protected void putEdge_internal(@Nonnull Stmt stmtA, int succesorIdx, @Nonnull Stmt stmtB) {
+    invalidateAnalysisCache();
 
     MutableBasicBlock blockA = stmtToBlock.get(stmtA);
     MutableBasicBlock blockB = stmtToBlock.get(stmtB);
@@ -1157,6 +1304,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public List<Integer> removeEdge(@Nonnull Stmt from, @Nonnull Stmt to) {
+    invalidateAnalysisCache();
     MutableBasicBlock blockOfFrom = stmtToBlock.get(from);
     if (blockOfFrom == null) {
       // Stmt is not existing anymore in this graph - so neither a connection.
@@ -1197,7 +1345,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
       // divide block and don't link them
       final List<Stmt> stmtsOfBlock = blockOfFrom.getStmts();
-      int toIdx = stmtsOfBlock.indexOf(from) + 1;
+      int toIdx = blockOfFrom.indexOf(from) + 1;
       // from is not the tail Stmt and the from-Stmt is directly before the to-Stmt
       if (toIdx < stmtsOfBlock.size() && stmtsOfBlock.get(toIdx) == to) {
         MutableBasicBlock newBlock = blockOfFrom.splitBlockUnlinked(from, to);
@@ -1226,6 +1374,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void setEdges(@Nonnull BranchingStmt fromStmt, @Nonnull List<Stmt> targets) {
+    invalidateAnalysisCache();
     if (fromStmt.getExpectedSuccessorCount() != targets.size()) {
       throw new IllegalArgumentException(
           "Size of Targets is not the amount of from's expected successors.");
@@ -1274,6 +1423,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
   }
 
   public void setStartingStmt(@Nonnull Stmt startingStmt) {
+    invalidateAnalysisCache();
     if (stmtToBlock.get(startingStmt) == null) {
       MutableBasicBlock block = stmtToBlock.get(startingStmt);
       if (block == null) {
@@ -1310,10 +1460,9 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       predecessorBlocks.forEach(p -> preds.add(p.getTail()));
       return preds;
     } else {
-      // argh indexOf.. possibly expensive..
       List<Stmt> stmts = block.getStmts();
       // we know: i != 0 as its not the head Stmt
-      final int i = stmts.indexOf(node);
+      final int i = block.indexOf(node);
       // assert (stmts.size() > 0) : "no stmts in " + block + " " + block.hashCode();
       // assert (i > 0) : " stmt not found in " + block;
       return Collections.singletonList(stmts.get(i - 1));
@@ -1389,9 +1538,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       successorBlocks.forEach(p -> succs.add(p.getHead()));
       return succs;
     } else {
-      // argh indexOf.. possibly expensive..
-      List<Stmt> stmts = block.getStmts();
-      return Collections.singletonList(stmts.get(stmts.indexOf(node) + 1));
+      return Collections.singletonList(block.getStmts().get(block.indexOf(node) + 1));
     }
   }
 
@@ -1460,7 +1607,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
                   successorBlock.getHead() == target);
     } else {
       List<Stmt> stmtsA = blockA.getStmts();
-      return stmtsA.get(stmtsA.indexOf(source) + 1) == target;
+      return stmtsA.get(blockA.indexOf(source) + 1) == target;
     }
   }
 
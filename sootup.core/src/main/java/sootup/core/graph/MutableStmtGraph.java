@@ -128,4 +128,101 @@ public abstract class MutableStmtGraph extends StmtGraph<MutableBasicBlock> {
 
   /** removes an exceptional flow of the type "exception" flow from "stmt" */
   public abstract void removeExceptionalEdge(@Nonnull Stmt stmt, @Nonnull ClassType exception);
+
+  /**
+   * Starts a batch of modifications: the removals and replacements of Stmts are collected and
+   * applied to this StmtGraph at once by {@link Batch#commit()}. Until then the StmtGraph is not
+   * modified, i.e. queries still return the state before the batch.
+   */
+  @Nonnull
+  public Batch startBatch() {
+    return new Batch(this);
+  }
+
+  /**
+   * Collects removals and replacements of Stmts of a MutableStmtGraph. This implementation just
+   * applies them one after another on commit - subclasses can apply them more efficiently.
+   */
+  public static class Batch {
+    @Nonnull protected final MutableStmtGraph graph;
+    /** original Stmt -&gt; its replacement */
+    @Nonnull protected final Map<Stmt, Stmt> replacements = new LinkedHashMap<>();
+    /** replacement -&gt; the original Stmt which is in the StmtGraph */
+    @Nonnull protected final Map<Stmt, Stmt> originals = new HashMap<>();
+    /** removed Stmt -&gt; whether the flow through it is kept */
+    @Nonnull protected final Map<Stmt, Boolean> removals = new LinkedHashMap<>();
+
+    private boolean committed = false;
+
+    protected Batch(@Nonnull MutableStmtGraph graph) {
+      this.graph = graph;
+    }
+
+    /** returns the Stmt of the StmtGraph which is meant by the given (possibly replacing) Stmt */
+    @Nonnull
+    private Stmt originalOf(@Nonnull Stmt stmt) {
+      final Stmt original = originals.get(stmt);
+      if (original != null) {
+        return original;
+      }
+      if (!graph.containsNode(stmt) || replacements.containsKey(stmt)) {
+        throw new IllegalArgumentException("Stmt '" + stmt + "' is not in the StmtGraph.");
+      }
+      if (removals.containsKey(stmt)) {
+        throw new IllegalArgumentException("Stmt '" + stmt + "' is already removed.");
+      }
+      return stmt;
+    }
+
+    private void checkNotCommitted() {
+      if (committed) {
+        throw new IllegalStateException("The batch is already committed.");
+      }
+    }
+
+    /** see {@link MutableStmtGraph#replaceNode(Stmt, Stmt)} */
+    public void replaceNode(@Nonnull Stmt oldStmt, @Nonnull Stmt newStmt) {
+      checkNotCommitted();
+      if (oldStmt == newStmt) {
+        return;
+      }
+      final Stmt original = originalOf(oldStmt);
+      originals.remove(oldStmt);
+      if (original == newStmt) {
+        // replaced back to the Stmt which is in the StmtGraph
+        replacements.remove(original);
+        return;
+      }
+      replacements.put(original, newStmt);
+      originals.put(newStmt, original);
+    }
+
+    /** see {@link MutableStmtGraph#removeNode(Stmt)} */
+    public void removeNode(@Nonnull Stmt stmt) {
+      removeNode(stmt, true);
+    }
+
+    /** see {@link MutableStmtGraph#removeNode(Stmt, boolean)} */
+    public void removeNode(@Nonnull Stmt stmt, boolean keepFlow) {
+      checkNotCommitted();
+      final Stmt original = originalOf(stmt);
+      originals.remove(stmt);
+      replacements.remove(original);
+      removals.put(original, keepFlow);
+    }
+
+    /** applies the collected modifications to the StmtGraph */
+    public void commit() {
+      checkNotCommitted();
+      committed = true;
+      apply(replacements, removals);
+    }
+
+    /** applies the given modifications one after another */
+    protected void apply(
+        @Nonnull Map<Stmt, Stmt> replacements, @Nonnull Map<Stmt, Boolean> removals) {
+      replacements.forEach(graph::replaceNode);
+      removals.forEach((stmt, keepFlow) -> graph.removeNode(stmt, keepFlow));
+    }
+  }
 }
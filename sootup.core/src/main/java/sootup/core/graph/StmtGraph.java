@@ -62,6 +62,9 @@ import sootup.core.util.printer.JimplePrinter;
  */
 public abstract class StmtGraph<V extends BasicBlock<V>> implements Iterable<Stmt> {
 
+  /** created on first request; volatile as bodies of immutable StmtGraphs are shared by threads */
+  @Nullable private volatile StmtGraphAnalysisCache analysisCache;
+
   public abstract Stmt getStartingStmt();
 
   public abstract BasicBlock<?> getStartingStmtBlock();
@@ -149,6 +152,56 @@ public abstract class StmtGraph<V extends BasicBlock<V>> implements Iterable<Stm
   @Deprecated
   public abstract List<Trap> getTraps();
 
+  /**
+   * returns the cached dominance and loop analyses of this StmtGraph. The analyses are computed on
+   * request and recomputed after the StmtGraph is modified.
+   */
+  @Nonnull
+  public StmtGraphAnalysisCache getAnalysisCache() {
+    StmtGraphAnalysisCache cache = analysisCache;
+    if (cache == null) {
+      synchronized (this) {
+        cache = analysisCache;
+        if (cache == null) {
+          cache = new StmtGraphAnalysisCache(this);
+          analysisCache = cache;
+        }
+      }
+    }
+    return cache;
+  }
+
+  /**
+   * returns a dense numbering of the stmts in this StmtGraph, so that analyses can store their
+   * state per Stmt in arrays. The stmts of a block have consecutive ids.
+   */
+  @Nonnull
+  public DenseNumbering<Stmt> getStmtNumbering() {
+    return getAnalysisCache().getStmtNumbering();
+  }
+
+  /** returns a dense numbering of the blocks in this StmtGraph in reverse postorder. */
+  @Nonnull
+  public DenseNumbering<BasicBlock<?>> getBlockNumbering() {
+    return getAnalysisCache().getBlockNumbering();
+  }
+
+  /** discards the cached analyses, must be called by modifications of the flows or blocks. */
+  protected void invalidateAnalysisCache() {
+    final StmtGraphAnalysisCache cache = analysisCache;
+    if (cache != null) {
+      cache.invalidate();
+    }
+  }
+
+  /** updates the cached analyses after a Stmt is replaced without changing the flows. */
+  protected void replaceStmtInAnalysisCache(@Nonnull Stmt oldStmt, @Nonnull Stmt newStmt) {
+    final StmtGraphAnalysisCache cache = analysisCache;
+    if (cache != null) {
+      cache.replaceStmt(oldStmt, newStmt);
+    }
+  }
+
   /**
    * returns a Collection of Stmts that leave the body (i.e. JReturnVoidStmt, JReturnStmt and
    * JThrowStmt)
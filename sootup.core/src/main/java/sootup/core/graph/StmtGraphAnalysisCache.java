@@ -0,0 +1,184 @@
+package sootup.core.graph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2021 Zun Wang
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.jimple.common.stmt.Stmt;
+
+/**
+ * Holds the dense numberings, the dominance and the loop analyses of a StmtGraph, so that they are
+ * computed once per body instead of once per caller. Each analysis is computed when it is first
+ * requested. The cache is obtained via {@link StmtGraph#getAnalysisCache()} and is invalidated by
+ * the modifications of a {@link MutableBlockStmtGraph} that change its blocks or the flows between
+ * them. If a stmt is replaced without changing the flows, the new stmt takes over the id of the old
+ * one.
+ *
+ * <p>The cache is thread-safe: bodies with an {@link ImmutableBlockStmtGraph} are shared between
+ * threads, so each analysis is computed and published under the lock of the cache.
+ */
+public class StmtGraphAnalysisCache {
+
+  @Nonnull private final StmtGraph<?> graph;
+
+  @Nullable private DenseNumbering<BasicBlock<?>> blockNumbering;
+  @Nullable private DenseNumbering<Stmt> stmtNumbering;
+  @Nullable private DominanceFinder dominanceFinder;
+  @Nullable private DominanceTree dominanceTree;
+  @Nullable private DominanceFinder postDominanceFinder;
+  @Nullable private DominanceTree postDominanceTree;
+  @Nullable private LoopNestingForest loopNestingForest;
+
+  public StmtGraphAnalysisCache(@Nonnull StmtGraph<?> graph) {
+    this.graph = graph;
+  }
+
+  /**
+   * Returns the numbering of the blocks in reverse postorder of a depth-first search from the
+   * starting block along unexceptional and exceptional flows. Unreachable blocks are numbered last.
+   */
+  @Nonnull
+  public synchronized DenseNumbering<BasicBlock<?>> getBlockNumbering() {
+    if (blockNumbering == null) {
+      computeNumberings();
+    }
+    return blockNumbering;
+  }
+
+  /**
+   * Returns the numbering of the stmts block by block in the order of {@link
+   * #getBlockNumbering()}, so the stmts of a block have consecutive ids.
+   */
+  @Nonnull
+  public synchronized DenseNumbering<Stmt> getStmtNumbering() {
+    if (stmtNumbering == null) {
+      computeNumberings();
+    }
+    return stmtNumbering;
+  }
+
+  private void computeNumberings() {
+    final List<BasicBlock<?>> blocks = new ArrayList<>();
+    if (!graph.getNodes().isEmpty()) {
+      final Set<BasicBlock<?>> visited = new HashSet<>();
+      final Deque<BasicBlock<?>> stack = new ArrayDeque<>();
+      final Deque<Iterator<BasicBlock<?>>> iterators = new ArrayDeque<>();
+      final BasicBlock<?> startingBlock = graph.getStartingStmtBlock();
+      visited.add(startingBlock);
+      stack.push(startingBlock);
+      iterators.push(allSuccessors(startingBlock).iterator());
+      while (!stack.isEmpty()) {
+        final Iterator<BasicBlock<?>> iterator = iterators.peek();
+        if (iterator.hasNext()) {
+          final BasicBlock<?> succ = iterator.next();
+          if (visited.add(succ)) {
+            stack.push(succ);
+            iterators.push(allSuccessors(succ).iterator());
+          }
+        } else {
+          blocks.add(stack.pop());
+          iterators.pop();
+        }
+      }
+      Collections.reverse(blocks);
+      for (BasicBlock<?> block : graph.getBlocks()) {
+        if (visited.add(block)) {
+          blocks.add(block);
+        }
+      }
+    }
+
+    final List<Stmt> stmts = new ArrayList<>(graph.getNodes().size());
+    for (BasicBlock<?> block : blocks) {
+      stmts.addAll(block.getStmts());
+    }
+    blockNumbering = DenseNumbering.of(blocks);
+    stmtNumbering = DenseNumbering.ofIdentities(stmts);
+  }
+
+  @Nonnull
+  private static List<BasicBlock<?>> allSuccessors(@Nonnull BasicBlock<?> block) {
+    final List<BasicBlock<?>> succs = new ArrayList<>(block.getSuccessors());
+    succs.addAll(block.getExceptionalSuccessors().values());
+    return succs;
+  }
+
+  @Nonnull
+  public synchronized DominanceFinder getDominanceFinder() {
+    if (dominanceFinder == null) {
+      dominanceFinder = new DominanceFinder(graph);
+    }
+    return dominanceFinder;
+  }
+
+  @Nonnull
+  public synchronized DominanceTree getDominanceTree() {
+    if (dominanceTree == null) {
+      dominanceTree = new DominanceTree(getDominanceFinder());
+    }
+    return dominanceTree;
+  }
+
+  @Nonnull
+  public synchronized DominanceFinder getPostDominanceFinder() {
+    if (postDominanceFinder == null) {
+      postDominanceFinder = new DominanceFinder(graph, true);
+    }
+    return postDominanceFinder;
+  }
+
+  @Nonnull
+  public synchronized DominanceTree getPostDominanceTree() {
+    if (postDominanceTree == null) {
+      postDominanceTree = new DominanceTree(getPostDominanceFinder());
+    }
+    return postDominanceTree;
+  }
+
+  @Nonnull
+  public synchronized LoopNestingForest getLoopNestingForest() {
+    if (loopNestingForest == null) {
+      loopNestingForest = new LoopNestingForest(getDominanceFinder());
+    }
+    return loopNestingForest;
+  }
+
+  /** Discards all computed analyses, they are recomputed on the next request. */
+  public synchronized void invalidate() {
+    blockNumbering = null;
+    stmtNumbering = null;
+    dominanceFinder = null;
+    dominanceTree = null;
+    postDominanceFinder = null;
+    postDominanceTree = null;
+    loopNestingForest = null;
+  }
+
+  /** Gives the id of <code>oldStmt</code> to <code>newStmt</code>, the blocks stay the same. */
+  synchronized void replaceStmt(@Nonnull Stmt oldStmt, @Nonnull Stmt newStmt) {
+    if (stmtNumbering != null) {
+      stmtNumbering.replace(oldStmt, newStmt);
+    }
+  }
+}
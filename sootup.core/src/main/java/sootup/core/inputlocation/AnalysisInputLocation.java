@@ -22,9 +22,13 @@ package sootup.core.inputlocation;
  */
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import sootup.core.frontend.ClassHeader;
 import sootup.core.frontend.SootClassSource;
 import sootup.core.model.SootClass;
 import sootup.core.model.SourceType;
@@ -63,6 +67,32 @@ public interface AnalysisInputLocation {
   @Nonnull
   Collection<? extends SootClassSource> getClassSources(@Nonnull View view);
 
+  /**
+   * Like {@link #getClassSources(View)}, but a location may create the ClassSources in parallel
+   * e.g. in the {@link java.util.concurrent.ForkJoinPool} of the calling thread. The order of the
+   * result is the same either way.
+   *
+   * @param parallel whether the ClassSources may be created in parallel
+   * @return The source entries.
+   */
+  @Nonnull
+  default Collection<? extends SootClassSource> getClassSources(
+      @Nonnull View view, boolean parallel) {
+    return getClassSources(view);
+  }
+
+  /**
+   * Scan the input location and read the {@link ClassHeader} of every compilation / interpretation
+   * unit. This is used to build the type hierarchy, so implementations should read just what is
+   * needed for the header instead of creating complete ClassSources.
+   *
+   * @return the headers of all classes of this location
+   */
+  @Nonnull
+  default Collection<ClassHeader> getClassHeaders(@Nonnull View view) {
+    return getClassSources(view).stream().map(ClassHeader::of).collect(Collectors.toList());
+  }
+
   /**
    * If the AnalysisInputLocation is initialized with the SourceType then this method should return
    * that specific SourceType. This is the default implementation and it returns null when no source
@@ -75,4 +105,30 @@ public interface AnalysisInputLocation {
 
   @Nonnull
   List<BodyInterceptor> getBodyInterceptors();
+
+  /**
+   * Lists the names of the packages this location contains classes of. Locations that can do that
+   * cheaply (e.g. from the central directory of an archive) are only asked for classes of these
+   * packages, see {@link InputLocationPackageIndex}.
+   *
+   * @return the package names or an empty Optional if the location can not list them, in which case
+   *     it is asked for every class.
+   */
+  @Nonnull
+  default Optional<Set<String>> getPackageNames() {
+    return Optional.empty();
+  }
+
+  /**
+   * Lists the input locations this location is composed of, e.g. the entries of a class path, in
+   * the order in which they shadow each other. Bulk loading scans them independently of each other
+   * (e.g. in parallel), hence a class of an earlier location has to take precedence over a class
+   * with the same type of a later one, just like in {@link #getClassSource(ClassType, View)}.
+   *
+   * @return the contained locations or just this location if it is not composed of others
+   */
+  @Nonnull
+  default List<? extends AnalysisInputLocation> getContainedInputLocations() {
+    return Collections.singletonList(this);
+  }
 }
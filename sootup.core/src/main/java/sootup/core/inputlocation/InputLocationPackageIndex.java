@@ -0,0 +1,96 @@
+package sootup.core.inputlocation;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import javax.annotation.Nonnull;
+import sootup.core.types.ClassType;
+
+/**
+ * Maps package names to the {@link AnalysisInputLocation}s that contain classes of that package,
+ * based on {@link AnalysisInputLocation#getPackageNames()}. Lookups of a {@link ClassType} are
+ * routed only to those locations while keeping the order of the given locations, i.e. the first
+ * location that provides a class still shadows the later ones. Locations that can not list their
+ * packages are part of every lookup.
+ *
+ * <p>The index is a snapshot: classes of new packages that are added to a location afterwards are
+ * not found.
+ *
+ * @param <T> the type of the indexed input locations
+ */
+public class InputLocationPackageIndex<T extends AnalysisInputLocation> {
+
+  @Nonnull private final Map<String, List<T>> locationsByPackage = new HashMap<>();
+
+  /** locations that can not list their packages - they are candidates for every package */
+  @Nonnull private final List<T> unindexedLocations = new ArrayList<>();
+
+  public InputLocationPackageIndex(@Nonnull Collection<? extends T> inputLocations) {
+    final List<Optional<Set<String>>> packagesOfLocations = new ArrayList<>();
+    final Set<String> allPackages = new HashSet<>();
+    for (T inputLocation : inputLocations) {
+      final Optional<Set<String>> packageNames = inputLocation.getPackageNames();
+      packageNames.ifPresent(allPackages::addAll);
+      packagesOfLocations.add(packageNames);
+    }
+
+    int i = 0;
+    for (T inputLocation : inputLocations) {
+      final Optional<Set<String>> packageNames = packagesOfLocations.get(i++);
+      if (packageNames.isPresent()) {
+        for (String packageName : packageNames.get()) {
+          locationsByPackage
+              .computeIfAbsent(packageName, p -> new ArrayList<>(unindexedLocations))
+              .add(inputLocation);
+        }
+      } else {
+        for (String packageName : allPackages) {
+          locationsByPackage
+              .computeIfAbsent(packageName, p -> new ArrayList<>(unindexedLocations))
+              .add(inputLocation);
+        }
+        unindexedLocations.add(inputLocation);
+      }
+    }
+  }
+
+  /**
+   * @return the locations that may contain the given type in the order of the indexed locations.
+   */
+  @Nonnull
+  public List<T> getInputLocations(@Nonnull ClassType type) {
+    return locationsByPackage.getOrDefault(type.getPackageName().getName(), unindexedLocations);
+  }
+
+  /**
+   * @return all indexed package names or an empty Optional if at least one location could not list
+   *     its packages.
+   */
+  @Nonnull
+  public Optional<Set<String>> getPackageNames() {
+    if (!unindexedLocations.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(Collections.unmodifiableSet(locationsByPackage.keySet()));
+  }
+}
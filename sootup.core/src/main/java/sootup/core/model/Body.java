@@ -29,6 +29,8 @@ import java.util.*;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import sootup.core.graph.DenseNumbering;
+import sootup.core.graph.ImmutableBlockStmtGraph;
 import sootup.core.graph.MutableBlockStmtGraph;
 import sootup.core.graph.MutableStmtGraph;
 import sootup.core.graph.StmtGraph;
@@ -58,6 +60,9 @@ public class Body implements HasPosition {
   /** The MethodSignature associated with this Body. */
   @Nonnull private final MethodSignature methodSignature;
 
+  /** The dense numbering of the locals, created on request. */
+  @Nullable private DenseNumbering<Local> localNumbering;
+
   /**
    * Creates an body which is not associated to any method.
    *
@@ -70,7 +75,8 @@ public class Body implements HasPosition {
       @Nonnull Position position) {
     this.methodSignature = methodSignature;
     this.locals = Collections.unmodifiableSet(locals);
-    this.graph = MutableBlockStmtGraph.createUnmodifiableStmtGraph(stmtGraph);
+    // a finished Body is not modified anymore: store its graph in the compact representation
+    this.graph = ImmutableBlockStmtGraph.of(stmtGraph);
     this.position = position;
   }
 
@@ -109,6 +115,18 @@ public class Body implements HasPosition {
     return locals;
   }
 
+  /**
+   * Returns a dense numbering of the locals declared in this Body, so that analyses can store their
+   * state per Local in arrays.
+   */
+  @Nonnull
+  public DenseNumbering<Local> getLocalNumbering() {
+    if (localNumbering == null) {
+      localNumbering = DenseNumbering.of(locals);
+    }
+    return localNumbering;
+  }
+
   /**
    * Returns an unmodifiable view of the traps found in this Body. @Deprecated the exceptional flow
    * information is already integrated into the StmtGraphs BasicBlocks.getExceptionalFlows() -
@@ -213,11 +231,19 @@ public class Body implements HasPosition {
   }
 
   @Nonnull
-  // TODO: [ms] should be an ImmutableStmtGraph!
   public StmtGraph<?> getStmtGraph() {
     return graph;
   }
 
+  /**
+   * Returns a dense numbering of the statements in this Body, see {@link
+   * StmtGraph#getStmtNumbering()}.
+   */
+  @Nonnull
+  public DenseNumbering<Stmt> getStmtNumbering() {
+    return graph.getStmtNumbering();
+  }
+
   /** {@inheritDoc} */
   @Override
   public String toString() {
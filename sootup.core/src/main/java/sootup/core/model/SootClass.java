@@ -29,6 +29,8 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.cache.BodyCache;
 import sootup.core.frontend.ResolveException;
 import sootup.core.frontend.SootClassSource;
 import sootup.core.types.ClassType;
@@ -82,6 +84,11 @@ public class SootClass extends AbstractClass implements HasPosition {
       throw new IllegalStateException(e);
     }
 
+    BodyCache cache = this.bodyCache;
+    if (cache != null) {
+      methods.forEach(method -> method.setBodyCache(cache));
+    }
+    methodsResolved = true;
     return methods;
   }
 
@@ -89,6 +96,21 @@ public class SootClass extends AbstractClass implements HasPosition {
   private final Supplier<Set<? extends SootMethod>> _lazyMethods =
       Suppliers.memoize(this::lazyMethodInitializer);
 
+  @Nullable private volatile BodyCache bodyCache;
+  private volatile boolean methodsResolved = false;
+
+  /**
+   * Sets the {@link BodyCache} that holds the resolved bodies of the methods of this class. The
+   * class itself and its methods stay resident, while the cache may drop their bodies. Usually
+   * configured by the view that resolved this class.
+   */
+  public void setBodyCache(@Nullable BodyCache bodyCache) {
+    this.bodyCache = bodyCache;
+    if (methodsResolved) {
+      getMethods().forEach(method -> method.setBodyCache(bodyCache));
+    }
+  }
+
   /** Gets the {@link Method methods} of this {@link SootClass} in an immutable set. */
   @Nonnull
   public Set<? extends SootMethod> getMethods() {
@@ -36,6 +36,7 @@ import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import sootup.core.IdentifierFactory;
+import sootup.core.cache.BodyCache;
 import sootup.core.frontend.BodySource;
 import sootup.core.frontend.OverridingBodySource;
 import sootup.core.frontend.ResolveException;
@@ -171,12 +172,33 @@ public class SootMethod extends SootClassMember<MethodSignature> implements Meth
 
   @Nonnull private final Supplier<Body> _lazyBody = Suppliers.memoize(this::lazyBodyInitializer);
 
-  /** Retrieves the active body for this method. */
+  /**
+   * If set, the resolved body is kept in this cache instead of being memoized by the method itself.
+   */
+  @Nullable private volatile BodyCache bodyCache;
+
+  /**
+   * Retrieves the active body for this method. Without a {@link BodyCache}, every call returns the
+   * same body. With a BodyCache the body may have been dropped and resolved again, i.e. it equals
+   * the previous one but consists of other Stmt objects, see {@link BodyCache}.
+   */
   @Nonnull
   public Body getBody() {
+    BodyCache cache = this.bodyCache;
+    if (cache != null) {
+      return cache.getBody(this, this::lazyBodyInitializer);
+    }
     return this._lazyBody.get();
   }
 
+  /**
+   * Sets the {@link BodyCache} that holds the resolved body of this method. Usually configured for
+   * all methods of a class via {@link SootClass#setBodyCache(BodyCache)}.
+   */
+  void setBodyCache(@Nullable BodyCache bodyCache) {
+    this.bodyCache = bodyCache;
+  }
+
   /** Returns true if this method has a body. */
   public boolean hasBody() {
     return isConcrete();
@@ -22,6 +22,7 @@ package sootup.core.transform;
  * #L%
  */
 
+import java.util.Optional;
 import javax.annotation.Nonnull;
 import sootup.core.model.Body;
 import sootup.core.views.View;
@@ -37,4 +38,18 @@ public interface BodyInterceptor {
    * @param view
    */
   void interceptBody(@Nonnull Body.BodyBuilder builder, @Nonnull View view);
+
+  /**
+   * Describes the options of this interceptor for caches of intercepted bodies, which identify an
+   * interceptor by its class and this key. Interceptors with options that change the resulting
+   * bodies have to override it. The key does not cover what the interceptor reads from the view,
+   * e.g. the class hierarchy.
+   *
+   * @return the key of the options, or an empty Optional if the bodies must not be cached. The
+   *     default is an empty key, which describes an interceptor without options.
+   */
+  @Nonnull
+  default Optional<String> getConfigurationKey() {
+    return Optional.of("");
+  }
 }
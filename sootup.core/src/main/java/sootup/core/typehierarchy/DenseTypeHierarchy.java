@@ -0,0 +1,462 @@
+package sootup.core.typehierarchy;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.frontend.ClassHeader;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+import sootup.core.types.Type;
+import sootup.core.views.View;
+
+/**
+ * A {@link TypeHierarchy} that numbers all types of the view densely and stores the hierarchy in
+ * arrays indexed by these ids. It answers the same queries as the {@link ViewTypeHierarchy}, but
+ * is meant for clients that query it very often, e.g. the type assignment of the bytecode frontend
+ * or call graph construction:
+ *
+ * <ul>
+ *   <li>the classes are numbered in pre-order of the class tree, so that all subclasses of a class
+ *       form an interval and a subclass check compares two ints,
+ *   <li>every type has a bitset of all interfaces it implements (transitively), so that checking
+ *       whether a type implements an interface is a single bit test,
+ *   <li>the result of {@link #subtypesOf(ClassType)} is computed once per type and cached.
+ * </ul>
+ *
+ * <p>The hierarchy is built from the {@link View#getClassHeaders() class headers} on the first
+ * query and is a snapshot of the view: changes to the view are not reflected unless they are
+ * announced via {@link #addType(SootClass)}, which rebuilds the hierarchy on the next query. The
+ * returned sets are unmodifiable.
+ */
+public class DenseTypeHierarchy implements MutableTypeHierarchy {
+
+  @Nonnull private volatile Supplier<Index> lazyIndex;
+
+  public DenseTypeHierarchy(@Nonnull View view) {
+    this.lazyIndex = Suppliers.memoize(() -> new Index(view.getClassHeaders()));
+  }
+
+  @Nonnull
+  @Override
+  public Set<ClassType> implementersOf(@Nonnull ClassType interfaceType) {
+    final Index index = lazyIndex.get();
+    final int id = index.idOf(interfaceType);
+    if (!index.interfaces.get(id)) {
+      throw new IllegalArgumentException("'" + interfaceType + "' is not an interface.");
+    }
+    return index.subtypesOf(id);
+  }
+
+  @Nonnull
+  @Override
+  public Set<ClassType> subclassesOf(@Nonnull ClassType classType) {
+    final Index index = lazyIndex.get();
+    final int id = index.idOf(classType);
+    if (index.interfaces.get(id)) {
+      throw new IllegalArgumentException("'" + classType + "' is not a class.");
+    }
+    return index.subtypesOf(id);
+  }
+
+  @Nonnull
+  @Override
+  public Set<ClassType> subtypesOf(@Nonnull ClassType type) {
+    final Index index = lazyIndex.get();
+    return index.subtypesOf(index.idOf(type));
+  }
+
+  @Nonnull
+  @Override
+  public Set<ClassType> directSubtypesOf(@Nonnull ClassType type) {
+    final Index index = lazyIndex.get();
+    return index.toTypes(index.directSubtypes[index.idOf(type)]);
+  }
+
+  @Nonnull
+  @Override
+  public Set<ClassType> implementedInterfacesOf(@Nonnull ClassType type) {
+    final Index index = lazyIndex.get();
+    final BitSet implementedInterfaces = index.allInterfaces[index.idOf(type)];
+    final ImmutableSet.Builder<ClassType> builder = ImmutableSet.builder();
+    for (int i = implementedInterfaces.nextSetBit(0);
+        i >= 0;
+        i = implementedInterfaces.nextSetBit(i + 1)) {
+      builder.add(index.types[index.interfaceIds[i]]);
+    }
+    return builder.build();
+  }
+
+  @Nullable
+  @Override
+  public ClassType superClassOf(@Nonnull ClassType classType) {
+    final Index index = lazyIndex.get();
+    final Integer id = index.typeToId.get(classType);
+    if (id == null || index.headers[id] == null) {
+      throw new IllegalArgumentException("Could not find '" + classType + "' in the view.");
+    }
+    return index.headers[id].getSuperclass().orElse(null);
+  }
+
+  @Override
+  public boolean isSubtype(@Nonnull Type supertype, @Nonnull Type potentialSubtype) {
+    if (supertype instanceof ClassType && potentialSubtype instanceof ClassType) {
+      final Index index = lazyIndex.get();
+      final Integer superId = index.typeToId.get(supertype);
+      final Integer subId = index.typeToId.get(potentialSubtype);
+      if (superId != null && subId != null) {
+        return index.isSubtype(superId, subId);
+      }
+    }
+    // arrays, null and types that are not part of the view
+    return MutableTypeHierarchy.super.isSubtype(supertype, potentialSubtype);
+  }
+
+  @Override
+  public Set<ClassType> directlyImplementedInterfacesOf(@Nonnull ClassType classType) {
+    final Index index = lazyIndex.get();
+    final int id = index.idOf(classType);
+    if (index.interfaces.get(id)) {
+      throw new IllegalArgumentException(classType + " is not a class.");
+    }
+    return index.toTypes(index.directInterfaces[id]);
+  }
+
+  @Override
+  public boolean isInterface(@Nonnull ClassType type) {
+    final Index index = lazyIndex.get();
+    return index.interfaces.get(index.idOf(type));
+  }
+
+  @Override
+  public Set<ClassType> directlyExtendedInterfacesOf(@Nonnull ClassType interfaceType) {
+    final Index index = lazyIndex.get();
+    final int id = index.idOf(interfaceType);
+    if (!index.interfaces.get(id)) {
+      throw new IllegalArgumentException(interfaceType + " is not an interface.");
+    }
+    return index.toTypes(index.directInterfaces[id]);
+  }
+
+  @Override
+  public boolean contains(ClassType type) {
+    return lazyIndex.get().typeToId.containsKey(type);
+  }
+
+  @Override
+  public synchronized void addType(@Nonnull SootClass sootClass) {
+    final List<ClassHeader> headers = new ArrayList<>(lazyIndex.get().scannedHeaders);
+    headers.add(ClassHeader.of(sootClass));
+    lazyIndex = Suppliers.memoize(() -> new Index(headers));
+  }
+
+  /** The immutable arrays of the hierarchy; all arrays are indexed by the id of a type. */
+  private static final class Index {
+
+    private static final int[] NO_IDS = new int[0];
+    private static final BitSet NO_INTERFACES = new BitSet(0);
+
+    @Nonnull final Collection<ClassHeader> scannedHeaders;
+    @Nonnull final Map<ClassType, Integer> typeToId = new HashMap<>();
+    @Nonnull final List<ClassType> typeList = new ArrayList<>();
+    /** the types that are referenced as an interface, respectively declared as one */
+    @Nonnull final BitSet interfaces = new BitSet();
+
+    @Nonnull final ClassType[] types;
+    /** null for types that are only referenced by the scanned classes */
+    @Nonnull final ClassHeader[] headers;
+
+    final int javaLangObject;
+    /** the id of the superclass of a class or -1 */
+    @Nonnull final int[] superClass;
+
+    @Nonnull final int[][] directInterfaces;
+    /** direct subclasses of a class, respectively direct implementers/extenders of an interface */
+    @Nonnull final int[][] directSubtypes;
+
+    /**
+     * position of a class in the pre-order of the class tree. A class has the positions [preOrder,
+     * subtreeEnd) as its subtree, i.e. it and all of its subclasses.
+     */
+    @Nonnull final int[] preOrder;
+
+    @Nonnull final int[] subtreeEnd;
+    @Nonnull final int[] classesInPreOrder;
+
+    /** the dense interface number of an interface or -1 for classes */
+    @Nonnull final int[] interfaceNumbers;
+
+    @Nonnull final int[] interfaceIds;
+    /** all interfaces a type implements or extends, by their interface number */
+    @Nonnull final BitSet[] allInterfaces;
+
+    @Nonnull final AtomicReferenceArray<Set<ClassType>> subtypes;
+
+    Index(@Nonnull Collection<ClassHeader> classHeaders) {
+      // a later header of the same type replaces the earlier one, see addType()
+      final Map<ClassType, ClassHeader> headerByType = new LinkedHashMap<>();
+      classHeaders.forEach(header -> headerByType.put(header.getType(), header));
+      this.scannedHeaders = headerByType.values();
+
+      // the kind of type that is only referenced is given by its first reference
+      for (ClassHeader header : scannedHeaders) {
+        idOf(header.getType(), header.isInterface());
+      }
+      for (ClassHeader header : scannedHeaders) {
+        if (!header.isInterface()) {
+          header.getSuperclass().ifPresent(superClass -> idOf(superClass, false));
+        }
+        header.getInterfaces().forEach(superInterface -> idOf(superInterface, true));
+      }
+
+      final int size = typeList.size();
+      types = typeList.toArray(new ClassType[0]);
+      headers = new ClassHeader[size];
+      superClass = new int[size];
+      Arrays.fill(superClass, -1);
+      directInterfaces = new int[size][];
+      Arrays.fill(directInterfaces, NO_IDS);
+
+      final List<List<Integer>> directSubtypeLists = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        directSubtypeLists.add(new ArrayList<>());
+      }
+      int objectId = -1;
+      for (int id = 0; id < size && objectId < 0; id++) {
+        if (types[id].getFullyQualifiedName().equals("java.lang.Object")) {
+          objectId = id;
+        }
+      }
+      javaLangObject = objectId;
+
+      for (ClassHeader header : scannedHeaders) {
+        final int id = typeToId.get(header.getType());
+        headers[id] = header;
+        if (!header.isInterface() && header.getSuperclass().isPresent()) {
+          final int superId = typeToId.get(header.getSuperclass().get());
+          if (!interfaces.get(superId)) {
+            superClass[id] = superId;
+            directSubtypeLists.get(superId).add(id);
+          }
+        }
+        directInterfaces[id] =
+            header.getInterfaces().stream()
+                .mapToInt(typeToId::get)
+                .filter(interfaces::get)
+                .distinct()
+                .toArray();
+        for (int interfaceId : directInterfaces[id]) {
+          directSubtypeLists.get(interfaceId).add(id);
+        }
+      }
+
+      directSubtypes = new int[size][];
+      for (int i = 0; i < size; i++) {
+        final List<Integer> subtypeList = directSubtypeLists.get(i);
+        directSubtypes[i] =
+            subtypeList.isEmpty() ? NO_IDS : subtypeList.stream().mapToInt(s -> s).toArray();
+      }
+
+      preOrder = new int[size];
+      subtreeEnd = new int[size];
+      Arrays.fill(preOrder, -1);
+      final int classCount = size - interfaces.cardinality();
+      classesInPreOrder = new int[classCount];
+      int position = 0;
+      for (int id = 0; id < size; id++) {
+        if (!interfaces.get(id) && superClass[id] < 0) {
+          position = numberSubtree(id, position);
+        }
+      }
+      // classes in a (malformed) superclass cycle are not reachable from a root
+      for (int id = 0; id < size; id++) {
+        if (!interfaces.get(id) && preOrder[id] < 0) {
+          position = numberSubtree(id, position);
+        }
+      }
+
+      interfaceNumbers = new int[size];
+      Arrays.fill(interfaceNumbers, -1);
+      interfaceIds = new int[size - classCount];
+      int interfaceNumber = 0;
+      for (int id = interfaces.nextSetBit(0); id >= 0; id = interfaces.nextSetBit(id + 1)) {
+        interfaceNumbers[id] = interfaceNumber;
+        interfaceIds[interfaceNumber++] = id;
+      }
+
+      allInterfaces = new BitSet[size];
+      final BitSet inProgress = new BitSet(size);
+      for (int id = 0; id < size; id++) {
+        computeAllInterfaces(id, inProgress);
+      }
+
+      subtypes = new AtomicReferenceArray<>(size);
+    }
+
+    private int idOf(@Nonnull ClassType type, boolean isInterface) {
+      return typeToId.computeIfAbsent(
+          type,
+          t -> {
+            final int id = typeList.size();
+            typeList.add(t);
+            interfaces.set(id, isInterface);
+            return id;
+          });
+    }
+
+    /** Numbers the class tree below root iteratively, as it can be arbitrarily deep. */
+    private int numberSubtree(int root, int position) {
+      final Deque<int[]> stack = new ArrayDeque<>();
+      preOrder[root] = position;
+      classesInPreOrder[position++] = root;
+      stack.push(new int[] {root, 0});
+      while (!stack.isEmpty()) {
+        final int[] frame = stack.peek();
+        final int[] children = directSubtypes[frame[0]];
+        if (frame[1] < children.length) {
+          final int child = children[frame[1]++];
+          if (preOrder[child] < 0) {
+            preOrder[child] = position;
+            classesInPreOrder[position++] = child;
+            stack.push(new int[] {child, 0});
+          }
+        } else {
+          subtreeEnd[frame[0]] = position;
+          stack.pop();
+        }
+      }
+      return position;
+    }
+
+    @Nonnull
+    private BitSet computeAllInterfaces(int id, @Nonnull BitSet inProgress) {
+      if (allInterfaces[id] != null) {
+        return allInterfaces[id];
+      }
+      if (inProgress.get(id)) {
+        // (malformed) cycle
+        return NO_INTERFACES;
+      }
+      inProgress.set(id);
+
+      final BitSet inherited =
+          superClass[id] < 0 ? NO_INTERFACES : computeAllInterfaces(superClass[id], inProgress);
+      BitSet result = inherited;
+      if (directInterfaces[id].length > 0) {
+        // share the bitset of the superclass if nothing is added to it
+        result = (BitSet) inherited.clone();
+        for (int interfaceId : directInterfaces[id]) {
+          result.set(interfaceNumbers[interfaceId]);
+          result.or(computeAllInterfaces(interfaceId, inProgress));
+        }
+      }
+
+      inProgress.clear(id);
+      allInterfaces[id] = result;
+      return result;
+    }
+
+    int idOf(@Nonnull ClassType type) {
+      final Integer id = typeToId.get(type);
+      if (id == null) {
+        throw new IllegalArgumentException("Could not find '" + type + "' in hierarchy.");
+      }
+      return id;
+    }
+
+    boolean isSubtype(int superId, int subId) {
+      if (superId == subId) {
+        return false;
+      }
+      if (superId == javaLangObject) {
+        return true;
+      }
+      if (interfaces.get(superId)) {
+        return allInterfaces[subId].get(interfaceNumbers[superId]);
+      }
+      return !interfaces.get(subId)
+          && preOrder[superId] < preOrder[subId]
+          && preOrder[subId] < subtreeEnd[superId];
+    }
+
+    @Nonnull
+    Set<ClassType> subtypesOf(int id) {
+      Set<ClassType> result = subtypes.get(id);
+      if (result == null) {
+        result = computeSubtypes(id);
+        // concurrent queries compute the same set, so it does not matter which one is kept
+        subtypes.set(id, result);
+      }
+      return result;
+    }
+
+    @Nonnull
+    private Set<ClassType> computeSubtypes(int id) {
+      final ImmutableSet.Builder<ClassType> builder = ImmutableSet.builder();
+      if (!interfaces.get(id)) {
+        addSubclasses(id, false, builder);
+        return builder.build();
+      }
+
+      final BitSet visited = new BitSet(types.length);
+      visited.set(id);
+      final Deque<Integer> worklist = new ArrayDeque<>();
+      worklist.add(id);
+      while (!worklist.isEmpty()) {
+        for (int subtype : directSubtypes[worklist.poll()]) {
+          if (visited.get(subtype)) {
+            continue;
+          }
+          visited.set(subtype);
+          if (interfaces.get(subtype)) {
+            builder.add(types[subtype]);
+            worklist.add(subtype);
+          } else {
+            addSubclasses(subtype, true, builder);
+          }
+        }
+      }
+      return builder.build();
+    }
+
+    private void addSubclasses(
+        int classId, boolean includeSelf, @Nonnull ImmutableSet.Builder<ClassType> builder) {
+      final int from = includeSelf ? preOrder[classId] : preOrder[classId] + 1;
+      for (int position = from; position < subtreeEnd[classId]; position++) {
+        builder.add(types[classesInPreOrder[position]]);
+      }
+    }
+
+    @Nonnull
+    Set<ClassType> toTypes(@Nonnull int[] ids) {
+      final ImmutableSet.Builder<ClassType> builder = ImmutableSet.builder();
+      for (int id : ids) {
+        builder.add(types[id]);
+      }
+      return builder.build();
+    }
+  }
+}
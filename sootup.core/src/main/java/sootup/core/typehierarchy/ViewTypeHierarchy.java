@@ -36,12 +36,14 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.SimpleDirectedGraph;
+import sootup.core.frontend.ClassHeader;
 import sootup.core.model.SootClass;
 import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.Edge;
 import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.EdgeType;
 import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.Vertex;
 import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.VertexType;
 import sootup.core.types.ClassType;
+import sootup.core.views.MutableView;
 import sootup.core.views.View;
 
 /**
@@ -299,6 +301,13 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
   @Nullable
   @Override
   public ClassType superClassOf(@Nonnull ClassType classType) {
+    // classes of a MutableView can be replaced without notifying the hierarchy
+    if (!(view instanceof MutableView)) {
+      final ClassHeader header = lazyScanResult.get().typeToHeader.get(classType);
+      if (header != null) {
+        return header.getSuperclass().orElse(null);
+      }
+    }
     final Optional<? extends SootClass> classOpt = view.getClass(classType);
     if (!classOpt.isPresent()) {
       throw new IllegalArgumentException("Could not find '" + classType + "' in the view.");
@@ -353,10 +362,10 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
   }
 
   /**
-   * This method scans the view by iterating over its classes and creating a graph vertex for each
-   * one. When a class is encountered that extends another one or implements an interface, the graph
-   * vertex of the extended class or implemented interface is connected to the vertex of the
-   * subtype.
+   * This method scans the view by iterating over its class headers and creating a graph vertex for
+   * each one - the classes themselves are not resolved. When a class is encountered that extends
+   * another one or implements an interface, the graph vertex of the extended class or implemented
+   * interface is connected to the vertex of the subtype.
    *
    * <p>We distinguish between interface and class vertices, as interfaces may have direct
    * implementers as well as other interfaces that extend them.
@@ -364,20 +373,23 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
    * <p>In the graph structure, a type is only connected to its direct subtypes.
    */
   private ScanResult scanView() {
-    Map<ClassType, Vertex> typeToVertex = new HashMap<>();
-    Graph<Vertex, Edge> graph = new SimpleDirectedGraph<>(null, null, false);
+    ScanResult scanResult =
+        new ScanResult(
+            new HashMap<>(), new HashMap<>(), new SimpleDirectedGraph<>(null, null, false));
 
-    view.getClasses().forEach(sootClass -> addSootClassToGraph(sootClass, typeToVertex, graph));
-    return new ScanResult(typeToVertex, graph);
+    view.getClassHeaders().forEach(header -> addClassHeaderToGraph(header, scanResult));
+    return scanResult;
   }
 
-  private static void addSootClassToGraph(
-      SootClass sootClass, Map<ClassType, Vertex> typeToVertex, Graph<Vertex, Edge> graph) {
-    if (sootClass.isInterface()) {
+  private static void addClassHeaderToGraph(ClassHeader header, ScanResult scanResult) {
+    Map<ClassType, Vertex> typeToVertex = scanResult.typeToVertex;
+    Graph<Vertex, Edge> graph = scanResult.graph;
+    scanResult.typeToHeader.put(header.getType(), header);
+    if (header.isInterface()) {
       Vertex vertex =
           typeToVertex.computeIfAbsent(
-              sootClass.getType(), type -> createAndAddInterfaceVertex(graph, type));
-      for (ClassType extendedInterface : sootClass.getInterfaces()) {
+              header.getType(), type -> createAndAddInterfaceVertex(graph, type));
+      for (ClassType extendedInterface : header.getInterfaces()) {
         Vertex extendedInterfaceVertex =
             typeToVertex.computeIfAbsent(
                 extendedInterface, type -> createAndAddInterfaceVertex(graph, type));
@@ -386,15 +398,15 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
     } else {
       Vertex vertex =
           typeToVertex.computeIfAbsent(
-              sootClass.getType(), type -> createAndAddClassVertex(graph, type));
-      for (ClassType implementedInterface : sootClass.getInterfaces()) {
+              header.getType(), type -> createAndAddClassVertex(graph, type));
+      for (ClassType implementedInterface : header.getInterfaces()) {
         Vertex implementedInterfaceVertex =
             typeToVertex.computeIfAbsent(
                 implementedInterface, type -> createAndAddInterfaceVertex(graph, type));
         graph.addEdge(
             vertex, implementedInterfaceVertex, new Edge(EdgeType.ClassDirectlyImplements));
       }
-      sootClass
+      header
           .getSuperclass()
           .ifPresent(
               superClass -> {
@@ -422,8 +434,7 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
 
   @Override
   public void addType(@Nonnull SootClass sootClass) {
-    ScanResult scanResult = lazyScanResult.get();
-    addSootClassToGraph(sootClass, scanResult.typeToVertex, scanResult.graph);
+    addClassHeaderToGraph(ClassHeader.of(sootClass), lazyScanResult.get());
   }
 
   /** Holds a vertex for each {@link ClassType} encountered during the scan. */
@@ -469,11 +480,17 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
     /** Holds the vertex for each type. */
     @Nonnull final Map<ClassType, Vertex> typeToVertex;
 
+    /** Holds the header of each scanned class, i.e. not of types that are only referenced. */
+    @Nonnull final Map<ClassType, ClassHeader> typeToHeader;
+
     @Nonnull final Graph<Vertex, Edge> graph;
 
     private ScanResult(
-        @Nonnull Map<ClassType, Vertex> typeToVertex, @Nonnull Graph<Vertex, Edge> graph) {
+        @Nonnull Map<ClassType, Vertex> typeToVertex,
+        @Nonnull Map<ClassType, ClassHeader> typeToHeader,
+        @Nonnull Graph<Vertex, Edge> graph) {
       this.typeToVertex = typeToVertex;
+      this.typeToHeader = typeToHeader;
       this.graph = graph;
     }
   }
@@ -54,6 +54,14 @@ public abstract class AbstractView implements View {
     return typeHierarchy;
   }
 
+  /**
+   * Replaces the {@link ViewTypeHierarchy} of this view, e.g. by a {@link
+   * sootup.core.typehierarchy.DenseTypeHierarchy} for clients that query the hierarchy very often.
+   */
+  public void setTypeHierarchy(@Nonnull TypeHierarchy typeHierarchy) {
+    this.typeHierarchy = typeHierarchy;
+  }
+
   /**
    * resolve and check for accessibility of the class from a given package * TODO: incorporate
    * AccessUtil @Nonnull public synchronized Optional&lt;T&gt; getClass( @Nonnull PackageName
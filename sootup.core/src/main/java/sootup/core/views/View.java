@@ -24,8 +24,10 @@ package sootup.core.views;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import sootup.core.IdentifierFactory;
+import sootup.core.frontend.ClassHeader;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootField;
 import sootup.core.model.SootMethod;
@@ -46,6 +48,15 @@ public interface View {
   @Nonnull
   Collection<? extends SootClass> getClasses();
 
+  /**
+   * Return the headers of all classes in the view, e.g. to build the {@link TypeHierarchy}. Views
+   * should override this if they can provide the headers without resolving every class.
+   */
+  @Nonnull
+  default Collection<ClassHeader> getClassHeaders() {
+    return getClasses().stream().map(ClassHeader::of).collect(Collectors.toList());
+  }
+
   /**
    * Return a class with given signature.
    *
@@ -1,6 +1,6 @@
 package sootup.core.graph;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -69,6 +69,49 @@ public class DominanceFinderTest {
     }
   }
 
+  @Test
+  public void testPostDominanceFinder() {
+    MutableBlockStmtGraph graph = createStmtGraph();
+    List<BasicBlock<?>> blocks = new ArrayList<>(graph.getBlocksSorted());
+    Map<BasicBlock<?>, Integer> blockToId = new HashMap<>();
+    for (int i = 0; i < blocks.size(); i++) {
+      blockToId.put(blocks.get(i), i);
+    }
+
+    DominanceFinder postDom = new DominanceFinder(graph, true);
+    assertTrue(postDom.isPostDominance());
+
+    // block 2 returns, so it post-dominates all blocks
+    int[] expectedPostDominators = {1, 2, 2, 6, 6, 6, 1};
+    for (int i = 0; i < blocks.size(); i++) {
+      BasicBlock<?> postDominator = postDom.getImmediateDominator(blocks.get(i));
+      assertEquals(expectedPostDominators[i], blockToId.get(postDominator));
+    }
+
+    // the post-dominance frontiers are the blocks a block is control dependent on
+    Map<Integer, Set<Integer>> expectedFrontiers = new HashMap<>();
+    expectedFrontiers.put(0, Collections.emptySet());
+    expectedFrontiers.put(1, Collections.singleton(1));
+    expectedFrontiers.put(2, Collections.emptySet());
+    expectedFrontiers.put(3, Collections.singleton(1));
+    expectedFrontiers.put(4, Collections.singleton(3));
+    expectedFrontiers.put(5, Collections.singleton(3));
+    expectedFrontiers.put(6, Collections.singleton(1));
+    for (int i = 0; i < blocks.size(); i++) {
+      Set<Integer> frontierIds =
+          postDom.getDominanceFrontiers(blocks.get(i)).stream()
+              .map(blockToId::get)
+              .collect(Collectors.toSet());
+      assertEquals(expectedFrontiers.get(i), frontierIds);
+    }
+
+    assertTrue(postDom.isDominating(blocks.get(1), blocks.get(4)));
+    assertFalse(postDom.isDominating(blocks.get(4), blocks.get(3)));
+    DominanceTree tree = new DominanceTree(postDom);
+    assertEquals(blocks.get(2), tree.getRoot());
+    assertNull(tree.getParent(blocks.get(2)));
+  }
+
   @Test
   public void testBlockToIdxInverse() {
     MutableBlockStmtGraph graph = createStmtGraph();
@@ -82,7 +125,7 @@ public class DominanceFinderTest {
     }
   }
 
-  private MutableBlockStmtGraph createStmtGraph() {
+  MutableBlockStmtGraph createStmtGraph() {
     // reconstruct the example given in
     // https://soot-oss.github.io/SootUp/v1.1.2/advanced-topics/#dominancefinder.
     MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
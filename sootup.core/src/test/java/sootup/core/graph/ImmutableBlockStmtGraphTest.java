@@ -0,0 +1,155 @@
+package sootup.core.graph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.JAddExpr;
+import sootup.core.jimple.common.expr.JLeExpr;
+import sootup.core.jimple.common.ref.JCaughtExceptionRef;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.signatures.PackageName;
+import sootup.core.types.ClassType;
+import sootup.core.types.PrimitiveType;
+
+@Tag("Java8")
+public class ImmutableBlockStmtGraphTest {
+
+  StmtPositionInfo noPosInfo = StmtPositionInfo.getNoStmtPositionInfo();
+
+  private final ClassType throwableSig =
+      new ClassType() {
+        @Override
+        public boolean isBuiltInClass() {
+          return true;
+        }
+
+        @Override
+        public String getFullyQualifiedName() {
+          return getPackageName() + "." + getClassName();
+        }
+
+        @Override
+        public String getClassName() {
+          return "Throwable";
+        }
+
+        @Override
+        public PackageName getPackageName() {
+          return new PackageName("java.lang");
+        }
+      };
+
+  Local l1 = new Local("l1", PrimitiveType.IntType.getInstance());
+  Local l2 = new Local("l2", PrimitiveType.IntType.getInstance());
+
+  JAssignStmt init = new JAssignStmt(l1, IntConstant.getInstance(0), noPosInfo);
+  BranchingStmt loopIf = new JIfStmt(new JLeExpr(l1, IntConstant.getInstance(10)), noPosInfo);
+  JAssignStmt increment =
+      new JAssignStmt(l1, new JAddExpr(l1, IntConstant.getInstance(1)), noPosInfo);
+  JAssignStmt copy = new JAssignStmt(l2, l1, noPosInfo);
+  JGotoStmt loopGoto = new JGotoStmt(noPosInfo);
+  JIdentityStmt handler =
+      new JIdentityStmt(
+          new Local("ex", throwableSig), new JCaughtExceptionRef(throwableSig), noPosInfo);
+  JReturnStmt ret = new JReturnStmt(l1, noPosInfo);
+
+  /**
+   * l1 = 0;
+   *
+   * <p>loop: if l1 <= 10 goto body; return l1;
+   *
+   * <p>body: l1 = l1 + 1; l2 = l1; goto loop; (covered by a trap to handler)
+   *
+   * <p>handler: ex := @caughtexception; return l1;
+   */
+  private MutableBlockStmtGraph createGraph() {
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(init);
+    graph.addNode(init);
+    graph.addBlock(
+        Arrays.asList(increment, copy, loopGoto), Collections.singletonMap(throwableSig, handler));
+    graph.putEdge(init, loopIf);
+    graph.putEdge(loopIf, JIfStmt.FALSE_BRANCH_IDX, ret);
+    graph.putEdge(loopIf, JIfStmt.TRUE_BRANCH_IDX, increment);
+    graph.putEdge(loopGoto, JGotoStmt.BRANCH_IDX, loopIf);
+    graph.putEdge(handler, ret);
+    return graph;
+  }
+
+  @Test
+  public void testSameAsMutableGraph() {
+    MutableBlockStmtGraph mutableGraph = createGraph();
+    ImmutableBlockStmtGraph graph = new ImmutableBlockStmtGraph(mutableGraph);
+
+    assertEquals(mutableGraph.getStmts(), graph.getStmts());
+    assertEquals(mutableGraph.getStartingStmt(), graph.getStartingStmt());
+    assertEquals(mutableGraph.getBlocks().size(), graph.getBlocks().size());
+    assertEquals(mutableGraph.getTraps(), graph.getTraps());
+    assertEquals(mutableGraph, graph);
+    assertEquals(graph, mutableGraph);
+
+    for (Stmt stmt : mutableGraph.getNodes()) {
+      assertTrue(graph.containsNode(stmt));
+      assertEquals(mutableGraph.successors(stmt), graph.successors(stmt));
+      assertEquals(mutableGraph.predecessors(stmt), graph.predecessors(stmt));
+      assertEquals(mutableGraph.exceptionalSuccessors(stmt), graph.exceptionalSuccessors(stmt));
+      assertEquals(mutableGraph.inDegree(stmt), graph.inDegree(stmt));
+      assertEquals(mutableGraph.outDegree(stmt), graph.outDegree(stmt));
+      assertEquals(mutableGraph.getBlockOf(stmt).getStmts(), graph.getBlockOf(stmt).getStmts());
+      for (Stmt target : mutableGraph.getNodes()) {
+        assertEquals(
+            mutableGraph.hasEdgeConnecting(stmt, target), graph.hasEdgeConnecting(stmt, target));
+      }
+    }
+
+    assertEquals(Arrays.asList(increment, copy, loopGoto), graph.exceptionalPredecessors(handler));
+    assertEquals(
+        Collections.singletonMap(throwableSig, graph.getBlockOf(increment)),
+        graph.getBlockOf(handler).getExceptionalPredecessors());
+
+    // a copy of the immutable graph is the same graph again
+    assertEquals(mutableGraph, new MutableBlockStmtGraph(graph));
+    assertSame(graph, ImmutableBlockStmtGraph.of(graph));
+  }
+
+  @Test
+  public void testBlocks() {
+    ImmutableBlockStmtGraph graph = new ImmutableBlockStmtGraph(createGraph());
+
+    BasicBlock<?> startingBlock = graph.getStartingStmtBlock();
+    assertEquals(graph.getBlocksSorted().get(0), startingBlock);
+    assertEquals(Collections.singletonList(init), startingBlock.getStmts());
+
+    BasicBlock<?> loopHeader = graph.getBlockOf(loopIf);
+    BasicBlock<?> body = graph.getBlockOf(copy);
+    assertEquals(increment, body.getHead());
+    assertEquals(loopGoto, body.getTail());
+    assertEquals(3, body.getStmtCount());
+    assertEquals(Collections.singletonList(loopHeader), body.getSuccessors());
+    assertEquals(Collections.singletonList(loopHeader), body.getPredecessors());
+    assertEquals(graph.getBlockOf(handler), body.getExceptionalSuccessors().get(throwableSig));
+
+    assertTrue(graph.getNodes().contains(copy));
+    assertFalse(graph.containsNode(new JNopStmt(noPosInfo)));
+    assertNull(graph.getBlockOf(new JNopStmt(noPosInfo)));
+    assertThrows(IllegalArgumentException.class, () -> graph.successors(new JNopStmt(noPosInfo)));
+    assertThrows(UnsupportedOperationException.class, () -> graph.successors(init).add(init));
+    assertThrows(UnsupportedOperationException.class, () -> body.getStmts().clear());
+  }
+
+  @Test
+  public void testEmptyGraph() {
+    ImmutableBlockStmtGraph graph = new ImmutableBlockStmtGraph(new MutableBlockStmtGraph());
+    assertNull(graph.getStartingStmt());
+    assertNull(graph.getStartingStmtBlock());
+    assertTrue(graph.getNodes().isEmpty());
+    assertTrue(graph.getBlocks().isEmpty());
+    assertTrue(graph.getTraps().isEmpty());
+    assertFalse(graph.iterator().hasNext());
+  }
+}
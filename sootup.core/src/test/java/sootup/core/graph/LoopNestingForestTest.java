@@ -0,0 +1,127 @@
+package sootup.core.graph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.JAddExpr;
+import sootup.core.jimple.common.expr.JLeExpr;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.types.PrimitiveType;
+
+@Tag("Java8")
+public class LoopNestingForestTest {
+
+  StmtPositionInfo noPosInfo = StmtPositionInfo.getNoStmtPositionInfo();
+
+  Local l1 = new Local("l1", PrimitiveType.IntType.getInstance());
+  Local l2 = new Local("l2", PrimitiveType.IntType.getInstance());
+
+  JAssignStmt init = new JAssignStmt(l1, IntConstant.getInstance(0), noPosInfo);
+  BranchingStmt outerIf = new JIfStmt(new JLeExpr(l1, IntConstant.getInstance(10)), noPosInfo);
+  BranchingStmt innerIf = new JIfStmt(new JLeExpr(l2, IntConstant.getInstance(10)), noPosInfo);
+  JAssignStmt increment =
+      new JAssignStmt(l2, new JAddExpr(l2, IntConstant.getInstance(1)), noPosInfo);
+  JGotoStmt innerGoto = new JGotoStmt(noPosInfo);
+  JGotoStmt outerGoto = new JGotoStmt(noPosInfo);
+  JReturnStmt ret = new JReturnStmt(l1, noPosInfo);
+
+  /**
+   * l1 = 0;
+   *
+   * <p>outer: if l1 <= 10 goto inner; return l1;
+   *
+   * <p>inner: if l2 <= 10 goto body; goto outer;
+   *
+   * <p>body: l2 = l2 + 1; goto inner;
+   */
+  private MutableBlockStmtGraph createNestedLoops() {
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(init);
+    graph.putEdge(init, outerIf);
+    graph.putEdge(outerIf, JIfStmt.FALSE_BRANCH_IDX, ret);
+    graph.putEdge(outerIf, JIfStmt.TRUE_BRANCH_IDX, innerIf);
+    graph.putEdge(innerIf, JIfStmt.FALSE_BRANCH_IDX, outerGoto);
+    graph.putEdge(innerIf, JIfStmt.TRUE_BRANCH_IDX, increment);
+    graph.putEdge(increment, innerGoto);
+    graph.putEdge(innerGoto, JGotoStmt.BRANCH_IDX, innerIf);
+    graph.putEdge(outerGoto, JGotoStmt.BRANCH_IDX, outerIf);
+    return graph;
+  }
+
+  @Test
+  public void testNestedLoops() {
+    MutableBlockStmtGraph graph = createNestedLoops();
+    LoopNestingForest forest = new LoopNestingForest(new DominanceFinder(graph));
+
+    assertEquals(2, forest.getLoops().size());
+    assertEquals(1, forest.getOutermostLoops().size());
+    LoopNestingForest.Loop outer = forest.getOutermostLoops().get(0);
+    assertEquals(graph.getBlockOf(outerIf), outer.getHeader());
+    assertEquals(Collections.singletonList(graph.getBlockOf(outerGoto)), outer.getLatches());
+    assertEquals(Collections.singleton(graph.getBlockOf(ret)), outer.getExits());
+    assertEquals(4, outer.getBlocks().size());
+    assertNull(outer.getParent());
+
+    assertEquals(1, outer.getChildren().size());
+    LoopNestingForest.Loop inner = outer.getChildren().get(0);
+    assertEquals(graph.getBlockOf(innerIf), inner.getHeader());
+    assertEquals(Collections.singletonList(graph.getBlockOf(innerGoto)), inner.getLatches());
+    assertEquals(
+        new HashSet<>(Arrays.asList(graph.getBlockOf(innerIf), graph.getBlockOf(increment))),
+        inner.getBlocks());
+    assertEquals(outer, inner.getParent());
+    assertEquals(2, inner.getDepth());
+
+    assertNull(forest.getLoopOf(graph.getBlockOf(init)));
+    assertEquals(0, forest.getLoopDepth(graph.getBlockOf(ret)));
+    assertEquals(outer, forest.getLoopOf(graph.getBlockOf(outerGoto)));
+    assertEquals(inner, forest.getLoopOf(graph.getBlockOf(increment)));
+    assertEquals(2, forest.getLoopDepth(graph.getBlockOf(innerIf)));
+  }
+
+  @Test
+  public void testNoLoops() {
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(init);
+    graph.putEdge(init, ret);
+    LoopNestingForest forest = new LoopNestingForest(new DominanceFinder(graph));
+    assertTrue(forest.getLoops().isEmpty());
+    assertEquals(0, forest.getLoopDepth(graph.getBlockOf(ret)));
+  }
+
+  @Test
+  public void testAnalysisCache() {
+    MutableBlockStmtGraph graph = createNestedLoops();
+    StmtGraphAnalysisCache cache = graph.getAnalysisCache();
+    assertSame(cache, graph.getAnalysisCache());
+
+    DominanceFinder dominanceFinder = cache.getDominanceFinder();
+    LoopNestingForest forest = cache.getLoopNestingForest();
+    assertSame(dominanceFinder, cache.getDominanceFinder());
+    assertSame(forest, cache.getLoopNestingForest());
+    assertSame(cache.getDominanceTree(), cache.getDominanceTree());
+    assertTrue(cache.getPostDominanceFinder().isPostDominance());
+
+    // replacing a stmt that does not branch keeps the blocks
+    JAssignStmt newIncrement =
+        new JAssignStmt(l2, new JAddExpr(l2, IntConstant.getInstance(2)), noPosInfo);
+    graph.replaceNode(increment, newIncrement);
+    assertSame(dominanceFinder, cache.getDominanceFinder());
+    assertSame(forest, cache.getLoopNestingForest());
+
+    // removing the back edge of the inner loop changes the blocks
+    graph.removeEdge(innerGoto, innerIf);
+    graph.putEdge(innerGoto, JGotoStmt.BRANCH_IDX, outerIf);
+    assertNotSame(dominanceFinder, cache.getDominanceFinder());
+    LoopNestingForest newForest = cache.getLoopNestingForest();
+    assertNotSame(forest, newForest);
+    assertEquals(1, newForest.getLoops().size());
+    assertEquals(
+        2, newForest.getLoops().get(0).getLatches().size(), newForest.getLoops().toString());
+  }
+}
@@ -3,6 +3,8 @@ package sootup.core.graph;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import sootup.core.jimple.basic.StmtPositionInfo;
@@ -149,4 +151,37 @@ public class MutableBasicBlockTest {
           MutableBasicBlock newBlock = block.splitBlockLinked(fourthNop, false);
         });
   }
+
+  @Test
+  public void testIndexOfInBigBlock() {
+    MutableBasicBlock block = new MutableBasicBlock();
+    List<Stmt> stmts = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      Stmt stmt = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+      stmts.add(stmt);
+      block.addStmt(stmt);
+    }
+    for (int i = 0; i < stmts.size(); i++) {
+      assertEquals(i, block.indexOf(stmts.get(i)));
+    }
+    assertEquals(-1, block.indexOf(firstNop));
+
+    // the index is kept up to date while the block is modified
+    block.addStmt(firstNop);
+    assertEquals(100, block.indexOf(firstNop));
+    block.replaceStmt(stmts.get(50), secondNop);
+    assertEquals(50, block.indexOf(secondNop));
+    assertEquals(-1, block.indexOf(stmts.get(50)));
+    block.removeStmt(firstNop);
+    assertEquals(-1, block.indexOf(firstNop));
+    block.removeStmt(stmts.get(0));
+    assertEquals(0, block.indexOf(stmts.get(1)));
+    assertEquals(49, block.indexOf(secondNop));
+
+    MutableBasicBlock newBlock = block.splitBlockUnlinked(secondNop, stmts.get(51));
+    assertEquals(49, block.indexOf(secondNop));
+    assertEquals(-1, block.indexOf(stmts.get(51)));
+    assertEquals(0, newBlock.indexOf(stmts.get(51)));
+    assertEquals(48, newBlock.indexOf(stmts.get(99)));
+  }
 }
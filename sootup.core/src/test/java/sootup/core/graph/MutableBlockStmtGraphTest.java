@@ -3,6 +3,7 @@ package sootup.core.graph;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.*;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -1045,4 +1046,139 @@ public class MutableBlockStmtGraphTest {
     assertEquals(1, graph.successors(stmt1).size());
     assertTrue(graph.successors(stmt1).contains(stmt2));
   }
+
+  @Test
+  public void testStmtNumbering() {
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(firstNop);
+    graph.putEdge(firstNop, ifStmt);
+    graph.putEdge(ifStmt, JIfStmt.FALSE_BRANCH_IDX, secondNop);
+    graph.putEdge(ifStmt, JIfStmt.TRUE_BRANCH_IDX, thirdNop);
+
+    DenseNumbering<Stmt> stmtNumbering = graph.getStmtNumbering();
+    DenseNumbering<BasicBlock<?>> blockNumbering = graph.getBlockNumbering();
+    assertEquals(4, stmtNumbering.size());
+    assertEquals(3, blockNumbering.size());
+    assertEquals(0, blockNumbering.getId(graph.getStartingStmtBlock()));
+
+    // the stmts of a block have consecutive ids
+    int id = 0;
+    for (BasicBlock<?> block : blockNumbering.getElements()) {
+      for (Stmt stmt : block.getStmts()) {
+        assertEquals(id, stmtNumbering.getId(stmt));
+        assertSame(stmt, stmtNumbering.get(id));
+        id++;
+      }
+    }
+
+    // replacing a stmt keeps the ids
+    JNopStmt newNop = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+    int secondNopId = stmtNumbering.getId(secondNop);
+    graph.replaceNode(secondNop, newNop);
+    assertSame(stmtNumbering, graph.getStmtNumbering());
+    assertEquals(secondNopId, stmtNumbering.getId(newNop));
+    assertEquals(-1, stmtNumbering.getId(secondNop));
+
+    // other modifications renumber the stmts
+    graph.removeNode(thirdNop, false);
+    assertNotSame(stmtNumbering, graph.getStmtNumbering());
+    assertEquals(3, graph.getStmtNumbering().size());
+    assertFalse(graph.getStmtNumbering().contains(thirdNop));
+  }
+
+  private final Local local = new Local("l", PrimitiveType.getInt());
+  private final JAssignStmt firstAssign =
+      new JAssignStmt(local, IntConstant.getInstance(1), StmtPositionInfo.getNoStmtPositionInfo());
+  private final JAssignStmt secondAssign =
+      new JAssignStmt(local, IntConstant.getInstance(2), StmtPositionInfo.getNoStmtPositionInfo());
+  private final JReturnVoidStmt returnStmt =
+      new JReturnVoidStmt(StmtPositionInfo.getNoStmtPositionInfo());
+
+  private MutableBlockStmtGraph createBatchGraph() {
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(firstNop);
+    graph.putEdge(firstNop, firstAssign);
+    graph.putEdge(firstAssign, secondNop);
+    graph.putEdge(secondNop, ifStmt);
+    graph.putEdge(ifStmt, JIfStmt.FALSE_BRANCH_IDX, thirdNop);
+    graph.putEdge(ifStmt, JIfStmt.TRUE_BRANCH_IDX, returnStmt);
+    graph.putEdge(thirdNop, returnStmt);
+    return graph;
+  }
+
+  @Test
+  public void testBatchSameAsSingleModifications() {
+    MutableBlockStmtGraph expected = createBatchGraph();
+    expected.removeNode(firstNop);
+    expected.replaceNode(firstAssign, secondAssign);
+    expected.removeNode(secondNop);
+    expected.removeNode(thirdNop);
+
+    MutableBlockStmtGraph graph = createBatchGraph();
+    MutableStmtGraph.Batch batch = graph.startBatch();
+    batch.removeNode(firstNop);
+    batch.replaceNode(firstAssign, secondAssign);
+    batch.removeNode(secondNop);
+    batch.removeNode(thirdNop);
+    // nothing is changed before the commit
+    assertEquals(createBatchGraph(), graph);
+    batch.commit();
+
+    assertEquals(expected, graph);
+    assertEquals(expected.getStmts(), graph.getStmts());
+    assertEquals(secondAssign, graph.getStartingStmt());
+    assertEquals(Arrays.asList(returnStmt, returnStmt), graph.successors(ifStmt));
+    assertEquals(2, graph.getBlocks().size());
+    assertThrows(IllegalStateException.class, batch::commit);
+  }
+
+  @Test
+  public void testBatchRemoveBlockWithoutFlows() {
+    JGotoStmt gotoStmt = new JGotoStmt(StmtPositionInfo.getNoStmtPositionInfo());
+    Supplier<MutableBlockStmtGraph> graphSupplier =
+        () -> {
+          MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+          graph.setStartingStmt(firstNop);
+          graph.putEdge(firstNop, returnStmt);
+          // unreachable block
+          graph.putEdge(secondNop, gotoStmt);
+          graph.putEdge(gotoStmt, JGotoStmt.BRANCH_IDX, returnStmt);
+          return graph;
+        };
+
+    MutableBlockStmtGraph expected = graphSupplier.get();
+    expected.removeNode(secondNop, false);
+    expected.removeNode(gotoStmt, false);
+
+    MutableBlockStmtGraph graph = graphSupplier.get();
+    MutableStmtGraph.Batch batch = graph.startBatch();
+    batch.removeNode(secondNop, false);
+    batch.removeNode(gotoStmt, false);
+    batch.commit();
+
+    assertEquals(expected, graph);
+    assertFalse(graph.containsNode(secondNop));
+    assertEquals(Collections.singletonList(firstNop), graph.predecessors(returnStmt));
+  }
+
+  @Test
+  public void testBatchReplaceReplacedStmt() {
+    MutableBlockStmtGraph graph = createBatchGraph();
+    JNopStmt newNop = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+    MutableStmtGraph.Batch batch = graph.startBatch();
+    batch.replaceNode(firstAssign, secondAssign);
+    batch.replaceNode(secondAssign, newNop);
+    assertThrows(IllegalArgumentException.class, () -> batch.replaceNode(firstAssign, thirdNop));
+    batch.removeNode(secondNop);
+    assertThrows(IllegalArgumentException.class, () -> batch.removeNode(secondNop));
+    batch.replaceNode(firstNop, secondAssign);
+    batch.commit();
+
+    assertFalse(graph.containsNode(firstAssign));
+    assertFalse(graph.containsNode(secondNop));
+    assertEquals(secondAssign, graph.getStartingStmt());
+    assertEquals(Collections.singletonList(newNop), graph.successors(secondAssign));
+    assertEquals(Collections.singletonList(ifStmt), graph.successors(newNop));
+    assertEquals(5, graph.getNodes().size());
+  }
 }
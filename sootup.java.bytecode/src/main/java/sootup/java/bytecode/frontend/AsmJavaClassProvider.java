@@ -21,14 +21,22 @@ package sootup.java.bytecode.frontend;
  * #L%
  */
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Optional;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.ClassNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sootup.core.frontend.ClassHeader;
 import sootup.core.frontend.ClassProvider;
 import sootup.core.frontend.SootClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
@@ -40,14 +48,45 @@ import sootup.java.core.types.AnnotationType;
 import sootup.java.core.types.JavaClassType;
 import sootup.java.core.types.ModuleJavaClassType;
 
-/** A {@link ClassProvider} capable of handling Java bytecode */
+/**
+ * A {@link ClassProvider} capable of handling Java bytecode.
+ *
+ * <p>By default the instructions of every method are parsed together with the class and kept by
+ * its {@link AsmMethodSource} until the class is dropped. With lazy bodies (see {@link
+ * #AsmJavaClassProvider(View, PersistentBodyCache, boolean)} or e.g. {@link
+ * sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation#setLazyBodies}) only the
+ * class shell is parsed and the instructions of a method are read again from the class file
+ * when its body is resolved. This saves most of the memory of classes whose bodies are never
+ * needed e.g. for hierarchy or signature queries.
+ */
 public class AsmJavaClassProvider implements ClassProvider {
 
   @Nonnull private final View view;
+  @Nullable private final PersistentBodyCache bodyCache;
+  private final boolean lazyBodies;
   private static final @Nonnull Logger logger = LoggerFactory.getLogger(AsmJavaClassProvider.class);
 
   public AsmJavaClassProvider(@Nonnull View view) {
+    this(view, null);
+  }
+
+  /**
+   * @param bodyCache if not null, method bodies are loaded from respectively stored into this cache
+   */
+  public AsmJavaClassProvider(@Nonnull View view, @Nullable PersistentBodyCache bodyCache) {
+    this(view, bodyCache, false);
+  }
+
+  /**
+   * @param bodyCache if not null, method bodies are loaded from respectively stored into this cache
+   * @param lazyBodies if true, the instructions of a method are only parsed when its body is
+   *     resolved and are not retained afterwards
+   */
+  public AsmJavaClassProvider(
+      @Nonnull View view, @Nullable PersistentBodyCache bodyCache, boolean lazyBodies) {
     this.view = view;
+    this.bodyCache = bodyCache;
+    this.lazyBodies = lazyBodies;
   }
 
   @Override
@@ -64,7 +103,17 @@ public class AsmJavaClassProvider implements ClassProvider {
 
     final String actualClassSignature;
     try {
-      actualClassSignature = AsmUtil.initAsmClassSource(sourcePath, classNode);
+      if (lazyBodies || bodyCache != null) {
+        // files on disk can just be read again, while an archive might be closed in the meantime
+        actualClassSignature =
+            initClassNode(
+                classNode,
+                sourcePath,
+                Files.readAllBytes(sourcePath),
+                sourcePath.getFileSystem() == FileSystems.getDefault());
+      } else {
+        actualClassSignature = AsmUtil.initAsmClassSource(sourcePath, classNode);
+      }
     } catch (IOException exception) {
       logger.warn("ioe: " + sourcePath, exception);
       return Optional.empty();
@@ -73,6 +122,69 @@ public class AsmJavaClassProvider implements ClassProvider {
       return Optional.empty();
     }
 
+    return createClassSource(
+        analysisInputLocation, sourcePath, classType, classNode, actualClassSignature);
+  }
+
+  /**
+   * Like {@link #createClassSource(AnalysisInputLocation, Path, ClassType)} but parses the given
+   * contents of the class file instead of reading it from the source path, e.g. an entry of a
+   * {@link sootup.java.bytecode.inputlocation.MappedZipArchive}.
+   *
+   * @param sourcePath identifies the class file in the created class source; it is not read
+   */
+  @Nonnull
+  public Optional<SootClassSource> createClassSource(
+      @Nonnull AnalysisInputLocation analysisInputLocation,
+      @Nonnull Path sourcePath,
+      @Nonnull ClassType classType,
+      @Nonnull ByteBuffer classFile) {
+    SootClassNode classNode = new SootClassNode(analysisInputLocation);
+
+    final String actualClassSignature;
+    try {
+      actualClassSignature = initClassNode(classNode, sourcePath, toByteArray(classFile), false);
+    } catch (IllegalArgumentException exception) {
+      logger.warn("iae: " + sourcePath, exception);
+      return Optional.empty();
+    }
+
+    return createClassSource(
+        analysisInputLocation, sourcePath, classType, classNode, actualClassSignature);
+  }
+
+  /**
+   * Parses the class file into the given node, skipping the instructions of the methods if they
+   * are parsed lazily.
+   *
+   * @param canReread whether lazily parsed methods can read the class file again from the source
+   *     path; if not, the bytes are retained
+   * @return the internal name of the parsed class
+   */
+  @Nonnull
+  private String initClassNode(
+      @Nonnull SootClassNode classNode,
+      @Nonnull Path sourcePath,
+      @Nonnull byte[] classBytes,
+      boolean canReread) {
+    if (bodyCache != null) {
+      classNode.classHash = PersistentBodyCache.hashClassBytes(classBytes);
+    }
+    if (!lazyBodies) {
+      return AsmUtil.initAsmClassSource(classBytes, classNode);
+    }
+    classNode.classFile = new ClassFile(sourcePath, canReread ? null : classBytes);
+    return AsmUtil.initAsmClassSource(
+        classBytes, classNode, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+  }
+
+  @Nonnull
+  private Optional<SootClassSource> createClassSource(
+      @Nonnull AnalysisInputLocation analysisInputLocation,
+      @Nonnull Path sourcePath,
+      @Nonnull ClassType classType,
+      @Nonnull SootClassNode classNode,
+      @Nonnull String actualClassSignature) {
     String requestedName = classType.getPackageName().getName();
     String requestedFQClassName =
         classType.getPackageName().getName()
@@ -106,15 +218,126 @@ public class AsmJavaClassProvider implements ClassProvider {
     }
   }
 
+  /**
+   * Reads just the header of the class file, i.e. neither fields nor methods are visited. This is
+   * much cheaper than {@link #createClassSource(AnalysisInputLocation, Path, ClassType)} and all
+   * that is needed to build the type hierarchy.
+   */
+  @Nonnull
+  public Optional<ClassHeader> createClassHeader(
+      @Nonnull Path sourcePath, @Nonnull ClassType classType) {
+    if (!Files.exists(sourcePath)) {
+      return Optional.empty();
+    }
+
+    final ClassReader classReader;
+    try {
+      classReader = new ClassReader(Files.readAllBytes(sourcePath));
+    } catch (IOException exception) {
+      logger.warn("ioe: " + sourcePath, exception);
+      return Optional.empty();
+    } catch (IllegalArgumentException exception) {
+      logger.warn("iae: " + sourcePath, exception);
+      return Optional.empty();
+    }
+    return createClassHeader(classReader, classType);
+  }
+
+  /**
+   * Like {@link #createClassHeader(Path, ClassType)} but reads the header from the given contents
+   * of the class file.
+   */
+  @Nonnull
+  public Optional<ClassHeader> createClassHeader(
+      @Nonnull ByteBuffer classFile, @Nonnull ClassType classType) {
+    final ClassReader classReader;
+    try {
+      classReader = new ClassReader(toByteArray(classFile));
+    } catch (IllegalArgumentException exception) {
+      logger.warn("iae: " + classType, exception);
+      return Optional.empty();
+    }
+    return createClassHeader(classReader, classType);
+  }
+
+  @Nonnull
+  private Optional<ClassHeader> createClassHeader(
+      @Nonnull ClassReader classReader, @Nonnull ClassType classType) {
+    final String actualFQClassName = classReader.getClassName().replace('/', '.');
+    if (!actualFQClassName.equals(classType.getFullyQualifiedName())) {
+      logger.warn(
+          "The given Classtype '"
+              + classType
+              + "' did not match the found ClassType in the compilation unit '"
+              + classReader.getClassName()
+              + "'.");
+      return Optional.empty();
+    }
+    if (classType.getClassName().equals(JavaModuleIdentifierFactory.MODULE_INFO_FILE)) {
+      return Optional.empty();
+    }
+
+    final String superName = classReader.getSuperName();
+    return Optional.of(
+        new ClassHeader(
+            classType,
+            superName == null ? null : AsmUtil.toJimpleClassType(superName),
+            new HashSet<>(AsmUtil.asmIdToSignature(Arrays.asList(classReader.getInterfaces()))),
+            (classReader.getAccess() & Opcodes.ACC_INTERFACE) != 0));
+  }
+
+  /** ASM can only read from an array, hence this copies the buffer unless it is a whole array. */
+  @Nonnull
+  private static byte[] toByteArray(@Nonnull ByteBuffer buffer) {
+    if (buffer.hasArray()
+        && buffer.arrayOffset() == 0
+        && buffer.position() == 0
+        && buffer.remaining() == buffer.array().length) {
+      return buffer.array();
+    }
+    final byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+
   @Override
   @Nonnull
   public FileType getHandledFileType() {
     return FileType.CLASS;
   }
 
+  /**
+   * The class file a lazily parsed {@link AsmMethodSource} reads its instructions from: either the
+   * retained bytes or, if these are null, the file at the source path.
+   */
+  static class ClassFile {
+
+    @Nonnull private final Path sourcePath;
+    @Nullable private final byte[] classBytes;
+
+    ClassFile(@Nonnull Path sourcePath, @Nullable byte[] classBytes) {
+      this.sourcePath = sourcePath;
+      this.classBytes = classBytes;
+    }
+
+    @Nonnull
+    Path getSourcePath() {
+      return sourcePath;
+    }
+
+    @Nonnull
+    byte[] read() throws IOException {
+      return classBytes != null ? classBytes : Files.readAllBytes(sourcePath);
+    }
+  }
+
   class SootClassNode extends ClassNode {
 
     private final AnalysisInputLocation analysisInputLocation;
+    /** SHA-256 of the class file; only set if there is a {@link PersistentBodyCache}. */
+    @Nullable private String classHash;
+    /** Only set if the method bodies are parsed lazily. */
+    @Nullable private ClassFile classFile;
 
     SootClassNode(AnalysisInputLocation analysisInputLocation) {
       super(AsmUtil.SUPPORTED_ASM_OPCODE);
@@ -138,7 +361,10 @@ public class AsmJavaClassProvider implements ClassProvider {
               signature,
               exceptions,
               view,
-              analysisInputLocation.getBodyInterceptors());
+              analysisInputLocation.getBodyInterceptors(),
+              classHash == null ? null : bodyCache,
+              classHash,
+              classFile);
       methods.add(mn);
       return mn;
     }
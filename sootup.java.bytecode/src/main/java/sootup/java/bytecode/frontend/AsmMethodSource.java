@@ -27,6 +27,7 @@ import com.google.common.base.Suppliers;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Table;
+import java.io.IOException;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.function.BiFunction;
@@ -35,10 +36,14 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.commons.JSRInlinerAdapter;
 import org.objectweb.asm.tree.*;
 import sootup.core.frontend.BodySource;
+import sootup.core.frontend.ResolveException;
 import sootup.core.graph.MutableBlockStmtGraph;
 import sootup.core.jimple.Jimple;
 import sootup.core.jimple.basic.*;
@@ -104,6 +109,13 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
 
   private final View view;
   private final List<BodyInterceptor> bodyInterceptors;
+  @Nullable private final PersistentBodyCache persistentBodyCache;
+  @Nullable private final String classHash;
+  /**
+   * Only set if the instructions were skipped when the class was parsed; they are read from this
+   * class file whenever the body is resolved.
+   */
+  @Nullable private final AsmJavaClassProvider.ClassFile lazyClassFile;
 
   @Nonnull private final Set<LabelNode> inlineExceptionLabels = new HashSet<>();
 
@@ -121,10 +133,16 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
       @Nonnull String signature,
       @Nonnull String[] exceptions,
       View view,
-      @Nonnull List<BodyInterceptor> bodyInterceptors) {
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nullable PersistentBodyCache persistentBodyCache,
+      @Nullable String classHash,
+      @Nullable AsmJavaClassProvider.ClassFile lazyClassFile) {
     super(AsmUtil.SUPPORTED_ASM_OPCODE, null, access, name, desc, signature, exceptions);
     this.bodyInterceptors = bodyInterceptors;
     this.view = view;
+    this.persistentBodyCache = persistentBodyCache;
+    this.classHash = classHash;
+    this.lazyClassFile = lazyClassFile;
 
     identifierFactory = (JavaIdentifierFactory) view.getIdentifierFactory();
     lazyMethodSignature =
@@ -156,8 +174,29 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
   @Override
   @Nonnull
   public Body resolveBody(@Nonnull Iterable<MethodModifier> modifierIt) {
+    if (persistentBodyCache == null || classHash == null) {
+      return convertBody();
+    }
+    final Optional<Body> cachedBody =
+        persistentBodyCache.load(
+            classHash, bodyInterceptors, lazyMethodSignature.get(), identifierFactory);
+    if (cachedBody.isPresent()) {
+      return cachedBody.get();
+    }
+    final Body body = convertBody();
+    persistentBodyCache.store(classHash, bodyInterceptors, body);
+    return body;
+  }
 
-    /* initialize */
+  @Nonnull
+  private Body convertBody() {
+    if (lazyClassFile != null) {
+      // the parsed instructions are garbage as soon as the body is built
+      return parseInstructions(lazyClassFile).convertBody();
+    }
+
+    /* initialize; a body that was dropped by a BodyCache is converted again by the same source */
+    resetConversionState();
     nextLocal = maxLocals;
     locals =
         new NonIndexOutofBoundsArrayList<>(
@@ -222,10 +261,7 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
     }
 
     /* clean up for gc */
-    locals = null;
-    stmtsThatBranchToLabel = null;
-    insnToStmt = null;
-    operandStack = null;
+    resetConversionState();
 
     bodyBuilder.setMethodSignature(lazyMethodSignature.get());
 
@@ -243,6 +279,85 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
     return bodyBuilder.build();
   }
 
+  /** Drops the state of a previous conversion, so that it neither leaks into nor pins bodies. */
+  private void resetConversionState() {
+    locals = null;
+    stmtsThatBranchToLabel = null;
+    insnToStmt = null;
+    operandStack = null;
+    trapHandler = null;
+    replacedStmt.clear();
+    startTrapHandler.clear();
+    endTrapHandler.clear();
+    activeTrapHandlers.clear();
+    inlineExceptionLabels.clear();
+    inlineExceptionHandlers.clear();
+    labelsToStmt.clear();
+    currentLineNumber = -1;
+    maxLineNumber = 0;
+  }
+
+  /** Reads the class file again and parses the complete method, including its instructions. */
+  @Nonnull
+  private AsmMethodSource parseInstructions(@Nonnull AsmJavaClassProvider.ClassFile classFile) {
+    final byte[] classBytes;
+    try {
+      classBytes = classFile.read();
+    } catch (IOException e) {
+      throw new ResolveException(
+          "Could not read the instructions of " + lazyMethodSignature.get(),
+          classFile.getSourcePath(),
+          e);
+    }
+
+    final List<AsmMethodSource> parsed = new ArrayList<>(1);
+    final ClassVisitor methodFinder =
+        new ClassVisitor(AsmUtil.SUPPORTED_ASM_OPCODE) {
+          @Override
+          public MethodVisitor visitMethod(
+              int access, String name, String descriptor, String signature, String[] exceptions) {
+            if (!parsed.isEmpty()
+                || !AsmMethodSource.this.name.equals(name)
+                || !AsmMethodSource.this.desc.equals(descriptor)) {
+              return null;
+            }
+            AsmMethodSource methodSource =
+                new AsmMethodSource(
+                    access,
+                    name,
+                    descriptor,
+                    signature,
+                    exceptions,
+                    view,
+                    bodyInterceptors,
+                    null,
+                    null,
+                    null);
+            parsed.add(methodSource);
+            return methodSource;
+          }
+        };
+    new ClassReader(classBytes).accept(methodFinder, ClassReader.SKIP_FRAMES);
+
+    if (parsed.isEmpty()) {
+      throw new ResolveException(
+          "The class file does not contain " + lazyMethodSignature.get() + " anymore.",
+          classFile.getSourcePath());
+    }
+    final AsmMethodSource methodSource = parsed.get(0);
+    methodSource.setDeclaringClass(declaringClass);
+    return methodSource;
+  }
+
+  @Override
+  public int estimateBodySize() {
+    if (lazyClassFile != null) {
+      // the instructions are not known before they are parsed
+      return -1;
+    }
+    return instructions.size() + maxLocals;
+  }
+
   @Override
   public Object resolveAnnotationsDefaultValue() {
     return resolveAnnotationsInDefaultValue(this.annotationDefault);
@@ -21,6 +21,7 @@ package sootup.java.bytecode.frontend;
  * #L%
  */
 import com.google.common.base.Suppliers;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -31,6 +32,7 @@ import java.util.Collections;
 import java.util.Set;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.tree.*;
 import sootup.core.frontend.ResolveException;
@@ -43,18 +45,33 @@ import sootup.java.core.types.JavaClassType;
 public class AsmModuleSource extends JavaModuleInfo {
 
   @Nonnull private final Path sourcePath;
+  /** the contents of the module-info.class; if null it is read from the source path. */
+  @Nullable private final byte[] moduleInfoBytes;
+
   @Nonnull private final Supplier<ModuleNode> _lazyModule = Suppliers.memoize(this::_lazyModule);
 
   public AsmModuleSource(@Nonnull Path sourcePath) {
+    this(sourcePath, null);
+  }
+
+  /**
+   * @param moduleInfoBytes the contents of the module-info.class at the source path e.g. read from
+   *     an archive; the source path is not read then
+   */
+  public AsmModuleSource(@Nonnull Path sourcePath, @Nullable byte[] moduleInfoBytes) {
 
     // if it would be an automatic module there would be no module-info.class
     super();
     this.sourcePath = sourcePath;
+    this.moduleInfoBytes = moduleInfoBytes;
   }
 
   // make loading lazy
   private ModuleNode _lazyModule() {
-    try (InputStream sourceFileInputStream = Files.newInputStream(sourcePath)) {
+    try (InputStream sourceFileInputStream =
+        moduleInfoBytes != null
+            ? new ByteArrayInputStream(moduleInfoBytes)
+            : Files.newInputStream(sourcePath)) {
       ClassReader clsr = new ClassReader(sourceFileInputStream);
 
       ClassNode classNode = new ClassNode(AsmUtil.SUPPORTED_ASM_OPCODE);
@@ -78,6 +78,19 @@ public final class AsmUtil {
     }
   }
 
+  protected static String initAsmClassSource(
+      @Nonnull byte[] classBytes, @Nonnull ClassVisitor classNode) {
+    return initAsmClassSource(classBytes, classNode, ClassReader.SKIP_FRAMES);
+  }
+
+  /** @param parsingOptions the options passed to {@link ClassReader#accept(ClassVisitor, int)} */
+  protected static String initAsmClassSource(
+      @Nonnull byte[] classBytes, @Nonnull ClassVisitor classNode, int parsingOptions) {
+    ClassReader clsr = new ClassReader(classBytes);
+    clsr.accept(classNode, parsingOptions);
+    return clsr.getClassName();
+  }
+
   /**
    * Determines if a type is a dword type.
    *
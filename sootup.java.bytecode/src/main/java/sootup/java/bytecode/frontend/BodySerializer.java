@@ -0,0 +1,873 @@
+package sootup.java.bytecode.frontend;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
+import javax.annotation.Nonnull;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.*;
+import sootup.core.jimple.common.constant.*;
+import sootup.core.jimple.common.expr.*;
+import sootup.core.jimple.common.ref.*;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.jimple.javabytecode.stmt.JBreakpointStmt;
+import sootup.core.jimple.javabytecode.stmt.JEnterMonitorStmt;
+import sootup.core.jimple.javabytecode.stmt.JExitMonitorStmt;
+import sootup.core.jimple.javabytecode.stmt.JRetStmt;
+import sootup.core.jimple.javabytecode.stmt.JSwitchStmt;
+import sootup.core.model.Body;
+import sootup.core.model.FullPosition;
+import sootup.core.model.Position;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.SootClassMemberSignature;
+import sootup.core.signatures.SootClassMemberSubSignature;
+import sootup.core.types.*;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.interceptors.typeresolving.types.AugmentIntegerTypes;
+import sootup.java.core.jimple.basic.JavaLocal;
+import sootup.java.core.language.JavaJimple;
+import sootup.java.core.types.JavaClassType;
+
+/**
+ * Compact binary encoding of a {@link Body} that is used by the {@link PersistentBodyCache}. The
+ * encoding covers the Jimple that is produced by the bytecode frontend and its interceptors; a
+ * {@link Body} containing anything else (e.g. {@link JPhiExpr}s or annotated {@link Local}s) is
+ * rejected with an {@link UncacheableBodyException} so that it is simply not cached.
+ *
+ * <p>Statement positions are stored as line numbers, which is all the bytecode frontend provides.
+ */
+final class BodySerializer {
+
+  // types
+  private static final byte T_PRIMITIVE = 1;
+  private static final byte T_CLASS = 2;
+  private static final byte T_ARRAY = 3;
+  private static final byte T_VOID = 4;
+  private static final byte T_NULL = 5;
+  private static final byte T_UNKNOWN = 6;
+
+  // values
+  private static final byte V_LOCAL = 1;
+  private static final byte V_INT = 2;
+  private static final byte V_LONG = 3;
+  private static final byte V_FLOAT = 4;
+  private static final byte V_DOUBLE = 5;
+  private static final byte V_BOOLEAN = 6;
+  private static final byte V_NULL = 7;
+  private static final byte V_STRING = 8;
+  private static final byte V_CLASS = 9;
+  private static final byte V_ENUM = 10;
+  private static final byte V_METHOD_HANDLE = 11;
+  private static final byte V_METHOD_TYPE = 12;
+  private static final byte V_BINOP = 20;
+  private static final byte V_NEG = 21;
+  private static final byte V_LENGTH = 22;
+  private static final byte V_CAST = 23;
+  private static final byte V_INSTANCE_OF = 24;
+  private static final byte V_NEW = 25;
+  private static final byte V_NEW_ARRAY = 26;
+  private static final byte V_NEW_MULTI_ARRAY = 27;
+  private static final byte V_STATIC_INVOKE = 28;
+  private static final byte V_SPECIAL_INVOKE = 29;
+  private static final byte V_VIRTUAL_INVOKE = 30;
+  private static final byte V_INTERFACE_INVOKE = 31;
+  private static final byte V_DYNAMIC_INVOKE = 32;
+  private static final byte V_ARRAY_REF = 40;
+  private static final byte V_INSTANCE_FIELD_REF = 41;
+  private static final byte V_STATIC_FIELD_REF = 42;
+  private static final byte V_PARAMETER_REF = 43;
+  private static final byte V_THIS_REF = 44;
+  private static final byte V_CAUGHT_EXCEPTION_REF = 45;
+
+  // stmts
+  private static final byte S_NOP = 1;
+  private static final byte S_BREAKPOINT = 2;
+  private static final byte S_GOTO = 3;
+  private static final byte S_RETURN_VOID = 4;
+  private static final byte S_RETURN = 5;
+  private static final byte S_THROW = 6;
+  private static final byte S_ENTER_MONITOR = 7;
+  private static final byte S_EXIT_MONITOR = 8;
+  private static final byte S_RET = 9;
+  private static final byte S_IF = 10;
+  private static final byte S_INVOKE = 11;
+  private static final byte S_ASSIGN = 12;
+  private static final byte S_IDENTITY = 13;
+  private static final byte S_TABLE_SWITCH = 14;
+  private static final byte S_LOOKUP_SWITCH = 15;
+
+  /** the order of this list defines the on-disk id of a binary operator. */
+  private static final List<Class<? extends AbstractBinopExpr>> BINOPS =
+      Arrays.asList(
+          JAddExpr.class,
+          JAndExpr.class,
+          JCmpExpr.class,
+          JCmpgExpr.class,
+          JCmplExpr.class,
+          JDivExpr.class,
+          JEqExpr.class,
+          JGeExpr.class,
+          JGtExpr.class,
+          JLeExpr.class,
+          JLtExpr.class,
+          JMulExpr.class,
+          JNeExpr.class,
+          JOrExpr.class,
+          JRemExpr.class,
+          JShlExpr.class,
+          JShrExpr.class,
+          JSubExpr.class,
+          JUshrExpr.class,
+          JXorExpr.class);
+
+  /**
+   * the primitive types by their name, including the augmented integer types which the TypeAssigner
+   * leaves on locals of integer constants
+   */
+  private static final Map<String, PrimitiveType> PRIMITIVE_TYPES = new HashMap<>();
+
+  static {
+    for (PrimitiveType type : JavaIdentifierFactory.getInstance().getAllPrimitiveTypes()) {
+      PRIMITIVE_TYPES.put(type.getName(), type);
+    }
+    for (PrimitiveType type :
+        Arrays.asList(
+            AugmentIntegerTypes.getInteger1(),
+            AugmentIntegerTypes.getInteger127(),
+            AugmentIntegerTypes.getInteger32767())) {
+      PRIMITIVE_TYPES.put(type.getName(), type);
+    }
+  }
+
+  private BodySerializer() {}
+
+  /**
+   * Writes the given body.
+   *
+   * @throws UncacheableBodyException if the body contains constructs this encoding does not
+   *     cover. Nothing useful has been written to {@code out} in that case.
+   */
+  static void write(@Nonnull Body body, @Nonnull DataOutputStream out) throws IOException {
+    new Writer(body, out).write();
+  }
+
+  /** Reads a body written by {@link #write(Body, DataOutputStream)}. */
+  @Nonnull
+  static Body read(
+      @Nonnull DataInputStream in,
+      @Nonnull MethodSignature methodSignature,
+      @Nonnull JavaIdentifierFactory identifierFactory)
+      throws IOException {
+    return new Reader(in, identifierFactory).read(methodSignature);
+  }
+
+  private static void writeString(@Nonnull DataOutputStream out, @Nonnull String str)
+      throws IOException {
+    // DataOutputStream.writeUTF() is limited to 64k which is not enough for string constants.
+    // The chars are written as they are since string constants may contain unpaired surrogates
+    // which any charset encoding would replace.
+    out.writeInt(str.length());
+    out.writeChars(str);
+  }
+
+  @Nonnull
+  private static String readString(@Nonnull DataInputStream in) throws IOException {
+    final char[] chars = new char[in.readInt()];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = in.readChar();
+    }
+    return new String(chars);
+  }
+
+  private static class Writer {
+    @Nonnull private final Body body;
+    @Nonnull private final DataOutputStream out;
+    @Nonnull private final Map<String, Integer> localIdx = new HashMap<>();
+    @Nonnull private final List<Local> locals = new ArrayList<>();
+    @Nonnull private final Map<Stmt, Integer> stmtIdx = new IdentityHashMap<>();
+
+    Writer(@Nonnull Body body, @Nonnull DataOutputStream out) {
+      this.body = body;
+      this.out = out;
+    }
+
+    void write() throws IOException {
+      for (Local local : body.getLocals()) {
+        if (local instanceof JavaLocal
+            && ((JavaLocal) local).getAnnotations().iterator().hasNext()) {
+          throw new UncacheableBodyException("annotated locals are not supported");
+        }
+        localIdx.put(local.getName(), locals.size());
+        locals.add(local);
+      }
+      out.writeInt(locals.size());
+      for (Local local : locals) {
+        writeString(out, local.getName());
+        writeType(local.getType());
+        out.writeBoolean(local instanceof JavaLocal);
+      }
+
+      final Position position = body.getPosition();
+      final boolean hasPosition =
+          position instanceof FullPosition && !(position instanceof NoPositionInformation);
+      out.writeBoolean(hasPosition);
+      if (hasPosition) {
+        out.writeInt(position.getFirstLine());
+        out.writeInt(position.getFirstCol());
+        out.writeInt(position.getLastLine());
+        out.writeInt(position.getLastCol());
+      }
+
+      final List<Stmt> stmts = body.getStmts();
+      for (Stmt stmt : stmts) {
+        stmtIdx.put(stmt, stmtIdx.size());
+      }
+      out.writeInt(stmts.size());
+      for (Stmt stmt : stmts) {
+        writeStmt(stmt);
+      }
+      for (Stmt stmt : stmts) {
+        if (stmt instanceof BranchingStmt) {
+          final List<Stmt> targets = body.getBranchTargetsOf((BranchingStmt) stmt);
+          out.writeInt(targets.size());
+          for (Stmt target : targets) {
+            writeStmtRef(target);
+          }
+        }
+      }
+
+      final List<Trap> traps = body.getTraps();
+      out.writeInt(traps.size());
+      for (Trap trap : traps) {
+        writeClassType(trap.getExceptionType());
+        writeStmtRef(trap.getBeginStmt());
+        writeStmtRef(trap.getEndStmt());
+        writeStmtRef(trap.getHandlerStmt());
+      }
+    }
+
+    private void writeStmtRef(@Nonnull Stmt stmt) throws IOException {
+      final Integer idx = stmtIdx.get(stmt);
+      if (idx == null) {
+        throw new UncacheableBodyException("reference to a Stmt outside of the StmtGraph");
+      }
+      out.writeInt(idx);
+    }
+
+    private void writeStmt(@Nonnull Stmt stmt) throws IOException {
+      out.writeInt(stmt.getPositionInfo().getStmtPosition().getFirstLine());
+      if (stmt instanceof JAssignStmt) {
+        out.writeByte(S_ASSIGN);
+        writeValue(((JAssignStmt) stmt).getLeftOp());
+        writeValue(((JAssignStmt) stmt).getRightOp());
+      } else if (stmt instanceof JIdentityStmt) {
+        out.writeByte(S_IDENTITY);
+        writeValue(((JIdentityStmt) stmt).getLeftOp());
+        writeValue(((JIdentityStmt) stmt).getRightOp());
+      } else if (stmt instanceof JInvokeStmt) {
+        out.writeByte(S_INVOKE);
+        writeValue(((JInvokeStmt) stmt).getInvokeExpr());
+      } else if (stmt instanceof JIfStmt) {
+        out.writeByte(S_IF);
+        writeValue(((JIfStmt) stmt).getCondition());
+      } else if (stmt instanceof JGotoStmt) {
+        out.writeByte(S_GOTO);
+      } else if (stmt instanceof JReturnStmt) {
+        out.writeByte(S_RETURN);
+        writeValue(((JReturnStmt) stmt).getOp());
+      } else if (stmt instanceof JReturnVoidStmt) {
+        out.writeByte(S_RETURN_VOID);
+      } else if (stmt instanceof JThrowStmt) {
+        out.writeByte(S_THROW);
+        writeValue(((JThrowStmt) stmt).getOp());
+      } else if (stmt instanceof JSwitchStmt) {
+        final JSwitchStmt switchStmt = (JSwitchStmt) stmt;
+        final List<IntConstant> values = switchStmt.getValues();
+        if (switchStmt.isTableSwitch() && !values.isEmpty()) {
+          out.writeByte(S_TABLE_SWITCH);
+          writeValue(switchStmt.getKey());
+          out.writeInt(values.get(0).getValue());
+          out.writeInt(values.get(values.size() - 1).getValue());
+        } else {
+          out.writeByte(S_LOOKUP_SWITCH);
+          writeValue(switchStmt.getKey());
+          out.writeInt(values.size());
+          for (IntConstant value : values) {
+            out.writeInt(value.getValue());
+          }
+        }
+      } else if (stmt instanceof JEnterMonitorStmt) {
+        out.writeByte(S_ENTER_MONITOR);
+        writeValue(((JEnterMonitorStmt) stmt).getOp());
+      } else if (stmt instanceof JExitMonitorStmt) {
+        out.writeByte(S_EXIT_MONITOR);
+        writeValue(((JExitMonitorStmt) stmt).getOp());
+      } else if (stmt instanceof JNopStmt) {
+        out.writeByte(S_NOP);
+      } else if (stmt instanceof JBreakpointStmt) {
+        out.writeByte(S_BREAKPOINT);
+      } else if (stmt instanceof JRetStmt) {
+        out.writeByte(S_RET);
+        writeValue(((JRetStmt) stmt).getStmtAddress());
+      } else {
+        throw new UncacheableBodyException("unsupported Stmt: " + stmt.getClass());
+      }
+    }
+
+    private void writeValue(@Nonnull Value value) throws IOException {
+      if (value instanceof Local) {
+        final Integer idx = localIdx.get(((Local) value).getName());
+        if (idx == null || !locals.get(idx).getType().equals(value.getType())) {
+          throw new UncacheableBodyException("Local is not declared in the Body: " + value);
+        }
+        out.writeByte(V_LOCAL);
+        out.writeInt(idx);
+      } else if (value instanceof Constant) {
+        writeConstant((Constant) value);
+      } else if (value instanceof AbstractInvokeExpr) {
+        writeInvoke((AbstractInvokeExpr) value);
+      } else if (value instanceof AbstractBinopExpr) {
+        final int op = BINOPS.indexOf(value.getClass());
+        if (op < 0) {
+          throw new UncacheableBodyException("unsupported Expr: " + value.getClass());
+        }
+        out.writeByte(V_BINOP);
+        out.writeByte(op);
+        writeValue(((AbstractBinopExpr) value).getOp1());
+        writeValue(((AbstractBinopExpr) value).getOp2());
+      } else if (value instanceof JNegExpr) {
+        out.writeByte(V_NEG);
+        writeValue(((JNegExpr) value).getOp());
+      } else if (value instanceof JLengthExpr) {
+        out.writeByte(V_LENGTH);
+        writeValue(((JLengthExpr) value).getOp());
+      } else if (value instanceof JCastExpr) {
+        out.writeByte(V_CAST);
+        writeValue(((JCastExpr) value).getOp());
+        writeType(value.getType());
+      } else if (value instanceof JInstanceOfExpr) {
+        out.writeByte(V_INSTANCE_OF);
+        writeValue(((JInstanceOfExpr) value).getOp());
+        writeType(((JInstanceOfExpr) value).getCheckType());
+      } else if (value instanceof JNewExpr) {
+        out.writeByte(V_NEW);
+        writeClassType(((JNewExpr) value).getType());
+      } else if (value instanceof JNewArrayExpr) {
+        out.writeByte(V_NEW_ARRAY);
+        writeType(((JNewArrayExpr) value).getBaseType());
+        writeValue(((JNewArrayExpr) value).getSize());
+      } else if (value instanceof JNewMultiArrayExpr) {
+        out.writeByte(V_NEW_MULTI_ARRAY);
+        writeType(((JNewMultiArrayExpr) value).getBaseType());
+        writeValues(((JNewMultiArrayExpr) value).getSizes());
+      } else if (value instanceof JArrayRef) {
+        out.writeByte(V_ARRAY_REF);
+        writeValue(((JArrayRef) value).getBase());
+        writeValue(((JArrayRef) value).getIndex());
+      } else if (value instanceof JInstanceFieldRef) {
+        out.writeByte(V_INSTANCE_FIELD_REF);
+        writeValue(((JInstanceFieldRef) value).getBase());
+        writeFieldSignature(((JInstanceFieldRef) value).getFieldSignature());
+      } else if (value instanceof JStaticFieldRef) {
+        out.writeByte(V_STATIC_FIELD_REF);
+        writeFieldSignature(((JStaticFieldRef) value).getFieldSignature());
+      } else if (value instanceof JParameterRef) {
+        out.writeByte(V_PARAMETER_REF);
+        writeType(value.getType());
+        out.writeInt(((JParameterRef) value).getIndex());
+      } else if (value instanceof JThisRef) {
+        out.writeByte(V_THIS_REF);
+        writeClassType((ClassType) value.getType());
+      } else if (value instanceof JCaughtExceptionRef) {
+        out.writeByte(V_CAUGHT_EXCEPTION_REF);
+        writeType(value.getType());
+      } else {
+        throw new UncacheableBodyException("unsupported Value: " + value.getClass());
+      }
+    }
+
+    private void writeValues(@Nonnull List<? extends Value> values) throws IOException {
+      out.writeInt(values.size());
+      for (Value value : values) {
+        writeValue(value);
+      }
+    }
+
+    private void writeInvoke(@Nonnull AbstractInvokeExpr invoke) throws IOException {
+      if (invoke instanceof JDynamicInvokeExpr) {
+        final JDynamicInvokeExpr dynamicInvoke = (JDynamicInvokeExpr) invoke;
+        out.writeByte(V_DYNAMIC_INVOKE);
+        writeMethodSignature(dynamicInvoke.getBootstrapMethodSignature());
+        writeValues(dynamicInvoke.getBootstrapArgs());
+        out.writeInt(dynamicInvoke.getHandleTag());
+      } else if (invoke instanceof JStaticInvokeExpr) {
+        out.writeByte(V_STATIC_INVOKE);
+      } else if (invoke instanceof AbstractInstanceInvokeExpr) {
+        if (invoke instanceof JSpecialInvokeExpr) {
+          out.writeByte(V_SPECIAL_INVOKE);
+        } else if (invoke instanceof JVirtualInvokeExpr) {
+          out.writeByte(V_VIRTUAL_INVOKE);
+        } else if (invoke instanceof JInterfaceInvokeExpr) {
+          out.writeByte(V_INTERFACE_INVOKE);
+        } else {
+          throw new UncacheableBodyException("unsupported Expr: " + invoke.getClass());
+        }
+        writeValue(((AbstractInstanceInvokeExpr) invoke).getBase());
+      } else {
+        throw new UncacheableBodyException("unsupported Expr: " + invoke.getClass());
+      }
+      writeMethodSignature(invoke.getMethodSignature());
+      writeValues(invoke.getArgs());
+    }
+
+    private void writeConstant(@Nonnull Constant constant) throws IOException {
+      if (constant instanceof IntConstant) {
+        out.writeByte(V_INT);
+        out.writeInt(((IntConstant) constant).getValue());
+      } else if (constant instanceof LongConstant) {
+        out.writeByte(V_LONG);
+        out.writeLong(((LongConstant) constant).getValue());
+      } else if (constant instanceof FloatConstant) {
+        out.writeByte(V_FLOAT);
+        out.writeFloat(((FloatConstant) constant).getValue());
+      } else if (constant instanceof DoubleConstant) {
+        out.writeByte(V_DOUBLE);
+        out.writeDouble(((DoubleConstant) constant).getValue());
+      } else if (constant instanceof BooleanConstant) {
+        out.writeByte(V_BOOLEAN);
+        out.writeBoolean(constant == BooleanConstant.getTrue());
+      } else if (constant instanceof NullConstant) {
+        out.writeByte(V_NULL);
+      } else if (constant instanceof StringConstant) {
+        out.writeByte(V_STRING);
+        writeString(out, ((StringConstant) constant).getValue());
+        writeType(constant.getType());
+      } else if (constant instanceof ClassConstant) {
+        out.writeByte(V_CLASS);
+        writeString(out, ((ClassConstant) constant).getValue());
+        writeType(constant.getType());
+      } else if (constant instanceof EnumConstant) {
+        out.writeByte(V_ENUM);
+        writeString(out, ((EnumConstant) constant).getValue());
+        writeClassType((ClassType) constant.getType());
+      } else if (constant instanceof MethodHandle) {
+        final MethodHandle handle = (MethodHandle) constant;
+        out.writeByte(V_METHOD_HANDLE);
+        out.writeInt(handle.getKind().getValue());
+        if (handle.isMethodRef()) {
+          writeMethodSignature((MethodSignature) handle.getReferenceSignature());
+        } else {
+          writeFieldSignature((FieldSignature) handle.getReferenceSignature());
+        }
+      } else if (constant instanceof MethodType) {
+        out.writeByte(V_METHOD_TYPE);
+        writeTypes(((MethodType) constant).getParameterTypes());
+        writeType(((MethodType) constant).getReturnType());
+      } else {
+        throw new UncacheableBodyException("unsupported Constant: " + constant.getClass());
+      }
+    }
+
+    private void writeMethodSignature(@Nonnull MethodSignature signature) throws IOException {
+      writeClassType(signature.getDeclClassType());
+      writeString(out, signature.getName());
+      writeType(signature.getType());
+      writeTypes(signature.getParameterTypes());
+    }
+
+    private void writeFieldSignature(@Nonnull FieldSignature signature) throws IOException {
+      writeClassType(signature.getDeclClassType());
+      writeString(out, signature.getName());
+      writeType(signature.getType());
+    }
+
+    private void writeTypes(@Nonnull List<Type> types) throws IOException {
+      out.writeInt(types.size());
+      for (Type type : types) {
+        writeType(type);
+      }
+    }
+
+    private void writeClassType(@Nonnull ClassType type) throws IOException {
+      // subclasses (e.g. module or annotation types) carry information we do not encode
+      if (type.getClass() != JavaClassType.class) {
+        throw new UncacheableBodyException("unsupported ClassType: " + type.getClass());
+      }
+      writeString(out, type.getFullyQualifiedName());
+    }
+
+    private void writeType(@Nonnull Type type) throws IOException {
+      if (type instanceof ClassType) {
+        out.writeByte(T_CLASS);
+        writeClassType((ClassType) type);
+      } else if (type instanceof PrimitiveType) {
+        final String name = ((PrimitiveType) type).getName();
+        if (PRIMITIVE_TYPES.get(name) != type) {
+          throw new UncacheableBodyException("unsupported PrimitiveType: " + type.getClass());
+        }
+        out.writeByte(T_PRIMITIVE);
+        writeString(out, name);
+      } else if (type instanceof ArrayType) {
+        out.writeByte(T_ARRAY);
+        writeType(((ArrayType) type).getBaseType());
+        out.writeInt(((ArrayType) type).getDimension());
+      } else if (type instanceof VoidType) {
+        out.writeByte(T_VOID);
+      } else if (type instanceof NullType) {
+        out.writeByte(T_NULL);
+      } else if (type instanceof UnknownType) {
+        out.writeByte(T_UNKNOWN);
+      } else {
+        throw new UncacheableBodyException("unsupported Type: " + type.getClass());
+      }
+    }
+  }
+
+  private static class Reader {
+    @Nonnull private final DataInputStream in;
+    @Nonnull private final JavaIdentifierFactory identifierFactory;
+    @Nonnull private final List<Local> locals = new ArrayList<>();
+
+    Reader(@Nonnull DataInputStream in, @Nonnull JavaIdentifierFactory identifierFactory) {
+      this.in = in;
+      this.identifierFactory = identifierFactory;
+    }
+
+    @Nonnull
+    Body read(@Nonnull MethodSignature methodSignature) throws IOException {
+      final int localCount = in.readInt();
+      for (int i = 0; i < localCount; i++) {
+        final String name = readString(in);
+        final Type type = readType();
+        locals.add(in.readBoolean() ? JavaJimple.newLocal(name, type) : new Local(name, type));
+      }
+
+      final Position position =
+          in.readBoolean()
+              ? new FullPosition(in.readInt(), in.readInt(), in.readInt(), in.readInt())
+              : NoPositionInformation.getInstance();
+
+      final int stmtCount = in.readInt();
+      final List<Stmt> stmts = new ArrayList<>(stmtCount);
+      for (int i = 0; i < stmtCount; i++) {
+        stmts.add(readStmt());
+      }
+      final Map<BranchingStmt, List<Stmt>> branchingMap = new HashMap<>();
+      for (Stmt stmt : stmts) {
+        if (stmt instanceof BranchingStmt) {
+          final int targetCount = in.readInt();
+          final List<Stmt> targets = new ArrayList<>(targetCount);
+          for (int i = 0; i < targetCount; i++) {
+            targets.add(stmts.get(in.readInt()));
+          }
+          branchingMap.put((BranchingStmt) stmt, targets);
+        }
+      }
+
+      final int trapCount = in.readInt();
+      final List<Trap> traps = new ArrayList<>(trapCount);
+      for (int i = 0; i < trapCount; i++) {
+        traps.add(
+            Jimple.newTrap(
+                readClassType(),
+                stmts.get(in.readInt()),
+                stmts.get(in.readInt()),
+                stmts.get(in.readInt())));
+      }
+
+      final MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+      graph.initializeWith(stmts, branchingMap, traps);
+      return Body.builder(graph)
+          .setMethodSignature(methodSignature)
+          .setLocals(new LinkedHashSet<>(locals))
+          .setPosition(position)
+          .build();
+    }
+
+    @Nonnull
+    private Stmt readStmt() throws IOException {
+      final int line = in.readInt();
+      final StmtPositionInfo pos =
+          line > 0 ? new SimpleStmtPositionInfo(line) : StmtPositionInfo.getNoStmtPositionInfo();
+      final byte tag = in.readByte();
+      switch (tag) {
+        case S_ASSIGN:
+          return Jimple.newAssignStmt((LValue) readValue(), readValue(), pos);
+        case S_IDENTITY:
+          return Jimple.newIdentityStmt((Local) readValue(), (IdentityRef) readValue(), pos);
+        case S_INVOKE:
+          return Jimple.newInvokeStmt((AbstractInvokeExpr) readValue(), pos);
+        case S_IF:
+          return Jimple.newIfStmt((AbstractConditionExpr) readValue(), pos);
+        case S_GOTO:
+          return Jimple.newGotoStmt(pos);
+        case S_RETURN:
+          return Jimple.newReturnStmt(readImmediate(), pos);
+        case S_RETURN_VOID:
+          return Jimple.newReturnVoidStmt(pos);
+        case S_THROW:
+          return Jimple.newThrowStmt(readImmediate(), pos);
+        case S_TABLE_SWITCH:
+          return Jimple.newTableSwitchStmt(readImmediate(), in.readInt(), in.readInt(), pos);
+        case S_LOOKUP_SWITCH:
+          {
+            final Immediate key = readImmediate();
+            final int valueCount = in.readInt();
+            final List<IntConstant> values = new ArrayList<>(valueCount);
+            for (int i = 0; i < valueCount; i++) {
+              values.add(IntConstant.getInstance(in.readInt()));
+            }
+            return Jimple.newLookupSwitchStmt(key, values, pos);
+          }
+        case S_ENTER_MONITOR:
+          return Jimple.newEnterMonitorStmt(readImmediate(), pos);
+        case S_EXIT_MONITOR:
+          return Jimple.newExitMonitorStmt(readImmediate(), pos);
+        case S_NOP:
+          return Jimple.newNopStmt(pos);
+        case S_BREAKPOINT:
+          return Jimple.newBreakpointStmt(pos);
+        case S_RET:
+          return Jimple.newRetStmt(readImmediate(), pos);
+        default:
+          throw new IOException("corrupt body cache entry: unknown Stmt tag " + tag);
+      }
+    }
+
+    @Nonnull
+    private Immediate readImmediate() throws IOException {
+      return (Immediate) readValue();
+    }
+
+    @Nonnull
+    private List<Immediate> readImmediates() throws IOException {
+      final int count = in.readInt();
+      final List<Immediate> values = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        values.add(readImmediate());
+      }
+      return values;
+    }
+
+    @Nonnull
+    private Local readLocal() throws IOException {
+      return (Local) readValue();
+    }
+
+    @Nonnull
+    private Value readValue() throws IOException {
+      final byte tag = in.readByte();
+      switch (tag) {
+        case V_LOCAL:
+          return locals.get(in.readInt());
+        case V_INT:
+          return IntConstant.getInstance(in.readInt());
+        case V_LONG:
+          return LongConstant.getInstance(in.readLong());
+        case V_FLOAT:
+          return FloatConstant.getInstance(in.readFloat());
+        case V_DOUBLE:
+          return DoubleConstant.getInstance(in.readDouble());
+        case V_BOOLEAN:
+          return BooleanConstant.getInstance(in.readBoolean());
+        case V_NULL:
+          return NullConstant.getInstance();
+        case V_STRING:
+          return new StringConstant(readString(in), readType());
+        case V_CLASS:
+          return new ClassConstant(readString(in), readType());
+        case V_ENUM:
+          return new EnumConstant(readString(in), readClassType());
+        case V_METHOD_HANDLE:
+          {
+            final int kind = in.readInt();
+            final SootClassMemberSignature<? extends SootClassMemberSubSignature> ref =
+                MethodHandle.isMethodRef(kind) ? readMethodSignature() : readFieldSignature();
+            return JavaJimple.getInstance().newMethodHandle(ref, kind);
+          }
+        case V_METHOD_TYPE:
+          return JavaJimple.getInstance().newMethodType(readTypes(), readType());
+        case V_BINOP:
+          return readBinop(in.readByte(), readImmediate(), readImmediate());
+        case V_NEG:
+          return Jimple.newNegExpr(readImmediate());
+        case V_LENGTH:
+          return Jimple.newLengthExpr(readImmediate());
+        case V_CAST:
+          return Jimple.newCastExpr(readImmediate(), readType());
+        case V_INSTANCE_OF:
+          return Jimple.newInstanceOfExpr(readImmediate(), readType());
+        case V_NEW:
+          return Jimple.newNewExpr(readClassType());
+        case V_NEW_ARRAY:
+          return JavaJimple.getInstance().newNewArrayExpr(readType(), readImmediate());
+        case V_NEW_MULTI_ARRAY:
+          return Jimple.newNewMultiArrayExpr((ArrayType) readType(), readImmediates());
+        case V_STATIC_INVOKE:
+          return Jimple.newStaticInvokeExpr(readMethodSignature(), readImmediates());
+        case V_SPECIAL_INVOKE:
+          return Jimple.newSpecialInvokeExpr(readLocal(), readMethodSignature(), readImmediates());
+        case V_VIRTUAL_INVOKE:
+          return Jimple.newVirtualInvokeExpr(readLocal(), readMethodSignature(), readImmediates());
+        case V_INTERFACE_INVOKE:
+          return Jimple.newInterfaceInvokeExpr(
+              readLocal(), readMethodSignature(), readImmediates());
+        case V_DYNAMIC_INVOKE:
+          {
+            final MethodSignature bootstrapMethod = readMethodSignature();
+            final List<Immediate> bootstrapArgs = readImmediates();
+            final int handleTag = in.readInt();
+            return Jimple.newDynamicInvokeExpr(
+                bootstrapMethod, bootstrapArgs, readMethodSignature(), handleTag, readImmediates());
+          }
+        case V_ARRAY_REF:
+          return JavaJimple.getInstance().newArrayRef(readLocal(), readImmediate());
+        case V_INSTANCE_FIELD_REF:
+          return Jimple.newInstanceFieldRef(readLocal(), readFieldSignature());
+        case V_STATIC_FIELD_REF:
+          return Jimple.newStaticFieldRef(readFieldSignature());
+        case V_PARAMETER_REF:
+          return Jimple.newParameterRef(readType(), in.readInt());
+        case V_THIS_REF:
+          return Jimple.newThisRef(readClassType());
+        case V_CAUGHT_EXCEPTION_REF:
+          return new JCaughtExceptionRef(readType());
+        default:
+          throw new IOException("corrupt body cache entry: unknown Value tag " + tag);
+      }
+    }
+
+    @Nonnull
+    private AbstractBinopExpr readBinop(int op, @Nonnull Immediate op1, @Nonnull Immediate op2)
+        throws IOException {
+      if (op < 0 || op >= BINOPS.size()) {
+        throw new IOException("corrupt body cache entry: unknown operator " + op);
+      }
+      final Class<? extends AbstractBinopExpr> binop = BINOPS.get(op);
+      if (binop == JAddExpr.class) {
+        return Jimple.newAddExpr(op1, op2);
+      } else if (binop == JAndExpr.class) {
+        return Jimple.newAndExpr(op1, op2);
+      } else if (binop == JCmpExpr.class) {
+        return Jimple.newCmpExpr(op1, op2);
+      } else if (binop == JCmpgExpr.class) {
+        return Jimple.newCmpgExpr(op1, op2);
+      } else if (binop == JCmplExpr.class) {
+        return Jimple.newCmplExpr(op1, op2);
+      } else if (binop == JDivExpr.class) {
+        return Jimple.newDivExpr(op1, op2);
+      } else if (binop == JEqExpr.class) {
+        return Jimple.newEqExpr(op1, op2);
+      } else if (binop == JGeExpr.class) {
+        return Jimple.newGeExpr(op1, op2);
+      } else if (binop == JGtExpr.class) {
+        return Jimple.newGtExpr(op1, op2);
+      } else if (binop == JLeExpr.class) {
+        return Jimple.newLeExpr(op1, op2);
+      } else if (binop == JLtExpr.class) {
+        return Jimple.newLtExpr(op1, op2);
+      } else if (binop == JMulExpr.class) {
+        return Jimple.newMulExpr(op1, op2);
+      } else if (binop == JNeExpr.class) {
+        return Jimple.newNeExpr(op1, op2);
+      } else if (binop == JOrExpr.class) {
+        return Jimple.newOrExpr(op1, op2);
+      } else if (binop == JRemExpr.class) {
+        return Jimple.newRemExpr(op1, op2);
+      } else if (binop == JShlExpr.class) {
+        return Jimple.newShlExpr(op1, op2);
+      } else if (binop == JShrExpr.class) {
+        return Jimple.newShrExpr(op1, op2);
+      } else if (binop == JSubExpr.class) {
+        return Jimple.newSubExpr(op1, op2);
+      } else if (binop == JUshrExpr.class) {
+        return Jimple.newUshrExpr(op1, op2);
+      } else {
+        return Jimple.newXorExpr(op1, op2);
+      }
+    }
+
+    @Nonnull
+    private MethodSignature readMethodSignature() throws IOException {
+      final ClassType declaringClass = readClassType();
+      final String name = readString(in);
+      final Type returnType = readType();
+      return identifierFactory.getMethodSignature(declaringClass, name, returnType, readTypes());
+    }
+
+    @Nonnull
+    private FieldSignature readFieldSignature() throws IOException {
+      final ClassType declaringClass = readClassType();
+      final String name = readString(in);
+      return identifierFactory.getFieldSignature(name, declaringClass, readType());
+    }
+
+    @Nonnull
+    private List<Type> readTypes() throws IOException {
+      final int count = in.readInt();
+      final List<Type> types = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        types.add(readType());
+      }
+      return types;
+    }
+
+    @Nonnull
+    private ClassType readClassType() throws IOException {
+      return identifierFactory.getClassType(readString(in));
+    }
+
+    @Nonnull
+    private Type readType() throws IOException {
+      final byte tag = in.readByte();
+      switch (tag) {
+        case T_CLASS:
+          return readClassType();
+        case T_PRIMITIVE:
+          {
+            final String name = readString(in);
+            final PrimitiveType type = PRIMITIVE_TYPES.get(name);
+            if (type == null) {
+              throw new IOException("corrupt body cache entry: " + name);
+            }
+            return type;
+          }
+        case T_ARRAY:
+          return identifierFactory.getArrayType(readType(), in.readInt());
+        case T_VOID:
+          return VoidType.getInstance();
+        case T_NULL:
+          return NullType.getInstance();
+        case T_UNKNOWN:
+          return UnknownType.getInstance();
+        default:
+          throw new IOException("corrupt body cache entry: unknown Type tag " + tag);
+      }
+    }
+  }
+}
@@ -0,0 +1,282 @@
+package sootup.java.bytecode.frontend;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Suppliers;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.transform.BodyInterceptor;
+import sootup.java.core.JavaIdentifierFactory;
+
+/**
+ * Stores the {@link Body}s created by the bytecode frontend on disk so that subsequent runs can
+ * skip the bytecode to Jimple conversion and the {@link BodyInterceptor}s for classes that did not
+ * change.
+ *
+ * <p>An entry is keyed by the SHA-256 of the bytes of its .class file, the identity of the
+ * interceptor chain that was applied and the {@link MethodSignature}. The identity of the chain
+ * covers the version of the encoding, the class files of the frontend, and the class file and the
+ * {@link BodyInterceptor#getConfigurationKey() configuration key} of every {@link BodyInterceptor}
+ * in order. Changing either invalidates the entry implicitly - such entries are never read, they
+ * just stay on disk until the directory is cleaned. Bodies of a chain with an interceptor that
+ * provides no configuration key are not cached.
+ *
+ * <p>The key does not cover the other classes of the view: interceptors like the TypeAssigner
+ * consult the class hierarchy, so a cached body can be stale if e.g. a superclass or the type of a
+ * field that is referenced by the method changed since the entry was written. Use a separate
+ * directory per classpath, or clean it when dependencies change, if that matters.
+ *
+ * <p>The cache is used for the classes of an input location that is configured with it e.g. via
+ * {@link sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation#setPersistentBodyCache},
+ * or of an {@link AsmJavaClassProvider} that is created with it. Failing to read or write an entry
+ * is never fatal: the body is converted from bytecode as usual.
+ */
+public class PersistentBodyCache {
+
+  /** increment whenever the encoding of {@link BodySerializer} changes. */
+  private static final int FORMAT_VERSION = 2;
+
+  private static final int MAGIC = 0x4a424459; // "JBDY"
+  private static final String ENTRY_SUFFIX = ".jbody";
+
+  /** the classes that determine the Jimple that is created from the bytecode */
+  private static final Class<?>[] FRONTEND_CLASSES = {
+    AsmJavaClassProvider.class,
+    AsmMethodSource.class,
+    AsmUtil.class,
+    BranchedInsnInfo.class,
+    Operand.class,
+    OperandMerging.class,
+    OperandStack.class,
+    BodySerializer.class
+  };
+
+  private static final @Nonnull Logger logger = LoggerFactory.getLogger(PersistentBodyCache.class);
+
+  private static final ClassValue<Optional<String>> classFileHashes =
+      new ClassValue<Optional<String>>() {
+        @Override
+        protected Optional<String> computeValue(Class<?> type) {
+          return hashClassFile(type);
+        }
+      };
+
+  @Nonnull
+  private static final Supplier<Optional<String>> frontendVersion =
+      Suppliers.memoize(PersistentBodyCache::computeFrontendVersion);
+
+  @Nonnull private final Path directory;
+  @Nonnull private final AtomicLong hits = new AtomicLong();
+  @Nonnull private final AtomicLong misses = new AtomicLong();
+
+  public PersistentBodyCache(@Nonnull Path directory) {
+    this.directory = directory;
+  }
+
+  @Nonnull
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /** @return the number of bodies that were loaded from this cache. */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /** @return the number of bodies that were looked up but not found in this cache. */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /** @return the key of a class file i.e. the hex encoded SHA-256 of its contents. */
+  @Nonnull
+  static String hashClassBytes(@Nonnull byte[] classBytes) {
+    return Hashing.sha256().hashBytes(classBytes).toString();
+  }
+
+  @Nonnull
+  private static Optional<String> hashClassFile(@Nonnull Class<?> type) {
+    final String name = type.getName();
+    try (InputStream in =
+        type.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+      if (in == null) {
+        // e.g. a lambda or a generated class
+        return Optional.empty();
+      }
+      return Optional.of(hashClassBytes(ByteStreams.toByteArray(in)));
+    } catch (IOException e) {
+      return Optional.empty();
+    }
+  }
+
+  @Nonnull
+  private static Optional<String> computeFrontendVersion() {
+    final Hasher hasher = Hashing.sha256().newHasher().putInt(FORMAT_VERSION);
+    for (Class<?> frontendClass : FRONTEND_CLASSES) {
+      final Optional<String> classHash = classFileHashes.get(frontendClass);
+      if (!classHash.isPresent()) {
+        logger.warn("Can not read the class file of " + frontendClass + ", bodies are not cached.");
+        return Optional.empty();
+      }
+      hasher.putString(classHash.get(), StandardCharsets.UTF_8);
+    }
+    return Optional.of(hasher.hash().toString());
+  }
+
+  /** @return the identity of the interceptor chain or an empty Optional if it has none. */
+  @Nonnull
+  private static Optional<String> chainId(@Nonnull List<BodyInterceptor> bodyInterceptors) {
+    final Optional<String> version = frontendVersion.get();
+    if (!version.isPresent()) {
+      return Optional.empty();
+    }
+    final Hasher hasher =
+        Hashing.sha256().newHasher().putString(version.get(), StandardCharsets.UTF_8);
+    for (BodyInterceptor bodyInterceptor : bodyInterceptors) {
+      final Optional<String> classHash = classFileHashes.get(bodyInterceptor.getClass());
+      final Optional<String> configurationKey = bodyInterceptor.getConfigurationKey();
+      if (!classHash.isPresent() || !configurationKey.isPresent()) {
+        logger.debug(
+            "The configuration of " + bodyInterceptor + " is unknown, bodies are not cached.");
+        return Optional.empty();
+      }
+      hasher
+          .putString(bodyInterceptor.getClass().getName(), StandardCharsets.UTF_8)
+          .putByte((byte) 0)
+          .putString(classHash.get(), StandardCharsets.UTF_8)
+          .putString(configurationKey.get(), StandardCharsets.UTF_8)
+          .putByte((byte) 0);
+    }
+    return Optional.of(hasher.hash().toString());
+  }
+
+  @Nonnull
+  private Optional<Path> entryPath(
+      @Nonnull String classHash,
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nonnull MethodSignature signature) {
+    final String methodHash =
+        Hashing.sha256().hashString(signature.toString(), StandardCharsets.UTF_8).toString();
+    return chainId(bodyInterceptors)
+        .map(
+            chainId ->
+                directory.resolve(chainId).resolve(classHash).resolve(methodHash + ENTRY_SUFFIX));
+  }
+
+  /** @return the cached body of the given method or an empty Optional if there is no entry. */
+  @Nonnull
+  Optional<Body> load(
+      @Nonnull String classHash,
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nonnull MethodSignature signature,
+      @Nonnull JavaIdentifierFactory identifierFactory) {
+    final Optional<Path> entryPath = entryPath(classHash, bodyInterceptors, signature);
+    if (!entryPath.isPresent()) {
+      return Optional.empty();
+    }
+    final Path entry = entryPath.get();
+    if (!Files.isRegularFile(entry)) {
+      misses.incrementAndGet();
+      return Optional.empty();
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+      if (in.readInt() != MAGIC
+          || in.readInt() != FORMAT_VERSION
+          || !in.readUTF().equals(signature.toString())) {
+        misses.incrementAndGet();
+        return Optional.empty();
+      }
+      final Body body = BodySerializer.read(in, signature, identifierFactory);
+      hits.incrementAndGet();
+      return Optional.of(body);
+    } catch (IOException | RuntimeException e) {
+      logger.debug("Discarding unreadable body cache entry " + entry, e);
+      misses.incrementAndGet();
+      try {
+        Files.deleteIfExists(entry);
+      } catch (IOException ignored) {
+        // the entry is overwritten by the next store() anyway
+      }
+      return Optional.empty();
+    }
+  }
+
+  /** Stores the given body; Bodies that can not be encoded are silently skipped. */
+  void store(
+      @Nonnull String classHash,
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nonnull Body body) {
+    final MethodSignature signature = body.getMethodSignature();
+    final Optional<Path> entryPath = entryPath(classHash, bodyInterceptors, signature);
+    if (!entryPath.isPresent()) {
+      return;
+    }
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeUTF(signature.toString());
+      BodySerializer.write(body, out);
+    } catch (UncacheableBodyException e) {
+      logger.debug("Body of " + signature + " is not cacheable: " + e.getMessage());
+      return;
+    } catch (IOException e) {
+      // not thrown by a ByteArrayOutputStream
+      throw new UncheckedIOException(e);
+    }
+
+    final Path entry = entryPath.get();
+    try {
+      Files.createDirectories(entry.getParent());
+      // write to a temporary file first so that concurrent readers never see a partial entry
+      final Path tmp = Files.createTempFile(entry.getParent(), "body", ".tmp");
+      try {
+        Files.write(tmp, bytes.toByteArray());
+        try {
+          Files.move(tmp, entry, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+    } catch (IOException e) {
+      logger.debug("Could not write body cache entry " + entry, e);
+    }
+  }
+}
@@ -22,26 +22,44 @@ package sootup.java.bytecode.inputlocation;
  * #L%
  */
 
+import com.google.common.base.Suppliers;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.cache.RemovalNotification;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import sootup.core.frontend.ClassHeader;
+import sootup.core.frontend.ResolveException;
+import sootup.core.inputlocation.FileType;
 import sootup.core.model.SourceType;
 import sootup.core.transform.BodyInterceptor;
 import sootup.core.types.ClassType;
+import sootup.core.util.StreamUtils;
 import sootup.core.views.View;
 import sootup.java.bytecode.frontend.AsmJavaClassProvider;
+import sootup.java.core.JavaModuleIdentifierFactory;
 import sootup.java.core.JavaSootClassSource;
 import sootup.java.core.interceptors.BytecodeBodyInterceptors;
-import sootup.java.core.types.JavaClassType;
 
+/**
+ * An input location for the classes of a jar (or any other zip archive). The archive is memory
+ * mapped and its central directory is indexed once, see {@link MappedZipArchive}, so the classes
+ * are read from the mapping without a zip {@link FileSystem}.
+ *
+ * <p>The source path of a class read from the archive is the path of its entry in the zip {@link
+ * FileSystem} of the archive, e.g. "/java/lang/Object.class" with the URI
+ * "jar:file:///.../rt.jar!/java/lang/Object.class". The file system is only opened to create these
+ * paths, the classes themselves are read from the mapping.
+ */
 public class ArchiveBasedAnalysisInputLocation extends PathBasedAnalysisInputLocation {
 
   // We cache the FileSystem instances as their creation is expensive.
@@ -74,6 +92,20 @@ public class ArchiveBasedAnalysisInputLocation extends PathBasedAnalysisInputLoc
                     }
                   }));
 
+  protected static final String VERSIONED_ENTRY_PREFIX = "META-INF/versions/";
+
+  /** mapped on first use; shared with the locations of the versions of a multi release jar. */
+  @Nonnull protected final Supplier<MappedZipArchive> archive;
+
+  /** the prefix of the entries of this location e.g. "META-INF/versions/9/"; empty for the root */
+  @Nonnull private final String rootEntry;
+
+  /** the zip file system of the archive, which provides the source paths of the classes */
+  @Nonnull private final Supplier<FileSystem> fileSystem = Suppliers.memoize(this::openFileSystem);
+
+  @Nonnull
+  private final Supplier<Set<String>> packageNames = Suppliers.memoize(this::listPackageNames);
+
   public ArchiveBasedAnalysisInputLocation(@Nonnull Path path, @Nonnull SourceType srcType) {
     this(path, srcType, BytecodeBodyInterceptors.Default.getBodyInterceptors());
   }
@@ -90,32 +122,177 @@ public class ArchiveBasedAnalysisInputLocation extends PathBasedAnalysisInputLoc
       SourceType srcType,
       List<BodyInterceptor> bodyInterceptors,
       Collection<Path> ignoredPaths) {
+    this(path, mapLazily(path), "", srcType, bodyInterceptors, ignoredPaths);
+  }
+
+  /**
+   * @param archive the (lazily) mapped archive at path
+   * @param rootEntry the prefix of the entries which are the classes of this location, e.g.
+   *     "META-INF/versions/9/" or "" for the root of the archive
+   */
+  protected ArchiveBasedAnalysisInputLocation(
+      @Nonnull Path path,
+      @Nonnull Supplier<MappedZipArchive> archive,
+      @Nonnull String rootEntry,
+      @Nonnull SourceType srcType,
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nonnull Collection<Path> ignoredPaths) {
     super(path, srcType, bodyInterceptors, ignoredPaths);
+    this.archive = archive;
+    this.rootEntry = rootEntry;
+  }
+
+  @Nonnull
+  protected static Supplier<MappedZipArchive> mapLazily(@Nonnull Path path) {
+    return Suppliers.memoize(
+        () -> {
+          try {
+            return MappedZipArchive.open(path);
+          } catch (IOException e) {
+            throw new RuntimeException("Could not open the archive " + path, e);
+          }
+        });
+  }
+
+  @Nonnull
+  MappedZipArchive getArchive() {
+    return archive.get();
   }
 
   @Override
   @Nonnull
   public Optional<JavaSootClassSource> getClassSource(@Nonnull ClassType type, @Nonnull View view) {
-    try {
-      FileSystem fs = fileSystemCache.get(path);
-      final Path archiveRoot = fs.getPath("/");
-      return getClassSourceInternal(
-          (JavaClassType) type, archiveRoot, new AsmJavaClassProvider(view));
-    } catch (ExecutionException e) {
-      throw new RuntimeException("Failed to retrieve file system from cache for " + path, e);
-    }
+    final String entryName =
+        rootEntry
+            + type.getFullyQualifiedName().replace('.', '/')
+            + FileType.CLASS.getExtensionWithDot();
+    return readEntry(entryName)
+        .flatMap(
+            classFile ->
+                createClassProvider(view)
+                    .createClassSource(this, toSourcePath(entryName), type, classFile))
+        .map(src -> (JavaSootClassSource) src);
   }
 
   @Override
   @Nonnull
   public Collection<JavaSootClassSource> getClassSources(@Nonnull View view) {
+    return getClassSources(view, false);
+  }
+
+  @Override
+  @Nonnull
+  public Collection<JavaSootClassSource> getClassSources(@Nonnull View view, boolean parallel) {
+    final AsmJavaClassProvider classProvider = createClassProvider(view);
+    return stream(listClassEntries(), parallel)
+        .flatMap(
+            entryName -> {
+              final ClassType type =
+                  view.getIdentifierFactory().getClassType(toClassName(entryName));
+              return StreamUtils.optionalToStream(
+                  readEntry(entryName)
+                      .flatMap(
+                          classFile ->
+                              classProvider.createClassSource(
+                                  this, toSourcePath(entryName), type, classFile)));
+            })
+        .map(src -> (JavaSootClassSource) src)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  @Nonnull
+  public Collection<ClassHeader> getClassHeaders(@Nonnull View view) {
+    final AsmJavaClassProvider classProvider = createClassProvider(view);
+    return listClassEntries().stream()
+        .flatMap(
+            entryName -> {
+              final ClassType type =
+                  view.getIdentifierFactory().getClassType(toClassName(entryName));
+              return StreamUtils.optionalToStream(
+                  readEntry(entryName)
+                      .flatMap(classFile -> classProvider.createClassHeader(classFile, type)));
+            })
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  @Nonnull
+  public Optional<Set<String>> getPackageNames() {
+    return Optional.of(packageNames.get());
+  }
+
+  @Nonnull
+  private Optional<ByteBuffer> readEntry(@Nonnull String entryName) {
+    try {
+      return archive.get().getEntry(entryName);
+    } catch (IOException e) {
+      throw new ResolveException("Could not read " + entryName + " from the archive", path, e);
+    }
+  }
+
+  @Nonnull
+  private FileSystem openFileSystem() {
     try {
-      FileSystem fs = fileSystemCache.get(path);
-      final Path archiveRoot = fs.getPath("/");
-      return walkDirectory(
-          archiveRoot, view.getIdentifierFactory(), new AsmJavaClassProvider(view));
+      return fileSystemCache.get(path);
     } catch (ExecutionException e) {
       throw new RuntimeException("Failed to retrieve file system from cache for " + path, e);
     }
   }
+
+  @Nonnull
+  private Path toSourcePath(@Nonnull String entryName) {
+    return fileSystem.get().getPath("/" + entryName);
+  }
+
+  @Nonnull
+  private String toClassName(@Nonnull String classEntryName) {
+    return classEntryName
+        .substring(
+            rootEntry.length(),
+            classEntryName.length() - FileType.CLASS.getExtensionWithDot().length())
+        .replace('/', '.');
+  }
+
+  /** the class file entries of this location, like a walk over its root directory would find. */
+  @Nonnull
+  private List<String> listClassEntries() {
+    final String classExtension = FileType.CLASS.getExtensionWithDot();
+    final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + classExtension;
+    final List<String> classEntries = new ArrayList<>();
+    for (String entryName : archive.get().getEntryNames()) {
+      if (entryName.startsWith(rootEntry)
+          && entryName.endsWith(classExtension)
+          && !entryName.endsWith(moduleInfoFilename)) {
+        final String sourcePath = "/" + entryName;
+        if (ignoredPaths.stream().noneMatch(p -> sourcePath.startsWith(p.toString()))) {
+          classEntries.add(entryName);
+        }
+      }
+    }
+    return classEntries;
+  }
+
+  /** reads the package names from the index of the central directory. */
+  @Nonnull
+  private Set<String> listPackageNames() {
+    final String classExtension = FileType.CLASS.getExtensionWithDot();
+    final Set<String> packages = new HashSet<>();
+    for (String entryName : archive.get().getEntryNames()) {
+      if (!entryName.startsWith(rootEntry)) {
+        continue;
+      }
+      String name = entryName.substring(rootEntry.length());
+      if (rootEntry.isEmpty() && name.startsWith(VERSIONED_ENTRY_PREFIX)) {
+        // classes of a multi release jar live in META-INF/versions/<version>/<package path>/
+        final int versionEnd = name.indexOf('/', VERSIONED_ENTRY_PREFIX.length());
+        name = versionEnd < 0 ? "" : name.substring(versionEnd + 1);
+      }
+      if (name.endsWith(classExtension)) {
+        final int lastSlash = name.lastIndexOf('/');
+        packages.add(lastSlash < 0 ? "" : name.substring(0, lastSlash).replace('/', '.'));
+      }
+    }
+    return packages;
+  }
 }
@@ -22,24 +22,30 @@ package sootup.java.bytecode.inputlocation;
  * #L%
  */
 
+import com.google.common.base.Suppliers;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sootup.core.frontend.ClassHeader;
 import sootup.core.frontend.SootClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.InputLocationPackageIndex;
 import sootup.core.model.SourceType;
 import sootup.core.transform.BodyInterceptor;
 import sootup.core.types.ClassType;
 import sootup.core.util.PathUtils;
 import sootup.core.util.StreamUtils;
 import sootup.core.views.View;
+import sootup.java.bytecode.frontend.PersistentBodyCache;
 import sootup.java.core.JavaSootClassSource;
 import sootup.java.core.interceptors.BytecodeBodyInterceptors;
 
@@ -58,6 +64,9 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
 
   @Nonnull private final Collection<AnalysisInputLocation> cpEntries;
 
+  /** routes a lookup to the class path entries that contain the package of the requested class */
+  @Nonnull private final Supplier<InputLocationPackageIndex<AnalysisInputLocation>> packageIndex;
+
   /** Variable to track if user has specified the SourceType. By default, it will be set to null. */
   private final SourceType srcType;
 
@@ -100,6 +109,7 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
     if (cpEntries.isEmpty()) {
       throw new IllegalArgumentException("Empty class path is given.");
     }
+    packageIndex = Suppliers.memoize(() -> new InputLocationPackageIndex<>(cpEntries));
   }
 
   @Override
@@ -114,6 +124,31 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
     return bodyInterceptors;
   }
 
+  /**
+   * Sets the cache that stores the bodies of the classes of all class path entries across runs;
+   * null disables it. Affects the classes that are resolved afterwards.
+   */
+  public void setPersistentBodyCache(@Nullable PersistentBodyCache persistentBodyCache) {
+    for (AnalysisInputLocation inputLocation : cpEntries) {
+      if (inputLocation instanceof PathBasedAnalysisInputLocation) {
+        ((PathBasedAnalysisInputLocation) inputLocation)
+            .setPersistentBodyCache(persistentBodyCache);
+      }
+    }
+  }
+
+  /**
+   * Sets whether the instructions of the methods of all class path entries are only parsed when
+   * their bodies are resolved, see {@link PathBasedAnalysisInputLocation#setLazyBodies(boolean)}.
+   */
+  public void setLazyBodies(boolean lazyBodies) {
+    for (AnalysisInputLocation inputLocation : cpEntries) {
+      if (inputLocation instanceof PathBasedAnalysisInputLocation) {
+        ((PathBasedAnalysisInputLocation) inputLocation).setLazyBodies(lazyBodies);
+      }
+    }
+  }
+
   /**
    * Explode the class or modulepath entries, separated by {@link File#pathSeparator}.
    *
@@ -189,8 +224,21 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
 
   @Override
   @Nonnull
-  public Optional<JavaSootClassSource> getClassSource(@Nonnull ClassType type, @Nonnull View view) {
+  public Collection<ClassHeader> getClassHeaders(@Nonnull View view) {
+    // the class which is found first shadows the later ones, like in getClassSource()
+    final Map<ClassType, ClassHeader> found = new LinkedHashMap<>();
     for (AnalysisInputLocation inputLocation : cpEntries) {
+      inputLocation
+          .getClassHeaders(view)
+          .forEach(header -> found.putIfAbsent(header.getType(), header));
+    }
+    return found.values();
+  }
+
+  @Override
+  @Nonnull
+  public Optional<JavaSootClassSource> getClassSource(@Nonnull ClassType type, @Nonnull View view) {
+    for (AnalysisInputLocation inputLocation : packageIndex.get().getInputLocations(type)) {
       final Optional<? extends SootClassSource> classSource =
           inputLocation.getClassSource(type, view);
       if (classSource.isPresent()) {
@@ -200,6 +248,20 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
     return Optional.empty();
   }
 
+  @Override
+  @Nonnull
+  public Optional<Set<String>> getPackageNames() {
+    return packageIndex.get().getPackageNames();
+  }
+
+  @Override
+  @Nonnull
+  public List<AnalysisInputLocation> getContainedInputLocations() {
+    return cpEntries.stream()
+        .flatMap(entry -> entry.getContainedInputLocations().stream())
+        .collect(Collectors.toList());
+  }
+
   @Nonnull
   private Optional<AnalysisInputLocation> inputLocationForPath(@Nonnull Path path) {
     if (Files.exists(path) && (Files.isDirectory(path) || PathUtils.isArchive(path))) {
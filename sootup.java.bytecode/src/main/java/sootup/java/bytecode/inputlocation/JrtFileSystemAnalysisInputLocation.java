@@ -21,13 +21,16 @@ package sootup.java.bytecode.inputlocation;
  * #L%
  */
 
+import com.google.common.base.Suppliers;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.*;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.apache.commons.io.FilenameUtils;
 import sootup.core.IdentifierFactory;
 import sootup.core.frontend.ClassProvider;
@@ -40,6 +43,7 @@ import sootup.core.util.StreamUtils;
 import sootup.core.views.View;
 import sootup.java.bytecode.frontend.AsmJavaClassProvider;
 import sootup.java.bytecode.frontend.AsmModuleSource;
+import sootup.java.bytecode.frontend.PersistentBodyCache;
 import sootup.java.core.*;
 import sootup.java.core.interceptors.BytecodeBodyInterceptors;
 import sootup.java.core.signatures.ModulePackageName;
@@ -55,6 +59,14 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
 
   // FIXME: handle closing the filesystem resource
   private static final FileSystem theFileSystem = FileSystems.getFileSystem(URI.create("jrt:/"));
+
+  /**
+   * package name to the names of the modules that contain it; built once from the "/packages"
+   * directory of the runtime image and shared by all instances as the image does not change.
+   */
+  private static final Supplier<Map<String, List<String>>> packageToModules =
+      Suppliers.memoize(JrtFileSystemAnalysisInputLocation::buildPackageIndex);
+
   private final Map<ModuleSignature, JavaModuleInfo> moduleInfoMap = new HashMap<>();
   boolean isResolved = false;
 
@@ -62,6 +74,9 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
 
   @Nonnull private final List<BodyInterceptor> bodyInterceptors;
 
+  @Nullable private PersistentBodyCache persistentBodyCache;
+  private boolean lazyBodies;
+
   public JrtFileSystemAnalysisInputLocation() {
     this(SourceType.Library);
   }
@@ -76,13 +91,41 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
     this.bodyInterceptors = bodyInterceptors;
   }
 
+  /** @return the cache that stores the bodies of the classes of this location, if any. */
+  @Nonnull
+  public Optional<PersistentBodyCache> getPersistentBodyCache() {
+    return Optional.ofNullable(persistentBodyCache);
+  }
+
+  /**
+   * Sets the cache that stores the bodies of the classes of this location across runs; null
+   * disables it. Affects the classes that are resolved afterwards.
+   */
+  public void setPersistentBodyCache(@Nullable PersistentBodyCache persistentBodyCache) {
+    this.persistentBodyCache = persistentBodyCache;
+  }
+
+  /** @return whether the instructions of a method are only parsed when its body is resolved. */
+  public boolean isLazyBodies() {
+    return lazyBodies;
+  }
+
+  /**
+   * Sets whether the instructions of a method are only parsed when its body is resolved instead of
+   * together with its class, see {@link AsmJavaClassProvider}. Affects the classes that are
+   * resolved afterwards.
+   */
+  public void setLazyBodies(boolean lazyBodies) {
+    this.lazyBodies = lazyBodies;
+  }
+
   @Override
   @Nonnull
   public Optional<JavaSootClassSource> getClassSource(
       @Nonnull ClassType classType, @Nonnull View view) {
     JavaClassType klassType = (JavaClassType) classType;
 
-    ClassProvider classProvider = new AsmJavaClassProvider(view);
+    ClassProvider classProvider = createClassProvider(view);
     Path filepath =
         theFileSystem.getPath(
             klassType.getFullyQualifiedName().replace('.', '/')
@@ -92,39 +135,76 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
     if (klassType.getPackageName() instanceof ModulePackageName) {
 
       ModulePackageName modulePackageSignature = (ModulePackageName) klassType.getPackageName();
+      return getClassSource(
+          modulePackageSignature.getModuleSignature().getModuleName(),
+          filepath,
+          klassType,
+          classProvider);
+    }
 
-      final Path module =
-          theFileSystem.getPath(
-              "modules", modulePackageSignature.getModuleSignature().getModuleName());
-      Path foundClass = module.resolve(filepath);
-      if (Files.isRegularFile(foundClass)) {
-        return classProvider
-            .createClassSource(this, foundClass, klassType)
-            .map(src -> (JavaSootClassSource) src);
-      } else {
-        return Optional.empty();
+    // module information does not exist in Signature -> look up the module(s) of the package
+    final List<String> modules =
+        packageToModules.get().get(klassType.getPackageName().getName());
+    if (modules == null) {
+      return Optional.empty();
+    }
+    for (String module : modules) {
+      Optional<JavaSootClassSource> classSource =
+          getClassSource(module, filepath, klassType, classProvider);
+      if (classSource.isPresent()) {
+        return classSource;
       }
     }
+    return Optional.empty();
+  }
+
+  @Nonnull
+  private Optional<JavaSootClassSource> getClassSource(
+      @Nonnull String moduleName,
+      @Nonnull Path filepath,
+      @Nonnull JavaClassType klassType,
+      @Nonnull ClassProvider classProvider) {
+    Path foundClass = theFileSystem.getPath("modules", moduleName).resolve(filepath);
+    if (Files.isRegularFile(foundClass)) {
+      return classProvider
+          .createClassSource(this, foundClass, klassType)
+          .map(src -> (JavaSootClassSource) src);
+    }
+    return Optional.empty();
+  }
 
-    // module information does not exist in Signature -> search for class
-    final Path moduleRoot = theFileSystem.getPath("modules");
-    try (DirectoryStream<Path> stream = Files.newDirectoryStream(moduleRoot)) {
-      {
-        for (Path entry : stream) {
-          // check each module folder for the class
-          Path foundfile = entry.resolve(filepath);
-          if (Files.isRegularFile(foundfile)) {
-            return classProvider
-                .createClassSource(this, foundfile, klassType)
-                .map(src -> (JavaSootClassSource) src);
+  /** @return a provider that creates the classes of this location for the given view. */
+  @Nonnull
+  protected AsmJavaClassProvider createClassProvider(@Nonnull View view) {
+    return new AsmJavaClassProvider(view, persistentBodyCache, lazyBodies);
+  }
+
+  /**
+   * The runtime image lists each package as a directory "/packages/&lt;package&gt;" that contains a
+   * link named after each module which contains the package.
+   */
+  @Nonnull
+  private static Map<String, List<String>> buildPackageIndex() {
+    final Path packageRoot = theFileSystem.getPath("packages");
+    final Map<String, List<String>> index = new HashMap<>();
+    try (DirectoryStream<Path> packages = Files.newDirectoryStream(packageRoot)) {
+      for (Path packageDir : packages) {
+        List<String> modules = new ArrayList<>(1);
+        try (DirectoryStream<Path> moduleLinks = Files.newDirectoryStream(packageDir)) {
+          for (Path moduleLink : moduleLinks) {
+            modules.add(moduleLink.getFileName().toString());
           }
         }
+        index.put(
+            packageDir.getFileName().toString(),
+            modules.size() == 1
+                ? Collections.singletonList(modules.get(0))
+                : Collections.unmodifiableList(modules));
       }
     } catch (IOException e) {
-      throw new ResolveException("Error loading a module", moduleRoot, e);
+      throw new ResolveException("Error while indexing the packages", packageRoot, e);
     }
-
-    return Optional.empty();
+    return index;
   }
 
   /** Retreive CLassSources of a module specified by methodSignature */
@@ -142,7 +222,7 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
       @Nonnull IdentifierFactory identifierFactory,
       @Nonnull View view) {
 
-    ClassProvider classProvider = new AsmJavaClassProvider(view);
+    ClassProvider classProvider = createClassProvider(view);
 
     String moduleInfoFilename =
         JavaModuleIdentifierFactory.MODULE_INFO_FILE
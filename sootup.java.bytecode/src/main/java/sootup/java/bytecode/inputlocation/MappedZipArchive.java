@@ -0,0 +1,304 @@
+package sootup.java.bytecode.inputlocation;
+
+/*-
+ * #%L
+ * Soot
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+import javax.annotation.Nonnull;
+
+/**
+ * A read-only zip archive (e.g. a jar) that is memory mapped as a whole. Its central directory is
+ * parsed once into an index from entry names to the entries' local headers, hence looking up an
+ * entry neither touches the file system nor scans the archive. Stored entries are served as slices
+ * of the mapping i.e. without copying, deflated entries are inflated into a new buffer.
+ *
+ * <p>The mapping is released by the garbage collector once the archive is unreachable; there is
+ * nothing to close. Archives of more than 2GB can not be mapped.
+ */
+public final class MappedZipArchive {
+
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+  private static final int END_SIGNATURE = 0x06054b50;
+  private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+  private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+  private static final int ZIP64_EXTRA_ID = 0x0001;
+
+  private static final int LOCAL_HEADER_SIZE = 30;
+  private static final int CENTRAL_HEADER_SIZE = 46;
+  private static final int END_SIZE = 22;
+  private static final int ZIP64_LOCATOR_SIZE = 20;
+  private static final int MAX_COMMENT_SIZE = 0xFFFF;
+  private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+  private static final int STORED = 0;
+  private static final int DEFLATED = 8;
+
+  @Nonnull private final Path path;
+  /** the whole mapped archive in little endian order; its position and limit are never changed. */
+  @Nonnull private final ByteBuffer mapping;
+
+  /** entry name to the index of the entry in the arrays below, in central directory order. */
+  @Nonnull private final Map<String, Integer> entryIndex;
+
+  @Nonnull private final int[] localHeaderOffsets;
+  @Nonnull private final int[] compressedSizes;
+  @Nonnull private final int[] sizes;
+  @Nonnull private final int[] methods;
+
+  private MappedZipArchive(@Nonnull Path path, @Nonnull ByteBuffer mapping) throws IOException {
+    this.path = path;
+    this.mapping = mapping.order(ByteOrder.LITTLE_ENDIAN);
+
+    final int end = findEnd();
+    long entryCount = u16(end + 10);
+    long centralDirectoryOffset = u32(end + 16);
+    if (entryCount == 0xFFFF || centralDirectoryOffset == ZIP64_MAGIC) {
+      final int locator = end - ZIP64_LOCATOR_SIZE;
+      if (locator >= 0 && mapping.getInt(locator) == ZIP64_LOCATOR_SIGNATURE) {
+        final int zip64End = checkOffset(mapping.getLong(locator + 8), 56);
+        if (mapping.getInt(zip64End) != ZIP64_END_SIGNATURE) {
+          throw new ZipException("Invalid zip64 end of central directory in " + path);
+        }
+        entryCount = mapping.getLong(zip64End + 32);
+        centralDirectoryOffset = mapping.getLong(zip64End + 48);
+      }
+    }
+    if (entryCount < 0 || entryCount > mapping.limit() / CENTRAL_HEADER_SIZE) {
+      throw new ZipException("Invalid amount of entries in " + path);
+    }
+
+    final int count = (int) entryCount;
+    entryIndex = new LinkedHashMap<>(count * 4 / 3 + 1);
+    localHeaderOffsets = new int[count];
+    compressedSizes = new int[count];
+    sizes = new int[count];
+    methods = new int[count];
+
+    int pos = checkOffset(centralDirectoryOffset, CENTRAL_HEADER_SIZE);
+    int entries = 0;
+    for (int i = 0; i < count; i++) {
+      checkOffset(pos, CENTRAL_HEADER_SIZE);
+      if (mapping.getInt(pos) != CENTRAL_HEADER_SIGNATURE) {
+        throw new ZipException("Invalid central directory header in " + path);
+      }
+      final int method = u16(pos + 10);
+      long compressedSize = u32(pos + 20);
+      long size = u32(pos + 24);
+      final int nameLength = u16(pos + 28);
+      final int extraLength = u16(pos + 30);
+      final int commentLength = u16(pos + 32);
+      long localHeaderOffset = u32(pos + 42);
+      final int namePos = checkOffset(pos + CENTRAL_HEADER_SIZE, nameLength + extraLength);
+
+      if (size == ZIP64_MAGIC
+          || compressedSize == ZIP64_MAGIC
+          || localHeaderOffset == ZIP64_MAGIC) {
+        // the actual values are stored in the zip64 extra field in exactly this order
+        int extraPos = namePos + nameLength;
+        final int extraEnd = extraPos + extraLength;
+        while (extraPos + 4 <= extraEnd) {
+          final int id = u16(extraPos);
+          final int dataSize = u16(extraPos + 2);
+          if (id == ZIP64_EXTRA_ID) {
+            int valuePos = extraPos + 4;
+            if (size == ZIP64_MAGIC) {
+              size = mapping.getLong(valuePos);
+              valuePos += 8;
+            }
+            if (compressedSize == ZIP64_MAGIC) {
+              compressedSize = mapping.getLong(valuePos);
+              valuePos += 8;
+            }
+            if (localHeaderOffset == ZIP64_MAGIC) {
+              localHeaderOffset = mapping.getLong(valuePos);
+            }
+            break;
+          }
+          extraPos += 4 + dataSize;
+        }
+      }
+
+      final byte[] name = new byte[nameLength];
+      for (int j = 0; j < nameLength; j++) {
+        name[j] = mapping.get(namePos + j);
+      }
+      final String entryName = new String(name, StandardCharsets.UTF_8);
+      if (!entryName.endsWith("/") && !entryIndex.containsKey(entryName)) {
+        localHeaderOffsets[entries] = checkOffset(localHeaderOffset, LOCAL_HEADER_SIZE);
+        compressedSizes[entries] = checkSize(compressedSize);
+        sizes[entries] = checkSize(size);
+        methods[entries] = method;
+        entryIndex.put(entryName, entries++);
+      }
+      pos += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+    }
+  }
+
+  /** Maps the archive at the given path and reads its central directory. */
+  @Nonnull
+  public static MappedZipArchive open(@Nonnull Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("The archive is too big to be mapped: " + path);
+      }
+      // the mapping stays valid after the channel is closed
+      return new MappedZipArchive(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  @Nonnull
+  public Path getPath() {
+    return path;
+  }
+
+  /** @return the names of all file entries in the order of the central directory */
+  @Nonnull
+  public Set<String> getEntryNames() {
+    return Collections.unmodifiableSet(entryIndex.keySet());
+  }
+
+  public boolean contains(@Nonnull String entryName) {
+    return entryIndex.containsKey(entryName);
+  }
+
+  /**
+   * Returns the contents of the given entry: a read-only slice of the mapping if the entry is
+   * stored or a freshly inflated buffer if it is deflated.
+   *
+   * @param entryName the name of the entry inside the archive e.g. "java/lang/Object.class"
+   * @return the contents or an empty Optional if there is no such entry
+   * @throws ZipException if the entry is corrupt or uses an unsupported compression method
+   */
+  @Nonnull
+  public Optional<ByteBuffer> getEntry(@Nonnull String entryName) throws ZipException {
+    final Integer idx = entryIndex.get(entryName);
+    if (idx == null) {
+      return Optional.empty();
+    }
+
+    final int localHeader = localHeaderOffsets[idx];
+    if (mapping.getInt(localHeader) != LOCAL_HEADER_SIGNATURE) {
+      throw new ZipException("Invalid local header of " + entryName + " in " + path);
+    }
+    // the extra field of the local header can differ from the one in the central directory
+    final int dataStart =
+        localHeader + LOCAL_HEADER_SIZE + u16(localHeader + 26) + u16(localHeader + 28);
+    final int compressedSize = compressedSizes[idx];
+    final ByteBuffer data = slice(checkOffset(dataStart, compressedSize), compressedSize);
+
+    switch (methods[idx]) {
+      case STORED:
+        return Optional.of(data);
+      case DEFLATED:
+        return Optional.of(inflate(data, sizes[idx], entryName));
+      default:
+        throw new ZipException(
+            "Unsupported compression method " + methods[idx] + " of " + entryName + " in " + path);
+    }
+  }
+
+  @Nonnull
+  private ByteBuffer slice(int offset, int length) {
+    final ByteBuffer duplicate = mapping.duplicate();
+    duplicate.position(offset);
+    duplicate.limit(offset + length);
+    return duplicate.slice().asReadOnlyBuffer();
+  }
+
+  @Nonnull
+  private ByteBuffer inflate(@Nonnull ByteBuffer compressed, int size, @Nonnull String entryName)
+      throws ZipException {
+    // the inflater needs an additional dummy byte in the "nowrap" mode
+    final byte[] input = new byte[compressed.remaining() + 1];
+    compressed.get(input, 0, input.length - 1);
+
+    final byte[] output = new byte[size];
+    final Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(input);
+      int inflated = 0;
+      while (inflated < size) {
+        final int n = inflater.inflate(output, inflated, size - inflated);
+        if (n == 0
+            && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        inflated += n;
+      }
+      if (inflated != size) {
+        throw new ZipException("Unexpected size of the inflated " + entryName + " in " + path);
+      }
+    } catch (DataFormatException e) {
+      throw new ZipException(
+          "Corrupt data of " + entryName + " in " + path + ": " + e.getMessage());
+    } finally {
+      inflater.end();
+    }
+    return ByteBuffer.wrap(output);
+  }
+
+  /** searches the end of central directory record backwards, i.e. skipping the archive comment. */
+  private int findEnd() throws ZipException {
+    final int lowest = Math.max(0, mapping.limit() - END_SIZE - MAX_COMMENT_SIZE);
+    for (int pos = mapping.limit() - END_SIZE; pos >= lowest; pos--) {
+      if (mapping.getInt(pos) == END_SIGNATURE
+          && pos + END_SIZE + u16(pos + 20) <= mapping.limit()) {
+        return pos;
+      }
+    }
+    throw new ZipException("Not a zip archive: " + path);
+  }
+
+  private int checkOffset(long offset, int length) throws ZipException {
+    if (offset < 0 || length < 0 || offset + length > mapping.limit()) {
+      throw new ZipException("Invalid offset " + offset + " in " + path);
+    }
+    return (int) offset;
+  }
+
+  private int checkSize(long size) throws ZipException {
+    if (size < 0 || size > Integer.MAX_VALUE) {
+      throw new ZipException("Invalid entry size " + size + " in " + path);
+    }
+    return (int) size;
+  }
+
+  private int u16(int pos) {
+    return mapping.getShort(pos) & 0xFFFF;
+  }
+
+  private long u32(int pos) {
+    return mapping.getInt(pos) & ZIP64_MAGIC;
+  }
+}
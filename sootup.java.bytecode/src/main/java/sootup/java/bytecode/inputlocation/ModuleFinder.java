@@ -22,6 +22,7 @@ package sootup.java.bytecode.inputlocation;
  */
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
@@ -246,13 +247,21 @@ public class ModuleFinder {
   private void buildModuleForJar(@Nonnull Path jar) {
     PathBasedAnalysisInputLocation inputLocation =
         PathBasedAnalysisInputLocation.create(jar, sourceType, bodyInterceptors);
-    Path mi;
-    try (FileSystem zipFileSystem = FileSystems.newFileSystem(jar, (ClassLoader) null)) {
-      final Path archiveRoot = zipFileSystem.getPath("/");
-      mi = archiveRoot.resolve(JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class");
-
-      if (Files.exists(mi)) {
-        JavaModuleInfo moduleInfo = new AsmModuleSource(mi);
+    final String moduleInfoEntry = JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class";
+    try {
+      // the module descriptor is read from the same mapped archive the classes are read from
+      final Optional<ByteBuffer> moduleInfoFile =
+          inputLocation instanceof ArchiveBasedAnalysisInputLocation
+              ? ((ArchiveBasedAnalysisInputLocation) inputLocation)
+                  .getArchive()
+                  .getEntry(moduleInfoEntry)
+              : MappedZipArchive.open(jar).getEntry(moduleInfoEntry);
+
+      if (moduleInfoFile.isPresent()) {
+        final byte[] moduleInfoBytes = new byte[moduleInfoFile.get().remaining()];
+        moduleInfoFile.get().get(moduleInfoBytes);
+        JavaModuleInfo moduleInfo =
+            new AsmModuleSource(Paths.get("/" + moduleInfoEntry), moduleInfoBytes);
         moduleInfoMap.put(moduleInfo.getModuleSignature(), moduleInfo);
         moduleInputLocation.put(moduleInfo.getModuleSignature(), inputLocation);
       } else {
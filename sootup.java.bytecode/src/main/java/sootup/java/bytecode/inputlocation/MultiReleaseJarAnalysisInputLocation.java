@@ -24,25 +24,23 @@ package sootup.java.bytecode.inputlocation;
 
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.file.FileSystem;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
 import java.util.jar.Attributes;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import sootup.core.Language;
+import sootup.core.frontend.ClassHeader;
 import sootup.core.frontend.SootClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.model.SourceType;
 import sootup.core.transform.BodyInterceptor;
 import sootup.core.types.ClassType;
 import sootup.core.views.View;
+import sootup.java.bytecode.frontend.PersistentBodyCache;
 import sootup.java.core.JavaSootClassSource;
 import sootup.java.core.interceptors.BytecodeBodyInterceptors;
 
@@ -111,49 +109,34 @@ public class MultiReleaseJarAnalysisInputLocation extends ArchiveBasedAnalysisIn
       throw new IllegalArgumentException("The given path does not point to a multi release jar.");
     }
 
-    FileSystem fs;
-    try {
-      fs = fileSystemCache.get(path);
-    } catch (ExecutionException e) {
-      throw new IllegalArgumentException("Could not open filesystemcache.", e);
+    // the versioned locations share the mapped archive of this location
+    final List<Integer> versions = listLanguageVersions(archive.get());
+    versions.sort(Comparator.reverseOrder());
+    for (Integer version : versions) {
+      if (version <= language.getVersion()) {
+        inputLocations.put(
+            version,
+            new ArchiveBasedAnalysisInputLocation(
+                path,
+                archive,
+                VERSIONED_ENTRY_PREFIX + version + "/",
+                sourceType,
+                bodyInterceptors,
+                Collections.emptyList()));
+      }
     }
 
-    final Path archiveRoot = fs.getPath("/");
-    Path versionedRoot = archiveRoot.getFileSystem().getPath("/META-INF/versions/");
-
-    try (Stream<Path> list = Files.list(versionedRoot)) {
-      list.map(
-              dir -> {
-                String versionDirName = dir.getFileName().toString();
-                return versionDirName.substring(0, versionDirName.length() - 1);
-              })
-          .map(Integer::new)
-          .filter(version -> version <= language.getVersion())
-          .sorted(Comparator.reverseOrder())
-          .forEach(
-              version -> {
-                final Path versionRoot =
-                    archiveRoot
-                        .getFileSystem()
-                        .getPath("/META-INF", "versions", version.toString());
-                inputLocations.put(
-                    version,
-                    PathBasedAnalysisInputLocation.create(
-                        versionRoot, sourceType, bodyInterceptors, Collections.emptyList()));
-              });
-
-      inputLocations.put(
-          DEFAULT_VERSION,
-          createAnalysisInputLocation(archiveRoot, srcType, getBodyInterceptors()));
-    } catch (IOException e) {
-      throw new IllegalStateException("Can not index the given file.", e);
-    }
+    inputLocations.put(
+        DEFAULT_VERSION, createAnalysisInputLocation(path, srcType, getBodyInterceptors()));
   }
 
+  /** @param path the path of the jar itself */
   protected AnalysisInputLocation createAnalysisInputLocation(
-      Path archiveRoot, SourceType sourceType, List<BodyInterceptor> bodyInterceptors) {
-    return PathBasedAnalysisInputLocation.create(
-        archiveRoot,
+      Path path, SourceType sourceType, List<BodyInterceptor> bodyInterceptors) {
+    return new ArchiveBasedAnalysisInputLocation(
+        path,
+        archive,
+        "",
         sourceType,
         bodyInterceptors,
         Collections.singletonList(Paths.get("/META-INF")));
@@ -177,10 +160,16 @@ public class MultiReleaseJarAnalysisInputLocation extends ArchiveBasedAnalysisIn
   @Override
   @Nonnull
   public Collection<JavaSootClassSource> getClassSources(@Nonnull View view) {
+    return getClassSources(view, false);
+  }
+
+  @Override
+  @Nonnull
+  public Collection<JavaSootClassSource> getClassSources(@Nonnull View view, boolean parallel) {
 
     Collection<JavaSootClassSource> classSources = new ArrayList<>();
     inputLocations.values().stream()
-        .flatMap(location -> location.getClassSources(view).stream())
+        .flatMap(location -> location.getClassSources(view, parallel).stream())
         .map(src -> (JavaSootClassSource) src)
         .forEach(
             cs -> {
@@ -199,6 +188,40 @@ public class MultiReleaseJarAnalysisInputLocation extends ArchiveBasedAnalysisIn
     return classSources;
   }
 
+  @Override
+  @Nonnull
+  public Collection<ClassHeader> getClassHeaders(@Nonnull View view) {
+    // the locations are ordered from the highest applicable version to the default one
+    final Map<ClassType, ClassHeader> headers = new LinkedHashMap<>();
+    for (AnalysisInputLocation inputLocation : inputLocations.values()) {
+      inputLocation
+          .getClassHeaders(view)
+          .forEach(header -> headers.putIfAbsent(header.getType(), header));
+    }
+    return headers.values();
+  }
+
+  @Override
+  public void setPersistentBodyCache(@Nullable PersistentBodyCache persistentBodyCache) {
+    super.setPersistentBodyCache(persistentBodyCache);
+    for (AnalysisInputLocation inputLocation : inputLocations.values()) {
+      if (inputLocation instanceof PathBasedAnalysisInputLocation) {
+        ((PathBasedAnalysisInputLocation) inputLocation)
+            .setPersistentBodyCache(persistentBodyCache);
+      }
+    }
+  }
+
+  @Override
+  public void setLazyBodies(boolean lazyBodies) {
+    super.setLazyBodies(lazyBodies);
+    for (AnalysisInputLocation inputLocation : inputLocations.values()) {
+      if (inputLocation instanceof PathBasedAnalysisInputLocation) {
+        ((PathBasedAnalysisInputLocation) inputLocation).setLazyBodies(lazyBodies);
+      }
+    }
+  }
+
   @Nonnull
   public Language getLanguage() {
     return language;
@@ -239,30 +262,35 @@ public class MultiReleaseJarAnalysisInputLocation extends ArchiveBasedAnalysisIn
    * default implemention version
    */
   protected static List<Integer> getLanguageVersions(@Nonnull Path path) {
-    FileSystem fs;
     try {
-      fs = fileSystemCache.get(path);
-    } catch (ExecutionException e) {
-      throw new IllegalArgumentException("Could not open filesystemcache.", e);
-    }
-
-    final Path archiveRoot = fs.getPath("/");
-    Path versionedRoot = archiveRoot.getFileSystem().getPath("/META-INF/versions/");
-
-    try (Stream<Path> list = Files.list(versionedRoot)) {
-      return list.map(
-              dir -> {
-                String versionDirName = dir.getFileName().toString();
-                return versionDirName.substring(0, versionDirName.length() - 1);
-              })
-          .map(Integer::new)
-          .sorted()
-          .collect(Collectors.toCollection(ArrayList::new));
+      return listLanguageVersions(MappedZipArchive.open(path));
     } catch (IOException e) {
       throw new IllegalStateException("Can not index the given file.", e);
     }
   }
 
+  /** @return the sorted versions of the version directories which contain any files */
+  @Nonnull
+  private static List<Integer> listLanguageVersions(@Nonnull MappedZipArchive archive) {
+    final Set<Integer> versions = new TreeSet<>();
+    for (String entryName : archive.getEntryNames()) {
+      if (!entryName.startsWith(VERSIONED_ENTRY_PREFIX)) {
+        continue;
+      }
+      final int versionEnd = entryName.indexOf('/', VERSIONED_ENTRY_PREFIX.length());
+      if (versionEnd < 0) {
+        continue;
+      }
+      try {
+        versions.add(
+            Integer.parseInt(entryName.substring(VERSIONED_ENTRY_PREFIX.length(), versionEnd)));
+      } catch (NumberFormatException e) {
+        throw new IllegalStateException("Invalid version directory of " + entryName, e);
+      }
+    }
+    return new ArrayList<>(versions);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (!(o instanceof MultiReleaseJarAnalysisInputLocation)) {
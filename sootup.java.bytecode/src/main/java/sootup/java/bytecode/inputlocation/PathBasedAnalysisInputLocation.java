@@ -1,13 +1,17 @@
 package sootup.java.bytecode.inputlocation;
 
+import com.google.common.base.Suppliers;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -18,10 +22,12 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 import sootup.core.IdentifierFactory;
+import sootup.core.frontend.ClassHeader;
 import sootup.core.frontend.ClassProvider;
 import sootup.core.frontend.SootClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.inputlocation.FileType;
+import sootup.core.inputlocation.InputLocationPackageIndex;
 import sootup.core.model.SourceType;
 import sootup.core.transform.BodyInterceptor;
 import sootup.core.types.ClassType;
@@ -29,6 +35,7 @@ import sootup.core.util.PathUtils;
 import sootup.core.util.StreamUtils;
 import sootup.core.views.View;
 import sootup.java.bytecode.frontend.AsmJavaClassProvider;
+import sootup.java.bytecode.frontend.PersistentBodyCache;
 import sootup.java.core.*;
 import sootup.java.core.interceptors.BytecodeBodyInterceptors;
 import sootup.java.core.types.JavaClassType;
@@ -67,6 +74,8 @@ public abstract class PathBasedAnalysisInputLocation implements AnalysisInputLoc
   @Nonnull protected Collection<Path> ignoredPaths;
   @Nonnull protected final SourceType sourceType;
   @Nonnull protected final List<BodyInterceptor> bodyInterceptors;
+  @Nullable protected PersistentBodyCache persistentBodyCache;
+  protected boolean lazyBodies;
 
   protected PathBasedAnalysisInputLocation(@Nonnull Path path, @Nonnull SourceType srcType) {
     this(path, srcType, Collections.emptyList());
@@ -109,6 +118,40 @@ public abstract class PathBasedAnalysisInputLocation implements AnalysisInputLoc
     return bodyInterceptors;
   }
 
+  /** @return the cache that stores the bodies of the classes of this location, if any. */
+  @Nonnull
+  public Optional<PersistentBodyCache> getPersistentBodyCache() {
+    return Optional.ofNullable(persistentBodyCache);
+  }
+
+  /**
+   * Sets the cache that stores the bodies of the classes of this location across runs; null
+   * disables it. Affects the classes that are resolved afterwards.
+   */
+  public void setPersistentBodyCache(@Nullable PersistentBodyCache persistentBodyCache) {
+    this.persistentBodyCache = persistentBodyCache;
+  }
+
+  /** @return whether the instructions of a method are only parsed when its body is resolved. */
+  public boolean isLazyBodies() {
+    return lazyBodies;
+  }
+
+  /**
+   * Sets whether the instructions of a method are only parsed when its body is resolved instead of
+   * together with its class, see {@link AsmJavaClassProvider}. Affects the classes that are
+   * resolved afterwards.
+   */
+  public void setLazyBodies(boolean lazyBodies) {
+    this.lazyBodies = lazyBodies;
+  }
+
+  /** @return a provider that creates the classes of this location for the given view. */
+  @Nonnull
+  protected AsmJavaClassProvider createClassProvider(@Nonnull View view) {
+    return new AsmJavaClassProvider(view, persistentBodyCache, lazyBodies);
+  }
+
   @Nonnull
   public static PathBasedAnalysisInputLocation create(
       @Nonnull Path path, @Nonnull SourceType sourceType) {
@@ -159,33 +202,65 @@ public abstract class PathBasedAnalysisInputLocation implements AnalysisInputLoc
   Collection<JavaSootClassSource> walkDirectory(
       @Nonnull Path dirPath,
       @Nonnull IdentifierFactory factory,
-      @Nonnull ClassProvider classProvider) {
+      @Nonnull ClassProvider classProvider,
+      boolean parallel) {
+
+    return stream(walkClassFiles(dirPath, classProvider.getHandledFileType()), parallel)
+        .flatMap(
+            p -> {
+              final String fullyQualifiedName = fromPath(dirPath, p);
+
+              return StreamUtils.optionalToStream(
+                  classProvider.createClassSource(
+                      this, p, factory.getClassType(fullyQualifiedName)));
+            })
+        .map(src -> (JavaSootClassSource) src)
+        .collect(Collectors.toList());
+  }
 
-    final FileType handledFileType = classProvider.getHandledFileType();
-    final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class";
+  /** Like {@link #walkDirectory} but reads only the headers of the class files. */
+  @Nonnull
+  Collection<ClassHeader> walkDirectoryForHeaders(
+      @Nonnull Path dirPath,
+      @Nonnull IdentifierFactory factory,
+      @Nonnull AsmJavaClassProvider classProvider) {
+
+    return walkClassFiles(dirPath, classProvider.getHandledFileType()).stream()
+        .flatMap(
+            p ->
+                StreamUtils.optionalToStream(
+                    classProvider.createClassHeader(p, factory.getClassType(fromPath(dirPath, p)))))
+        .collect(Collectors.toList());
+  }
+
+  /** lists the class files below the directory in the order of {@link Files#walk}. */
+  @Nonnull
+  private List<Path> walkClassFiles(@Nonnull Path dirPath, @Nonnull FileType handledFileType) {
     try (final Stream<Path> walk = Files.walk(dirPath)) {
-      return walk.filter(
-              filePath ->
-                  PathUtils.hasExtension(filePath, handledFileType)
-                      && !filePath.toString().endsWith(moduleInfoFilename)
-                      && ignoredPaths.stream()
-                          .noneMatch(p -> filePath.toString().startsWith(p.toString())))
-          .flatMap(
-              p -> {
-                final String fullyQualifiedName = fromPath(dirPath, p);
-
-                return StreamUtils.optionalToStream(
-                    classProvider.createClassSource(
-                        this, p, factory.getClassType(fullyQualifiedName)));
-              })
-          .map(src -> (JavaSootClassSource) src)
+      return walk.filter(filePath -> isWalkedClassFile(filePath, handledFileType))
           .collect(Collectors.toList());
-
     } catch (IOException e) {
       throw new IllegalArgumentException(e);
     }
   }
 
+  /**
+   * Streams the class files of a location, in parallel if requested e.g. when the classes are bulk
+   * loaded in a {@link ForkJoinPool}, so that they are parsed with the parallelism of that pool.
+   * The encounter order is kept either way.
+   */
+  @Nonnull
+  static <T> Stream<T> stream(@Nonnull List<T> classFiles, boolean parallel) {
+    return parallel ? classFiles.parallelStream() : classFiles.stream();
+  }
+
+  private boolean isWalkedClassFile(@Nonnull Path filePath, @Nonnull FileType handledFileType) {
+    final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class";
+    return PathUtils.hasExtension(filePath, handledFileType)
+        && !filePath.toString().endsWith(moduleInfoFilename)
+        && ignoredPaths.stream().noneMatch(p -> filePath.toString().startsWith(p.toString()));
+  }
+
   @Nonnull
   protected String fromPath(@Nonnull Path baseDirPath, Path packageNamePathAndClass) {
     return FilenameUtils.removeExtension(
@@ -256,13 +331,13 @@ public abstract class PathBasedAnalysisInputLocation implements AnalysisInputLoc
     @Nonnull
     public Optional<JavaSootClassSource> getClassSource(
         @Nonnull ClassType type, @Nonnull View view) {
-      return getSingleClass((JavaClassType) type, path, new AsmJavaClassProvider(view));
+      return getSingleClass((JavaClassType) type, path, createClassProvider(view));
     }
 
     @Nonnull
     @Override
     public Collection<JavaSootClassSource> getClassSources(@Nonnull View view) {
-      AsmJavaClassProvider classProvider = new AsmJavaClassProvider(view);
+      AsmJavaClassProvider classProvider = createClassProvider(view);
       IdentifierFactory factory = view.getIdentifierFactory();
       Path dirPath = this.path.getParent();
 
@@ -275,6 +350,23 @@ public abstract class PathBasedAnalysisInputLocation implements AnalysisInputLoc
       return Collections.singletonList(classSource.get());
     }
 
+    @Nonnull
+    @Override
+    public Collection<ClassHeader> getClassHeaders(@Nonnull View view) {
+      final String fullyQualifiedName = fromPath(path.getParent(), path);
+      return StreamUtils.optionalToStream(
+              createClassProvider(view)
+                  .createClassHeader(
+                      path, view.getIdentifierFactory().getClassType(fullyQualifiedName)))
+          .collect(Collectors.toList());
+    }
+
+    @Override
+    @Nonnull
+    public Optional<Set<String>> getPackageNames() {
+      return Optional.of(Collections.singleton(omittedPackageName));
+    }
+
     @Nonnull
     protected String fromPath(@Nonnull Path baseDirPath, Path packageNamePathAndClass) {
       String str =
@@ -290,6 +382,9 @@ public abstract class PathBasedAnalysisInputLocation implements AnalysisInputLoc
 
   private static class DirectoryBasedAnalysisInputLocation extends PathBasedAnalysisInputLocation {
 
+    @Nonnull
+    private final Supplier<Set<String>> packageNames = Suppliers.memoize(this::listPackageNames);
+
     protected DirectoryBasedAnalysisInputLocation(
         @Nonnull Path path,
         @Nonnull SourceType srcType,
@@ -308,16 +403,49 @@ public abstract class PathBasedAnalysisInputLocation implements AnalysisInputLoc
     @Override
     @Nonnull
     public Collection<JavaSootClassSource> getClassSources(@Nonnull View view) {
+      return getClassSources(view, false);
+    }
+
+    @Override
+    @Nonnull
+    public Collection<JavaSootClassSource> getClassSources(@Nonnull View view, boolean parallel) {
       // FIXME: 1) store the classprovider reference as a field; 2) and above too; and 3) move view
       // which is only used in SootNode to be just there?
-      return walkDirectory(path, view.getIdentifierFactory(), new AsmJavaClassProvider(view));
+      return walkDirectory(path, view.getIdentifierFactory(), createClassProvider(view), parallel);
+    }
+
+    @Override
+    @Nonnull
+    public Collection<ClassHeader> getClassHeaders(@Nonnull View view) {
+      return walkDirectoryForHeaders(
+          path, view.getIdentifierFactory(), createClassProvider(view));
     }
 
     @Override
     @Nonnull
     public Optional<JavaSootClassSource> getClassSource(
         @Nonnull ClassType type, @Nonnull View view) {
-      return getClassSourceInternal((JavaClassType) type, path, new AsmJavaClassProvider(view));
+      return getClassSourceInternal((JavaClassType) type, path, createClassProvider(view));
+    }
+
+    @Override
+    @Nonnull
+    public Optional<Set<String>> getPackageNames() {
+      return Optional.of(packageNames.get());
+    }
+
+    @Nonnull
+    private Set<String> listPackageNames() {
+      final String separator = path.getFileSystem().getSeparator();
+      try (final Stream<Path> walk = Files.walk(path)) {
+        return walk.filter(filePath -> PathUtils.hasExtension(filePath, FileType.CLASS))
+            .map(
+                filePath ->
+                    path.relativize(filePath.getParent()).toString().replace(separator, "."))
+            .collect(Collectors.toSet());
+      } catch (IOException e) {
+        throw new IllegalArgumentException(e);
+      }
     }
   }
 
@@ -382,17 +510,35 @@ public abstract class PathBasedAnalysisInputLocation implements AnalysisInputLoc
     @Override
     @Nonnull
     public Collection<JavaSootClassSource> getClassSources(@Nonnull View view) {
+      return getClassSources(view, false);
+    }
+
+    @Override
+    @Nonnull
+    public Collection<JavaSootClassSource> getClassSources(@Nonnull View view, boolean parallel) {
 
       Set<SootClassSource> foundClasses = new HashSet<>();
 
       for (AnalysisInputLocation inputLoc : containedInputLocations) {
-        foundClasses.addAll(inputLoc.getClassSources(view));
+        foundClasses.addAll(inputLoc.getClassSources(view, parallel));
       }
       return foundClasses.stream()
           .map(src -> (JavaSootClassSource) src)
           .collect(Collectors.toList());
     }
 
+    @Override
+    @Nonnull
+    public Collection<ClassHeader> getClassHeaders(@Nonnull View view) {
+      final Map<ClassType, ClassHeader> foundHeaders = new LinkedHashMap<>();
+      for (AnalysisInputLocation inputLoc : containedInputLocations) {
+        inputLoc
+            .getClassHeaders(view)
+            .forEach(header -> foundHeaders.putIfAbsent(header.getType(), header));
+      }
+      return foundHeaders.values();
+    }
+
     @Override
     @Nonnull
     public Optional<JavaSootClassSource> getClassSource(
@@ -409,6 +555,42 @@ public abstract class PathBasedAnalysisInputLocation implements AnalysisInputLoc
       return Optional.empty();
     }
 
+    @Override
+    public void setPersistentBodyCache(@Nullable PersistentBodyCache persistentBodyCache) {
+      super.setPersistentBodyCache(persistentBodyCache);
+      for (AnalysisInputLocation inputLocation : containedInputLocations) {
+        if (inputLocation instanceof PathBasedAnalysisInputLocation) {
+          ((PathBasedAnalysisInputLocation) inputLocation)
+              .setPersistentBodyCache(persistentBodyCache);
+        }
+      }
+    }
+
+    @Override
+    public void setLazyBodies(boolean lazyBodies) {
+      super.setLazyBodies(lazyBodies);
+      for (AnalysisInputLocation inputLocation : containedInputLocations) {
+        if (inputLocation instanceof PathBasedAnalysisInputLocation) {
+          ((PathBasedAnalysisInputLocation) inputLocation).setLazyBodies(lazyBodies);
+        }
+      }
+    }
+
+    @Override
+    @Nonnull
+    public Optional<Set<String>> getPackageNames() {
+      // the classes are served by the contained locations and not from the extracted directory
+      return new InputLocationPackageIndex<>(containedInputLocations).getPackageNames();
+    }
+
+    @Override
+    @Nonnull
+    public List<AnalysisInputLocation> getContainedInputLocations() {
+      return containedInputLocations.stream()
+          .flatMap(location -> location.getContainedInputLocations().stream())
+          .collect(Collectors.toList());
+    }
+
     /**
      * Extracts the war file at the temporary location to analyze underlying class and jar files
      *
@@ -0,0 +1,57 @@
+package sootup.java.bytecode.frontend;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import categories.TestCategories;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.model.Body;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.model.SourceType;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+
+@Tag(TestCategories.JAVA_8_CATEGORY)
+public class LazyBodiesTest {
+
+  final String directory = "../shared-test-resources/bugfixes/";
+
+  private Map<String, String> resolveBodies(boolean lazyBodies) throws IOException {
+    // without interceptors: the names of the locals the CastCounter introduces depend on the
+    // iteration order of the stmts, which differs between two conversions of the same method
+    JavaClassPathAnalysisInputLocation inputLocation =
+        new JavaClassPathAnalysisInputLocation(
+            directory, SourceType.Application, Collections.emptyList());
+    inputLocation.setLazyBodies(lazyBodies);
+    JavaView view = new JavaView(inputLocation);
+    Map<String, String> bodies = new TreeMap<>();
+    for (SootClass clazz : view.getClasses()) {
+      for (SootMethod method : clazz.getMethods()) {
+        if (method.hasBody()) {
+          assertEquals(lazyBodies, method.getBodySource().estimateBodySize() < 0);
+          Body body = method.getBody();
+          bodies.put(method.getSignature().toString(), body.toString());
+          // without a BodyCache the body is resolved once per method
+          assertSame(body, method.getBody());
+          // the body source converts a new body, reading the class file again if it is lazy
+          Body rebuilt = method.getBodySource().resolveBody(method.getModifiers());
+          assertNotSame(body, rebuilt);
+          assertEquals(body.toString(), rebuilt.toString());
+        }
+      }
+    }
+    return bodies;
+  }
+
+  @Test
+  public void testSameBodiesAsEagerParsing() throws IOException {
+    Map<String, String> eager = resolveBodies(false);
+    assertFalse(eager.isEmpty());
+    assertEquals(eager, resolveBodies(true));
+  }
+}
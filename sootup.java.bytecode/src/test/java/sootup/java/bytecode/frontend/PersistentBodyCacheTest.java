@@ -0,0 +1,172 @@
+package sootup.java.bytecode.frontend;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import categories.TestCategories;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.StringConstant;
+import sootup.core.jimple.common.stmt.JReturnStmt;
+import sootup.core.model.Body;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.model.SourceType;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.transform.BodyInterceptor;
+import sootup.core.views.View;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.interceptors.DeadAssignmentEliminator;
+import sootup.java.core.language.JavaJimple;
+import sootup.java.core.views.JavaView;
+
+@Tag(TestCategories.JAVA_8_CATEGORY)
+public class PersistentBodyCacheTest {
+
+  final String directory = "../shared-test-resources/bugfixes/";
+
+  @TempDir Path cacheDir;
+
+  private Map<String, String> resolveBodies(PersistentBodyCache cache) {
+    return resolveBodies(cache, new JavaClassPathAnalysisInputLocation(directory));
+  }
+
+  private Map<String, String> resolveBodies(
+      PersistentBodyCache cache, List<BodyInterceptor> bodyInterceptors) {
+    return resolveBodies(
+        cache,
+        new JavaClassPathAnalysisInputLocation(
+            directory, SourceType.Application, bodyInterceptors));
+  }
+
+  private Map<String, String> resolveBodies(
+      PersistentBodyCache cache, JavaClassPathAnalysisInputLocation inputLocation) {
+    inputLocation.setPersistentBodyCache(cache);
+    JavaView view = new JavaView(inputLocation);
+    Map<String, String> bodies = new TreeMap<>();
+    for (SootClass clazz : view.getClasses()) {
+      for (SootMethod method : clazz.getMethods()) {
+        if (method.hasBody()) {
+          bodies.put(method.getSignature().toString(), method.getBody().toString());
+        }
+      }
+    }
+    return bodies;
+  }
+
+  private long countEntries() throws IOException {
+    try (Stream<Path> files = Files.walk(cacheDir)) {
+      return files.filter(p -> p.toString().endsWith(".jbody")).count();
+    }
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    // first run: converts from bytecode and fills the cache
+    PersistentBodyCache cache = new PersistentBodyCache(cacheDir);
+    Map<String, String> converted = resolveBodies(cache);
+    assertFalse(converted.isEmpty());
+    assertEquals(0, cache.getHitCount());
+    assertEquals(converted.size(), cache.getMissCount());
+    long entries = countEntries();
+    assertEquals(converted.size(), entries);
+
+    // second run: served from the cache
+    cache = new PersistentBodyCache(cacheDir);
+    assertEquals(converted, resolveBodies(cache));
+    assertEquals(converted.size(), cache.getHitCount());
+    assertEquals(0, cache.getMissCount());
+    assertEquals(entries, countEntries());
+
+    // corrupted entries are discarded and the bodies are converted (and stored) again
+    try (Stream<Path> files = Files.walk(cacheDir)) {
+      Iterable<Path> jbodies = files.filter(p -> p.toString().endsWith(".jbody"))::iterator;
+      for (Path entry : jbodies) {
+        Files.write(entry, new byte[] {0, 1, 2});
+      }
+    }
+    cache = new PersistentBodyCache(cacheDir);
+    Map<String, String> reconverted = resolveBodies(cache);
+    assertEquals(converted.keySet(), reconverted.keySet());
+    assertEquals(0, cache.getHitCount());
+    assertEquals(entries, countEntries());
+    assertEquals(reconverted, resolveBodies(cache));
+    assertEquals(converted.size(), cache.getHitCount());
+  }
+
+  @Test
+  public void testConfigurationKey() throws IOException {
+    PersistentBodyCache cache = new PersistentBodyCache(cacheDir);
+    resolveBodies(cache, Collections.singletonList(new DeadAssignmentEliminator(false)));
+    long entries = countEntries();
+    assertTrue(entries > 0);
+
+    // another configuration of the same interceptor does not reuse the entries
+    cache = new PersistentBodyCache(cacheDir);
+    resolveBodies(cache, Collections.singletonList(new DeadAssignmentEliminator(true)));
+    assertEquals(0, cache.getHitCount());
+    assertEquals(2 * entries, countEntries());
+
+    // bodies of an interceptor without configuration key are not cached
+    BodyInterceptor uncacheable =
+        new BodyInterceptor() {
+          @Override
+          public void interceptBody(Body.BodyBuilder builder, View view) {}
+
+          @Override
+          public Optional<String> getConfigurationKey() {
+            return Optional.empty();
+          }
+        };
+    cache = new PersistentBodyCache(cacheDir);
+    resolveBodies(cache, Collections.singletonList(uncacheable));
+    assertEquals(0, cache.getHitCount());
+    assertEquals(0, cache.getMissCount());
+    assertEquals(2 * entries, countEntries());
+  }
+
+  @Test
+  public void testUnpairedSurrogates() throws IOException {
+    JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+    MethodSignature signature =
+        identifierFactory.getMethodSignature(
+            "Surrogates", "get", "java.lang.String", Collections.emptyList());
+    String value = "\uD800a\uDC00\uDBFF\uDFFF";
+    JReturnStmt returnStmt =
+        Jimple.newReturnStmt(
+            JavaJimple.getInstance().newStringConstant(value),
+            StmtPositionInfo.getNoStmtPositionInfo());
+    Body.BodyBuilder builder = Body.builder().setMethodSignature(signature);
+    builder.getStmtGraph().addNode(returnStmt);
+    builder.getStmtGraph().setStartingStmt(returnStmt);
+    Body body = builder.build();
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      BodySerializer.write(body, out);
+    }
+    Body read =
+        BodySerializer.read(
+            new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+            signature,
+            identifierFactory);
+    JReturnStmt readStmt = (JReturnStmt) read.getStmtGraph().getStartingStmt();
+    assertEquals(value, ((StringConstant) readStmt.getOp()).getValue());
+  }
+}
@@ -1,6 +1,7 @@
 package sootup.java.bytecode.inputlocation;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import categories.TestCategories;
@@ -11,9 +12,11 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import sootup.core.frontend.SootClassSource;
 import sootup.core.types.ClassType;
+import sootup.java.core.JavaIdentifierFactory;
 import sootup.java.core.JavaModuleIdentifierFactory;
 import sootup.java.core.signatures.ModuleSignature;
 import sootup.java.core.views.JavaModuleView;
+import sootup.java.core.views.JavaView;
 
 /** @author Andreas Dann, Markus Schmidt */
 @Tag(TestCategories.JAVA_9_CATEGORY)
@@ -34,6 +37,31 @@ public class JrtFileSystemAnalysisInputLocationTest {
     assertEquals(sig, clazz.get().getClassType());
   }
 
+  @Test
+  public void getClassSourceWithoutModule() {
+    JrtFileSystemAnalysisInputLocation inputLocation = new JrtFileSystemAnalysisInputLocation();
+    JavaView view = new JavaView(inputLocation);
+    JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+
+    // the module of the class is looked up via its package
+    for (String className :
+        new String[] {"java.lang.String", "java.util.Map$Entry", "javax.xml.parsers.SAXParser"}) {
+      final ClassType sig = identifierFactory.getClassType(className);
+      final Optional<? extends SootClassSource> clazz = inputLocation.getClassSource(sig, view);
+      assertTrue(clazz.isPresent(), className);
+      assertEquals(sig, clazz.get().getClassType());
+    }
+
+    assertFalse(
+        inputLocation
+            .getClassSource(identifierFactory.getClassType("java.lang.NoSuchClass"), view)
+            .isPresent());
+    assertFalse(
+        inputLocation
+            .getClassSource(identifierFactory.getClassType("no.such.pkg.String"), view)
+            .isPresent());
+  }
+
   @Test
   public void getClassSources() {
     // hint: quite expensive as it loads **all** Runtime modules!
@@ -0,0 +1,125 @@
+package sootup.java.bytecode.inputlocation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import categories.TestCategories;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@Tag(TestCategories.JAVA_8_CATEGORY)
+public class MappedZipArchiveTest {
+
+  @TempDir Path tempDir;
+
+  private static byte[] toBytes(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    int n;
+    while ((n = in.read(buffer)) != -1) {
+      out.write(buffer, 0, n);
+    }
+    return out.toByteArray();
+  }
+
+  private void assertSameAsZipFile(Path archivePath) throws IOException {
+    MappedZipArchive archive = MappedZipArchive.open(archivePath);
+    List<String> names = new ArrayList<>();
+    try (ZipFile zipFile = new ZipFile(archivePath.toFile())) {
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        if (entry.isDirectory()) {
+          assertFalse(archive.contains(entry.getName()));
+          continue;
+        }
+        names.add(entry.getName());
+        try (InputStream in = zipFile.getInputStream(entry)) {
+          assertArrayEquals(readAll(in), toBytes(archive.getEntry(entry.getName()).get()));
+        }
+      }
+    }
+    assertEquals(names, new ArrayList<>(archive.getEntryNames()));
+  }
+
+  @Test
+  public void testJars() throws IOException {
+    assertSameAsZipFile(Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"));
+    assertSameAsZipFile(Paths.get("../shared-test-resources/multi-release-jar/mrjar.jar"));
+    assertSameAsZipFile(Paths.get("../shared-test-resources/soot-1580/jpush-android_v3.0.5.jar"));
+  }
+
+  @Test
+  public void testStoredAndDeflatedEntries() throws IOException {
+    Path archivePath = tempDir.resolve("entries.jar");
+    byte[] content = new byte[10000];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) (i % 7);
+    }
+    try (OutputStream out = Files.newOutputStream(archivePath);
+        ZipOutputStream zip = new ZipOutputStream(out)) {
+      zip.setComment("a comment that has to be skipped");
+      zip.putNextEntry(new ZipEntry("a/"));
+      zip.closeEntry();
+
+      ZipEntry stored = new ZipEntry("a/Stored.class");
+      stored.setMethod(ZipEntry.STORED);
+      stored.setSize(content.length);
+      CRC32 crc = new CRC32();
+      crc.update(content);
+      stored.setCrc(crc.getValue());
+      zip.putNextEntry(stored);
+      zip.write(content);
+      zip.closeEntry();
+
+      zip.putNextEntry(new ZipEntry("a/Deflated.class"));
+      zip.write(content);
+      zip.closeEntry();
+
+      zip.putNextEntry(new ZipEntry("Empty.class"));
+      zip.closeEntry();
+    }
+
+    assertSameAsZipFile(archivePath);
+
+    MappedZipArchive archive = MappedZipArchive.open(archivePath);
+    assertEquals(
+        Arrays.asList("a/Stored.class", "a/Deflated.class", "Empty.class"),
+        new ArrayList<>(archive.getEntryNames()));
+    assertFalse(archive.getEntry("a/Missing.class").isPresent());
+    assertEquals(0, archive.getEntry("Empty.class").get().remaining());
+
+    // stored entries are read-only views on the mapping
+    ByteBuffer stored = archive.getEntry("a/Stored.class").get();
+    assertTrue(stored.isReadOnly());
+    assertArrayEquals(content, toBytes(stored));
+    assertArrayEquals(content, toBytes(archive.getEntry("a/Deflated.class").get()));
+  }
+
+  @Test
+  public void testNoArchive() throws IOException {
+    Path noArchive = tempDir.resolve("NoArchive.jar");
+    Files.write(noArchive, new byte[] {1, 2, 3});
+    assertThrows(ZipException.class, () -> MappedZipArchive.open(noArchive));
+  }
+}
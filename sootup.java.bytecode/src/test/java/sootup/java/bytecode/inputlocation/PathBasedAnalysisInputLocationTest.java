@@ -23,16 +23,20 @@ package sootup.java.bytecode.inputlocation;
  */
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import categories.TestCategories;
 import java.io.File;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import sootup.core.frontend.ClassHeader;
+import sootup.core.frontend.SootClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.inputlocation.EagerInputLocation;
 import sootup.core.jimple.basic.NoPositionInformation;
@@ -105,6 +109,64 @@ public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTes
     testClassReceival(pathBasedNamespace, sigs, 6);
   }
 
+  @Test
+  public void testPackageIndex() {
+    PathBasedAnalysisInputLocation jarLocation =
+        PathBasedAnalysisInputLocation.create(jar, SourceType.Application);
+    assertEquals(
+        new HashSet<>(Arrays.asList("", "ds", "utils")), jarLocation.getPackageNames().get());
+
+    // the directory shadows the jar for the default package
+    final Path dir = cls.getParent();
+    JavaClassPathAnalysisInputLocation classPath =
+        new JavaClassPathAnalysisInputLocation(dir + File.pathSeparator + jar);
+    assertTrue(classPath.getPackageNames().get().containsAll(Arrays.asList("", "ds", "utils")));
+
+    JavaView view = new JavaView(classPath);
+    final Optional<JavaSootClassSource> employee =
+        classPath.getClassSource(getIdentifierFactory().getClassType("Employee"), view);
+    assertTrue(employee.isPresent());
+    assertTrue(employee.get().getSourcePath().startsWith(dir));
+    assertTrue(
+        classPath
+            .getClassSource(getIdentifierFactory().getClassType("Employee", "ds"), view)
+            .isPresent());
+    assertFalse(
+        classPath
+            .getClassSource(getIdentifierFactory().getClassType("Employee", "unknown.pkg"), view)
+            .isPresent());
+    assertTrue(
+        view.getClass(getIdentifierFactory().getClassType("Operations", "utils")).isPresent());
+  }
+
+  @Test
+  public void testClassHeaders() {
+    PathBasedAnalysisInputLocation jarLocation =
+        PathBasedAnalysisInputLocation.create(jar, SourceType.Application);
+    JavaView view = new JavaView(jarLocation);
+
+    Collection<ClassHeader> headers = jarLocation.getClassHeaders(view);
+    Collection<? extends SootClassSource> classSources = jarLocation.getClassSources(view);
+    assertEquals(classSources.size(), headers.size());
+    for (SootClassSource classSource : classSources) {
+      ClassHeader expected = ClassHeader.of(classSource);
+      ClassHeader header =
+          headers.stream()
+              .filter(h -> h.getType().equals(classSource.getClassType()))
+              .findAny()
+              .get();
+      assertEquals(expected.getSuperclass(), header.getSuperclass());
+      assertEquals(expected.getInterfaces(), header.getInterfaces());
+      assertEquals(expected.isInterface(), header.isInterface());
+    }
+
+    // building the hierarchy and walking up the superclasses does not resolve any class
+    ClassType employee = getIdentifierFactory().getClassType("Employee", "ds");
+    assertTrue(view.getTypeHierarchy().contains(employee));
+    assertFalse(view.getTypeHierarchy().superClassesOf(employee).isEmpty());
+    assertEquals(0, view.getCachedClassesCount());
+  }
+
   @Test
   public void testWar() {
     PathBasedAnalysisInputLocation pathBasedNamespace =
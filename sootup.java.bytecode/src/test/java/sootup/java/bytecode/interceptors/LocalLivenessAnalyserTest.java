@@ -1,10 +1,12 @@
 package sootup.java.bytecode.interceptors;
 
 import categories.TestCategories;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Set;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import sootup.core.graph.MutableBlockStmtGraph;
 import sootup.core.graph.MutableStmtGraph;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.NoPositionInformation;
@@ -17,6 +19,7 @@ import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
 import sootup.core.model.Position;
 import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
 import sootup.core.types.VoidType;
 import sootup.core.util.ImmutableUtils;
 import sootup.java.core.JavaIdentifierFactory;
@@ -56,6 +59,19 @@ public class LocalLivenessAnalyserTest {
       JavaJimple.newIfStmt(JavaJimple.newGtExpr(IntConstant.getInstance(9), a), noStmtPositionInfo);
   Stmt ret = JavaJimple.newReturnStmt(c, noStmtPositionInfo);
 
+  // stmts of a body with a trap
+  ClassType exception = factory.getClassType("java.lang.Throwable");
+  Local e = JavaJimple.newLocal("e", exception);
+  FallsThroughStmt beq1 =
+      JavaJimple.newAssignStmt(b, IntConstant.getInstance(1), noStmtPositionInfo);
+  FallsThroughStmt ceqbplus1 =
+      JavaJimple.newAssignStmt(
+          c, JavaJimple.newAddExpr(b, IntConstant.getInstance(1)), noStmtPositionInfo);
+  FallsThroughStmt caught =
+      JavaJimple.newIdentityStmt(
+          e, JavaJimple.getInstance().newCaughtExceptionRef(), noStmtPositionInfo);
+  Stmt reta = JavaJimple.newReturnStmt(a, noStmtPositionInfo);
+
   /**
    * a = 0;
    *
@@ -91,6 +107,45 @@ public class LocalLivenessAnalyserTest {
     AssertUtils.assertSetsEquiv(Collections.emptySet(), analyser.getLiveLocalsAfterStmt(ret));
   }
 
+  /**
+   *
+   *
+   * <pre>
+   *    a = 0;
+   *  label1:
+   *    b = 1;
+   *  label2:
+   *    c = b + 1;
+   *  label3:
+   *    return c;
+   *  label4:
+   *    e := @caughtexception;
+   *    return a;
+   *  catch Throwable from label1 to label2 with label4;
+   *  catch RuntimeException from label2 to label3 with label4;
+   * </pre>
+   *
+   * The first protected block consists of a single stmt.
+   */
+  @Test
+  public void testLivenessAnalyserWithTrap() {
+    LocalLivenessAnalyser analyser = new LocalLivenessAnalyser(createBodyWithTrap().getStmtGraph());
+    Set<Local> aSet = ImmutableUtils.immutableSet(a);
+    // a is live in the handler, so it is live at every stmt that can throw to the handler
+    AssertUtils.assertSetsEquiv(aSet, analyser.getLiveLocalsAfterStmt(aeq0));
+    AssertUtils.assertSetsEquiv(aSet, analyser.getLiveLocalsBeforeStmt(beq1));
+    AssertUtils.assertSetsEquiv(
+        ImmutableUtils.immutableSet(a, b), analyser.getLiveLocalsAfterStmt(beq1));
+    AssertUtils.assertSetsEquiv(
+        ImmutableUtils.immutableSet(a, b), analyser.getLiveLocalsBeforeStmt(ceqbplus1));
+    AssertUtils.assertSetsEquiv(
+        ImmutableUtils.immutableSet(a, c), analyser.getLiveLocalsAfterStmt(ceqbplus1));
+    AssertUtils.assertSetsEquiv(
+        ImmutableUtils.immutableSet(c), analyser.getLiveLocalsBeforeStmt(ret));
+    AssertUtils.assertSetsEquiv(aSet, analyser.getLiveLocalsBeforeStmt(caught));
+    AssertUtils.assertSetsEquiv(aSet, analyser.getLiveLocalsBeforeStmt(reta));
+  }
+
   private Body createBody() {
 
     Body.BodyBuilder builder = Body.builder();
@@ -119,4 +174,25 @@ public class LocalLivenessAnalyserTest {
 
     return builder.build();
   }
+
+  private Body createBodyWithTrap() {
+    MutableStmtGraph graph = new MutableBlockStmtGraph();
+    Body.BodyBuilder builder = Body.builder(graph);
+    builder.setMethodSignature(methodSignature);
+    builder.setLocals(ImmutableUtils.immutableSet(a, b, c, e));
+
+    graph.addBlock(Collections.singletonList(beq1), Collections.singletonMap(exception, caught));
+    // a different exception type keeps the protected blocks apart
+    graph.addBlock(
+        Collections.singletonList(ceqbplus1),
+        Collections.singletonMap(factory.getClassType("java.lang.RuntimeException"), caught));
+    graph.addBlock(Arrays.asList(caught, reta), Collections.emptyMap());
+    graph.addBlock(Collections.singletonList(ret), Collections.emptyMap());
+    graph.putEdge(aeq0, beq1);
+    graph.putEdge(beq1, ceqbplus1);
+    graph.putEdge(ceqbplus1, ret);
+    graph.setStartingStmt(aeq0);
+    builder.setPosition(NoPositionInformation.getInstance());
+    return builder.build();
+  }
 }
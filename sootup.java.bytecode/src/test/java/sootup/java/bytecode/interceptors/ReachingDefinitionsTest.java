@@ -0,0 +1,188 @@
+package sootup.java.bytecode.interceptors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import categories.TestCategories;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.graph.MutableStmtGraph;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.NoPositionInformation;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.stmt.BranchingStmt;
+import sootup.core.jimple.common.stmt.FallsThroughStmt;
+import sootup.core.jimple.common.stmt.JIfStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.model.Position;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
+import sootup.core.types.VoidType;
+import sootup.core.util.ImmutableUtils;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.interceptors.ReachingDefinitions;
+import sootup.java.core.language.JavaJimple;
+import sootup.java.core.types.JavaClassType;
+
+@Tag(TestCategories.JAVA_8_CATEGORY)
+public class ReachingDefinitionsTest {
+
+  // Preparation
+  JavaIdentifierFactory factory = JavaIdentifierFactory.getInstance();
+  StmtPositionInfo noStmtPositionInfo = StmtPositionInfo.getNoStmtPositionInfo();
+
+  JavaClassType intType = factory.getClassType("int");
+  JavaClassType classType = factory.getClassType("Test");
+  MethodSignature methodSignature =
+      new MethodSignature(classType, "test", Collections.emptyList(), VoidType.getInstance());
+
+  // build locals
+  Local a = JavaJimple.newLocal("a", intType);
+  Local b = JavaJimple.newLocal("b", intType);
+  Local c = JavaJimple.newLocal("c", intType);
+
+  FallsThroughStmt aeq0 =
+      JavaJimple.newAssignStmt(a, IntConstant.getInstance(0), noStmtPositionInfo);
+  FallsThroughStmt beqaplus1 =
+      JavaJimple.newAssignStmt(
+          b, JavaJimple.newAddExpr(a, IntConstant.getInstance(0)), noStmtPositionInfo);
+  FallsThroughStmt ceqcplusb =
+      JavaJimple.newAssignStmt(c, JavaJimple.newAddExpr(c, b), noStmtPositionInfo);
+  FallsThroughStmt aeqbplus2 =
+      JavaJimple.newAssignStmt(
+          a, JavaJimple.newAddExpr(b, IntConstant.getInstance(2)), noStmtPositionInfo);
+  BranchingStmt ifalt9 =
+      JavaJimple.newIfStmt(JavaJimple.newGtExpr(IntConstant.getInstance(9), a), noStmtPositionInfo);
+  Stmt ret = JavaJimple.newReturnStmt(c, noStmtPositionInfo);
+
+  // stmts of a body with a trap
+  ClassType exception = factory.getClassType("java.lang.Throwable");
+  Local e = JavaJimple.newLocal("e", exception);
+  FallsThroughStmt aeq1 =
+      JavaJimple.newAssignStmt(a, IntConstant.getInstance(1), noStmtPositionInfo);
+  FallsThroughStmt beq1 =
+      JavaJimple.newAssignStmt(b, IntConstant.getInstance(1), noStmtPositionInfo);
+  FallsThroughStmt caught =
+      JavaJimple.newIdentityStmt(
+          e, JavaJimple.getInstance().newCaughtExceptionRef(), noStmtPositionInfo);
+  Stmt reta = JavaJimple.newReturnStmt(a, noStmtPositionInfo);
+
+  /**
+   * a = 0;
+   *
+   * <p>label1: b = a + 0;
+   *
+   * <p>c = c + b;
+   *
+   * <p>a = b + 2;
+   *
+   * <p>if 9 > a goto label1;
+   *
+   * <p>return c;
+   */
+  @Test
+  public void testReachingDefinitions() {
+    Body body = createBody();
+    Body.BodyBuilder builder = Body.builder(body, Collections.emptySet());
+    ReachingDefinitions reachingDefs = new ReachingDefinitions(builder.getStmtGraph());
+    AssertUtils.assertSetsEquiv(Collections.emptySet(), reachingDefs.getReachingDefs(aeq0));
+    AssertUtils.assertSetsEquiv(
+        ImmutableUtils.immutableSet(aeq0, beqaplus1, ceqcplusb, aeqbplus2),
+        reachingDefs.getReachingDefs(beqaplus1));
+    AssertUtils.assertSetsEquiv(
+        ImmutableUtils.immutableSet(beqaplus1, ceqcplusb, aeqbplus2),
+        reachingDefs.getReachingDefs(ifalt9));
+    AssertUtils.assertSetsEquiv(
+        ImmutableUtils.immutableSet(beqaplus1, ceqcplusb, aeqbplus2),
+        reachingDefs.getReachingDefs(ret));
+
+    // both the initial definition and the one in the loop reach the use of a
+    AssertUtils.assertSetsEquiv(
+        ImmutableUtils.immutableSet(aeq0, aeqbplus2), reachingDefs.getDefsOfLocalUse(a, beqaplus1));
+    assertEquals(
+        Collections.singletonList(beqaplus1), reachingDefs.getDefsOfLocalUse(b, aeqbplus2));
+    assertEquals(Collections.singletonList(aeqbplus2), reachingDefs.getDefsOfLocalUse(a, ifalt9));
+    // c is used before it is defined the first time
+    assertEquals(
+        Collections.singletonList(ceqcplusb), reachingDefs.getDefsOfLocalUse(c, ceqcplusb));
+    assertEquals(Collections.singletonList(ceqcplusb), reachingDefs.getDefsOfLocalUse(c, ret));
+  }
+
+  /**
+   *
+   *
+   * <pre>
+   *    a = 0;
+   *  label1:
+   *    a = 1;
+   *    b = 1;
+   *  label2:
+   *    return c;
+   *  label3:
+   *    e := @caughtexception;
+   *    return a;
+   *  catch Throwable from label1 to label2 with label3;
+   * </pre>
+   */
+  @Test
+  public void testReachingDefinitionsWithTrap() {
+    ReachingDefinitions reachingDefs = new ReachingDefinitions(createBodyWithTrap().getStmtGraph());
+    AssertUtils.assertSetsEquiv(
+        ImmutableUtils.immutableSet(aeq1, beq1), reachingDefs.getReachingDefs(ret));
+    // a = 1 can throw before it is executed and b = 1 after a = 1 was executed
+    AssertUtils.assertSetsEquiv(
+        ImmutableUtils.immutableSet(aeq0, aeq1), reachingDefs.getReachingDefs(caught));
+    AssertUtils.assertSetsEquiv(
+        ImmutableUtils.immutableSet(aeq0, aeq1), reachingDefs.getDefsOfLocalUse(a, reta));
+  }
+
+  private Body createBody() {
+
+    Body.BodyBuilder builder = Body.builder();
+    final MutableStmtGraph stmtGraph = builder.getStmtGraph();
+    builder.setMethodSignature(methodSignature);
+
+    // build set locals
+    Set<Local> locals = ImmutableUtils.immutableSet(a, b, c);
+
+    builder.setLocals(locals);
+
+    // set graph
+    stmtGraph.putEdge(aeq0, beqaplus1);
+    stmtGraph.putEdge(beqaplus1, ceqcplusb);
+    stmtGraph.putEdge(ceqcplusb, aeqbplus2);
+    stmtGraph.putEdge(aeqbplus2, ifalt9);
+    stmtGraph.putEdge(ifalt9, JIfStmt.FALSE_BRANCH_IDX, ret);
+    stmtGraph.putEdge(ifalt9, JIfStmt.TRUE_BRANCH_IDX, beqaplus1);
+
+    // set first stmt
+    stmtGraph.setStartingStmt(aeq0);
+
+    // build position
+    Position position = NoPositionInformation.getInstance();
+    builder.setPosition(position);
+
+    return builder.build();
+  }
+
+  private Body createBodyWithTrap() {
+    MutableStmtGraph graph = new MutableBlockStmtGraph();
+    Body.BodyBuilder builder = Body.builder(graph);
+    builder.setMethodSignature(methodSignature);
+    builder.setLocals(ImmutableUtils.immutableSet(a, b, c, e));
+
+    graph.addBlock(Arrays.asList(aeq1, beq1), Collections.singletonMap(exception, caught));
+    graph.addBlock(Arrays.asList(caught, reta), Collections.emptyMap());
+    graph.addBlock(Collections.singletonList(ret), Collections.emptyMap());
+    graph.putEdge(aeq0, aeq1);
+    graph.putEdge(beq1, ret);
+    graph.setStartingStmt(aeq0);
+    builder.setPosition(NoPositionInformation.getInstance());
+    return builder.build();
+  }
+}
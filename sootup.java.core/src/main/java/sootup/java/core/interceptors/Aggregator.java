@@ -59,6 +59,12 @@ public class Aggregator implements BodyInterceptor {
     this.dontAggregateFieldLocals = dontAggregateFieldLocals;
   }
 
+  @Nonnull
+  @Override
+  public Optional<String> getConfigurationKey() {
+    return Optional.of("dontAggregateFieldLocals=" + dontAggregateFieldLocals);
+  }
+
   /**
    * Traverse the statements in the given body, looking for aggregation possibilities; that is,
    * given a def d and a use u, d has no other uses, u has no other defs, collapse d and u.
@@ -60,6 +60,12 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
     this.eliminateOnlyStackLocals = eliminateOnlyStackLocals;
   }
 
+  @Nonnull
+  @Override
+  public Optional<String> getConfigurationKey() {
+    return Optional.of("eliminateOnlyStackLocals=" + eliminateOnlyStackLocals);
+  }
+
   @Override
   public void interceptBody(@Nonnull Body.BodyBuilder builder, @Nonnull View view) {
     MutableStmtGraph stmtGraph = builder.getStmtGraph();
@@ -194,14 +200,16 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
     }
 
     // Remove the dead statements from the stmtGraph
+    MutableStmtGraph.Batch batch = stmtGraph.startBatch();
     for (Stmt stmt : stmts) {
       if (!essentialStmts.contains(stmt)) {
         if (stmtGraph.containsNode(stmt)) {
-          stmtGraph.removeNode(stmt);
+          batch.removeNode(stmt);
           builder.removeDefLocalsOf(stmt);
         }
       }
     }
+    batch.commit();
 
     if (!containsInvoke) {
       return;
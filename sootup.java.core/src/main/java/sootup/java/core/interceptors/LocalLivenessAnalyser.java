@@ -24,135 +24,81 @@ package sootup.java.core.interceptors;
 
 import java.util.*;
 import javax.annotation.Nonnull;
+import sootup.core.graph.BitVectorFlowAnalysis;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.basic.LValue;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.Value;
 import sootup.core.jimple.common.stmt.Stmt;
 
-/** @author Zun Wang */
-public class LocalLivenessAnalyser {
+/**
+ * Computes the live locals before and after each stmt. A local is live at a stmt if it is used on
+ * a path from the stmt before it is redefined. The locals are numbered densely, so the analysis
+ * runs on bit vectors, see {@link BitVectorFlowAnalysis}.
+ *
+ * @author Zun Wang
+ */
+public class LocalLivenessAnalyser extends BitVectorFlowAnalysis {
 
-  // Each stmt(node) has out-edges and in-edges
-  // A local is live-in at a node if it is live on any its in-edges
-  private final Map<Stmt, Set<Local>> liveIn = new HashMap<>();
-  // A local is live-out at a node if it is live on any of its out-edges.
-  // e.g: a = b + c; live-in={b,c}  live-out={a,b,c}
-  private final Map<Stmt, Set<Local>> liveOut = new HashMap<>();
+  /** the locals by their id */
+  private final List<Local> locals = new ArrayList<>();
+
+  private final Map<Local, Integer> localIds = new HashMap<>();
 
   public LocalLivenessAnalyser(@Nonnull StmtGraph<?> graph) {
-    // initial liveIn and liveOut
-    List<Stmt> startingStmts = new ArrayList<>();
-    for (Stmt stmt : graph.getNodes()) {
-      liveIn.put(stmt, Collections.emptySet());
-      liveOut.put(stmt, Collections.emptySet());
-      if (graph.successors(stmt).isEmpty() && graph.exceptionalSuccessors(stmt).isEmpty()) {
-        startingStmts.add(stmt);
-      }
+    super(graph, false);
+    for (Stmt stmt : getStmts()) {
+      stmt.getUses().forEach(this::numberLocal);
+      stmt.getDef().ifPresent(this::numberLocal);
     }
+    solve(locals.size());
+  }
 
-    boolean fixed = false;
-    while (!fixed) {
-      fixed = true;
-      Deque<Stmt> queue = new ArrayDeque<>(startingStmts);
-      HashSet<Stmt> visitedStmts = new HashSet<>();
-      while (!queue.isEmpty()) {
-        Stmt stmt = queue.removeFirst();
-        visitedStmts.add(stmt);
-
-        Set<Local> out = new HashSet<>(liveOut.get(stmt));
-        for (Stmt succ : graph.successors(stmt)) {
-          out = merge(out, liveIn.get(succ));
-        }
-        for (Stmt esucc : graph.exceptionalSuccessors(stmt).values()) {
-          out = merge(out, liveIn.get(esucc));
-        }
-        if (isNotEqual(out, liveOut.get(stmt))) {
-          fixed = false;
-          liveOut.put(stmt, new HashSet<>(out));
-        }
+  private void numberLocal(@Nonnull Value value) {
+    if (value instanceof Local && !localIds.containsKey(value)) {
+      localIds.put((Local) value, locals.size());
+      locals.add((Local) value);
+    }
+  }
 
-        Set<Local> in = new HashSet<>();
-        for (Iterator<Value> iterator = stmt.getUses().iterator(); iterator.hasNext(); ) {
-          Value use = iterator.next();
-          if (use instanceof Local) {
-            in.add((Local) use);
-          }
-        }
-        final Optional<LValue> def = stmt.getDef();
-        if (def.isPresent()) {
-          final Value value = def.get();
-          if (value instanceof Local) {
-            out.remove(value);
-          }
-        }
-        in = merge(in, out);
-        if (isNotEqual(in, liveIn.get(stmt))) {
-          fixed = false;
-          liveIn.put(stmt, in);
-        }
-        for (Stmt pred : graph.predecessors(stmt)) {
-          if (!visitedStmts.contains(pred)) {
-            queue.addLast(pred);
-          }
-        }
-        for (Stmt epred : graph.exceptionalPredecessors(stmt)) {
-          if (!visitedStmts.contains(epred)) {
-            queue.addLast(epred);
-          }
-        }
-      }
+  @Override
+  protected void computeGenKill(@Nonnull Stmt stmt, @Nonnull long[] gen, @Nonnull long[] kill) {
+    // a local is live before a stmt if the stmt uses it, and dead if the stmt defines it
+    stmt.getUses()
+        .filter(use -> use instanceof Local)
+        .forEach(use -> set(gen, localIds.get(use)));
+    final Optional<LValue> def = stmt.getDef();
+    if (def.isPresent() && def.get() instanceof Local) {
+      set(kill, localIds.get(def.get()));
     }
   }
 
   /** Get all live locals before the given stmt. */
   @Nonnull
   public Set<Local> getLiveLocalsBeforeStmt(@Nonnull Stmt stmt) {
-    if (!liveIn.containsKey(stmt)) {
-      throw new RuntimeException("Stmt: " + stmt + " is not in StmtGraph!");
-    }
-    return liveIn.get(stmt);
+    checkContains(stmt);
+    return toLocals(getElementsBefore(stmt));
   }
 
   /** Get all live locals after the given stmt. */
   @Nonnull
   public Set<Local> getLiveLocalsAfterStmt(@Nonnull Stmt stmt) {
-    if (!liveOut.containsKey(stmt)) {
-      throw new RuntimeException("Stmt: " + stmt + " is not in StmtGraph!");
-    }
-    return liveOut.get(stmt);
+    checkContains(stmt);
+    return toLocals(getElementsAfter(stmt));
   }
 
-  /**
-   * Merge two local sets into one set.
-   *
-   * @return a merged local set
-   */
-  @Nonnull
-  private Set<Local> merge(@Nonnull Set<Local> set1, @Nonnull Set<Local> set2) {
-    if (set1.isEmpty()) {
-      return set2;
-    } else {
-      set1.addAll(set2);
-      return set1;
+  private void checkContains(@Nonnull Stmt stmt) {
+    if (!containsStmt(stmt)) {
+      throw new RuntimeException("Stmt: " + stmt + " is not in StmtGraph!");
     }
   }
 
-  /**
-   * Check whether two sets contains same locals.
-   *
-   * @return if same return true, else return false;
-   */
-  private boolean isNotEqual(@Nonnull Set<Local> set1, @Nonnull Set<Local> set2) {
-    if (set1.size() != set2.size()) {
-      return true;
-    } else {
-      for (Local local : set1) {
-        if (!set2.contains(local)) {
-          return true;
-        }
-      }
+  @Nonnull
+  private Set<Local> toLocals(@Nonnull int[] ids) {
+    Set<Local> liveLocals = new HashSet<>(ids.length * 2);
+    for (int id : ids) {
+      liveLocals.add(locals.get(id));
     }
-    return false;
+    return liveLocals;
   }
 }
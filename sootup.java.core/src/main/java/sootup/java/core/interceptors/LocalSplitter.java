@@ -26,6 +26,7 @@ import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import sootup.core.graph.DenseNumbering;
 import sootup.core.graph.MutableStmtGraph;
 import sootup.core.jimple.basic.LValue;
 import sootup.core.jimple.basic.Local;
@@ -198,6 +199,7 @@ public class LocalSplitter implements BodyInterceptor {
     // Maps every local to its assignment stmts.
     // Contains indices to the above list to reduce bookkeeping when modifying stmts.
     Map<Local, List<Integer>> assignmentsByLocal = groupAssignmentsByLocal(stmts);
+    BitSet visited = new BitSet(stmts.size());
 
     Set<Local> newLocals = new HashSet<>();
 
@@ -223,19 +225,24 @@ public class LocalSplitter implements BodyInterceptor {
 
       // Walk the statement graph starting from every definition and union all uses until a
       // different definition is encountered.
+      // The numbering is fetched per local: the stmts replaced for the previous locals keep their
+      // ids in the cached numbering, but a replacement that changes the flows recomputes it.
+      DenseNumbering<Stmt> stmtNumbering = graph.getStmtNumbering();
       for (AbstractDefinitionStmt assignment : assignments) {
         PartialStmt defStmt = new PartialStmt(assignment, true);
         disjointSet.add(defStmt);
 
         Deque<Stmt> stack = new ArrayDeque<>(graph.successors(assignment));
         stack.addAll(graph.exceptionalSuccessors(assignment).values());
-        Set<Stmt> visited = new HashSet<>();
+        visited.clear();
 
         while (!stack.isEmpty()) {
           Stmt stmt = stack.pop();
-          if (!visited.add(stmt)) {
+          int stmtId = stmtNumbering.getId(stmt);
+          if (visited.get(stmtId)) {
             continue;
           }
+          visited.set(stmtId);
 
           if (stmt.getUses().anyMatch(l -> l == local)) {
             PartialStmt useStmt = new PartialStmt(stmt, false);
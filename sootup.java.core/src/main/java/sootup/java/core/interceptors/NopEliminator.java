@@ -55,8 +55,10 @@ public class NopEliminator implements BodyInterceptor {
       }
     }
 
+    MutableStmtGraph.Batch batch = graph.startBatch();
     for (Stmt stmt : q) {
-      graph.removeNode(stmt);
+      batch.removeNode(stmt);
     }
+    batch.commit();
   }
 }
@@ -0,0 +1,99 @@
+package sootup.java.core.interceptors;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import javax.annotation.Nonnull;
+import sootup.core.graph.BitVectorFlowAnalysis;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.basic.LValue;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.common.stmt.Stmt;
+
+/**
+ * Computes the definitions of locals that reach each stmt. A definition is a stmt that assigns a
+ * local, and it reaches a stmt if there is a path from the definition to the stmt on which the
+ * local is not redefined. The definitions are numbered densely, so the analysis runs on bit
+ * vectors, see {@link BitVectorFlowAnalysis}.
+ */
+public class ReachingDefinitions extends BitVectorFlowAnalysis {
+
+  /** the definitions by their id */
+  private final List<Stmt> defs = new ArrayList<>();
+
+  /** the id of each definition */
+  private final Map<Stmt, Integer> defIds = new IdentityHashMap<>();
+
+  /** the ids of the definitions of each local */
+  private final Map<Local, BitSet> defIdsOfLocal = new HashMap<>();
+
+  public ReachingDefinitions(@Nonnull StmtGraph<?> graph) {
+    super(graph, true);
+    for (Stmt stmt : getStmts()) {
+      final Optional<LValue> def = stmt.getDef();
+      if (def.isPresent() && def.get() instanceof Local) {
+        int id = defs.size();
+        defs.add(stmt);
+        defIds.put(stmt, id);
+        defIdsOfLocal.computeIfAbsent((Local) def.get(), local -> new BitSet()).set(id);
+      }
+    }
+    solve(defs.size());
+  }
+
+  @Override
+  protected void computeGenKill(@Nonnull Stmt stmt, @Nonnull long[] gen, @Nonnull long[] kill) {
+    Integer id = defIds.get(stmt);
+    if (id == null) {
+      return;
+    }
+    // a definition kills all the other definitions of its local
+    BitSet defsOfLocal = defIdsOfLocal.get((Local) stmt.getDef().get());
+    defsOfLocal.stream().forEach(other -> set(kill, other));
+    set(gen, id);
+  }
+
+  /** Get all definitions that reach the given stmt, i.e. hold before its execution. */
+  @Nonnull
+  public List<Stmt> getReachingDefs(@Nonnull Stmt stmt) {
+    int[] ids = getElementsBefore(stmt);
+    List<Stmt> reachingDefs = new ArrayList<>(ids.length);
+    for (int id : ids) {
+      reachingDefs.add(defs.get(id));
+    }
+    return reachingDefs;
+  }
+
+  /** Get the definitions of the local that reach the given stmt which uses the local. */
+  @Nonnull
+  public List<Stmt> getDefsOfLocalUse(@Nonnull Local local, @Nonnull Stmt stmt) {
+    BitSet defsOfLocal = defIdsOfLocal.getOrDefault(local, new BitSet());
+    List<Stmt> reachingDefs = new ArrayList<>();
+    for (int id = defsOfLocal.nextSetBit(0); id >= 0; id = defsOfLocal.nextSetBit(id + 1)) {
+      if (isSetBefore(stmt, id)) {
+        reachingDefs.add(defs.get(id));
+      }
+    }
+    return reachingDefs;
+  }
+}
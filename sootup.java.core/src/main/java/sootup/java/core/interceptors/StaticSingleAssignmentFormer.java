@@ -88,7 +88,9 @@ public class StaticSingleAssignmentFormer implements BodyInterceptor {
       blockToDefs.put(block, defs);
     }
 
-    DominanceFinder dominanceFinder = new DominanceFinder(stmtGraph);
+    DominanceFinder dominanceFinder = stmtGraph.getAnalysisCache().getDominanceFinder();
+    // the phiStmts are added at the start of the blocks, so keep the tree of the current blocks
+    DominanceTree tree = stmtGraph.getAnalysisCache().getDominanceTree();
 
     // decide which block should be add a phi assignStmt, and store such info in a map
     // key: Block which contains phiStmts. Values : a set of phiStmts which contained by
@@ -99,8 +101,6 @@ public class StaticSingleAssignmentFormer implements BodyInterceptor {
     // delete meaningless phiStmts and add other phiStmts into stmtGraph
     addPhiStmts(blockToPhiStmts, stmtGraph, blockToDefs);
 
-    DominanceTree tree = new DominanceTree(dominanceFinder);
-
     Map<Local, Stack<Local>> localToNameStack = new HashMap<>();
     for (Local local : builder.getLocals()) {
       localToNameStack.put(local, new Stack<>());
@@ -65,9 +65,11 @@ public class UnreachableCodeEliminator implements BodyInterceptor {
       }
     }
 
+    MutableStmtGraph.Batch batch = graph.startBatch();
     for (Stmt stmt : removeQ) {
-      graph.removeNode(stmt, false);
+      batch.removeNode(stmt, false);
       builder.removeDefLocalsOf(stmt);
     }
+    batch.commit();
   }
 }
@@ -22,18 +22,34 @@ package sootup.java.core.views;
  * #L%
  */
 
+import com.google.common.base.Suppliers;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.cache.BodyCache;
 import sootup.core.cache.ClassCache;
+import sootup.core.cache.ConcurrentFullCache;
 import sootup.core.cache.FullCache;
+import sootup.core.cache.provider.BodyCacheProvider;
 import sootup.core.cache.provider.ClassCacheProvider;
 import sootup.core.cache.provider.FullCacheProvider;
 import sootup.core.frontend.AbstractClassSource;
+import sootup.core.frontend.ClassHeader;
+import sootup.core.frontend.SootClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.InputLocationPackageIndex;
+import sootup.core.model.SootClass;
 import sootup.core.signatures.FieldSignature;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.types.ClassType;
@@ -45,6 +61,20 @@ import sootup.java.core.types.AnnotationType;
  * The Class JavaView manages the Java classes of the application being analyzed. This view cannot
  * be altered after its creation.
  *
+ * <p>If the view is created with a {@link sootup.core.cache.provider.ConcurrentFullCacheProvider},
+ * classes are resolved without locking the whole view: every {@link ClassType} is resolved exactly
+ * once, cache hits never block and different classes can be resolved in parallel.
+ *
+ * <p>The annotations of an annotation class are resolved once, when the class is resolved.
+ *
+ * <p>If the view is created with a {@link BodyCacheProvider}, the bodies of the methods of all
+ * resolved classes are held by the provided {@link BodyCache}, which may drop them e.g. under
+ * memory pressure. The classes themselves stay resident in the class cache.
+ *
+ * <p>If the view is created with a {@link SharedLibraryView}, the classes that are not provided by
+ * the input locations of this view are taken from the shared view, e.g. the classes of the JDK.
+ * Those classes are resolved and converted once and not stored in the cache of this view.
+ *
  * @author Linghui Luo created on 31.07.2018
  * @author Jan Martin Persch
  */
@@ -53,9 +83,23 @@ public class JavaView extends AbstractView {
 
   @Nonnull protected final List<AnalysisInputLocation> inputLocations;
   @Nonnull protected final ClassCache cache;
+  @Nullable protected final BodyCache bodyCache;
+  @Nullable protected final SharedLibraryView libraryView;
+
+  /** built on the first lookup, so that only views that resolve classes by type pay for it. */
+  @Nonnull private final Supplier<InputLocationPackageIndex<AnalysisInputLocation>> packageIndex;
 
   protected volatile boolean isFullyResolved = false;
 
+  /**
+   * the classes whose annotations are being resolved in their slot of a {@link
+   * ConcurrentFullCache}. The annotations of annotation classes can refer to each other (e.g.
+   * <code>@Documented</code> and <code>@Retention</code>), so these classes are returned instead of
+   * waiting for their slot.
+   */
+  @Nonnull
+  private final Map<ClassType, JavaSootClass> classesInResolution = new ConcurrentHashMap<>();
+
   public JavaView(@Nonnull AnalysisInputLocation inputLocation) {
     this(Collections.singletonList(inputLocation));
   }
@@ -70,20 +114,98 @@ public class JavaView extends AbstractView {
     this(inputLocations, cacheProvider, JavaIdentifierFactory.getInstance());
   }
 
+  public JavaView(
+      @Nonnull List<AnalysisInputLocation> inputLocations,
+      @Nonnull ClassCacheProvider cacheProvider,
+      @Nonnull BodyCacheProvider bodyCacheProvider) {
+    this(
+        inputLocations,
+        cacheProvider,
+        bodyCacheProvider.createCache(),
+        JavaIdentifierFactory.getInstance());
+  }
+
+  /**
+   * @param libraryView provides the classes which are not provided by the given input locations,
+   *     see {@link SharedLibraryView#SharedLibraryView(List)}
+   */
+  public JavaView(
+      @Nonnull List<AnalysisInputLocation> inputLocations,
+      @Nonnull SharedLibraryView libraryView) {
+    this(inputLocations, new FullCacheProvider(), libraryView);
+  }
+
+  public JavaView(
+      @Nonnull List<AnalysisInputLocation> inputLocations,
+      @Nonnull ClassCacheProvider cacheProvider,
+      @Nonnull SharedLibraryView libraryView) {
+    this(inputLocations, cacheProvider, null, libraryView, JavaIdentifierFactory.getInstance());
+  }
+
+  protected JavaView(
+      @Nonnull List<AnalysisInputLocation> inputLocations,
+      @Nonnull ClassCacheProvider cacheProvider,
+      @Nonnull JavaIdentifierFactory idf) {
+    this(inputLocations, cacheProvider, null, idf);
+  }
+
+  protected JavaView(
+      @Nonnull List<AnalysisInputLocation> inputLocations,
+      @Nonnull ClassCacheProvider cacheProvider,
+      @Nullable BodyCache bodyCache,
+      @Nonnull JavaIdentifierFactory idf) {
+    this(inputLocations, cacheProvider, bodyCache, null, idf);
+  }
+
   protected JavaView(
       @Nonnull List<AnalysisInputLocation> inputLocations,
       @Nonnull ClassCacheProvider cacheProvider,
+      @Nullable BodyCache bodyCache,
+      @Nullable SharedLibraryView libraryView,
       @Nonnull JavaIdentifierFactory idf) {
     this.inputLocations = inputLocations;
+    this.packageIndex = Suppliers.memoize(() -> new InputLocationPackageIndex<>(inputLocations));
     this.cache = cacheProvider.createCache();
+    this.bodyCache = bodyCache;
+    this.libraryView = libraryView;
     this.identifierFactory = idf;
   }
 
   /** Resolves all classes that are part of the view and stores them in the cache. */
   @Override
   @Nonnull
-  public synchronized Collection<JavaSootClass> getClasses() {
-    if (isFullyResolved && cache instanceof FullCache) {
+  public Collection<JavaSootClass> getClasses() {
+    final Collection<JavaSootClass> classes;
+    if (isConcurrent()) {
+      classes = resolveAll();
+    } else {
+      synchronized (this) {
+        classes = resolveAll();
+      }
+    }
+    return libraryView == null ? classes : addLibraryClasses(classes, libraryView.getClasses());
+  }
+
+  /** appends the classes of the shared library view that are not shadowed by this view. */
+  @Nonnull
+  private Collection<JavaSootClass> addLibraryClasses(
+      @Nonnull Collection<JavaSootClass> classes,
+      @Nonnull Collection<JavaSootClass> libraryClasses) {
+    final Set<ClassType> types =
+        classes.stream().map(JavaSootClass::getType).collect(Collectors.toSet());
+    final List<JavaSootClass> allClasses = new ArrayList<>(classes.size() + libraryClasses.size());
+    allClasses.addAll(classes);
+    for (JavaSootClass libraryClass : libraryClasses) {
+      if (!types.contains(libraryClass.getType())) {
+        allClasses.add(libraryClass);
+      }
+    }
+    return allClasses;
+  }
+
+  @Nonnull
+  private Collection<JavaSootClass> resolveAll() {
+    if (isFullyResolved && (cache instanceof FullCache || cache instanceof ConcurrentFullCache)) {
       return cache.getClasses().stream()
           .map(clazz -> (JavaSootClass) clazz)
           .collect(Collectors.toList());
@@ -102,17 +224,156 @@ public class JavaView extends AbstractView {
     return resolvedClasses;
   }
 
-  /** Resolves the class matching the provided {@link ClassType ClassType}. */
+  /**
+   * Resolves all classes that are part of the view like {@link #getClasses()}, but concurrently in
+   * the given pool, which bounds the parallelism e.g. <code>new ForkJoinPool(4)</code>: the
+   * contained input locations (see {@link AnalysisInputLocation#getContainedInputLocations()}) are
+   * scanned in parallel, the bytecode locations parse their class files in parallel and the
+   * classes are built in parallel.
+   *
+   * <p>The result is deterministic: the classes are ordered like the class sources of the input
+   * locations and if several locations provide a class of the same type, the one of the first
+   * location is taken, like by {@link #getClass(ClassType)}. Once all classes are resolved and
+   * kept by a full cache, the cached classes are returned like by {@link #getClasses()}, i.e. in
+   * the order of the cache.
+   */
+  @Nonnull
+  public Collection<JavaSootClass> getClasses(@Nonnull ForkJoinPool executor) {
+    if (isFullyResolved && (cache instanceof FullCache || cache instanceof ConcurrentFullCache)) {
+      return getClasses();
+    }
+
+    final List<AnalysisInputLocation> locations =
+        inputLocations.stream()
+            .flatMap(location -> location.getContainedInputLocations().stream())
+            .collect(Collectors.toList());
+    final List<Collection<? extends SootClassSource>> classSourcesPerLocation =
+        executor
+            .submit(
+                () ->
+                    locations.parallelStream()
+                        .<Collection<? extends SootClassSource>>map(
+                            location -> location.getClassSources(this, true))
+                        .collect(Collectors.toList()))
+            .join();
+
+    final Map<ClassType, JavaSootClassSource> classSources = new LinkedHashMap<>();
+    for (Collection<? extends SootClassSource> locationClassSources : classSourcesPerLocation) {
+      for (SootClassSource classSource : locationClassSources) {
+        classSources.putIfAbsent(classSource.getClassType(), (JavaSootClassSource) classSource);
+      }
+    }
+
+    final List<JavaSootClass> resolvedClasses;
+    if (isConcurrent()) {
+      resolvedClasses =
+          executor
+              .submit(
+                  () ->
+                      classSources.values().parallelStream()
+                          .map(this::buildClassFrom)
+                          .map(Optional::get)
+                          .collect(Collectors.toList()))
+              .join();
+    } else {
+      // build the classes without holding the lock of the view, then cache them in order
+      final Set<ClassType> cachedTypes;
+      synchronized (this) {
+        cachedTypes =
+            classSources.keySet().stream().filter(cache::hasClass).collect(Collectors.toSet());
+      }
+      final List<JavaSootClass> builtClasses =
+          executor
+              .submit(
+                  () ->
+                      classSources.values().parallelStream()
+                          .map(
+                              src ->
+                                  cachedTypes.contains(src.getClassType())
+                                      ? null
+                                      : createClassFrom(src))
+                          .collect(Collectors.toList()))
+              .join();
+
+      resolvedClasses = new ArrayList<>(builtClasses.size());
+      final List<JavaSootClass> cachedClasses = new ArrayList<>();
+      synchronized (this) {
+        int i = 0;
+        for (JavaSootClassSource classSource : classSources.values()) {
+          final ClassType classType = classSource.getClassType();
+          JavaSootClass theClass = builtClasses.get(i++);
+          if (cache.hasClass(classType)) {
+            theClass = (JavaSootClass) cache.getClass(classType);
+          } else {
+            if (theClass == null) {
+              // the class was cached before, but has been evicted since e.g. by an LRU cache
+              theClass = createClassFrom(classSource);
+            }
+            cache.putClass(classType, theClass);
+            cachedClasses.add(theClass);
+          }
+          resolvedClasses.add(theClass);
+        }
+        // like getOrCreateClass(): after caching, as the annotations can refer to other classes
+        cachedClasses.forEach(this::resolveAnnotations);
+      }
+    }
+
+    isFullyResolved = true;
+
+    return libraryView == null
+        ? resolvedClasses
+        : addLibraryClasses(resolvedClasses, libraryView.getClasses(executor));
+  }
+
+  /**
+   * Reads the headers of all classes that are part of the view without resolving them. Classes
+   * that are already resolved take precedence over the input locations, as they may have been
+   * replaced e.g. in a {@link MutableJavaView}.
+   */
   @Override
   @Nonnull
-  public synchronized Optional<JavaSootClass> getClass(@Nonnull ClassType type) {
-    JavaSootClass cachedClass = (JavaSootClass) cache.getClass(type);
-    if (cachedClass != null) {
-      return Optional.of(cachedClass);
+  public Collection<ClassHeader> getClassHeaders() {
+    final Map<ClassType, ClassHeader> headers = new LinkedHashMap<>();
+    final Collection<SootClass> cachedClasses;
+    synchronized (this) {
+      cachedClasses = new ArrayList<>(cache.getClasses());
     }
+    cachedClasses.forEach(clazz -> headers.put(clazz.getType(), ClassHeader.of(clazz)));
+    if (!isFullyResolved
+        || !(cache instanceof FullCache || cache instanceof ConcurrentFullCache)) {
+      // like getClassSource(): the first location that provides a class shadows the later ones
+      for (AnalysisInputLocation inputLocation : inputLocations) {
+        inputLocation
+            .getClassHeaders(this)
+            .forEach(header -> headers.putIfAbsent(header.getType(), header));
+      }
+    }
+    if (libraryView != null) {
+      libraryView
+          .getClassHeaders()
+          .forEach(header -> headers.putIfAbsent(header.getType(), header));
+    }
+    return headers.values();
+  }
 
-    Optional<JavaSootClassSource> abstractClass = getClassSource(type);
-    return abstractClass.flatMap(this::buildClassFrom);
+  /**
+   * Resolves the class matching the provided {@link ClassType ClassType}. The input locations of
+   * this view take precedence over the shared library view, if there is one.
+   */
+  @Override
+  @Nonnull
+  public Optional<JavaSootClass> getClass(@Nonnull ClassType type) {
+    final Optional<JavaSootClass> theClass = resolveClass(type);
+    if (theClass.isPresent() || libraryView == null) {
+      return theClass;
+    }
+    return libraryView.getClass(type);
+  }
+
+  @Nonnull
+  private Optional<JavaSootClass> resolveClass(@Nonnull ClassType type) {
+    return getOrCreateClass(type, () -> getClassSource(type));
   }
 
   @Override
@@ -135,14 +396,31 @@ public class JavaView extends AbstractView {
     return identifierFactory;
   }
 
-  /** Returns the number of classes that are currently stored in the cache. */
+  /**
+   * Returns the number of classes that are currently stored in the cache. Classes of the shared
+   * library view are not counted.
+   */
   public int getCachedClassesCount() {
     return cache.size();
   }
 
+  /** Returns the shared view providing the library classes, if the view was created with one. */
+  @Nonnull
+  public Optional<SharedLibraryView> getLibraryView() {
+    return Optional.ofNullable(libraryView);
+  }
+
+  /** Returns the cache holding the method bodies, if the view was configured with one. */
+  @Nonnull
+  public Optional<BodyCache> getBodyCache() {
+    return Optional.ofNullable(bodyCache);
+  }
+
   @Nonnull
   protected Optional<JavaSootClassSource> getClassSource(@Nonnull ClassType type) {
-    return inputLocations
+    return packageIndex
+        .get()
+        .getInputLocations(type)
         .parallelStream()
         .map(location -> location.getClassSource(type, this))
         .filter(Optional::isPresent)
@@ -155,24 +433,90 @@ public class JavaView extends AbstractView {
   }
 
   @Nonnull
-  protected synchronized Optional<JavaSootClass> buildClassFrom(AbstractClassSource classSource) {
+  protected Optional<JavaSootClass> buildClassFrom(AbstractClassSource classSource) {
+    return getOrCreateClass(classSource.getClassType(), () -> Optional.of(classSource));
+  }
 
-    ClassType classType = classSource.getClassType();
-    JavaSootClass theClass;
-    if (cache.hasClass(classType)) {
-      theClass = (JavaSootClass) cache.getClass(classType);
-    } else {
-      theClass =
-          (JavaSootClass)
-              classSource.buildClass(classSource.getAnalysisInputLocation().getSourceType());
-      cache.putClass(classType, theClass);
+  /**
+   * Returns the cached class of the given type or creates it from its class source and caches it.
+   * The annotations of a created class are resolved once, before other threads can access it: in
+   * the compute-once slot of a {@link ConcurrentFullCache} or else under the lock of the view.
+   *
+   * @param classSource provides the class source of the type, it is only called if the class is
+   *     not cached yet
+   */
+  @Nonnull
+  private Optional<JavaSootClass> getOrCreateClass(
+      @Nonnull ClassType type,
+      @Nonnull Supplier<Optional<? extends AbstractClassSource>> classSource) {
+    if (isConcurrent()) {
+      JavaSootClass theClass = (JavaSootClass) cache.getClass(type);
+      if (theClass == null) {
+        theClass = classesInResolution.get(type);
+      }
+      if (theClass == null) {
+        theClass =
+            (JavaSootClass)
+                ((ConcurrentFullCache) cache)
+                    .computeIfAbsent(
+                        type, t -> classSource.get().map(this::createResolvedClass).orElse(null));
+      }
+      return Optional.ofNullable(theClass);
+    }
+
+    synchronized (this) {
+      JavaSootClass theClass = (JavaSootClass) cache.getClass(type);
+      if (theClass == null) {
+        final Optional<? extends AbstractClassSource> source = classSource.get();
+        if (!source.isPresent()) {
+          return Optional.empty();
+        }
+        theClass = createClassFrom(source.get());
+        // cached first, as the annotations can refer to the class itself
+        cache.putClass(type, theClass);
+        resolveAnnotations(theClass);
+      }
+      return Optional.of(theClass);
     }
+  }
 
+  /** Creates the class and resolves its annotations within its slot of the concurrent cache. */
+  @Nonnull
+  private JavaSootClass createResolvedClass(@Nonnull AbstractClassSource classSource) {
+    final JavaSootClass theClass = createClassFrom(classSource);
+    if (!(theClass.getType() instanceof AnnotationType)) {
+      return theClass;
+    }
+    classesInResolution.put(theClass.getType(), theClass);
+    try {
+      return resolveAnnotations(theClass);
+    } finally {
+      classesInResolution.remove(theClass.getType());
+    }
+  }
+
+  /** Returns whether classes are resolved lock-free via a {@link ConcurrentFullCache}. */
+  protected boolean isConcurrent() {
+    return cache instanceof ConcurrentFullCache;
+  }
+
+  @Nonnull
+  private JavaSootClass createClassFrom(@Nonnull AbstractClassSource classSource) {
+    JavaSootClass theClass =
+        (JavaSootClass)
+            classSource.buildClass(classSource.getAnalysisInputLocation().getSourceType());
+    if (bodyCache != null) {
+      theClass.setBodyCache(bodyCache);
+    }
+    return theClass;
+  }
+
+  @Nonnull
+  private JavaSootClass resolveAnnotations(@Nonnull JavaSootClass theClass) {
     if (theClass.getType() instanceof AnnotationType) {
       JavaAnnotationSootClass jasc = (JavaAnnotationSootClass) theClass;
       jasc.getAnnotations(Optional.of(this)).forEach(AnnotationUsage::getValuesWithDefaults);
     }
-
-    return Optional.of(theClass);
+    return theClass;
   }
 }
@@ -0,0 +1,52 @@
+package sootup.java.core.views;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.List;
+import javax.annotation.Nonnull;
+import sootup.core.cache.provider.ConcurrentFullCacheProvider;
+import sootup.core.inputlocation.AnalysisInputLocation;
+
+/**
+ * A view over library classes e.g. the ones of the JDK, that is shared by many {@link JavaView}s,
+ * see {@link JavaView#JavaView(List, SharedLibraryView)}. Each library class and its method bodies
+ * are resolved once and then handed to every view, so they must be treated as read-only.
+ *
+ * <p>The classes are resolved lock-free like in a view with a {@link ConcurrentFullCacheProvider}
+ * and the bodies are converted in the context of this view, hence independent of the views that
+ * use it. The instance is owned by its creator: the classes can be garbage collected as soon as
+ * neither it nor a view using it is reachable anymore.
+ *
+ * <pre>{@code
+ * SharedLibraryView jdk =
+ *     new SharedLibraryView(Collections.singletonList(new JrtFileSystemAnalysisInputLocation()));
+ * JavaView view1 = new JavaView(applicationInputLocations, jdk);
+ * JavaView view2 = new JavaView(otherApplicationInputLocations, jdk);
+ * }</pre>
+ */
+public class SharedLibraryView extends JavaView {
+
+  public SharedLibraryView(@Nonnull List<AnalysisInputLocation> inputLocations) {
+    super(inputLocations, new ConcurrentFullCacheProvider());
+  }
+}
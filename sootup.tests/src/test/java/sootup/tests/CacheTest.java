@@ -1,20 +1,48 @@
 package sootup.tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import sootup.callgraph.CallEdge;
+import sootup.callgraph.CallGraph;
+import sootup.callgraph.ClassHierarchyAnalysisAlgorithm;
+import sootup.core.cache.BodyCache;
+import sootup.core.cache.SegmentedLRUCache;
+import sootup.core.cache.provider.ClassCacheProvider;
+import sootup.core.cache.provider.ConcurrentFullCacheProvider;
 import sootup.core.cache.provider.FullCacheProvider;
 import sootup.core.cache.provider.LRUCacheProvider;
+import sootup.core.cache.provider.SegmentedLRUCacheProvider;
+import sootup.core.cache.provider.SizeBoundedBodyCacheProvider;
+import sootup.core.cache.provider.SoftReferenceBodyCacheProvider;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
 import sootup.core.model.SourceType;
+import sootup.core.signatures.MethodSignature;
 import sootup.core.types.ClassType;
 import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaSootClass;
 import sootup.java.core.views.JavaView;
 
 /**
@@ -75,4 +103,232 @@ public class CacheTest {
     newView.getClasses();
     assertEquals(6, newView.getCachedClassesCount());
   }
+
+  /** Test the {@link sootup.core.cache.SegmentedLRUCache} class */
+  @Test
+  public void segmentedLruCacheTest() {
+    JavaView view = new JavaView(inputLocations, new SegmentedLRUCacheProvider(1));
+    assertEquals(0, view.getCachedClassesCount());
+
+    ClassType miniAppClassType = view.getIdentifierFactory().getClassType("MiniApp");
+    view.getClass(miniAppClassType);
+    assertEquals(1, view.getCachedClassesCount());
+
+    ClassType utilsOperationClassType =
+        view.getIdentifierFactory().getClassType("utils.Operations");
+    view.getClass(utilsOperationClassType);
+    assertEquals(1, view.getCachedClassesCount());
+
+    view.getClasses();
+    assertEquals(1, view.getCachedClassesCount());
+
+    JavaView newView = new JavaView(inputLocations, new SegmentedLRUCacheProvider());
+    newView.getClasses();
+    assertEquals(6, newView.getCachedClassesCount());
+
+    // classes that are accessed repeatedly survive a scan over the remaining classes
+    SegmentedLRUCache cache = new SegmentedLRUCache(10, sootClass -> 2);
+    JavaSootClass miniAppClass = newView.getClass(miniAppClassType).get();
+    JavaSootClass utilsOperationClass = newView.getClass(utilsOperationClassType).get();
+    cache.putClass(miniAppClassType, miniAppClass);
+    cache.putClass(utilsOperationClassType, utilsOperationClass);
+    cache.getClass(miniAppClassType);
+    cache.getClass(utilsOperationClassType);
+    for (JavaSootClass clazz : newView.getClasses()) {
+      cache.putClass(clazz.getType(), clazz);
+    }
+    assertEquals(5, cache.size());
+    assertEquals(10, cache.getWeight());
+    assertTrue(cache.hasClass(miniAppClassType));
+    assertTrue(cache.hasClass(utilsOperationClassType));
+  }
+
+  /** Test the {@link sootup.core.cache.ConcurrentFullCache} class */
+  @Test
+  public void concurrentFullCacheTest() throws Exception {
+    JavaView view = new JavaView(inputLocations, new ConcurrentFullCacheProvider());
+    assertEquals(0, view.getCachedClassesCount());
+
+    ClassType miniAppClassType = view.getIdentifierFactory().getClassType("MiniApp");
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<JavaSootClass>> futures = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        futures.add(executor.submit(() -> view.getClass(miniAppClassType).get()));
+      }
+      JavaSootClass expected = futures.get(0).get();
+      for (Future<JavaSootClass> future : futures) {
+        assertSame(expected, future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(1, view.getCachedClassesCount());
+
+    ClassType unknownClassType = view.getIdentifierFactory().getClassType("does.not.Exist");
+    assertFalse(view.getClass(unknownClassType).isPresent());
+    assertEquals(1, view.getCachedClassesCount());
+
+    view.getClasses();
+    assertEquals(6, view.getCachedClassesCount());
+    assertEquals(6, view.getClasses().size());
+  }
+
+  /** Test loading all classes concurrently with the different class caches */
+  @Test
+  public void parallelGetClassesTest() {
+    AnalysisInputLocation directory =
+        PathBasedAnalysisInputLocation.create(
+            Paths.get("../shared-test-resources/bugfixes/"), SourceType.Application);
+    AnalysisInputLocation shadowedJar =
+        PathBasedAnalysisInputLocation.create(pathToJar, SourceType.Library);
+    List<AnalysisInputLocation> locations =
+        Arrays.asList(inputLocations.get(0), directory, shadowedJar);
+
+    // the classes of the first location that provides a type, in the order of the locations
+    List<ClassType> expectedTypes = new ArrayList<>();
+    JavaView sequentialView = new JavaView(locations);
+    for (AnalysisInputLocation location : locations) {
+      location.getClassSources(sequentialView).stream()
+          .map(src -> src.getClassType())
+          .filter(type -> !expectedTypes.contains(type))
+          .forEach(expectedTypes::add);
+    }
+
+    ForkJoinPool executor = new ForkJoinPool(4);
+    try {
+      for (ClassCacheProvider cacheProvider :
+          Arrays.asList(new FullCacheProvider(), new ConcurrentFullCacheProvider())) {
+        JavaView view = new JavaView(locations, cacheProvider);
+        ClassType miniAppClassType = view.getIdentifierFactory().getClassType("MiniApp");
+        JavaSootClass miniApp = view.getClass(miniAppClassType).get();
+
+        Collection<JavaSootClass> classes = view.getClasses(executor);
+        assertEquals(
+            expectedTypes,
+            classes.stream().map(JavaSootClass::getType).collect(Collectors.toList()));
+        assertEquals(expectedTypes.size(), view.getCachedClassesCount());
+        // already resolved classes are kept and the shadowed jar does not contribute any class
+        assertTrue(classes.contains(miniApp));
+        assertTrue(classes.stream().allMatch(clazz -> clazz.isApplicationClass()));
+        // the cached classes are returned then, in the order of the cache
+        assertEquals(new HashSet<>(classes), new HashSet<>(view.getClasses(executor)));
+      }
+
+      // bounded caches evict classes while they are resolved, also the ones that were cached
+      // before, which are then built again
+      for (ClassCacheProvider cacheProvider :
+          Arrays.asList(
+              new LRUCacheProvider(3), new SegmentedLRUCacheProvider(3, sootClass -> 1))) {
+        JavaView view = new JavaView(locations, cacheProvider);
+        view.getClass(view.getIdentifierFactory().getClassType("MiniApp")).get();
+        for (int run = 0; run < 2; run++) {
+          Collection<JavaSootClass> classes = view.getClasses(executor);
+          assertEquals(
+              expectedTypes,
+              classes.stream().map(JavaSootClass::getType).collect(Collectors.toList()));
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static List<Integer> lineNumbers(Body body) {
+    return body.getStmts().stream()
+        .map(stmt -> stmt.getPositionInfo().getStmtPosition().getFirstLine())
+        .collect(Collectors.toList());
+  }
+
+  /** Test the {@link sootup.core.cache.BodyCache} implementations */
+  @Test
+  public void bodyCacheTest() {
+    JavaView view =
+        new JavaView(inputLocations, new FullCacheProvider(), new SoftReferenceBodyCacheProvider());
+    ClassType miniAppClassType = view.getIdentifierFactory().getClassType("MiniApp");
+    SootMethod method =
+        view.getClass(miniAppClassType).get().getMethods().stream()
+            .filter(SootMethod::isConcrete)
+            .findFirst()
+            .get();
+    Body body = method.getBody();
+    assertSame(body, method.getBody());
+    assertEquals(1, view.getBodyCache().get().size());
+
+    // dropped bodies are rebuilt on the next access, while the class stays cached
+    view.getBodyCache().get().invalidate(method);
+    assertEquals(0, view.getBodyCache().get().size());
+    Body rebuiltBody = method.getBody();
+    assertNotSame(body, rebuiltBody);
+    assertEquals(body.toString(), rebuiltBody.toString());
+    assertEquals(1, view.getCachedClassesCount());
+
+    // the rebuilt body of a method with traps and line numbers has the same positions
+    JavaView trapView =
+        new JavaView(
+            Collections.singletonList(
+                PathBasedAnalysisInputLocation.create(
+                    Paths.get("../shared-test-resources/bugfixes/"), SourceType.Application)),
+            new FullCacheProvider(),
+            new SoftReferenceBodyCacheProvider());
+    ClassType trapClassType =
+        trapView.getIdentifierFactory().getClassType("MissingTrapHandlerAssignment");
+    SootMethod trapMethod =
+        trapView.getClass(trapClassType).get().getMethods().stream()
+            .filter(m -> m.getName().equals("run"))
+            .findFirst()
+            .get();
+    Body trapBody = trapMethod.getBody();
+    assertFalse(trapBody.getTraps().isEmpty());
+    trapView.getBodyCache().get().invalidate(trapMethod);
+    Body rebuiltTrapBody = trapMethod.getBody();
+    assertNotSame(trapBody, rebuiltTrapBody);
+    assertEquals(trapBody.toString(), rebuiltTrapBody.toString());
+    assertEquals(trapBody.getTraps().size(), rebuiltTrapBody.getTraps().size());
+    assertEquals(
+        trapBody.getPosition().getFirstLine(), rebuiltTrapBody.getPosition().getFirstLine());
+    assertEquals(trapBody.getPosition().getLastLine(), rebuiltTrapBody.getPosition().getLastLine());
+    assertEquals(lineNumbers(trapBody), lineNumbers(rebuiltTrapBody));
+    assertTrue(lineNumbers(trapBody).stream().anyMatch(line -> line > 0));
+
+    JavaView boundedView =
+        new JavaView(inputLocations, new FullCacheProvider(), new SizeBoundedBodyCacheProvider(1));
+    SootMethod boundedMethod = boundedView.getMethod(method.getSignature()).get();
+    Body boundedBody = boundedMethod.getBody();
+    assertEquals(0, boundedView.getBodyCache().get().size());
+    // the body is dropped from the cache, but not resolved again as long as it is referenced
+    assertSame(boundedBody, boundedMethod.getBody());
+    boundedView.getBodyCache().get().invalidate(boundedMethod);
+    assertNotSame(boundedBody, boundedMethod.getBody());
+    assertEquals(boundedBody.toString(), boundedMethod.getBody().toString());
+  }
+
+  /** Test that a call graph pins the bodies of its call sites in a {@link BodyCache} */
+  @Test
+  public void callGraphRetainsBodiesTest() {
+    JavaView view =
+        new JavaView(inputLocations, new FullCacheProvider(), new SizeBoundedBodyCacheProvider(1));
+    MethodSignature mainMethod =
+        view.getIdentifierFactory()
+            .parseMethodSignature("<MiniApp: void main(java.lang.String[])>");
+    CallGraph callGraph =
+        new ClassHierarchyAnalysisAlgorithm(view).initialize(Collections.singletonList(mainMethod));
+
+    // every body is dropped from the cache at once, but the call sites stay part of the bodies
+    assertEquals(0, view.getBodyCache().get().size());
+    int callSites = 0;
+    for (MethodSignature method : callGraph.getMethodSignatures()) {
+      for (CallEdge callEdge : callGraph.callEdgesFrom(method)) {
+        Stmt callSite = callEdge.getStmt();
+        if (callSite == null) {
+          continue;
+        }
+        Body body = view.getMethod(method).get().getBody();
+        assertTrue(body.getStmts().stream().anyMatch(stmt -> stmt == callSite));
+        assertTrue(callGraph.getRetainedBodies().stream().anyMatch(retained -> retained == body));
+        callSites++;
+      }
+    }
+    assertTrue(callSites > 0);
+  }
 }
@@ -0,0 +1,87 @@
+package sootup.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.model.SootMethod;
+import sootup.core.model.SourceType;
+import sootup.core.types.ClassType;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.views.JavaView;
+import sootup.java.core.views.SharedLibraryView;
+
+/** Tests sharing the library classes of a {@link SharedLibraryView} among several views. */
+@Tag("Java8")
+public class SharedLibraryViewTest {
+  static Path pathToJar = Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar");
+  static Path pathToApplication = Paths.get("../shared-test-resources/bugfixes/");
+
+  @Test
+  public void testSharedLibraryClasses() {
+    List<AnalysisInputLocation> libraryLocations =
+        Collections.singletonList(
+            PathBasedAnalysisInputLocation.create(pathToJar, SourceType.Library));
+    SharedLibraryView libraryView = new SharedLibraryView(libraryLocations);
+
+    List<AnalysisInputLocation> applicationLocations =
+        Collections.singletonList(
+            PathBasedAnalysisInputLocation.create(pathToApplication, SourceType.Application));
+    JavaView view1 = new JavaView(applicationLocations, libraryView);
+    JavaView view2 = new JavaView(applicationLocations, libraryView);
+    assertSame(libraryView, view1.getLibraryView().get());
+
+    // library classes and their bodies are resolved once and shared
+    ClassType miniAppType = view1.getIdentifierFactory().getClassType("MiniApp");
+    JavaSootClass miniApp = view1.getClass(miniAppType).get();
+    assertTrue(miniApp.isLibraryClass());
+    assertSame(miniApp, view2.getClass(miniAppType).get());
+    SootMethod method = miniApp.getMethods().stream().filter(SootMethod::hasBody).findAny().get();
+    assertSame(method.getBody(), view2.getMethod(method.getSignature()).get().getBody());
+    assertEquals(0, view1.getCachedClassesCount());
+
+    // application classes are resolved per view
+    ClassType indyType = view1.getIdentifierFactory().getClassType("Indy");
+    JavaSootClass indy = view1.getClass(indyType).get();
+    assertTrue(indy.isApplicationClass());
+    assertNotSame(indy, view2.getClass(indyType).get());
+    assertEquals(1, view1.getCachedClassesCount());
+
+    assertFalse(view1.getClass(view1.getIdentifierFactory().getClassType("Missing")).isPresent());
+
+    Collection<JavaSootClass> classes = view1.getClasses();
+    assertEquals(libraryView.getClasses().size() + view1.getCachedClassesCount(), classes.size());
+    assertTrue(classes.contains(miniApp));
+    assertTrue(classes.contains(indy));
+    assertEquals(classes.size(), view1.getClassHeaders().size());
+  }
+
+  @Test
+  public void testApplicationClassesShadowLibraryClasses() {
+    SharedLibraryView libraryView =
+        new SharedLibraryView(
+            Collections.singletonList(
+                PathBasedAnalysisInputLocation.create(pathToJar, SourceType.Library)));
+    JavaView view =
+        new JavaView(
+            Collections.singletonList(
+                PathBasedAnalysisInputLocation.create(pathToJar, SourceType.Application)),
+            libraryView);
+
+    ClassType miniAppType = view.getIdentifierFactory().getClassType("MiniApp");
+    JavaSootClass miniApp = view.getClass(miniAppType).get();
+    assertTrue(miniApp.isApplicationClass());
+    assertNotSame(libraryView.getClass(miniAppType).get(), miniApp);
+
+    Collection<JavaSootClass> classes = view.getClasses();
+    assertEquals(libraryView.getClasses().size(), classes.size());
+    assertTrue(classes.stream().allMatch(JavaSootClass::isApplicationClass));
+  }
+}
@@ -0,0 +1,113 @@
+package sootup.tests.typehierarchy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.IdentifierFactory;
+import sootup.core.frontend.ClassHeader;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.model.SourceType;
+import sootup.core.typehierarchy.DenseTypeHierarchy;
+import sootup.core.typehierarchy.ViewTypeHierarchy;
+import sootup.core.types.ArrayType;
+import sootup.core.types.ClassType;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+
+@Tag("Java8")
+public class DenseTypeHierarchyTest {
+
+  private JavaView view;
+  private ViewTypeHierarchy viewTypeHierarchy;
+  private DenseTypeHierarchy denseTypeHierarchy;
+
+  @BeforeEach
+  public void setup() {
+    String jarFile = "../shared-test-resources/java-miniapps/MiniApp.jar";
+    assertTrue(new File(jarFile).exists(), "File " + jarFile + " not found.");
+    AnalysisInputLocation inputLocation =
+        new JavaClassPathAnalysisInputLocation(jarFile, SourceType.Application);
+    view = new JavaView(inputLocation);
+    viewTypeHierarchy = new ViewTypeHierarchy(view);
+    denseTypeHierarchy = new DenseTypeHierarchy(view);
+  }
+
+  @Test
+  public void sameResultsAsViewTypeHierarchy() {
+    List<ClassType> types =
+        view.getClassHeaders().stream().map(ClassHeader::getType).collect(Collectors.toList());
+    assertFalse(types.isEmpty());
+
+    for (ClassType type : types) {
+      assertTrue(denseTypeHierarchy.contains(type));
+      assertEquals(viewTypeHierarchy.isInterface(type), denseTypeHierarchy.isInterface(type));
+      assertEquals(viewTypeHierarchy.subtypesOf(type), denseTypeHierarchy.subtypesOf(type));
+      assertEquals(
+          viewTypeHierarchy.directSubtypesOf(type), denseTypeHierarchy.directSubtypesOf(type));
+      assertEquals(
+          viewTypeHierarchy.implementedInterfacesOf(type),
+          denseTypeHierarchy.implementedInterfacesOf(type));
+      assertEquals(viewTypeHierarchy.superClassOf(type), denseTypeHierarchy.superClassOf(type));
+      assertEquals(
+          viewTypeHierarchy.superClassesOf(type), denseTypeHierarchy.superClassesOf(type));
+
+      for (ClassType other : types) {
+        assertEquals(
+            viewTypeHierarchy.isSubtype(type, other),
+            denseTypeHierarchy.isSubtype(type, other),
+            other + " <: " + type);
+      }
+    }
+  }
+
+  @Test
+  public void isSubtype() {
+    IdentifierFactory factory = view.getIdentifierFactory();
+    ClassType abstractDataStructure = factory.getClassType("ds.AbstractDataStrcture");
+    ClassType employee = factory.getClassType("ds.Employee");
+    ClassType object = factory.getClassType("java.lang.Object");
+    ClassType iFaceOperations = factory.getClassType("utils.IFaceOperations");
+    ClassType operations = factory.getClassType("utils.Operations");
+
+    assertTrue(denseTypeHierarchy.isSubtype(abstractDataStructure, employee));
+    assertFalse(denseTypeHierarchy.isSubtype(employee, abstractDataStructure));
+    assertFalse(denseTypeHierarchy.isSubtype(employee, employee));
+    assertTrue(denseTypeHierarchy.isSubtype(object, employee));
+    assertTrue(denseTypeHierarchy.isSubtype(iFaceOperations, operations));
+    assertFalse(denseTypeHierarchy.isSubtype(iFaceOperations, employee));
+
+    ArrayType employeeArray = factory.getArrayType(employee, 1);
+    ArrayType abstractDataStructureArray = factory.getArrayType(abstractDataStructure, 1);
+    assertTrue(denseTypeHierarchy.isSubtype(abstractDataStructureArray, employeeArray));
+    assertTrue(denseTypeHierarchy.isSubtype(object, employeeArray));
+  }
+
+  @Test
+  public void subtypesAreCached() {
+    IdentifierFactory factory = view.getIdentifierFactory();
+    ClassType abstractDataStructure = factory.getClassType("ds.AbstractDataStrcture");
+    Set<ClassType> subtypes = denseTypeHierarchy.subtypesOf(abstractDataStructure);
+    assertSame(subtypes, denseTypeHierarchy.subtypesOf(abstractDataStructure));
+    assertThrows(UnsupportedOperationException.class, () -> subtypes.add(abstractDataStructure));
+  }
+
+  @Test
+  public void unknownType() {
+    ClassType unknown = view.getIdentifierFactory().getClassType("does.not.Exist");
+    assertFalse(denseTypeHierarchy.contains(unknown));
+    assertThrows(IllegalArgumentException.class, () -> denseTypeHierarchy.subtypesOf(unknown));
+    assertThrows(IllegalArgumentException.class, () -> denseTypeHierarchy.superClassOf(unknown));
+  }
+
+  @Test
+  public void replacesViewTypeHierarchy() {
+    view.setTypeHierarchy(denseTypeHierarchy);
+    assertSame(denseTypeHierarchy, view.getTypeHierarchy());
+  }
+}